@@ -0,0 +1,19 @@
+package com.minispring.aop;
+
+import com.minispring.aop.framework.MethodInvocation;
+
+/**
+ * 方法拦截器接口（环绕通知）
+ * 包裹目标方法的整个调用过程，由实现者决定何时调用invocation.proceed()
+ * 适用于计时、异常统计等需要同时感知方法开始和结束的场景
+ */
+public interface MethodInterceptor extends Advice {
+
+    /**
+     * 拦截方法调用
+     * @param invocation 方法调用，调用其proceed()继续执行拦截器链
+     * @return 方法的返回值
+     * @throws Throwable 目标方法或拦截器抛出的异常
+     */
+    Object invoke(MethodInvocation invocation) throws Throwable;
+}
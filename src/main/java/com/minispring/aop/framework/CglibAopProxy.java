@@ -2,7 +2,9 @@ package com.minispring.aop.framework;
 
 import com.minispring.aop.AfterReturningAdvice;
 import com.minispring.aop.MethodBeforeAdvice;
+import net.sf.cglib.proxy.Callback;
 import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 
@@ -15,6 +17,18 @@ import java.util.List;
  */
 public class CglibAopProxy implements AopProxy {
     
+    // 原型实例使用的直通回调，直接调用父类方法
+    private static final MethodInterceptor PASS_THROUGH_INTERCEPTOR =
+            (proxy, method, args, methodProxy) -> methodProxy.invokeSuper(proxy, args);
+    
+    // 代理原型缓存，挂在目标类上，目标类和它的类加载器被回收时随之释放
+    private static final ClassValue<Factory> proxyPrototypeCache = new ClassValue<Factory>() {
+        @Override
+        protected Factory computeValue(Class<?> targetClass) {
+            return (Factory) createEnhancer(targetClass, null, PASS_THROUGH_INTERCEPTOR).create();
+        }
+    };
+    
     // 代理配置
     private final AdvisedSupport advised;
     
@@ -42,16 +56,31 @@ public class CglibAopProxy implements AopProxy {
             throw new IllegalStateException("Target class must be available for creating a CGLIB proxy");
         }
         
-        // 创建CGLIB增强器
+        // 同一目标类的代理类只生成一次，之后通过Factory.newInstance创建新实例，跳过字节码生成
+        if (classLoader != null && classLoader != targetClass.getClassLoader()) {
+            // 指定了其他类加载器时不缓存原型，否则原型会让该类加载器和目标类一样长寿；由CGLIB按类加载器复用代理类
+            return createEnhancer(targetClass, classLoader, new CglibMethodInterceptor()).create();
+        }
+        return proxyPrototypeCache.get(targetClass).newInstance(new Callback[] {new CglibMethodInterceptor()});
+    }
+    
+    /**
+     * 创建生成代理类的Enhancer
+     * 代理类只使用一个MethodInterceptor类型的回调，回调实例在创建代理实例时传入，
+     * 因此代理类只由(目标类, 类加载器)决定，可以在所有代理实例间复用
+     * @param targetClass 目标类
+     * @param classLoader 类加载器，为null时使用CGLIB默认的类加载器，即目标类的类加载器
+     * @param callback 回调
+     * @return Enhancer
+     */
+    private static Enhancer createEnhancer(Class<?> targetClass, ClassLoader classLoader, MethodInterceptor callback) {
         Enhancer enhancer = new Enhancer();
         if (classLoader != null) {
             enhancer.setClassLoader(classLoader);
         }
         enhancer.setSuperclass(targetClass);
-        enhancer.setCallback(new CglibMethodInterceptor());
-        
-        // 创建代理实例
-        return enhancer.create();
+        enhancer.setCallback(callback);
+        return enhancer;
     }
     
     /**
@@ -77,11 +106,8 @@ public class CglibAopProxy implements AopProxy {
                     return methodProxy.invoke(target, args);
                 }
                 
-                // 创建方法调用
-                CglibMethodInvocation invocation = new CglibMethodInvocation(target, method, args, methodProxy);
-                
-                // 处理拦截器链
-                return processInterceptors(chain, invocation);
+                // 创建方法调用并执行拦截器链
+                return new CglibMethodInvocation(target, method, args, methodProxy, chain).proceed();
             } finally {
                 if (target != null) {
                     advised.getTargetSource().releaseTarget(target);
@@ -92,52 +118,52 @@ public class CglibAopProxy implements AopProxy {
     
     /**
      * CGLIB方法调用
-     * 扩展ReflectiveMethodInvocation，使用CGLIB的MethodProxy调用目标方法
+     * 扩展ReflectiveMethodInvocation，依次执行拦截器链，最终使用CGLIB的MethodProxy调用目标方法
      */
     private static class CglibMethodInvocation extends ReflectiveMethodInvocation {
         
         private final MethodProxy methodProxy;
         
-        public CglibMethodInvocation(Object target, Method method, Object[] arguments, MethodProxy methodProxy) {
+        // 拦截器链
+        private final List<Object> interceptorsAndAdvices;
+        
+        // 当前执行到的拦截器下标
+        private int currentInterceptorIndex = -1;
+        
+        public CglibMethodInvocation(Object target, Method method, Object[] arguments, MethodProxy methodProxy,
+                                     List<Object> interceptorsAndAdvices) {
             super(target, method, arguments);
             this.methodProxy = methodProxy;
+            this.interceptorsAndAdvices = interceptorsAndAdvices;
         }
         
         @Override
-        protected Object invokeJoinPoint() throws Throwable {
-            return this.methodProxy.invoke(getThis(), getArguments());
-        }
-    }
-    
-    /**
-     * 处理拦截器链
-     * @param chain 拦截器链
-     * @param invocation 方法调用
-     * @return 调用结果
-     * @throws Throwable 如果处理过程中发生异常
-     */
-    private Object processInterceptors(List<Object> chain, ReflectiveMethodInvocation invocation) throws Throwable {
-        Object returnValue = null;
-        
-        // 前置通知处理
-        for (Object advice : chain) {
-            if (advice instanceof MethodBeforeAdvice) {
-                ((MethodBeforeAdvice) advice).before(
-                        invocation.getMethod(), invocation.getArguments(), invocation.getThis());
+        public Object proceed() throws Throwable {
+            // 所有拦截器已执行完毕，调用目标方法
+            if (this.currentInterceptorIndex == this.interceptorsAndAdvices.size() - 1) {
+                return invokeJoinPoint();
             }
-        }
-        
-        // 调用目标方法
-        returnValue = invocation.proceed();
-        
-        // 后置通知处理
-        for (Object advice : chain) {
-            if (advice instanceof AfterReturningAdvice) {
-                ((AfterReturningAdvice) advice).afterReturning(
-                        returnValue, invocation.getMethod(), invocation.getArguments(), invocation.getThis());
+            
+            Object interceptorOrAdvice = this.interceptorsAndAdvices.get(++this.currentInterceptorIndex);
+            if (interceptorOrAdvice instanceof MethodBeforeAdvice) {
+                ((MethodBeforeAdvice) interceptorOrAdvice).before(getMethod(), getArguments(), getThis());
+                return proceed();
+            } else if (interceptorOrAdvice instanceof AfterReturningAdvice) {
+                Object returnValue = proceed();
+                ((AfterReturningAdvice) interceptorOrAdvice).afterReturning(
+                        returnValue, getMethod(), getArguments(), getThis());
+                return returnValue;
+            } else if (interceptorOrAdvice instanceof com.minispring.aop.MethodInterceptor) {
+                // 环绕通知，由拦截器自行决定何时继续调用链
+                return ((com.minispring.aop.MethodInterceptor) interceptorOrAdvice).invoke(this);
+            } else {
+                throw new IllegalStateException("Unknown advice type: " + interceptorOrAdvice.getClass());
             }
         }
         
-        return returnValue;
+        @Override
+        protected Object invokeJoinPoint() throws Throwable {
+            return this.methodProxy.invoke(getThis(), getArguments());
+        }
     }
-} 
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.minispring.aop.framework;
 
 import com.minispring.aop.AfterReturningAdvice;
 import com.minispring.aop.MethodBeforeAdvice;
+import com.minispring.aop.MethodInterceptor;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
@@ -153,6 +154,9 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
                 AfterReturningAdvice afterAdvice = (AfterReturningAdvice) interceptorOrAdvice;
                 afterAdvice.afterReturning(returnValue, getMethod(), getArguments(), getThis());
                 return returnValue;
+            } else if (interceptorOrAdvice instanceof MethodInterceptor) {
+                // 环绕通知，由拦截器自行决定何时继续调用链
+                return ((MethodInterceptor) interceptorOrAdvice).invoke(this);
             } else {
                 throw new IllegalStateException("Unknown advice type: " + interceptorOrAdvice.getClass());
             }
@@ -0,0 +1,235 @@
+package com.minispring.aop.framework.autoproxy;
+
+import com.minispring.aop.Advice;
+import com.minispring.aop.Advisor;
+import com.minispring.aop.ClassFilter;
+import com.minispring.aop.MethodMatcher;
+import com.minispring.aop.Pointcut;
+import com.minispring.aop.PointcutAdvisor;
+import com.minispring.aop.framework.ProxyFactory;
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.BeanFactory;
+import com.minispring.beans.factory.BeanFactoryAware;
+import com.minispring.beans.factory.ConfigurableListableBeanFactory;
+import com.minispring.beans.factory.ListableBeanFactory;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.BeanPostProcessor;
+import com.minispring.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于Advisor的自动代理创建器
+ * 从Bean工厂中发现所有Advisor类型的Bean，为匹配的Bean自动创建AOP代理
+ *
+ * 1. Advisor只在第一次需要时发现一次，并预先为所有BeanDefinition的类型计算出适用的Advisor
+ * 2. 每个Bean类型的匹配结果会被缓存，不匹配的Bean只需一次哈希查找即可跳过
+ * 3. 实现getEarlyBeanReference，循环依赖中提前暴露的引用与最终的Bean是同一个代理对象
+ */
+public class DefaultAdvisorAutoProxyCreator implements SmartInstantiationAwareBeanPostProcessor, BeanFactoryAware {
+
+    // 不需要代理的标记
+    private static final Advisor[] NO_ADVISORS = new Advisor[0];
+
+    private ListableBeanFactory beanFactory;
+
+    // 从Bean工厂中发现的Advisor，发现之前为null
+    private volatile Advisor[] candidateAdvisors;
+
+    // 是否正在发现Advisor，发现过程中创建的Bean不会被代理
+    private boolean discoveringAdvisors = false;
+
+    // Bean类型到适用Advisor的缓存
+    private final Map<Class<?>, Advisor[]> eligibleAdvisorsCache = new ConcurrentHashMap<>(256);
+
+    // 已经暴露过早期引用的Bean，初始化完成后不再重复创建代理
+    private final Map<String, Object> earlyProxyReferences = new ConcurrentHashMap<>(16);
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (!(beanFactory instanceof ListableBeanFactory)) {
+            throw new BeansException("DefaultAdvisorAutoProxyCreator requires a ListableBeanFactory: " + beanFactory);
+        }
+        this.beanFactory = (ListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public Object getEarlyBeanReference(Object bean, String beanName) throws BeansException {
+        this.earlyProxyReferences.put(beanName, bean);
+        return wrapIfNecessary(bean, beanName);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        // 已经通过早期引用创建过代理的Bean直接返回，由Bean工厂替换为早期引用
+        if (this.earlyProxyReferences.remove(beanName) != bean) {
+            return wrapIfNecessary(bean, beanName);
+        }
+        return bean;
+    }
+
+    /**
+     * 如果有适用的Advisor，则为Bean创建代理
+     * @param bean 原始Bean
+     * @param beanName Bean名称
+     * @return 代理对象或原始Bean
+     */
+    protected Object wrapIfNecessary(Object bean, String beanName) {
+        Advisor[] advisors = getEligibleAdvisors(bean.getClass());
+        if (advisors.length == 0) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        for (Advisor advisor : advisors) {
+            proxyFactory.addAdvisor(advisor);
+        }
+        System.out.println("为Bean[" + beanName + "]创建自动代理，Advisor数量: " + advisors.length);
+        return proxyFactory.getProxy();
+    }
+
+    /**
+     * 获取适用于指定类型的Advisor
+     * @param beanClass Bean类型
+     * @return 适用的Advisor，没有时返回空数组
+     */
+    protected Advisor[] getEligibleAdvisors(Class<?> beanClass) {
+        Advisor[] cached = this.eligibleAdvisorsCache.get(beanClass);
+        if (cached != null) {
+            return cached;
+        }
+        if (isInfrastructureClass(beanClass)) {
+            this.eligibleAdvisorsCache.put(beanClass, NO_ADVISORS);
+            return NO_ADVISORS;
+        }
+        Advisor[] candidates = findCandidateAdvisors();
+        if (candidates == null) {
+            // 发现Advisor的过程中创建的Bean，不缓存结果
+            return NO_ADVISORS;
+        }
+        return this.eligibleAdvisorsCache.computeIfAbsent(beanClass, clazz -> computeEligibleAdvisors(clazz, candidates));
+    }
+
+    /**
+     * 发现Bean工厂中的所有Advisor，只执行一次
+     * 发现完成后为所有已注册的BeanDefinition预先计算匹配结果
+     * @return 所有Advisor，正在发现过程中返回null
+     */
+    protected Advisor[] findCandidateAdvisors() {
+        Advisor[] advisors = this.candidateAdvisors;
+        if (advisors != null) {
+            return advisors;
+        }
+        synchronized (this) {
+            if (this.candidateAdvisors != null) {
+                return this.candidateAdvisors;
+            }
+            if (this.discoveringAdvisors) {
+                return null;
+            }
+            if (this.beanFactory == null) {
+                throw new IllegalStateException("BeanFactory must be set before auto-proxying beans");
+            }
+            this.discoveringAdvisors = true;
+            try {
+                advisors = this.beanFactory.getBeansOfType(Advisor.class).values().toArray(new Advisor[0]);
+            } finally {
+                this.discoveringAdvisors = false;
+            }
+            precomputeEligibleAdvisors(advisors);
+            this.candidateAdvisors = advisors;
+            return advisors;
+        }
+    }
+
+    /**
+     * 为Bean工厂中所有BeanDefinition的类型预先计算适用的Advisor
+     */
+    private void precomputeEligibleAdvisors(Advisor[] advisors) {
+        if (!(this.beanFactory instanceof ConfigurableListableBeanFactory)) {
+            return;
+        }
+        ConfigurableListableBeanFactory factory = (ConfigurableListableBeanFactory) this.beanFactory;
+        for (String beanName : factory.getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = factory.getBeanDefinition(beanName);
+            Class<?> beanClass = beanDefinition.getBeanClass();
+            if (beanClass == null || this.eligibleAdvisorsCache.containsKey(beanClass)) {
+                continue;
+            }
+            this.eligibleAdvisorsCache.put(beanClass,
+                    isInfrastructureClass(beanClass) ? NO_ADVISORS : computeEligibleAdvisors(beanClass, advisors));
+        }
+    }
+
+    /**
+     * 计算适用于指定类型的Advisor
+     */
+    private Advisor[] computeEligibleAdvisors(Class<?> beanClass, Advisor[] candidates) {
+        List<Advisor> eligible = new ArrayList<>();
+        for (Advisor advisor : candidates) {
+            if (canApply(advisor, beanClass)) {
+                eligible.add(advisor);
+            }
+        }
+        return eligible.isEmpty() ? NO_ADVISORS : eligible.toArray(new Advisor[0]);
+    }
+
+    /**
+     * 判断Advisor是否适用于指定类型
+     * 与AdvisedSupport的匹配规则一致：类或其接口匹配类过滤器，且至少有一个方法匹配方法匹配器
+     * @param advisor 通知器
+     * @param beanClass Bean类型
+     * @return 如果适用返回true
+     */
+    protected boolean canApply(Advisor advisor, Class<?> beanClass) {
+        if (!(advisor instanceof PointcutAdvisor)) {
+            return true;
+        }
+        Pointcut pointcut = ((PointcutAdvisor) advisor).getPointcut();
+        ClassFilter classFilter = pointcut.getClassFilter();
+        boolean classMatches = classFilter.matches(beanClass);
+        if (!classMatches) {
+            for (Class<?> iface : beanClass.getInterfaces()) {
+                if (classFilter.matches(iface)) {
+                    classMatches = true;
+                    break;
+                }
+            }
+        }
+        if (!classMatches) {
+            return false;
+        }
+        MethodMatcher methodMatcher = pointcut.getMethodMatcher();
+        for (Method method : beanClass.getMethods()) {
+            if (method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            if (methodMatcher.matches(method, beanClass)) {
+                return true;
+            }
+        }
+        for (Class<?> iface : beanClass.getInterfaces()) {
+            for (Method method : iface.getMethods()) {
+                if (methodMatcher.matches(method, iface)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 判断是否为AOP基础设施类，这些类永远不会被代理
+     * @param beanClass Bean类型
+     * @return 如果是基础设施类返回true
+     */
+    protected boolean isInfrastructureClass(Class<?> beanClass) {
+        return Advisor.class.isAssignableFrom(beanClass)
+                || Advice.class.isAssignableFrom(beanClass)
+                || Pointcut.class.isAssignableFrom(beanClass)
+                || BeanPostProcessor.class.isAssignableFrom(beanClass);
+    }
+}
@@ -0,0 +1,148 @@
+package com.minispring.aop.interceptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟直方图
+ * 采用HDR风格的对数-线性分桶：按数值最高位分组，每组再线性细分为32个子桶，
+ * 相对误差约为3%，桶数组在创建时一次性分配，记录时只做原子自增，无锁且不产生对象分配
+ */
+public class LatencyHistogram {
+
+    // 每组子桶数量的位数，32个子桶
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    // 可精确区分的最大数值的最高位，2^48纳秒约78小时，超出的数值计入最后一个桶
+    private static final int MAX_EXPONENT = 47;
+
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    // 各桶计数
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+    // 记录总次数
+    private final LongAdder totalCount = new LongAdder();
+
+    // 数值总和，用于计算平均值
+    private final LongAdder totalValue = new LongAdder();
+
+    // 最大值
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * 记录一个数值
+     * @param value 数值（通常为纳秒），负数按0记录
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        this.buckets.incrementAndGet(bucketIndex(value));
+        this.totalCount.increment();
+        this.totalValue.add(value);
+        long currentMax = this.maxValue.get();
+        while (value > currentMax && !this.maxValue.compareAndSet(currentMax, value)) {
+            currentMax = this.maxValue.get();
+        }
+    }
+
+    /**
+     * 获取记录总次数
+     * @return 记录次数
+     */
+    public long getTotalCount() {
+        return this.totalCount.sum();
+    }
+
+    /**
+     * 获取记录过的最大值
+     * @return 最大值，没有记录时返回0
+     */
+    public long getMaxValue() {
+        return this.maxValue.get();
+    }
+
+    /**
+     * 获取平均值
+     * @return 平均值，没有记录时返回0
+     */
+    public double getMean() {
+        long count = this.totalCount.sum();
+        return count == 0 ? 0.0 : (double) this.totalValue.sum() / count;
+    }
+
+    /**
+     * 获取指定百分位的数值
+     * 返回值为所在桶的上界，且不会超过记录过的最大值
+     * @param percentile 百分位，取值范围0~100
+     * @return 对应的数值，没有记录时返回0
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long count = 0;
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = this.buckets.get(i);
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long threshold = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= threshold) {
+                return Math.min(highestEquivalentValue(i), getMaxValue());
+            }
+        }
+        return getMaxValue();
+    }
+
+    /**
+     * 清空所有记录
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            this.buckets.set(i, 0);
+        }
+        this.totalCount.reset();
+        this.totalValue.reset();
+        this.maxValue.set(0);
+    }
+
+    /**
+     * 计算数值所在的桶下标
+     * 小于2*SUB_BUCKET_COUNT的数值线性映射，其余按最高位分组后取其后的SUB_BUCKET_BITS位作为子桶
+     */
+    static int bucketIndex(long value) {
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent < SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int group = exponent - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKET_COUNT;
+        return group * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * 计算桶所能表示的最大数值
+     */
+    static long highestEquivalentValue(int index) {
+        int group = index / SUB_BUCKET_COUNT;
+        int subBucket = index % SUB_BUCKET_COUNT;
+        if (group == 0) {
+            return subBucket;
+        }
+        return ((long) (subBucket + SUB_BUCKET_COUNT + 1) << (group - 1)) - 1;
+    }
+}
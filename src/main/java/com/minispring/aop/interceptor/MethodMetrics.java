@@ -0,0 +1,101 @@
+package com.minispring.aop.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个方法的运行指标
+ * 包括调用次数、异常次数以及调用耗时的直方图
+ */
+public class MethodMetrics {
+
+    // 被统计的方法
+    private final Method method;
+
+    // 调用次数
+    private final LongAdder callCount = new LongAdder();
+
+    // 抛出异常的次数
+    private final LongAdder errorCount = new LongAdder();
+
+    // 调用耗时直方图，单位纳秒
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * 构造函数
+     * @param method 被统计的方法
+     */
+    public MethodMetrics(Method method) {
+        this.method = method;
+    }
+
+    /**
+     * 记录一次调用
+     * @param elapsedNanos 调用耗时，单位纳秒
+     * @param failed 调用是否抛出了异常
+     */
+    public void record(long elapsedNanos, boolean failed) {
+        this.callCount.increment();
+        if (failed) {
+            this.errorCount.increment();
+        }
+        this.latency.record(elapsedNanos);
+    }
+
+    /**
+     * 获取被统计的方法
+     * @return 方法对象
+     */
+    public Method getMethod() {
+        return this.method;
+    }
+
+    /**
+     * 获取方法的可读名称，格式为 类名.方法名
+     * @return 方法名称
+     */
+    public String getMethodName() {
+        return this.method.getDeclaringClass().getName() + "." + this.method.getName();
+    }
+
+    /**
+     * 获取调用次数
+     * @return 调用次数
+     */
+    public long getCallCount() {
+        return this.callCount.sum();
+    }
+
+    /**
+     * 获取异常次数
+     * @return 异常次数
+     */
+    public long getErrorCount() {
+        return this.errorCount.sum();
+    }
+
+    /**
+     * 获取调用耗时直方图
+     * @return 耗时直方图
+     */
+    public LatencyHistogram getLatency() {
+        return this.latency;
+    }
+
+    /**
+     * 清空统计数据
+     */
+    public void reset() {
+        this.callCount.reset();
+        this.errorCount.reset();
+        this.latency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return getMethodName() + " [calls=" + getCallCount() + ", errors=" + getErrorCount()
+                + ", meanNanos=" + (long) this.latency.getMean()
+                + ", p99Nanos=" + this.latency.getValueAtPercentile(99.0)
+                + ", maxNanos=" + this.latency.getMaxValue() + "]";
+    }
+}
@@ -0,0 +1,35 @@
+package com.minispring.aop.interceptor;
+
+import com.minispring.aop.Pointcut;
+import com.minispring.aop.support.DefaultPointcutAdvisor;
+
+/**
+ * 方法指标切面
+ * 将MethodMetricsInterceptor与切点组合，可通过ProxyFactory添加到任意Bean上
+ */
+public class MethodMetricsAdvisor extends DefaultPointcutAdvisor {
+
+    /**
+     * 创建统计所有方法的切面，使用新的注册表
+     */
+    public MethodMetricsAdvisor() {
+        this(Pointcut.TRUE, new MethodMetricsRegistry());
+    }
+
+    /**
+     * 创建统计匹配切点方法的切面
+     * @param pointcut 切点
+     * @param registry 指标注册表
+     */
+    public MethodMetricsAdvisor(Pointcut pointcut, MethodMetricsRegistry registry) {
+        super(pointcut, new MethodMetricsInterceptor(registry));
+    }
+
+    /**
+     * 获取指标注册表
+     * @return 指标注册表
+     */
+    public MethodMetricsRegistry getRegistry() {
+        return ((MethodMetricsInterceptor) getAdvice()).getRegistry();
+    }
+}
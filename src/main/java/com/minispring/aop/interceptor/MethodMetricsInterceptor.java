@@ -0,0 +1,55 @@
+package com.minispring.aop.interceptor;
+
+import com.minispring.aop.MethodInterceptor;
+import com.minispring.aop.framework.MethodInvocation;
+
+/**
+ * 方法指标拦截器
+ * 环绕目标方法记录调用次数、异常次数和耗时，结果写入MethodMetricsRegistry
+ * 记录过程只有一次哈希查找和若干原子操作，不会为每次调用分配对象
+ */
+public class MethodMetricsInterceptor implements MethodInterceptor {
+
+    // 指标注册表
+    private final MethodMetricsRegistry registry;
+
+    /**
+     * 使用新的注册表创建拦截器
+     */
+    public MethodMetricsInterceptor() {
+        this(new MethodMetricsRegistry());
+    }
+
+    /**
+     * 使用给定的注册表创建拦截器
+     * @param registry 指标注册表
+     */
+    public MethodMetricsInterceptor(MethodMetricsRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("MethodMetricsRegistry must not be null");
+        }
+        this.registry = registry;
+    }
+
+    /**
+     * 获取指标注册表
+     * @return 指标注册表
+     */
+    public MethodMetricsRegistry getRegistry() {
+        return this.registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodMetrics metrics = this.registry.getOrCreate(invocation.getMethod());
+        boolean failed = true;
+        long start = System.nanoTime();
+        try {
+            Object returnValue = invocation.proceed();
+            failed = false;
+            return returnValue;
+        } finally {
+            metrics.record(System.nanoTime() - start, failed);
+        }
+    }
+}
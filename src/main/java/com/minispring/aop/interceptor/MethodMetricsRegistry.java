@@ -0,0 +1,85 @@
+package com.minispring.aop.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 方法指标注册表
+ * 保存各方法的MethodMetrics，可在运行时查询调用最频繁或最慢的方法
+ * 同一个注册表可以被多个拦截器共享
+ */
+public class MethodMetricsRegistry {
+
+    // 方法到指标的映射
+    private final Map<Method, MethodMetrics> metrics = new ConcurrentHashMap<>(64);
+
+    /**
+     * 获取方法对应的指标，不存在则创建
+     * 已存在时只有一次哈希查找，不会产生对象分配
+     * @param method 方法
+     * @return 方法指标
+     */
+    public MethodMetrics getOrCreate(Method method) {
+        MethodMetrics methodMetrics = this.metrics.get(method);
+        if (methodMetrics == null) {
+            methodMetrics = this.metrics.computeIfAbsent(method, MethodMetrics::new);
+        }
+        return methodMetrics;
+    }
+
+    /**
+     * 获取方法对应的指标
+     * @param method 方法
+     * @return 方法指标，方法未被调用过时返回null
+     */
+    public MethodMetrics getMetrics(Method method) {
+        return this.metrics.get(method);
+    }
+
+    /**
+     * 获取所有方法的指标
+     * @return 方法指标集合（只读）
+     */
+    public Map<Method, MethodMetrics> getAllMetrics() {
+        return Collections.unmodifiableMap(this.metrics);
+    }
+
+    /**
+     * 获取调用次数最多的方法
+     * @param limit 返回的最大数量
+     * @return 按调用次数降序排列的方法指标
+     */
+    public List<MethodMetrics> getHottestMethods(int limit) {
+        return topMethods(Comparator.comparingLong(MethodMetrics::getCallCount), limit);
+    }
+
+    /**
+     * 获取指定百分位耗时最长的方法
+     * @param limit 返回的最大数量
+     * @param percentile 百分位，取值范围0~100
+     * @return 按该百分位耗时降序排列的方法指标
+     */
+    public List<MethodMetrics> getSlowestMethods(int limit, double percentile) {
+        return topMethods(Comparator.comparingLong(m -> m.getLatency().getValueAtPercentile(percentile)), limit);
+    }
+
+    /**
+     * 清空所有统计数据
+     */
+    public void reset() {
+        for (MethodMetrics methodMetrics : this.metrics.values()) {
+            methodMetrics.reset();
+        }
+    }
+
+    private List<MethodMetrics> topMethods(Comparator<MethodMetrics> comparator, int limit) {
+        List<MethodMetrics> result = new ArrayList<>(this.metrics.values());
+        result.sort(comparator.reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+}
@@ -239,6 +239,19 @@ public class BeanWrapper {
         }
     }
 
+    /**
+     * 获取被包装对象上简单属性的类型
+     *
+     * @param propertyName 属性名，不支持嵌套属性
+     * @return 属性类型，如果找不到则返回null
+     */
+    public Class<?> getPropertyType(String propertyName) {
+        if (propertyName == null || propertyName.isEmpty() || propertyName.contains(".")) {
+            return null;
+        }
+        return getPropertyType(wrappedClass, propertyName);
+    }
+
     /**
      * 获取属性类型
      *
@@ -24,9 +24,13 @@ public class PropertyValues {
             throw new IllegalArgumentException("PropertyValue不能为null");
         }
         
-        // 移除已存在的同名属性
-        this.propertyValueList.removeIf(existing ->
-                existing.getName().equals(propertyValue.getName()));
+        // 已存在同名属性时原位替换，保持属性的注入顺序
+        for (int i = 0; i < this.propertyValueList.size(); i++) {
+            if (this.propertyValueList.get(i).getName().equals(propertyValue.getName())) {
+                this.propertyValueList.set(i, propertyValue);
+                return;
+            }
+        }
         this.propertyValueList.add(propertyValue);
     }
 
@@ -1,15 +1,19 @@
 package com.minispring.beans;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * 简单类型转换器
@@ -17,6 +21,10 @@ import java.util.function.Function;
  */
 public class SimpleTypeConverter implements TypeConverter {
 
+    /**
+     * 带单位的时间间隔简写
+     */
+    private static final Pattern DURATION_PATTERN = Pattern.compile("([-+]?\\d+)\\s*(ns|us|ms|s|m|h|d)?", Pattern.CASE_INSENSITIVE);
 
     /**
      * 类型转换器
@@ -200,6 +208,22 @@ public class SimpleTypeConverter implements TypeConverter {
             }
         }
 
+        // 时间间隔，支持ISO-8601格式（PT30S）和带单位的简写（500ms、30s、5m、1h、2d），不带单位时按毫秒处理
+        if (requiredType == Duration.class) {
+            return convertToDuration(value.trim());
+        }
+
+        // 枚举按名称转换，名称不区分大小写
+        if (requiredType.isEnum()) {
+            String name = value.trim();
+            for (Object constant : requiredType.getEnumConstants()) {
+                if (((Enum<?>) constant).name().equalsIgnoreCase(name)) {
+                    return constant;
+                }
+            }
+            throw new IllegalArgumentException("枚举 [" + requiredType.getName() + "] 中没有常量 [" + value + "]");
+        }
+
         // 如果目标类型就是String，直接返回
         if (requiredType == String.class) {
             return value;
@@ -209,4 +233,37 @@ public class SimpleTypeConverter implements TypeConverter {
                 " -> " + requiredType.getName());
     }
 
+    /**
+     * 字符串转换为时间间隔
+     * @param value 时间间隔字符串
+     * @return 时间间隔
+     */
+    private Duration convertToDuration(String value) {
+        if (value.startsWith("P") || value.startsWith("-P") || value.startsWith("p") || value.startsWith("-p")) {
+            return Duration.parse(value);
+        }
+        Matcher matcher = DURATION_PATTERN.matcher(value);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("无法将字符串 [" + value + "] 转换为Duration");
+        }
+        long amount = Long.parseLong(matcher.group(1));
+        String unit = matcher.group(2) == null ? "ms" : matcher.group(2).toLowerCase();
+        switch (unit) {
+            case "ns":
+                return Duration.ofNanos(amount);
+            case "us":
+                return Duration.of(amount, ChronoUnit.MICROS);
+            case "ms":
+                return Duration.ofMillis(amount);
+            case "s":
+                return Duration.ofSeconds(amount);
+            case "m":
+                return Duration.ofMinutes(amount);
+            case "h":
+                return Duration.ofHours(amount);
+            default:
+                return Duration.ofDays(amount);
+        }
+    }
+
 }
\ No newline at end of file
@@ -41,6 +41,14 @@ public interface ConfigurableBeanFactory extends HierarchicalBeanFactory{
      * @return 作用域实现，如果未找到则返回null
      */
     Scope getRegisteredScope(String scopeName);
+
+    /**
+     * 获取创建作用域Bean的对象工厂，工厂直接创建Bean实例，不经过作用域
+     * @param beanName Bean名称
+     * @return 对象工厂
+     * @throws BeansException 如果Bean不是作用域Bean
+     */
+    ObjectFactory<?> getScopedObjectFactory(String beanName) throws BeansException;
     /**
      * 获取Bean的类型
      * @param name Bean的名称
@@ -4,6 +4,7 @@ import com.minispring.beans.PropertyValues;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Bean定义
@@ -24,6 +25,21 @@ public class BeanDefinition {
     // 是否需要作用域代理
     private boolean scopedProxy = false;
 
+    // 是否延迟初始化，为null表示没有显式设置，由文档级默认值决定
+    private Boolean lazyInit;
+
+    // 方法覆盖（lookup-method、replaced-method），为空时Bean无需生成子类
+    private MethodOverrides methodOverrides = new MethodOverrides();
+
+    // 实例提供者，设置后直接用它创建实例，不再反射调用构造函数
+    private Supplier<?> instanceSupplier;
+
+    // 属性注入器，设置后直接用它填充属性，不再通过BeanWrapper反射调用setter
+    private BeanPropertyInjector propertyInjector;
+
+    // 属性注入器引用的Bean名称，用于记录依赖关系
+    private String[] injectedBeanNames = new String[0];
+
     // 自定义属性容器
     private final Map<String, Object> attributes = new HashMap<>();
 
@@ -142,6 +158,107 @@ public class BeanDefinition {
     public String getScope() {
         return this.scope;
     }
+
+    /**
+     * 设置是否延迟初始化
+     * 延迟初始化的单例不在容器启动时创建，而是在第一次获取时创建
+     * @param lazyInit 是否延迟初始化
+     */
+    public void setLazyInit(boolean lazyInit) {
+        this.lazyInit = lazyInit;
+    }
+
+    /**
+     * 判断是否延迟初始化
+     * @return 显式设置为延迟初始化时返回true
+     */
+    public boolean isLazyInit() {
+        return this.lazyInit != null && this.lazyInit;
+    }
+
+    /**
+     * 获取延迟初始化设置
+     * @return 没有显式设置时返回null
+     */
+    public Boolean getLazyInit() {
+        return this.lazyInit;
+    }
+
+    /**
+     * 获取方法覆盖集合
+     * @return 方法覆盖集合
+     */
+    public MethodOverrides getMethodOverrides() {
+        return this.methodOverrides;
+    }
+
+    /**
+     * 设置方法覆盖集合
+     * @param methodOverrides 方法覆盖集合
+     */
+    public void setMethodOverrides(MethodOverrides methodOverrides) {
+        this.methodOverrides = methodOverrides != null ? methodOverrides : new MethodOverrides();
+    }
+
+    /**
+     * 判断是否存在方法覆盖
+     * @return 如果存在方法覆盖返回true，此时需要通过CGLIB生成子类实例化
+     */
+    public boolean hasMethodOverrides() {
+        return !this.methodOverrides.isEmpty();
+    }
+
+    /**
+     * 获取实例提供者
+     * @return 实例提供者，没有时返回null
+     */
+    public Supplier<?> getInstanceSupplier() {
+        return this.instanceSupplier;
+    }
+
+    /**
+     * 设置实例提供者
+     * 通常由AOT生成的代码设置，提供者中直接调用构造函数
+     * @param instanceSupplier 实例提供者
+     */
+    public void setInstanceSupplier(Supplier<?> instanceSupplier) {
+        this.instanceSupplier = instanceSupplier;
+    }
+
+    /**
+     * 获取属性注入器
+     * @return 属性注入器，没有时返回null
+     */
+    public BeanPropertyInjector getPropertyInjector() {
+        return this.propertyInjector;
+    }
+
+    /**
+     * 设置属性注入器
+     * 设置后将代替propertyValues填充属性，通常由AOT生成的代码设置
+     * @param propertyInjector 属性注入器
+     */
+    public void setPropertyInjector(BeanPropertyInjector propertyInjector) {
+        this.propertyInjector = propertyInjector;
+    }
+
+    /**
+     * 获取属性注入器引用的Bean名称
+     * @return 引用的Bean名称，没有时返回空数组
+     */
+    public String[] getInjectedBeanNames() {
+        return this.injectedBeanNames;
+    }
+
+    /**
+     * 设置属性注入器引用的Bean名称
+     * 属性注入器直接调用getBean，容器无法得知它引用了哪些Bean；
+     * 注入后按这里的名称记录依赖关系，销毁时先销毁当前Bean，再销毁被引用的Bean
+     * @param injectedBeanNames 引用的Bean名称
+     */
+    public void setInjectedBeanNames(String... injectedBeanNames) {
+        this.injectedBeanNames = injectedBeanNames != null ? injectedBeanNames : new String[0];
+    }
 //
 //    /**
 //     * 设置是否需要作用域代理
@@ -158,31 +275,31 @@ public class BeanDefinition {
 //    public boolean isScopedProxy() {
 //        return this.scopedProxy;
 //    }
-//
-//    /**
-//     * 设置自定义属性
-//     * @param name 属性名
-//     * @param value 属性值
-//     */
-//    public void setAttribute(String name, Object value) {
-//        this.attributes.put(name, value);
-//    }
-//
-//    /**
-//     * 获取自定义属性
-//     * @param name 属性名
-//     * @return 属性值
-//     */
-//    public Object getAttribute(String name) {
-//        return this.attributes.get(name);
-//    }
-//
-//    /**
-//     * 判断是否有指定的自定义属性
-//     * @param name 属性名
-//     * @return 如果存在属性返回true
-//     */
-//    public boolean hasAttribute(String name) {
-//        return this.attributes.containsKey(name);
-//    }
+
+    /**
+     * 设置自定义属性
+     * @param name 属性名
+     * @param value 属性值
+     */
+    public void setAttribute(String name, Object value) {
+        this.attributes.put(name, value);
+    }
+
+    /**
+     * 获取自定义属性
+     * @param name 属性名
+     * @return 属性值
+     */
+    public Object getAttribute(String name) {
+        return this.attributes.get(name);
+    }
+
+    /**
+     * 判断是否有指定的自定义属性
+     * @param name 属性名
+     * @return 如果存在属性返回true
+     */
+    public boolean hasAttribute(String name) {
+        return this.attributes.containsKey(name);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.minispring.beans.factory.config;
+
+import com.minispring.beans.factory.BeanFactory;
+
+/**
+ * Bean属性注入器
+ * 直接调用setter为Bean填充属性，用于代替基于PropertyValues的反射注入
+ * 通常由AOT生成的代码实现
+ */
+@FunctionalInterface
+public interface BeanPropertyInjector {
+
+    /**
+     * 为Bean填充属性
+     * @param bean 已实例化的Bean
+     * @param beanFactory 所属的Bean工厂，用于获取引用的Bean
+     * @throws Exception 填充过程中的异常
+     */
+    void inject(Object bean, BeanFactory beanFactory) throws Exception;
+}
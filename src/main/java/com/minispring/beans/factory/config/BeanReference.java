@@ -5,17 +5,31 @@ package com.minispring.beans.factory.config;
  * 表示对其他Bean的引用，在属性注入和构造函数中注入使用
  * 为解决循环依赖提供支持
  *  如果属性值是一个引用（如 userDao），则使用 BeanReference 表示
+ *  延迟引用注入的是延迟解析代理，被引用的Bean在第一次调用代理方法时才创建
  */
 public class BeanReference {
     private final String beanName;
 
+    private final boolean lazy;
+
     /**
      * 创建一个Bean引用
      *
      * @param beanName 被引用的Bean名称
      */
     public BeanReference(String beanName) {
+        this(beanName, false);
+    }
+
+    /**
+     * 创建一个Bean引用
+     *
+     * @param beanName 被引用的Bean名称
+     * @param lazy 是否注入延迟解析代理
+     */
+    public BeanReference(String beanName, boolean lazy) {
         this.beanName = beanName;
+        this.lazy = lazy;
     }
 
     /**
@@ -27,9 +41,18 @@ public class BeanReference {
         return this.beanName;
     }
 
+    /**
+     * 是否注入延迟解析代理
+     *
+     * @return 延迟引用时返回true
+     */
+    public boolean isLazy() {
+        return this.lazy;
+    }
+
     @Override
     public String toString() {
-        return "对Bean[" + this.beanName + "]的引用";
+        return (this.lazy ? "对Bean[" + this.beanName + "]的延迟引用" : "对Bean[" + this.beanName + "]的引用");
     }
 
 }
@@ -0,0 +1,142 @@
+package com.minispring.beans.factory.config;
+
+import com.minispring.aop.framework.JdkDynamicAopProxy;
+import com.minispring.aop.framework.ProxyFactory;
+import com.minispring.aop.framework.TargetSource;
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.BeanFactory;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.MethodInterceptor;
+import sun.reflect.ReflectionFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+/**
+ * 延迟解析代理工厂
+ * 为延迟引用创建代理，注入时不创建被引用的Bean，第一次调用代理方法时才通过BeanFactory获取，之后一直使用同一个目标对象
+ *
+ * 注入点类型是被引用Bean直接实现的接口时使用JDK动态代理，否则使用CGLIB生成Bean类的子类。
+ * CGLIB代理实例不经过Bean类的构造函数分配（与反序列化相同的方式），注入时不会执行Bean类的构造逻辑，
+ * 也不要求Bean类有无参构造函数
+ */
+public class LazyResolutionProxyFactory {
+
+    // CGLIB代理类的分配构造函数，挂在Bean类型上，Bean类型和它的类加载器被回收时随之释放
+    private static final ClassValue<Constructor<?>> cglibProxyConstructorCache = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> targetClass) {
+            Enhancer enhancer = new Enhancer();
+            enhancer.setSuperclass(targetClass);
+            enhancer.setCallbackType(MethodInterceptor.class);
+            Class<?> proxyClass = enhancer.createClass();
+            try {
+                // 只执行Object的构造函数，Bean类及其父类的构造函数都不执行
+                return ReflectionFactory.getReflectionFactory()
+                        .newConstructorForSerialization(proxyClass, Object.class.getDeclaredConstructor());
+            } catch (NoSuchMethodException ex) {
+                throw new BeansException("无法获取代理类的分配构造函数: " + proxyClass.getName(), ex);
+            }
+        }
+    };
+
+    /**
+     * 创建延迟解析代理
+     * @param beanName 被引用的Bean名称
+     * @param dependencyType 注入点的类型，未知时为null
+     * @param beanClass 被引用Bean的类型，未知时为null
+     * @param beanFactory Bean工厂
+     * @return 延迟解析代理
+     */
+    public static Object createLazyResolutionProxy(String beanName, Class<?> dependencyType, Class<?> beanClass, BeanFactory beanFactory) {
+        Class<?> targetClass = beanClass != null ? beanClass : dependencyType;
+        if (targetClass == null) {
+            throw new IllegalArgumentException("无法确定Bean[" + beanName + "]的延迟解析代理类型");
+        }
+        LazyResolutionTargetSource targetSource = new LazyResolutionTargetSource(beanName, targetClass, beanFactory);
+
+        boolean useJdkProxy;
+        if (dependencyType == null || dependencyType == Object.class) {
+            useJdkProxy = targetClass.getInterfaces().length > 0;
+        } else {
+            useJdkProxy = dependencyType.isInterface() && Arrays.asList(targetClass.getInterfaces()).contains(dependencyType);
+        }
+        System.out.println("为Bean[" + beanName + "]创建延迟解析代理，代理方式: " + (useJdkProxy ? "JDK" : "CGLIB"));
+        if (useJdkProxy) {
+            ProxyFactory proxyFactory = new ProxyFactory();
+            proxyFactory.setTargetSource(targetSource);
+            return new JdkDynamicAopProxy(proxyFactory).getProxy();
+        }
+        return createCglibProxy(beanName, targetClass, targetSource);
+    }
+
+    /**
+     * 生成Bean类的子类并分配实例，不执行构造函数；回调直接设置到实例上
+     */
+    private static Object createCglibProxy(String beanName, Class<?> targetClass, LazyResolutionTargetSource targetSource) {
+        if (Modifier.isFinal(targetClass.getModifiers())) {
+            throw new BeansException("无法为final类[" + targetClass.getName() + "]创建Bean[" + beanName + "]的延迟解析代理，请使用接口类型的注入点");
+        }
+        try {
+            Factory proxy = (Factory) cglibProxyConstructorCache.get(targetClass).newInstance();
+            proxy.setCallback(0, (MethodInterceptor) (obj, method, args, methodProxy) ->
+                    methodProxy.invoke(targetSource.getTarget(), args));
+            return proxy;
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            throw new BeansException("创建Bean[" + beanName + "]的延迟解析代理失败", ex);
+        }
+    }
+
+    /**
+     * 延迟解析目标源
+     * 第一次获取目标时从BeanFactory解析，之后缓存
+     */
+    private static class LazyResolutionTargetSource implements TargetSource {
+        private final String beanName;//被引用的Bean名称
+        private final Class<?> targetClass;//代理的目标类型
+        private final BeanFactory beanFactory;//Bean工厂
+        private volatile Object target;//已解析的目标对象
+
+        LazyResolutionTargetSource(String beanName, Class<?> targetClass, BeanFactory beanFactory) {
+            this.beanName = beanName;
+            this.targetClass = targetClass;
+            this.beanFactory = beanFactory;
+        }
+
+        /**
+         * 返回Bean定义中的类型，不触发Bean的创建
+         */
+        @Override
+        public Class<?> getTargetClass() {
+            return this.targetClass;
+        }
+
+        @Override
+        public boolean isStatic() {
+            return false;
+        }
+
+        @Override
+        public Object getTarget() throws Exception {
+            Object resolved = this.target;
+            if (resolved == null) {
+                synchronized (this) {
+                    resolved = this.target;
+                    if (resolved == null) {
+                        System.out.println("第一次调用延迟解析代理，创建Bean: " + beanName);
+                        resolved = beanFactory.getBean(beanName);
+                        this.target = resolved;
+                    }
+                }
+            }
+            return resolved;
+        }
+
+        @Override
+        public void releaseTarget(Object target) throws Exception {
+            // 目标对象由BeanFactory管理，不需要释放
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.minispring.beans.factory.config;
+
+import java.lang.reflect.Method;
+
+/**
+ * 查找方法覆盖（lookup-method）
+ * 被覆盖的方法每次调用都从容器中获取指定的Bean，常用于单例Bean获取原型Bean
+ */
+public class LookupOverride extends MethodOverride {
+
+    // 要查找的Bean名称，为null时按方法返回类型查找
+    private final String beanName;
+
+    /**
+     * 构造函数
+     * @param methodName 被覆盖的方法名
+     * @param beanName 要查找的Bean名称
+     */
+    public LookupOverride(String methodName, String beanName) {
+        super(methodName);
+        this.beanName = beanName;
+    }
+
+    /**
+     * 获取要查找的Bean名称
+     * @return Bean名称
+     */
+    public String getBeanName() {
+        return this.beanName;
+    }
+
+    /**
+     * 查找方法必须是无参方法
+     */
+    @Override
+    public boolean matches(Method method) {
+        return super.matches(method) && method.getParameterCount() == 0;
+    }
+}
@@ -0,0 +1,41 @@
+package com.minispring.beans.factory.config;
+
+import java.lang.reflect.Method;
+
+/**
+ * 方法覆盖的抽象描述
+ * 表示容器需要在运行时通过子类化覆盖Bean的某个方法，例如lookup-method和replaced-method
+ */
+public abstract class MethodOverride {
+
+    // 被覆盖的方法名
+    private final String methodName;
+
+    /**
+     * 构造函数
+     * @param methodName 被覆盖的方法名
+     */
+    protected MethodOverride(String methodName) {
+        if (methodName == null || methodName.isEmpty()) {
+            throw new IllegalArgumentException("Method name must not be empty");
+        }
+        this.methodName = methodName;
+    }
+
+    /**
+     * 获取被覆盖的方法名
+     * @return 方法名
+     */
+    public String getMethodName() {
+        return this.methodName;
+    }
+
+    /**
+     * 判断给定方法是否被此覆盖描述匹配
+     * @param method 要检查的方法
+     * @return 如果匹配返回true
+     */
+    public boolean matches(Method method) {
+        return this.methodName.equals(method.getName());
+    }
+}
@@ -0,0 +1,54 @@
+package com.minispring.beans.factory.config;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 方法覆盖集合
+ * 保存一个BeanDefinition上的所有方法覆盖，为空时容器无需为Bean生成子类
+ */
+public class MethodOverrides {
+
+    private final List<MethodOverride> overrides = new ArrayList<>();
+
+    /**
+     * 添加方法覆盖
+     * @param override 方法覆盖
+     */
+    public void addOverride(MethodOverride override) {
+        this.overrides.add(override);
+    }
+
+    /**
+     * 获取所有方法覆盖
+     * @return 方法覆盖列表（只读）
+     */
+    public List<MethodOverride> getOverrides() {
+        return Collections.unmodifiableList(this.overrides);
+    }
+
+    /**
+     * 是否没有任何方法覆盖
+     * @return 如果为空返回true
+     */
+    public boolean isEmpty() {
+        return this.overrides.isEmpty();
+    }
+
+    /**
+     * 获取匹配给定方法的覆盖，后添加的覆盖优先
+     * @param method 方法
+     * @return 方法覆盖，没有匹配时返回null
+     */
+    public MethodOverride getOverride(Method method) {
+        for (int i = this.overrides.size() - 1; i >= 0; i--) {
+            MethodOverride override = this.overrides.get(i);
+            if (override.matches(method)) {
+                return override;
+            }
+        }
+        return null;
+    }
+}
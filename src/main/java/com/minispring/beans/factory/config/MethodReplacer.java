@@ -0,0 +1,20 @@
+package com.minispring.beans.factory.config;
+
+import java.lang.reflect.Method;
+
+/**
+ * 方法替换器接口
+ * 配合replaced-method使用，重新实现Bean上被替换的方法
+ */
+public interface MethodReplacer {
+
+    /**
+     * 重新实现给定的方法
+     * @param obj 被替换方法所在的Bean实例
+     * @param method 被替换的方法
+     * @param args 方法参数
+     * @return 方法的返回值
+     * @throws Throwable 方法执行过程中的异常
+     */
+    Object reimplement(Object obj, Method method, Object[] args) throws Throwable;
+}
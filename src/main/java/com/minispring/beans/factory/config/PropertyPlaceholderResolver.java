@@ -1,10 +1,25 @@
 package com.minispring.beans.factory.config;
 
+import com.minispring.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * 属性占位符解析器
  * 用于解析${...}格式的占位符
+ *
+ * 1. 每个字符串只解析一次，编译为由字面量和占位符片段组成的模板并缓存，之后的解析只遍历片段
+ * 2. 支持嵌套占位符，如${db.${env}.url}，键和默认值本身也可以包含占位符
+ * 3. 属性值中的占位符会被递归解析，出现循环引用时抛出IllegalArgumentException
+ * 4. 已解析的属性值按键缓存，属性源变化后需要调用clearCache
  */
 public class PropertyPlaceholderResolver implements PlaceholderResolver{
 
@@ -15,10 +30,30 @@ public class PropertyPlaceholderResolver implements PlaceholderResolver{
     //占位符与默认值的分隔符
     private static final String DEFAULT_VALUE_SEPARATOR = ":";
 
+    /**
+     * 模板缓存的上限，超过后不再缓存新的模板，避免动态拼接的字符串撑大缓存
+     */
+    private static final int MAX_TEMPLATE_CACHE_SIZE = 4096;
+
     private final String placeholderPrefix; // 自定义占位符前缀
     private final String placeholderSuffix;// 自定义占位符后缀
     private final String valueSeparator;// 自定义占位符与默认值的分隔符
-    private final Properties properties;// 属性集合（属性源）
+    private final Function<String, String> propertyLookup;// 属性源
+
+    /**
+     * 无法解析的占位符是否原样保留，为false时抛出异常
+     */
+    private boolean ignoreUnresolvablePlaceholders = true;
+
+    /**
+     * 字符串 -> 编译后的模板
+     */
+    private final Map<String, Template> templateCache = new ConcurrentHashMap<>();
+
+    /**
+     * 属性键 -> 递归解析后的属性值
+     */
+    private final Map<String, String> resolvedValueCache = new ConcurrentHashMap<>();
 
     /**
      * 使用默认的占位符前缀、后缀、分隔符构造一个属性占位符解析器
@@ -27,6 +62,23 @@ public class PropertyPlaceholderResolver implements PlaceholderResolver{
     public PropertyPlaceholderResolver(Properties properties) {
         this(DEFAULT_PLACEHOLDER_PREFIX, DEFAULT_PLACEHOLDER_SUFFIX, DEFAULT_VALUE_SEPARATOR, properties);
     }
+
+    /**
+     * 使用默认的占位符前缀、后缀、分隔符，从Environment中查找属性
+     * @param environment 环境（属性源）
+     */
+    public PropertyPlaceholderResolver(Environment environment) {
+        this(DEFAULT_PLACEHOLDER_PREFIX, DEFAULT_PLACEHOLDER_SUFFIX, DEFAULT_VALUE_SEPARATOR, environment::getProperty);
+    }
+
+    /**
+     * 使用默认的占位符前缀、后缀、分隔符，从任意查找函数中查找属性
+     * @param propertyLookup 属性查找函数，找不到时返回null
+     */
+    public PropertyPlaceholderResolver(Function<String, String> propertyLookup) {
+        this(DEFAULT_PLACEHOLDER_PREFIX, DEFAULT_PLACEHOLDER_SUFFIX, DEFAULT_VALUE_SEPARATOR, propertyLookup);
+    }
+
     /**
      * 使用自定义的占位符前缀、后缀、分隔符构造一个属性占位符解析器
      * @param placeholderPrefix 占位符前缀
@@ -35,78 +87,266 @@ public class PropertyPlaceholderResolver implements PlaceholderResolver{
      * @param properties 属性集合（属性源）
      */
     public PropertyPlaceholderResolver(String placeholderPrefix, String placeholderSuffix, String valueSeparator, Properties properties) {
+        this(placeholderPrefix, placeholderSuffix, valueSeparator, properties::getProperty);
+    }
+
+    /**
+     * 使用自定义的占位符前缀、后缀、分隔符和属性查找函数构造一个属性占位符解析器
+     * @param placeholderPrefix 占位符前缀
+     * @param placeholderSuffix 占位符后缀
+     * @param valueSeparator 占位符与默认值的分隔符，为null时不支持默认值
+     * @param propertyLookup 属性查找函数，找不到时返回null
+     */
+    public PropertyPlaceholderResolver(String placeholderPrefix, String placeholderSuffix, String valueSeparator,
+                                       Function<String, String> propertyLookup) {
         this.placeholderPrefix = placeholderPrefix;
         this.placeholderSuffix = placeholderSuffix;
         this.valueSeparator = valueSeparator;
-        this.properties = properties;
+        this.propertyLookup = propertyLookup;
     }
 
+    /**
+     * 设置无法解析的占位符是否原样保留
+     * @param ignoreUnresolvablePlaceholders 为false时遇到无法解析的占位符抛出IllegalArgumentException
+     */
+    public void setIgnoreUnresolvablePlaceholders(boolean ignoreUnresolvablePlaceholders) {
+        this.ignoreUnresolvablePlaceholders = ignoreUnresolvablePlaceholders;
+    }
 
     /**
-     * 解析占位符
-     * @param value 待解析的占位符
-     * @return 解析后的值
+     * 清空已解析的属性值缓存，属性源变化后调用
      */
+    public void clearCache() {
+        this.resolvedValueCache.clear();
+    }
+
     /**
      * 解析占位符
      *
      * @param value 待解析的属性值
      * @return 解析后的属性值
+     * @throws IllegalArgumentException 占位符循环引用，或不允许保留无法解析的占位符时
      */
     @Override
     public String resolvePlaceholders (String value) {
         if (value == null || value.isEmpty() || !containsPlaceholder(value)) {
             return value;
         }
+        return resolve(getTemplate(value), new HashSet<>());
+    }
+
+    /**
+     * 判断是否包含占位符
+     * @param value 待判断的字符串
+     * @return 是否包含占位符
+     */
+    @Override
+    public boolean containsPlaceholder(String value) {
+        // 如果待判断的字符串为空，或者不包含占位符的前缀和后缀，则返回false
+        return value!=null && value.contains(placeholderPrefix) && value.contains(placeholderSuffix);
+    }
+
+    private Template getTemplate(String text) {
+        Template template = templateCache.get(text);
+        if (template == null) {
+            template = compile(text);
+            if (templateCache.size() < MAX_TEMPLATE_CACHE_SIZE) {
+                templateCache.putIfAbsent(text, template);
+            }
+        }
+        return template;
+    }
 
-        StringBuilder result = new StringBuilder(value);
-        int startIndex = result.indexOf(placeholderPrefix);
+    /**
+     * 把字符串编译为模板
+     */
+    private Template compile(String text) {
+        List<Segment> segments = new ArrayList<>();
+        int literalStart = 0;
+        int startIndex = text.indexOf(placeholderPrefix);
         while (startIndex != -1) {
-            int endIndex = result.indexOf(placeholderSuffix, startIndex + placeholderPrefix.length());
-            if (endIndex != -1) {
-                // 提取占位符内容
-                String placeholder = result.substring(startIndex + placeholderPrefix.length(), endIndex);
-                String defaultValue = null;
-
-                // 检查是否有默认值
-                int separatorIndex = placeholder.indexOf(valueSeparator);
-                if (separatorIndex != -1) {
-                    defaultValue = placeholder.substring(separatorIndex + valueSeparator.length());
-                    placeholder = placeholder.substring(0, separatorIndex);
-                }
+            int endIndex = findPlaceholderEndIndex(text, startIndex);
+            if (endIndex == -1) {
+                // 没有找到结束标记，剩余部分作为字面量
+                break;
+            }
+            if (startIndex > literalStart) {
+                segments.add(new Literal(text.substring(literalStart, startIndex)));
+            }
+            String content = text.substring(startIndex + placeholderPrefix.length(), endIndex);
+            String original = text.substring(startIndex, endIndex + placeholderSuffix.length());
+            int separatorIndex = findSeparatorIndex(content);
+            if (separatorIndex != -1) {
+                segments.add(new Placeholder(original, compile(content.substring(0, separatorIndex)),
+                        compile(content.substring(separatorIndex + valueSeparator.length()))));
+            } else {
+                segments.add(new Placeholder(original, compile(content), null));
+            }
+            literalStart = endIndex + placeholderSuffix.length();
+            startIndex = text.indexOf(placeholderPrefix, literalStart);
+        }
+        if (literalStart < text.length()) {
+            segments.add(new Literal(text.substring(literalStart)));
+        }
+        return new Template(segments);
+    }
 
-                // 查找属性值
-                String propVal = properties.getProperty(placeholder);
-                if (propVal == null && defaultValue != null) {
-                    propVal = defaultValue;
+    /**
+     * 查找与startIndex处前缀匹配的后缀位置，跳过嵌套的占位符
+     */
+    private int findPlaceholderEndIndex(String text, int startIndex) {
+        int index = startIndex + placeholderPrefix.length();
+        int depth = 1;
+        while (index < text.length()) {
+            if (text.startsWith(placeholderSuffix, index)) {
+                if (--depth == 0) {
+                    return index;
                 }
+                index += placeholderSuffix.length();
+            } else if (text.startsWith(placeholderPrefix, index)) {
+                depth++;
+                index += placeholderPrefix.length();
+            } else {
+                index++;
+            }
+        }
+        return -1;
+    }
 
-                if (propVal != null) {
-                    // 替换占位符
-                    result.replace(startIndex, endIndex + placeholderSuffix.length(), propVal);
-                    // 更新下一个查找位置
-                    startIndex = result.indexOf(placeholderPrefix, startIndex + propVal.length());
-                } else {
-                    // 没有找到属性值，保留原占位符
-                    startIndex = result.indexOf(placeholderPrefix, endIndex + placeholderSuffix.length());
-                }
+    /**
+     * 查找不在嵌套占位符中的第一个默认值分隔符
+     */
+    private int findSeparatorIndex(String content) {
+        if (valueSeparator == null || valueSeparator.isEmpty()) {
+            return -1;
+        }
+        int depth = 0;
+        int index = 0;
+        while (index < content.length()) {
+            if (content.startsWith(placeholderPrefix, index)) {
+                depth++;
+                index += placeholderPrefix.length();
+            } else if (depth > 0 && content.startsWith(placeholderSuffix, index)) {
+                depth--;
+                index += placeholderSuffix.length();
+            } else if (depth == 0 && content.startsWith(valueSeparator, index)) {
+                return index;
             } else {
-                // 没有找到结束标记，退出循环
-                break;
+                index++;
             }
         }
+        return -1;
+    }
 
+    /**
+     * 按片段解析模板
+     * @param visiting 当前解析路径上的属性键，用于检测循环引用
+     */
+    private String resolve(Template template, Set<String> visiting) {
+        if (template.literal != null) {
+            return template.literal;
+        }
+        StringBuilder result = new StringBuilder();
+        for (Segment segment : template.segments) {
+            if (segment instanceof Literal) {
+                result.append(((Literal) segment).text);
+                continue;
+            }
+            Placeholder placeholder = (Placeholder) segment;
+            String key = resolve(placeholder.key, visiting);
+            String value = resolveKey(key, visiting);
+            if (value == null && placeholder.defaultValue != null) {
+                value = resolve(placeholder.defaultValue, visiting);
+            }
+            if (value == null) {
+                if (!ignoreUnresolvablePlaceholders) {
+                    throw new IllegalArgumentException("无法解析占位符 '" + key + "'");
+                }
+                // 没有找到属性值，保留原占位符
+                value = placeholder.original;
+            }
+            result.append(value);
+        }
         return result.toString();
     }
 
     /**
-     * 判断是否包含占位符
-     * @param value 待判断的字符串
-     * @return 是否包含占位符
+     * 查找属性并递归解析属性值中的占位符
      */
-    @Override
-    public boolean containsPlaceholder(String value) {
-        // 如果待判断的字符串为空，或者不包含占位符的前缀和后缀，则返回false
-        return value!=null && value.contains(placeholderPrefix) && value.contains(placeholderSuffix);
+    private String resolveKey(String key, Set<String> visiting) {
+        String cached = resolvedValueCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (!visiting.add(key)) {
+            throw new IllegalArgumentException("占位符 '" + key + "' 存在循环引用");
+        }
+        try {
+            String value = propertyLookup.apply(key);
+            if (value == null) {
+                return null;
+            }
+            if (containsPlaceholder(value)) {
+                value = resolve(getTemplate(value), visiting);
+            }
+            resolvedValueCache.put(key, value);
+            return value;
+        } finally {
+            visiting.remove(key);
+        }
+    }
+
+    /**
+     * 编译后的模板，只有一个字面量片段时直接保存字面量
+     */
+    private static final class Template {
+
+        private final List<Segment> segments;
+
+        private final String literal;
+
+        Template(List<Segment> segments) {
+            this.segments = Collections.unmodifiableList(segments);
+            if (segments.isEmpty()) {
+                this.literal = "";
+            } else if (segments.size() == 1 && segments.get(0) instanceof Literal) {
+                this.literal = ((Literal) segments.get(0)).text;
+            } else {
+                this.literal = null;
+            }
+        }
+    }
+
+    private interface Segment {
+    }
+
+    /**
+     * 字面量片段
+     */
+    private static final class Literal implements Segment {
+
+        private final String text;
+
+        Literal(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * 占位符片段，键和默认值都是模板
+     */
+    private static final class Placeholder implements Segment {
+
+        private final String original;
+
+        private final Template key;
+
+        private final Template defaultValue;
+
+        Placeholder(String original, Template key, Template defaultValue) {
+            this.original = original;
+            this.key = key;
+            this.defaultValue = defaultValue;
+        }
     }
 }
@@ -0,0 +1,32 @@
+package com.minispring.beans.factory.config;
+
+/**
+ * 方法替换覆盖（replaced-method）
+ * 被覆盖的方法的调用会委托给容器中的MethodReplacer
+ */
+public class ReplaceOverride extends MethodOverride {
+
+    // MethodReplacer的Bean名称
+    private final String methodReplacerBeanName;
+
+    /**
+     * 构造函数
+     * @param methodName 被覆盖的方法名
+     * @param methodReplacerBeanName MethodReplacer的Bean名称
+     */
+    public ReplaceOverride(String methodName, String methodReplacerBeanName) {
+        super(methodName);
+        if (methodReplacerBeanName == null || methodReplacerBeanName.isEmpty()) {
+            throw new IllegalArgumentException("Method replacer bean name must not be empty");
+        }
+        this.methodReplacerBeanName = methodReplacerBeanName;
+    }
+
+    /**
+     * 获取MethodReplacer的Bean名称
+     * @return Bean名称
+     */
+    public String getMethodReplacerBeanName() {
+        return this.methodReplacerBeanName;
+    }
+}
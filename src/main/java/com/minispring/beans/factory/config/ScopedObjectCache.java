@@ -0,0 +1,142 @@
+package com.minispring.beans.factory.config;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.ObjectFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 作用域对象缓存
+ * 保证同一个名称的对象并发获取时只创建一次：第一个线程负责调用ObjectFactory，其他线程等待它的结果
+ *
+ * 创建期间只登记一个占位的Future，不持有任何锁，其他名称的获取和创建不受影响；
+ * 创建失败时等待的线程得到同样的异常，之后的获取会重新创建
+ */
+public class ScopedObjectCache {
+
+    // 已创建的对象
+    private final Map<String, Object> objects;
+
+    // 正在创建的对象
+    private final Map<String, Creation> creations = new ConcurrentHashMap<>(8);
+
+    public ScopedObjectCache() {
+        this(16);
+    }
+
+    public ScopedObjectCache(int initialCapacity) {
+        this.objects = new ConcurrentHashMap<>(initialCapacity);
+    }
+
+    /**
+     * 获取对象，不存在时创建
+     * @param name 对象名称
+     * @param objectFactory 创建对象的工厂
+     * @return 对象
+     */
+    public Object get(String name, ObjectFactory<?> objectFactory) {
+        Object object = this.objects.get(name);
+        if (object != null) {
+            return object;
+        }
+        Creation creation = new Creation();
+        Creation inFlight = this.creations.putIfAbsent(name, creation);
+        if (inFlight != null) {
+            if (inFlight.thread == Thread.currentThread()) {
+                throw new BeansException("作用域对象[" + name + "]在创建过程中被再次请求，可能存在循环依赖");
+            }
+            return inFlight.await();
+        }
+        try {
+            // 上一个创建者可能刚刚完成
+            object = this.objects.get(name);
+            if (object == null) {
+                object = objectFactory.getObject();
+                if (object == null) {
+                    throw new BeansException("作用域对象[" + name + "]的ObjectFactory返回了null");
+                }
+                this.objects.put(name, object);
+            }
+            creation.future.complete(object);
+            return object;
+        } catch (RuntimeException | Error ex) {
+            creation.future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            this.creations.remove(name, creation);
+        }
+    }
+
+    /**
+     * 获取已创建的对象，不触发创建
+     * @param name 对象名称
+     * @return 对象，不存在时返回null
+     */
+    public Object getIfPresent(String name) {
+        return this.objects.get(name);
+    }
+
+    /**
+     * 移除对象
+     * @param name 对象名称
+     * @return 被移除的对象，不存在时返回null
+     */
+    public Object remove(String name) {
+        return this.objects.remove(name);
+    }
+
+    /**
+     * 仅当对象仍是指定实例时移除
+     * @param name 对象名称
+     * @param object 对象
+     * @return 是否移除
+     */
+    public boolean remove(String name, Object object) {
+        return this.objects.remove(name, object);
+    }
+
+    /**
+     * 获取所有已创建对象的名称
+     * @return 名称集合
+     */
+    public Set<String> names() {
+        return this.objects.keySet();
+    }
+
+    public int size() {
+        return this.objects.size();
+    }
+
+    public void clear() {
+        this.objects.clear();
+    }
+
+    /**
+     * 一次正在进行的创建
+     */
+    private static final class Creation {
+
+        private final Thread thread = Thread.currentThread();
+
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Object await() {
+            try {
+                return this.future.join();
+            } catch (CompletionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new BeansException("创建作用域对象失败", cause);
+            }
+        }
+    }
+}
@@ -1,79 +1,176 @@
 package com.minispring.beans.factory.config;
 
-import com.minispring.aop.framework.ProxyFactory;
 import com.minispring.aop.framework.TargetSource;
 import com.minispring.beans.BeansException;
-import com.minispring.beans.factory.BeanFactory;
 import com.minispring.beans.factory.ConfigurableBeanFactory;
 import com.minispring.beans.factory.ObjectFactory;
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.MethodProxy;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 
 /**
  * 作用域代理工厂
  * 用于创建作用域Bean的代理
+ *
+ * 代理只根据Bean定义中的类型创建，创建代理时不创建目标Bean。
+ * 每次调用代理方法时从作用域中取出当前的目标对象再调用，不经过AOP拦截器链；
+ * 代理类按Bean类型只生成一次，之后只创建新的代理实例
  */
 public class ScopedProxyFactory {
+
+    // CGLIB原型实例使用的直通回调
+    private static final MethodInterceptor PASS_THROUGH_INTERCEPTOR =
+            (proxy, method, args, methodProxy) -> methodProxy.invokeSuper(proxy, args);
+
+    // JDK代理类的构造函数，挂在Bean类型上，Bean类型和它的类加载器被回收时随之释放
+    private static final ClassValue<Constructor<?>> jdkProxyConstructorCache = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> targetClass) {
+            Object proxy = Proxy.newProxyInstance(targetClass.getClassLoader(), targetClass.getInterfaces(),
+                    (p, method, args) -> null);
+            try {
+                return proxy.getClass().getConstructor(InvocationHandler.class);
+            } catch (NoSuchMethodException ex) {
+                throw new BeansException("无法获取代理类的构造函数: " + proxy.getClass().getName(), ex);
+            }
+        }
+    };
+
+    // CGLIB代理原型，挂在Bean类型上，同样不阻止类加载器被回收
+    private static final ClassValue<Factory> cglibProxyPrototypeCache = new ClassValue<Factory>() {
+        @Override
+        protected Factory computeValue(Class<?> targetClass) {
+            Enhancer enhancer = new Enhancer();
+            enhancer.setSuperclass(targetClass);
+            enhancer.setCallback(PASS_THROUGH_INTERCEPTOR);
+            return (Factory) enhancer.create();
+        }
+    };
+
+    /**
+     * 根据Bean定义创建作用域代理，不创建目标Bean
+     * @param targetBeanName 目标Bean的名称
+     * @param beanDefinition 目标Bean的定义
+     * @param beanFactory Bean工厂
+     * @return 作用域Bean的代理
+     */
+    public static Object createScopedProxy(String targetBeanName, BeanDefinition beanDefinition, ConfigurableBeanFactory beanFactory) {
+        if (beanDefinition == null || beanDefinition.getBeanClass() == null) {
+            throw new IllegalArgumentException("无法确定作用域Bean[" + targetBeanName + "]的类型");
+        }
+        return createScopedProxy(beanDefinition.getBeanClass(), targetBeanName, beanDefinition.getScope(), beanFactory);
+    }
+
     /**
      * 创建作用域代理
-     * @param targetBean 目标Bean
+     * @param targetBean 目标Bean，只用于确定代理类型
      * @param targetBeanName 目标Bean的名称
      * @param scopeName 作用域名称
      * @param beanFactory Bean工厂
      * return 作用域Bean的代理
      */
-public static Object createScopedProxy(Object targetBean, String targetBeanName, String scopeName, ConfigurableBeanFactory beanFactory) {
-        if (targetBean==null){
-            //
+    public static Object createScopedProxy(Object targetBean, String targetBeanName, String scopeName, ConfigurableBeanFactory beanFactory) {
+        if (targetBean == null) {
             throw new IllegalArgumentException("targetBean must not be null");
         }
-        //创建代理工厂
-        ProxyFactory proxyFactory = new ProxyFactory();
-        //设置目标源为延迟目标源，每次获取代理对象时都会创建新的目标对象
-//        proxyFactory.setTargetSource(new LazyTargetSource(targetBean.getClass(), targetBeanName, beanFactory));
-        proxyFactory.setTargetSource(new ScopedTargetSource(targetBeanName, scopeName, beanFactory));
-        //设置代理目标类
-        if (targetBean.getClass().getInterfaces().length>0){
-            //实现了接口，则使用JDK动态代理
-            /**
-             * 是否使用 JDK 动态代理或 CGLIB 代理，是由目标类是否实现了接口决定的，Spring 内部会自动选择合适的代理技术。
-             * 选择的逻辑封装在  ProxyFactory 类的 createAopProxy() 方法中，该方法会根据目标类是否实现了接口来选择使用 JDK 动态代理或 CGLIB 代理。
-             */
-            proxyFactory.setTargetClass(targetBean.getClass());
-        }else {
-            //否则使用CGLIB代理
-            proxyFactory.setTargetClass(targetBean.getClass());
+        return createScopedProxy(targetBean.getClass(), targetBeanName, scopeName, beanFactory);
+    }
+
+    /**
+     * 创建作用域代理
+     * 目标类实现了接口时使用JDK动态代理，否则使用CGLIB生成目标类的子类
+     * @param targetClass 目标Bean的类型
+     * @param targetBeanName 目标Bean的名称
+     * @param scopeName 作用域名称
+     * @param beanFactory Bean工厂
+     * @return 作用域Bean的代理
+     */
+    public static Object createScopedProxy(Class<?> targetClass, String targetBeanName, String scopeName, ConfigurableBeanFactory beanFactory) {
+        ScopedTargetSource targetSource = new ScopedTargetSource(targetBeanName, scopeName, targetClass, beanFactory);
+        try {
+            if (targetClass.getInterfaces().length > 0) {
+                return jdkProxyConstructorCache.get(targetClass).newInstance(new ScopedInvocationHandler(targetSource));
+            }
+            return cglibProxyPrototypeCache.get(targetClass).newInstance(new Callback[]{new ScopedMethodInterceptor(targetSource)});
+        } catch (ReflectiveOperationException ex) {
+            throw new BeansException("创建作用域Bean[" + targetBeanName + "]的代理失败", ex);
+        }
+    }
+
+    /**
+     * JDK代理的调用处理器，直接调用当前作用域中的目标对象
+     */
+    private static final class ScopedInvocationHandler implements InvocationHandler {
+
+        private final ScopedTargetSource targetSource;
+
+        ScopedInvocationHandler(ScopedTargetSource targetSource) {
+            this.targetSource = targetSource;
         }
-        //获取代理
-        return proxyFactory.getProxy();
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(this.targetSource.getTarget(), args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
         }
+    }
 
+    /**
+     * CGLIB代理的方法拦截器，直接调用当前作用域中的目标对象
+     */
+    private static final class ScopedMethodInterceptor implements MethodInterceptor {
+
+        private final ScopedTargetSource targetSource;
+
+        ScopedMethodInterceptor(ScopedTargetSource targetSource) {
+            this.targetSource = targetSource;
+        }
+
+        @Override
+        public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+            return methodProxy.invoke(this.targetSource.getTarget(), args);
+        }
+    }
 
         /**
          * 作用域目标源
+         * 第一次调用时解析作用域和创建Bean的对象工厂并缓存，之后每次调用只是一次Scope.get；
+         * 作用域或Bean定义在代理创建之后被替换时，需要重新创建代理
          */
     private static class ScopedTargetSource implements TargetSource {
         private final String targetBeanName;//目标Bean的名称
         private final String scopeName;//作用域名称
+        private final Class<?> targetClass;//目标Bean的类型
         private final ConfigurableBeanFactory beanFactory;//Bean工厂
+        private volatile Scope scope;//已解析的作用域
+        private ObjectFactory<?> objectFactory;//创建目标Bean的对象工厂，在scope之前写入
 
 
-        public ScopedTargetSource(String targetBeanName, String scopeName, ConfigurableBeanFactory beanFactory) {
+        public ScopedTargetSource(String targetBeanName, String scopeName, Class<?> targetClass, ConfigurableBeanFactory beanFactory) {
             this.targetBeanName = targetBeanName;
             this.scopeName = scopeName;
+            this.targetClass = targetClass;
             this.beanFactory = beanFactory;
         }
 
         /**
          * 获取目标类的类型
-         * @return 目标类的类型
+         * @return Bean定义中的类型，不触发Bean的创建
          */
         @Override
         public Class<?> getTargetClass() {
-            try {
-                return beanFactory.getBean(targetBeanName).getClass();
-            }catch (Exception e){
-                // 如果无法获取类型，返回Object.class
-                return Object.class;
-            }
+            return this.targetClass;
         }
 
         /**
@@ -89,35 +186,36 @@ public static Object createScopedProxy(Object targetBean, String targetBeanName,
         /**
          * 获取目标对象
          * @return 目标对象
-         * @throws Exception 获取目标对象时发生异常
          */
         @Override
-        public Object getTarget() throws Exception {
-            //获取作用域
-            Scope scope = beanFactory.getRegisteredScope(this.scopeName);
-            //从作用域中获取目标Bean
-            if (scope == null) {
-                throw new IllegalStateException("No Scope registered for scope name '" + this.scopeName + "'");
+        public Object getTarget() {
+            Scope resolved = this.scope;
+            if (resolved == null) {
+                resolved = resolveScope();
             }
-            //创建对象工厂
-            ObjectFactory<?> objectFactory = new ObjectFactory<Object>() {
-                @Override
-                public Object getObject() throws BeansException {
-                    return beanFactory.getBean(targetBeanName);
-                }
-            };
-            //使用ObjectFactory从作用域中获取目标Bean
-            return scope.get(targetBeanName, objectFactory);
+            //使用缓存的ObjectFactory从作用域中获取目标Bean
+            return resolved.get(this.targetBeanName, this.objectFactory);
+        }
 
+        private synchronized Scope resolveScope() {
+            if (this.scope == null) {
+                //获取作用域
+                Scope registered = beanFactory.getRegisteredScope(this.scopeName);
+                if (registered == null) {
+                    throw new IllegalStateException("No Scope registered for scope name '" + this.scopeName + "'");
+                }
+                this.objectFactory = beanFactory.getScopedObjectFactory(this.targetBeanName);
+                this.scope = registered;
+            }
+            return this.scope;
         }
 
         /**
          * 释放目标对象
          * @param target 目标对象
-         * @throws Exception 释放目标对象时发生异常
          */
         @Override
-        public void releaseTarget(Object target) throws Exception {
+        public void releaseTarget(Object target) {
             // 不需要特别处理，作用域会自行管理对象的生命周期
         }
     }
@@ -3,7 +3,6 @@ package com.minispring.beans.factory.config;
 import com.minispring.beans.BeansException;
 import com.minispring.beans.factory.ObjectFactory;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -13,10 +12,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * Bean默认的作用域，整个应用只有一个Bean实例
  */
 public class SingletonScope implements Scope{
-    //  单例作用域的存储容器，用于存储单例对象
-   private  final Map<String, Object> singletonObjects = new ConcurrentHashMap<>(256);
+    //  单例作用域的存储容器，用于存储单例对象，并发首次获取时只创建一次
+   private  final ScopedObjectCache singletonObjects = new ScopedObjectCache(256);
     // 销毁回调缓存
-    private final Map<String, Runnable> destructionCallbacks = new HashMap<>(16);
+    private final Map<String, Runnable> destructionCallbacks = new ConcurrentHashMap<>(16);
 
     /**
      * 获取单例对象
@@ -26,19 +25,8 @@ public class SingletonScope implements Scope{
      */
     @Override
     public Object get(String name, ObjectFactory<?> objectFactory) {
-        // 从一级缓存中获取
-        Object singletonObject = singletonObjects.get(name);
-        // 如果一级缓存中没有，则调用工厂方法创建对象
-        if (singletonObject == null) {
-            try {
-                singletonObject = objectFactory.getObject();
-                this.singletonObjects.put(name, singletonObject);
-            }catch (Exception e){
-                throw e;//  抛出异常
-            }
-
-        }
-        return singletonObject;
+        // 从一级缓存中获取，没有时由第一个线程调用工厂方法创建，其他线程等待同一个对象
+        return this.singletonObjects.get(name, objectFactory);
     }
     /**
      * 移除单例对象
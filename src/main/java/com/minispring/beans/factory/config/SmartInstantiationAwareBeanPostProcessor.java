@@ -0,0 +1,24 @@
+package com.minispring.beans.factory.config;
+
+import com.minispring.beans.BeansException;
+
+/**
+ * 可参与早期引用暴露的Bean后处理器
+ * 在循环依赖场景下，Bean尚未初始化完成就被其他Bean引用，
+ * 此时通过getEarlyBeanReference提前返回包装后的对象（例如AOP代理），
+ * 保证早期引用与最终放入单例缓存的对象是同一个
+ */
+public interface SmartInstantiationAwareBeanPostProcessor extends BeanPostProcessor {
+
+    /**
+     * 获取Bean的早期引用
+     * 由三级缓存中的单例工厂调用
+     * @param bean 已实例化但尚未填充属性的原始Bean
+     * @param beanName Bean名称
+     * @return 要暴露的早期引用，原始Bean或包装后的Bean
+     * @throws BeansException 处理过程中的异常
+     */
+    default Object getEarlyBeanReference(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+}
@@ -8,7 +8,10 @@ import com.minispring.beans.factory.DisposableBean;
 import com.minispring.beans.factory.InitializingBean;
 import com.minispring.beans.factory.config.BeanDefinition;
 import com.minispring.beans.factory.config.BeanPostProcessor;
+import com.minispring.beans.factory.config.BeanPropertyInjector;
 import com.minispring.beans.factory.config.BeanReference;
+import com.minispring.beans.factory.config.LazyResolutionProxyFactory;
+import com.minispring.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
 //import com.minispring.beans.factory.config.BeanPostProcessor;
 
 
@@ -16,6 +19,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.function.Supplier;
 
 /**
  * 抽象自动装配Bean工厂
@@ -89,6 +93,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     @Override
     protected Object createBean(String beanName, BeanDefinition beanDefinition, Object[] args) throws BeansException {
         Object bean = null;
+        Object exposedObject = null;
         try {
             // 创建Bean实例
             bean = createBeanInstance(beanDefinition, beanName, args);
@@ -108,22 +113,37 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
             applyPropertyValues(beanName, bean, beanDefinition, beanWrapper);
 
             // 执行Bean的初始化方法和BeanPostProcessor的前置和后置处理
-            bean = initializeBean(beanName, bean, beanDefinition);
+            exposedObject = initializeBean(beanName, bean, beanDefinition);
+
+            // 如果Bean被提前暴露过，且初始化过程没有替换Bean，则使用早期引用（可能是代理对象）
+            // 保证循环依赖中其他Bean持有的引用与最终的单例是同一个对象
+            if (beanDefinition.isSingleton()) {
+                Object earlySingletonReference = getSingleton(beanName, false);
+                if (earlySingletonReference != null) {
+                    if (exposedObject == bean) {
+                        exposedObject = earlySingletonReference;
+                    } else if (exposedObject != earlySingletonReference) {
+                        // 早期引用已经注入到其他Bean中，初始化后又被替换，这些Bean持有的不是最终的单例
+                        throw new BeansException("Bean[" + beanName + "]的早期引用已经注入到循环依赖中的其他Bean，"
+                                + "但之后被BeanPostProcessor替换为另一个对象，其他Bean持有的不是最终版本的Bean");
+                    }
+                }
+            }
         } catch (Exception e) {
             throw new BeansException("创建Bean失败: " + beanName, e);
         }
 
-        // 注册销毁方法回调
+        // 注册销毁方法回调，销毁逻辑作用于原始Bean而不是代理
         registerDisposableBeanIfNecessary(beanName, bean, beanDefinition);
 
         // 注册单例Bean
         if (beanDefinition.isSingleton()) {
             // 处理FactoryBean和循环依赖后，最终加入到单例缓存
             // 如果这个Bean被提前暴露过（即解决了循环依赖），这一步会清除三级缓存中的工厂对象
-            registerSingleton(beanName, bean);
+            registerSingleton(beanName, exposedObject);
         }
 
-        return bean;
+        return exposedObject;
     }
 
 
@@ -135,33 +155,35 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      * @return Bean实例
      */
     protected Object createBeanInstance(BeanDefinition beanDefinition, String beanName, Object[] args) {
+        // 有实例提供者时直接使用，不再查找构造函数
+        Supplier<?> instanceSupplier = beanDefinition.getInstanceSupplier();
+        if (instanceSupplier != null && (args == null || args.length == 0) && !beanDefinition.hasMethodOverrides()) {
+            Object instance = instanceSupplier.get();
+            if (instance == null) {
+                throw new BeansException("创建Bean实例失败: " + beanName + "，实例提供者返回null");
+            }
+            return instance;
+        }
+
         Constructor<?> constructorToUse = null; // 声明一个变量，用于存储要使用的构造函数
-        Class<?> beanClass = beanDefinition.getBeanClass();// 获取Bean的Class对象
-        Constructor<?>[] declaredConstructors = beanClass.getDeclaredConstructors();// 获取Bean的构造函数列表
 
         // 如果有构造参数，则查找匹配的构造函数
         if (args != null && args.length > 0) {
-            for (Constructor<?> ctor : declaredConstructors) {
+            Class<?> beanClass = beanDefinition.getBeanClass();// 获取Bean的Class对象
+            for (Constructor<?> ctor : beanClass.getDeclaredConstructors()) {
                 if (ctor.getParameterTypes().length == args.length) {
                     constructorToUse = ctor;
                     break;
                 }
             }
-        } else {
-            try {
-                // 如果没有构造参数，则使用默认构造函数，即获取无参构造函数
-                return beanClass.getDeclaredConstructor().newInstance();
-            } catch (Exception e) {
-                throw new BeansException("创建Bean实例失败: " + beanName, e);
+            if (constructorToUse == null) {
+                throw new BeansException("创建Bean实例失败: " + beanName + "，找不到参数个数为" + args.length + "的构造函数");
             }
         }
 
-        // 使用找到的构造函数创建实例
-        try {
-            return constructorToUse.newInstance(args);
-        } catch (Exception e) {
-            throw new BeansException("创建Bean实例失败: " + beanName, e);
-        }
+        // 交给实例化策略创建实例，没有构造函数时使用默认构造函数
+        // 默认策略只会为配置了方法覆盖的Bean生成CGLIB子类，其余Bean直接调用构造函数
+        return getInstantiationStrategy().instantiate(beanDefinition, beanName, this, constructorToUse, args);
     }
     /**
      * 为Bean设置属性值
@@ -200,6 +222,17 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 //    }
     protected void applyPropertyValues(String beanName, Object bean, BeanDefinition beanDefinition, BeanWrapper beanWrapper) {
         try {
+            // 有属性注入器时由它直接调用setter
+            BeanPropertyInjector propertyInjector = beanDefinition.getPropertyInjector();
+            if (propertyInjector != null) {
+                propertyInjector.inject(bean, this);
+                // 生成的注入器直接调用getBean，依赖关系按Bean定义中声明的名称记录
+                for (String injectedBeanName : beanDefinition.getInjectedBeanNames()) {
+                    registerDependentBean(injectedBeanName, beanName);
+                }
+                return;
+            }
+
             PropertyValues propertyValues = beanDefinition.getPropertyValues();
             if (propertyValues.isEmpty()) {
                 return;
@@ -215,7 +248,11 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
                 // 处理Bean引用
                 if (value instanceof BeanReference) {
                     BeanReference beanReference = (BeanReference) value;
-                    value = getBean(beanReference.getBeanName());
+                    value = beanReference.isLazy()
+                            ? createLazyResolutionProxy(beanReference.getBeanName(), beanWrapper.getPropertyType(name))
+                            : getBean(beanReference.getBeanName());
+                    // 记录依赖关系，销毁时先销毁当前Bean，再销毁被引用的Bean
+                    registerDependentBean(beanReference.getBeanName(), beanName);
                 }
 
                 // 使用BeanWrapper设置属性值
@@ -226,6 +263,27 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
         }
     }
 
+    /**
+     * 为延迟引用创建延迟解析代理
+     * 代理类型取自被引用Bean的定义，创建代理时不会创建被引用的Bean
+     * @param beanName 被引用的Bean名称
+     * @param dependencyType 注入点的类型，未知时为null
+     * @return 延迟解析代理
+     */
+    protected Object createLazyResolutionProxy(String beanName, Class<?> dependencyType) {
+        Class<?> beanClass = null;
+        if (containsBeanDefinition(beanName)) {
+            beanClass = getBeanDefinition(beanName).getBeanClass();
+        } else {
+            Object singleton = getSingleton(beanName);
+            if (singleton != null) {
+                // 已经存在的单例不需要延迟
+                return singleton;
+            }
+        }
+        return LazyResolutionProxyFactory.createLazyResolutionProxy(beanName, dependencyType, beanClass, this);
+    }
+
     /**
      * 初始化Bean
      * @param beanName Bean名称
@@ -368,8 +426,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      * 如果 Bean 配置了自定义销毁方法（通过 XML 配置或注解指定），则通过反射调用该方法。
      */
     protected void registerDisposableBeanIfNecessary(String beanName, Object bean, BeanDefinition beanDefinition) {
-        // 只有单例Bean才需要注册销毁方法
-        if (!beanDefinition.isSingleton()) {
+        // 原型Bean的生命周期由调用方管理，不注册销毁方法
+        if (beanDefinition.isPrototype()) {
             return;
         }
 
@@ -377,7 +435,19 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
                 // 判断Bean是否实现了DisposableBean接口，或者定义了destroy方法
                 (beanDefinition.getDestroyMethodName() != null && !beanDefinition.getDestroyMethodName().isEmpty())) {
             // 创建DisposableBeanAdapter并注册
-            registerDisposableBean(beanName, new DisposableBeanAdapter(bean, beanName, beanDefinition.getDestroyMethodName()));
+            DisposableBeanAdapter adapter = new DisposableBeanAdapter(bean, beanName, beanDefinition.getDestroyMethodName());
+            if (beanDefinition.isSingleton()) {
+                registerDisposableBean(beanName, adapter);
+            } else {
+                // 自定义作用域的Bean在作用域结束时销毁
+                resolveScope(beanName, beanDefinition).registerDestructionCallback(beanName, () -> {
+                    try {
+                        adapter.destroy();
+                    } catch (Exception e) {
+                        throw new BeansException("销毁作用域Bean[" + beanName + "]失败", e);
+                    }
+                });
+            }
         }
     }
 
@@ -392,8 +462,12 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      */
     protected Object getEarlyBeanReference(String beanName, BeanDefinition beanDefinition, Object bean) {
         Object exposedObject = bean;
-        // 这里可以对Bean进行后续处理，比如创建代理对象等
-        // 暂时简单实现，直接返回原始对象
+        // 交给SmartInstantiationAwareBeanPostProcessor处理，例如自动代理创建器会在这里返回代理对象
+        for (BeanPostProcessor processor : getBeanPostProcessors()) {
+            if (processor instanceof SmartInstantiationAwareBeanPostProcessor) {
+                exposedObject = ((SmartInstantiationAwareBeanPostProcessor) processor).getEarlyBeanReference(exposedObject, beanName);
+            }
+        }
         System.out.println("获取Bean[" + beanName + "]的早期引用");
         return exposedObject;
     }
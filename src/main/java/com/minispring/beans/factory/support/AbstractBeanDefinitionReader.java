@@ -1,9 +1,22 @@
 package com.minispring.beans.factory.support;
 
 import com.minispring.beans.BeansException;
-import com.minispring.core.io.DefaultResourceLoader;
+import com.minispring.core.io.PathMatchingResourcePatternResolver;
 import com.minispring.core.io.Resource;
 import com.minispring.core.io.ResourceLoader;
+import com.minispring.core.io.ResourcePatternResolver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * 抽象Bean定义读取器
@@ -16,6 +29,10 @@ public abstract class AbstractBeanDefinitionReader implements BeanDefinitionRead
      */
     private ResourceLoader resourceLoader;//资源加载器
 
+    private boolean parallelLoading = true;//多个资源时是否并行加载
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();//并行解析的最大线程数
+
     /**
      * 构造方法，传入Bean定义注册器和资源加载器
      * @param registry Bean定义注册器
@@ -27,10 +44,11 @@ public abstract class AbstractBeanDefinitionReader implements BeanDefinitionRead
     }
     /**
      * 构造方法，传入Bean定义注册器，使用默认的资源加载器
+     * 默认的资源加载器支持classpath*:和通配符位置
      * @param registry Bean定义注册器
      */
     public AbstractBeanDefinitionReader(BeanDefinitionRegistry registry) {
-      this(registry, new DefaultResourceLoader());//默认使用DefaultResourceLoader
+      this(registry, new PathMatchingResourcePatternResolver());//默认使用基于DefaultResourceLoader的模式解析器
     }
 
     /**
@@ -70,15 +88,113 @@ public abstract class AbstractBeanDefinitionReader implements BeanDefinitionRead
 
 
 
+    /**
+     * 设置是否并行加载多个资源
+     * 开启时，多个资源并行读取和解析，再在调用线程中按声明顺序注册到注册器，覆盖语义与顺序加载相同
+     * @param parallelLoading 是否并行加载，默认开启
+     */
+    public void setParallelLoading(boolean parallelLoading) {
+        this.parallelLoading = parallelLoading;
+    }
+
+    /**
+     * 是否并行加载多个资源
+     * @return 是否并行加载
+     */
+    public boolean isParallelLoading() {
+        return parallelLoading;
+    }
+
+    /**
+     * 设置并行解析的最大线程数
+     * 每次加载使用自己的线程池，线程数不超过资源个数，加载结束后关闭
+     * @param parallelism 最大线程数，小于2时顺序加载，默认为CPU核数
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 从资源中加载Bean定义到当前读取器的注册器
+     * @param resource Bean定义资源
+     * @throws BeansException 如果加载Bean定义时发生异常
+     */
+    @Override
+    public void loadBeanDefinitions(Resource resource) throws BeansException {
+        loadBeanDefinitions(resource, getRegistry());
+    }
+
+    /**
+     * 从资源中加载Bean定义到指定的注册器
+     * @param resource Bean定义资源
+     * @param registry 目标注册器
+     * @throws BeansException 如果加载Bean定义时发生异常
+     */
+    protected abstract void loadBeanDefinitions(Resource resource, BeanDefinitionRegistry registry) throws BeansException;
+
+    /**
+     * 解析资源，返回把解析结果注册到注册器的操作
+     * 并行加载时在解析线程中调用，不能访问任何注册器；命名空间处理器、组件扫描等注册逻辑都要放在返回的操作中，
+     * 由调用线程按资源的声明顺序对真实的注册器执行，因此能看到之前资源注册的Bean定义
+     * 默认不预先解析，读取和注册都在返回的操作中完成
+     * @param resource Bean定义资源
+     * @return 注册解析结果的操作
+     * @throws BeansException 如果读取或解析资源时发生异常
+     */
+    protected Consumer<BeanDefinitionRegistry> parseResource(Resource resource) throws BeansException {
+        return registry -> loadBeanDefinitions(resource, registry);
+    }
+
     /**
      * 加载Bean定义
+     * 多个资源且开启并行加载时，各资源在专用的有界线程池中并行读取和解析，然后在调用线程中按声明顺序注册：
+     * 后面的资源覆盖前面资源中的同名定义，某个资源解析失败时，它之前的资源照常注册，然后抛出该资源的异常
      * @param resources Bean定义资源数组
-     * @throws Exception 如果加载Bean定义时发生异常
+     * @throws BeansException 如果加载Bean定义时发生异常
      */
     @Override
     public void loadBeanDefinitions(Resource... resources) throws BeansException {
-        for (Resource resource : resources){//遍历资源数组
-            loadBeanDefinitions(resource);//加载Bean定义
+        if (!parallelLoading || resources.length < 2 || parallelism < 2) {
+            for (Resource resource : resources){//遍历资源数组
+                loadBeanDefinitions(resource);//加载Bean定义
+            }
+            return;
+        }
+
+        // 解析线程沿用调用线程的上下文类加载器，保证类名解析结果与顺序加载一致
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, resources.length),
+                new LoaderThreadFactory(Thread.currentThread().getContextClassLoader()));
+        try {
+            List<Future<Consumer<BeanDefinitionRegistry>>> futures = new ArrayList<>(resources.length);
+            for (Resource resource : resources) {
+                futures.add(executor.submit(() -> parseResource(resource)));
+            }
+            for (Future<Consumer<BeanDefinitionRegistry>> future : futures) {
+                Consumer<BeanDefinitionRegistry> registration;
+                try {
+                    registration = future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof BeansException) {
+                        throw (BeansException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new BeansException("加载Bean定义失败", cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BeansException("加载Bean定义时被中断", e);
+                }
+                registration.accept(getRegistry());
+            }
+        } finally {
+            // 出错时不再等待其余资源的解析
+            executor.shutdownNow();
         }
     }
 
@@ -89,21 +205,62 @@ public abstract class AbstractBeanDefinitionReader implements BeanDefinitionRead
      */
     @Override
     public void loadBeanDefinitions(String location) throws BeansException {
-        Resource resource = getResourceLoader().getResource(location);
-        loadBeanDefinitions(resource);
+        loadBeanDefinitions(resolveResources(location));
+
+    }
 
+    /**
+     * 把位置解析为资源
+     * 资源加载器是ResourcePatternResolver时支持classpath*:和通配符，一个位置可以对应多个资源
+     * @param location Bean定义资源位置
+     * @return 资源数组
+     * @throws BeansException 遍历目录或jar失败时抛出
+     */
+    public Resource[] resolveResources(String location) throws BeansException {
+        if (!(resourceLoader instanceof ResourcePatternResolver)) {
+            return new Resource[]{resourceLoader.getResource(location)};
+        }
+        try {
+            return ((ResourcePatternResolver) resourceLoader).getResources(location);
+        } catch (IOException e) {
+            throw new BeansException("解析资源位置失败 [" + location + "]", e);
+        }
     }
 
     /**
      * 加载Bean定义
+     * 位置在调用线程中解析为资源，再交给多资源加载
      * @param locations Bean定义资源位置数组
      * @throws Exception 如果加载Bean定义时发生异常
      */
     @Override
     public void loadBeanDefinitions(String... locations) throws BeansException {
-        for (String location : locations){
-            loadBeanDefinitions(location);
+        List<Resource> resources = new ArrayList<>();
+        for (String location : locations) {
+            resources.addAll(Arrays.asList(resolveResources(location)));
         }
+        loadBeanDefinitions(resources.toArray(new Resource[0]));
     }
 
+    /**
+     * 解析线程工厂，创建使用指定上下文类加载器的守护线程
+     */
+    private static final class LoaderThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger threadNumber = new AtomicInteger();
+
+        private final ClassLoader contextClassLoader;
+
+        LoaderThreadFactory(ClassLoader contextClassLoader) {
+            this.contextClassLoader = contextClassLoader;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "bean-definition-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(this.contextClassLoader);
+            return thread;
+        }
+    }
 }
@@ -5,10 +5,13 @@ import com.minispring.beans.factory.BeanFactory;
 import com.minispring.beans.factory.ObjectFactory;
 import com.minispring.beans.factory.config.BeanDefinition;
 import com.minispring.beans.factory.config.BeanPostProcessor;
+import com.minispring.beans.factory.config.Scope;
 //import com.minispring.beans.factory.config.BeanPostProcessor;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 抽象Bean工厂
@@ -27,6 +30,17 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
     /** BeanPostProcessor列表 */
     private final List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
 
+    /**
+     * 作用域容器
+     */
+    private final Map<String, Scope> scopes = new ConcurrentHashMap<>(8);
+
+    /**
+     * Bean名称 -> 已解析的作用域，避免每次获取自定义作用域的Bean都按名称查找作用域
+     * 注册作用域时清空，Bean定义被替换或作用域名称变化时按需重新解析
+     */
+    private final Map<String, ScopeBinding> resolvedScopes = new ConcurrentHashMap<>(16);
+
     /**
      * 获取Bean的实际实现
      * 获取Bean的模板方法
@@ -127,15 +141,107 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
                 }
             });
             System.out.println("创建并缓存单例Bean: " + name);
-        } else {
+        } else if (beanDefinition.isPrototype()) {
             // 对于原型Bean，直接创建新实例
             bean = createBean(name, beanDefinition, args);
             System.out.println("创建原型Bean: " + name);
+        } else {
+            // 其他作用域交给注册的Scope管理，同一个作用域实例内只创建一次
+            ScopeBinding binding = resolveScopeBinding(name, beanDefinition);
+            // 没有构造参数时复用绑定中的对象工厂，不为每次获取分配新的工厂
+            bean = binding.scope.get(name, args == null ? binding.objectFactory : () -> createBean(name, beanDefinition, args));
         }
 
         return (T) bean;
     }
 
+    /**
+     * 注册作用域
+     * @param scopeName 作用域名称
+     * @param scope 作用域
+     */
+    public void registerScope(String scopeName, Scope scope) {
+        if (scopeName == null || scope == null) {
+            throw new IllegalArgumentException("作用域名称和作用域都不能为空");
+        }
+        this.scopes.put(scopeName, scope);
+        this.resolvedScopes.clear();
+    }
+
+    /**
+     * 获取指定名称的Scope
+     *
+     * @param scopeName Scope名称
+     * @return Scope实例，没有注册时返回null
+     */
+    public Scope getRegisteredScope(String scopeName) {
+        return this.scopes.get(scopeName);
+    }
+
+    /**
+     * 解析Bean定义对应的作用域，结果按Bean名称缓存
+     * @param beanName Bean名称
+     * @param beanDefinition Bean定义
+     * @return 作用域
+     * @throws BeansException 作用域没有注册时
+     */
+    protected Scope resolveScope(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        return resolveScopeBinding(beanName, beanDefinition).scope;
+    }
+
+    private ScopeBinding resolveScopeBinding(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        String scopeName = beanDefinition.getScope();
+        ScopeBinding binding = this.resolvedScopes.get(beanName);
+        if (binding != null && binding.beanDefinition == beanDefinition && binding.scopeName.equals(scopeName)) {
+            return binding;
+        }
+        Scope scope = scopeName != null ? this.scopes.get(scopeName) : null;
+        if (scope == null) {
+            throw new BeansException("Bean[" + beanName + "]的作用域[" + scopeName + "]没有注册");
+        }
+        binding = new ScopeBinding(beanDefinition, scopeName, scope,
+                () -> createBean(beanName, beanDefinition, null));
+        this.resolvedScopes.put(beanName, binding);
+        return binding;
+    }
+
+    /**
+     * 获取创建作用域Bean的对象工厂
+     * 工厂直接创建Bean实例，不经过作用域，供作用域代理调用Scope.get时使用；
+     * 同一个Bean定义返回同一个工厂实例
+     * @param beanName Bean名称
+     * @return 对象工厂
+     * @throws BeansException Bean不是作用域Bean或作用域没有注册时
+     */
+    public ObjectFactory<?> getScopedObjectFactory(String beanName) throws BeansException {
+        BeanDefinition beanDefinition = getBeanDefinition(beanName);
+        if (beanDefinition.isSingleton() || beanDefinition.isPrototype()) {
+            throw new BeansException("Bean[" + beanName + "]不是作用域Bean: " + beanDefinition.getScope());
+        }
+        return resolveScopeBinding(beanName, beanDefinition).objectFactory;
+    }
+
+    /**
+     * Bean定义与其作用域的绑定，以及创建该Bean的对象工厂
+     */
+    private static final class ScopeBinding {
+
+        private final BeanDefinition beanDefinition;
+
+        private final String scopeName;
+
+        private final Scope scope;
+
+        private final ObjectFactory<Object> objectFactory;
+
+        ScopeBinding(BeanDefinition beanDefinition, String scopeName, Scope scope, ObjectFactory<Object> objectFactory) {
+            this.beanDefinition = beanDefinition;
+            this.scopeName = scopeName;
+            this.scope = scope;
+            this.objectFactory = objectFactory;
+        }
+    }
+
     /**
      * 判断是否包含指定名称的BeanDefinition
      * @param beanName Bean名称
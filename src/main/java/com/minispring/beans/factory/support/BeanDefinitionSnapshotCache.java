@@ -0,0 +1,362 @@
+package com.minispring.beans.factory.support;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.PropertyValue;
+import com.minispring.beans.PropertyValues;
+import com.minispring.beans.factory.ConfigurableListableBeanFactory;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.BeanReference;
+import com.minispring.beans.factory.config.LookupOverride;
+import com.minispring.beans.factory.config.MethodOverride;
+import com.minispring.beans.factory.config.ReplaceOverride;
+import com.minispring.core.io.Resource;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bean定义二进制快照缓存
+ * 把解析后的Bean定义（类名、属性值、引用、作用域、延迟初始化、初始化和销毁方法、方法覆盖）写入紧凑的二进制文件，
+ * 快照以所有配置资源内容的SHA-256摘要为键，下次启动时资源没有变化则直接内存映射读取快照，跳过XML解析
+ *
+ * 1. 快照的魔数、版本或资源摘要任一不匹配，或读取过程中出现任何异常，都视为失效，调用方回退到解析XML
+ * 2. 读取时先把所有Bean定义解析到临时列表，全部成功后才注册，失效时不会留下部分Bean定义
+ * 3. 写入先写临时文件再原子替换，并发启动的进程不会读到写了一半的快照
+ * 4. 属性值只支持字符串和Bean引用，存在其他类型的值（例如命名空间处理器设置的对象）时不写快照
+ * 5. 快照的键只覆盖配置资源本身，存在来自其他输入的Bean定义（例如组件扫描得到的类）时不写快照，
+ *    否则增删或重命名组件类后仍会加载过期的快照
+ */
+public class BeanDefinitionSnapshotCache {
+
+    /**
+     * Bean定义属性：Bean定义来自配置资源以外的输入，值为该输入的描述（例如组件类名）
+     * 快照的键无法反映这些输入的变化，存在带有该属性的Bean定义时不写快照
+     */
+    public static final String EXTERNAL_SOURCE_ATTRIBUTE = BeanDefinitionSnapshotCache.class.getName() + ".externalSource";
+
+    // 文件魔数："MSBD"
+    private static final int MAGIC = 0x4D534244;
+
+    // 格式版本，格式变化时递增
+    private static final int VERSION = 3;
+
+    private static final byte VALUE_NULL = 0;
+
+    private static final byte VALUE_STRING = 1;
+
+    private static final byte VALUE_REFERENCE = 2;
+
+    private static final byte VALUE_LAZY_REFERENCE = 3;
+
+    private static final byte LAZY_INIT_DEFAULT = 0;
+
+    private static final byte LAZY_INIT_FALSE = 1;
+
+    private static final byte LAZY_INIT_TRUE = 2;
+
+    private static final byte OVERRIDE_LOOKUP = 1;
+
+    private static final byte OVERRIDE_REPLACE = 2;
+
+    // 快照文件
+    private final Path snapshotFile;
+
+    /**
+     * 构造函数
+     * @param snapshotFile 快照文件路径
+     */
+    public BeanDefinitionSnapshotCache(Path snapshotFile) {
+        if (snapshotFile == null) {
+            throw new IllegalArgumentException("快照文件路径不能为空");
+        }
+        this.snapshotFile = snapshotFile;
+    }
+
+    public Path getSnapshotFile() {
+        return this.snapshotFile;
+    }
+
+    /**
+     * 尝试从快照加载Bean定义
+     * @param resources 配置资源，用于校验快照是否仍然有效
+     * @param registry Bean定义注册表
+     * @return 加载成功返回true；快照不存在或失效返回false，此时注册表不会被修改
+     */
+    public boolean load(Resource[] resources, BeanDefinitionRegistry registry) {
+        if (!Files.isRegularFile(this.snapshotFile)) {
+            return false;
+        }
+        try {
+            byte[] expectedKey = computeKey(resources);
+            Map<String, BeanDefinition> beanDefinitions;
+            try (FileChannel channel = FileChannel.open(this.snapshotFile, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                beanDefinitions = read(buffer, expectedKey);
+            }
+            if (beanDefinitions == null) {
+                System.out.println("Bean定义快照已失效，重新解析配置: " + this.snapshotFile);
+                return false;
+            }
+            for (Map.Entry<String, BeanDefinition> entry : beanDefinitions.entrySet()) {
+                registry.registerBeanDefinition(entry.getKey(), entry.getValue());
+            }
+            System.out.println("从快照 [" + this.snapshotFile + "] 加载了" + beanDefinitions.size() + "个Bean定义");
+            return true;
+        } catch (Exception e) {
+            // 快照损坏、类找不到等任何问题都回退到解析XML
+            System.out.println("读取Bean定义快照失败，重新解析配置: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * 把Bean工厂中的Bean定义写入快照
+     * @param resources 配置资源，其摘要作为快照的键
+     * @param beanFactory 已加载Bean定义的Bean工厂
+     * @return 写入成功返回true；存在无法序列化或来自其他输入的Bean定义，或写入失败时返回false
+     */
+    public boolean write(Resource[] resources, ConfigurableListableBeanFactory beanFactory) {
+        String[] beanNames = beanFactory.getBeanDefinitionNames();
+        for (String beanName : beanNames) {
+            Object externalSource = beanFactory.getBeanDefinition(beanName).getAttribute(EXTERNAL_SOURCE_ATTRIBUTE);
+            if (externalSource != null) {
+                System.out.println("Bean[" + beanName + "]来自配置资源以外的输入[" + externalSource + "]，跳过Bean定义快照");
+                return false;
+            }
+            if (!isSupported(beanFactory.getBeanDefinition(beanName))) {
+                System.out.println("Bean[" + beanName + "]包含无法写入快照的属性值，跳过Bean定义快照");
+                return false;
+            }
+        }
+        Path tempFile = null;
+        try {
+            byte[] key = computeKey(resources);
+            Path directory = this.snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            tempFile = Files.createTempFile(directory, this.snapshotFile.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeInt(beanNames.length);
+                for (String beanName : beanNames) {
+                    writeString(out, beanName);
+                    writeBeanDefinition(out, beanFactory.getBeanDefinition(beanName));
+                }
+            }
+            Files.move(tempFile, this.snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("写入Bean定义快照: " + this.snapshotFile);
+            return true;
+        } catch (IOException e) {
+            System.out.println("写入Bean定义快照失败: " + e);
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                    // 临时文件删除失败不影响启动
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 计算所有资源内容的摘要
+     * 资源的描述和内容都参与计算，资源顺序变化也会使快照失效
+     */
+    protected byte[] computeKey(Resource[] resources) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+        byte[] buffer = new byte[8192];
+        for (Resource resource : resources) {
+            digest.update(resource.getDescription().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (InputStream inputStream = resource.getInputStream()) {
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            digest.update((byte) 0);
+        }
+        return digest.digest();
+    }
+
+    private static boolean isSupported(BeanDefinition beanDefinition) {
+        if (beanDefinition.getBeanClass() == null
+                || beanDefinition.getInstanceSupplier() != null
+                || beanDefinition.getPropertyInjector() != null) {
+            return false;
+        }
+        for (PropertyValue propertyValue : beanDefinition.getPropertyValues().getPropertyValues()) {
+            Object value = propertyValue.getValue();
+            if (value != null && !(value instanceof String) && !(value instanceof BeanReference)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeBeanDefinition(DataOutputStream out, BeanDefinition beanDefinition) throws IOException {
+        writeString(out, beanDefinition.getBeanClass().getName());
+        writeString(out, beanDefinition.getScope());
+        writeString(out, beanDefinition.getInitMethodName());
+        writeString(out, beanDefinition.getDestroyMethodName());
+        Boolean lazyInit = beanDefinition.getLazyInit();
+        out.writeByte(lazyInit == null ? LAZY_INIT_DEFAULT : (lazyInit ? LAZY_INIT_TRUE : LAZY_INIT_FALSE));
+
+        PropertyValue[] propertyValues = beanDefinition.getPropertyValues().getPropertyValues();
+        out.writeInt(propertyValues.length);
+        for (PropertyValue propertyValue : propertyValues) {
+            writeString(out, propertyValue.getName());
+            Object value = propertyValue.getValue();
+            if (value instanceof BeanReference) {
+                out.writeByte(((BeanReference) value).isLazy() ? VALUE_LAZY_REFERENCE : VALUE_REFERENCE);
+                writeString(out, ((BeanReference) value).getBeanName());
+            } else if (value != null) {
+                out.writeByte(VALUE_STRING);
+                writeString(out, (String) value);
+            } else {
+                out.writeByte(VALUE_NULL);
+            }
+        }
+
+        List<MethodOverride> overrides = beanDefinition.getMethodOverrides().getOverrides();
+        out.writeInt(overrides.size());
+        for (MethodOverride override : overrides) {
+            if (override instanceof LookupOverride) {
+                out.writeByte(OVERRIDE_LOOKUP);
+                writeString(out, override.getMethodName());
+                writeString(out, ((LookupOverride) override).getBeanName());
+            } else {
+                out.writeByte(OVERRIDE_REPLACE);
+                writeString(out, override.getMethodName());
+                writeString(out, ((ReplaceOverride) override).getMethodReplacerBeanName());
+            }
+        }
+    }
+
+    /**
+     * 读取快照
+     * @return Bean定义，快照与期望的键不匹配时返回null
+     */
+    private static Map<String, BeanDefinition> read(ByteBuffer buffer, byte[] expectedKey) throws ClassNotFoundException {
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        byte[] key = new byte[buffer.getInt()];
+        buffer.get(key);
+        if (!Arrays.equals(key, expectedKey)) {
+            return null;
+        }
+        int count = buffer.getInt();
+        Map<String, BeanDefinition> beanDefinitions = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String beanName = readString(buffer);
+            beanDefinitions.put(beanName, readBeanDefinition(buffer));
+        }
+        if (buffer.hasRemaining()) {
+            throw new BeansException("Bean定义快照包含多余的数据");
+        }
+        return beanDefinitions;
+    }
+
+    private static BeanDefinition readBeanDefinition(ByteBuffer buffer) throws ClassNotFoundException {
+        // 与XML解析时一样加载类
+        Class<?> beanClass = Class.forName(readString(buffer));
+        String scope = readString(buffer);
+        String initMethodName = readString(buffer);
+        String destroyMethodName = readString(buffer);
+        byte lazyInit = buffer.get();
+
+        int propertyCount = buffer.getInt();
+        PropertyValues propertyValues = new PropertyValues();
+        for (int i = 0; i < propertyCount; i++) {
+            String name = readString(buffer);
+            byte type = buffer.get();
+            Object value;
+            if (type == VALUE_REFERENCE || type == VALUE_LAZY_REFERENCE) {
+                value = new BeanReference(readString(buffer), type == VALUE_LAZY_REFERENCE);
+            } else if (type == VALUE_STRING) {
+                value = readString(buffer);
+            } else if (type == VALUE_NULL) {
+                value = null;
+            } else {
+                throw new BeansException("Bean定义快照中未知的属性值类型: " + type);
+            }
+            propertyValues.addPropertyValue(new PropertyValue(name, value));
+        }
+
+        BeanDefinition beanDefinition = new BeanDefinition(beanClass, propertyValues);
+        if (scope != null) {
+            beanDefinition.setScope(scope);
+        }
+        beanDefinition.setInitMethodName(initMethodName);
+        beanDefinition.setDestroyMethodName(destroyMethodName);
+        if (lazyInit != LAZY_INIT_DEFAULT) {
+            beanDefinition.setLazyInit(lazyInit == LAZY_INIT_TRUE);
+        }
+
+        int overrideCount = buffer.getInt();
+        for (int i = 0; i < overrideCount; i++) {
+            byte type = buffer.get();
+            String methodName = readString(buffer);
+            String target = readString(buffer);
+            if (type == OVERRIDE_LOOKUP) {
+                beanDefinition.getMethodOverrides().addOverride(new LookupOverride(methodName, target));
+            } else if (type == OVERRIDE_REPLACE) {
+                beanDefinition.getMethodOverrides().addOverride(new ReplaceOverride(methodName, target));
+            } else {
+                throw new BeansException("Bean定义快照中未知的方法覆盖类型: " + type);
+            }
+        }
+        return beanDefinition;
+    }
+
+    /**
+     * 写入可为null的字符串：长度-1表示null
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BeansException("Bean定义快照已损坏");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
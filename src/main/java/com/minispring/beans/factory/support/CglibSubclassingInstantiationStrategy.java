@@ -1,52 +1,222 @@
 package com.minispring.beans.factory.support;
 
 import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.BeanFactory;
 import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.LookupOverride;
+import com.minispring.beans.factory.config.MethodOverride;
+import com.minispring.beans.factory.config.MethodReplacer;
+import com.minispring.beans.factory.config.ReplaceOverride;
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
 import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.MethodProxy;
 import net.sf.cglib.proxy.NoOp;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * CGLIB子类化实例化策略
- * 使用CGLIB动态生成子类来实例化Bean，适用于没有默认构造函数的类
+ * 只有BeanDefinition配置了方法覆盖（lookup-method、replaced-method）时才使用CGLIB生成子类，
+ * 其余Bean直接通过父类缓存的Constructor实例化，避免无意义的类生成和元空间占用
+ * 每种(Bean类型, 方法覆盖)组合的子类只生成一次并缓存生成的Class，之后通过Enhancer.registerCallbacks
+ * 绑定回调再调用子类的构造函数创建实例；缓存中不保存任何Bean实例
  */
-public class CglibSubclassingInstantiationStrategy implements InstantiationStrategy{
+public class CglibSubclassingInstantiationStrategy extends SimpleInstantiationStrategy {
+
+    // 回调下标：不拦截
+    private static final int PASSTHROUGH = 0;
+
+    // 回调下标：lookup-method
+    private static final int LOOKUP_OVERRIDE = 1;
+
+    // 回调下标：replaced-method
+    private static final int METHOD_REPLACER = 2;
+
+    // 回调类型，与上面的下标一一对应
+    private static final Class<?>[] CALLBACK_TYPES = new Class<?>[] {NoOp.class, MethodInterceptor.class, MethodInterceptor.class};
+
+    // 生成的子类缓存，键为Bean类型和方法覆盖的组合
+    private final Map<SubclassKey, Class<?>> subclassCache = new ConcurrentHashMap<>(64);
+
     /**
-     * 使用CGLIB动态生成子类来实例化Bean
+     * 使用CGLIB动态生成子类来实例化配置了方法覆盖的Bean
      * @param beanDefinition Bean定义
      * @param beanName Bean名称
+     * @param owner 所属的Bean工厂
      * @param constructor 构造函数
      * @param args 构造函数参数
      * @return 实例化的Bean对象
      * @throws BeansException 如果实例化过程中发生异常
      */
     @Override
-    public Object instantiate(BeanDefinition beanDefinition, String beanName, Constructor<?> constructor, Object[] args) throws BeansException {
+    protected Object instantiateWithMethodInjection(BeanDefinition beanDefinition, String beanName, BeanFactory owner, Constructor<?> constructor, Object[] args) {
         try {
-            //创建cglib增强
-            Enhancer enhancer = new Enhancer();
-            //设置父类为beanDefinition的beanClass
-            enhancer.setSuperclass(beanDefinition.getBeanClass());
-            //设置回调函数，这里使用NoOpCallback，即不设置任何拦截，和父类行为一样
-            enhancer.setCallback(NoOp.INSTANCE);
-
-            if (constructor == null) {
-                //如果没有构造函数，则使用默认构造函数
-                return enhancer.create();
-            }
-            if (args == null) {
-                //参数为空，则创建一个空数组
-                args = new Object[0];
-            }
-            //检查参数的个数是否与构造函数的参数个数匹配
-            if (args.length != constructor.getParameterCount()) {
-                throw new BeansException("参数个数不匹配");
-            }
-            //使用指定的构造函数创建实例
-            return enhancer.create(constructor.getParameterTypes(), args);
-        }catch (Exception e){
+            if (constructor != null) {
+                if (args == null) {
+                    //参数为空，则创建一个空数组
+                    args = new Object[0];
+                }
+                //检查参数的个数是否与构造函数的参数个数匹配
+                if (args.length != constructor.getParameterCount()) {
+                    throw new BeansException("参数个数不匹配");
+                }
+            }
+            // 每个实例拥有自己的回调，回调持有BeanDefinition和所属工厂
+            Callback[] callbacks = new Callback[] {
+                    NoOp.INSTANCE,
+                    new LookupOverrideMethodInterceptor(beanDefinition, owner),
+                    new ReplaceOverrideMethodInterceptor(beanDefinition, owner)
+            };
+            Class<?> subclass = this.subclassCache.computeIfAbsent(new SubclassKey(beanDefinition),
+                    key -> createSubclass(beanDefinition));
+            // 回调通过线程变量交给子类的构造函数，构造完成后立即清除
+            Enhancer.registerCallbacks(subclass, callbacks);
+            try {
+                if (constructor == null) {
+                    //如果没有构造函数，则使用默认构造函数
+                    return getDefaultConstructor(subclass).newInstance();
+                }
+                //使用子类中参数相同的构造函数创建实例
+                return getAccessibleConstructor(subclass.getDeclaredConstructor(constructor.getParameterTypes())).newInstance(args);
+            } finally {
+                Enhancer.registerCallbacks(subclass, null);
+            }
+        } catch (InvocationTargetException e) {
+            throw new BeansException("使用cglib实例化Bean失败 [" + beanName + "]", e.getTargetException());
+        } catch (Exception e){
             throw new BeansException("使用cglib实例化Bean失败 [" + beanName + "]", e);
         }
     }
+
+    /**
+     * 生成子类，只生成Class，不创建实例
+     */
+    private Class<?> createSubclass(BeanDefinition beanDefinition) {
+        //创建cglib增强
+        Enhancer enhancer = new Enhancer();
+        //设置父类为beanDefinition的beanClass
+        enhancer.setSuperclass(beanDefinition.getBeanClass());
+        //根据方法覆盖决定每个方法使用的回调
+        enhancer.setCallbackFilter(new MethodOverrideCallbackFilter(beanDefinition));
+        enhancer.setCallbackTypes(CALLBACK_TYPES);
+        return enhancer.createClass();
+    }
+
+    /**
+     * 根据方法覆盖选择回调的过滤器
+     */
+    private static class MethodOverrideCallbackFilter implements CallbackFilter {
+
+        private final BeanDefinition beanDefinition;
+
+        MethodOverrideCallbackFilter(BeanDefinition beanDefinition) {
+            this.beanDefinition = beanDefinition;
+        }
+
+        @Override
+        public int accept(Method method) {
+            MethodOverride methodOverride = this.beanDefinition.getMethodOverrides().getOverride(method);
+            if (methodOverride instanceof LookupOverride) {
+                return LOOKUP_OVERRIDE;
+            } else if (methodOverride instanceof ReplaceOverride) {
+                return METHOD_REPLACER;
+            }
+            return PASSTHROUGH;
+        }
+    }
+
+    /**
+     * lookup-method拦截器，每次调用都从容器中获取Bean
+     */
+    private static class LookupOverrideMethodInterceptor implements MethodInterceptor {
+
+        private final BeanDefinition beanDefinition;
+
+        private final BeanFactory owner;
+
+        LookupOverrideMethodInterceptor(BeanDefinition beanDefinition, BeanFactory owner) {
+            this.beanDefinition = beanDefinition;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object intercept(Object obj, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+            if (this.owner == null) {
+                throw new BeansException("lookup-method [" + method.getName() + "] 需要所属的BeanFactory");
+            }
+            LookupOverride lookupOverride = (LookupOverride) this.beanDefinition.getMethodOverrides().getOverride(method);
+            if (lookupOverride.getBeanName() != null && !lookupOverride.getBeanName().isEmpty()) {
+                return this.owner.getBean(lookupOverride.getBeanName());
+            }
+            return this.owner.getBean(method.getReturnType());
+        }
+    }
+
+    /**
+     * replaced-method拦截器，将调用委托给容器中的MethodReplacer
+     */
+    private static class ReplaceOverrideMethodInterceptor implements MethodInterceptor {
+
+        private final BeanDefinition beanDefinition;
+
+        private final BeanFactory owner;
+
+        ReplaceOverrideMethodInterceptor(BeanDefinition beanDefinition, BeanFactory owner) {
+            this.beanDefinition = beanDefinition;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object intercept(Object obj, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+            if (this.owner == null) {
+                throw new BeansException("replaced-method [" + method.getName() + "] 需要所属的BeanFactory");
+            }
+            ReplaceOverride replaceOverride = (ReplaceOverride) this.beanDefinition.getMethodOverrides().getOverride(method);
+            MethodReplacer methodReplacer = this.owner.getBean(replaceOverride.getMethodReplacerBeanName(), MethodReplacer.class);
+            return methodReplacer.reimplement(obj, method, args);
+        }
+    }
+
+    /**
+     * 子类缓存的键
+     * 生成的子类由Bean类型和各方法使用的回调决定，因此以Bean类型和方法覆盖的(类型, 方法名)序列作为键
+     */
+    private static final class SubclassKey {
+
+        private final Class<?> beanClass;
+
+        private final String overridesShape;
+
+        SubclassKey(BeanDefinition beanDefinition) {
+            this.beanClass = beanDefinition.getBeanClass();
+            StringBuilder shape = new StringBuilder();
+            for (MethodOverride override : beanDefinition.getMethodOverrides().getOverrides()) {
+                shape.append(override instanceof LookupOverride ? 'L' : 'R').append(override.getMethodName()).append(';');
+            }
+            this.overridesShape = shape.toString();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof SubclassKey)) {
+                return false;
+            }
+            SubclassKey otherKey = (SubclassKey) other;
+            return this.beanClass == otherKey.beanClass && this.overridesShape.equals(otherKey.overridesShape);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.beanClass.hashCode() + this.overridesShape.hashCode();
+        }
+    }
 }
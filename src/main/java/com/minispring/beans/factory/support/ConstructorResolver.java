@@ -226,6 +226,18 @@ public class ConstructorResolver {
     }
 
 
+    /**
+     * 获取依赖的Bean，并记录当前Bean依赖于它，销毁时先销毁当前Bean
+     * @param dependencyName 依赖的Bean名称
+     * @param beanName 当前Bean名称
+     * @return 依赖的Bean
+     */
+    private Object getDependencyBean(String dependencyName, String beanName) throws BeansException {
+        Object dependency = beanFactory.getBean(dependencyName);
+        beanFactory.registerDependentBean(dependencyName, beanName);
+        return dependency;
+    }
+
     /**
      * 解析依赖
      *
@@ -244,7 +256,7 @@ public class ConstructorResolver {
         if (dependencyName != null && !dependencyName.isEmpty()) {
             System.out.println("按名称获取Bean: " + dependencyName);
             try {
-                return beanFactory.getBean(dependencyName);
+                return getDependencyBean(dependencyName, beanName);
             } catch (BeansException e) {
                 // 如果按名称获取失败，继续尝试其他方式
                 System.out.println("按名称获取Bean失败: " + e.getMessage());
@@ -260,7 +272,7 @@ public class ConstructorResolver {
             if (beanNames.length == 1) {
                 String autowiredBeanName = beanNames[0];
                 System.out.println("找到唯一匹配的Bean: " + autowiredBeanName);
-                return beanFactory.getBean(autowiredBeanName);
+                return getDependencyBean(autowiredBeanName, beanName);
             } else if (beanNames.length > 1) {
                 // 如果找到多个匹配的Bean，按以下优先级尝试：
                 // 1. 使用参数名称
@@ -272,13 +284,13 @@ public class ConstructorResolver {
                 // 1. 尝试使用参数名称
                 if (paramName != null && Arrays.asList(beanNames).contains(paramName)) {
                     System.out.println("根据参数名称找到匹配的Bean: " + paramName);
-                    return beanFactory.getBean(paramName);
+                    return getDependencyBean(paramName, beanName);
                 }
 
                 // 2. 尝试使用依赖名称
                 if (dependencyName != null && Arrays.asList(beanNames).contains(dependencyName)) {
                     System.out.println("根据依赖名称找到匹配的Bean: " + dependencyName);
-                    return beanFactory.getBean(dependencyName);
+                    return getDependencyBean(dependencyName, beanName);
                 }
 
                 // 3. 尝试使用类型名称（首字母小写）
@@ -286,7 +298,7 @@ public class ConstructorResolver {
                         type.getSimpleName().substring(1);
                 if (Arrays.asList(beanNames).contains(typeNameBean)) {
                     System.out.println("根据类型名称找到匹配的Bean: " + typeNameBean);
-                    return beanFactory.getBean(typeNameBean);
+                    return getDependencyBean(typeNameBean, beanName);
                 }
 
                 // 如果都没有找到匹配的，抛出异常
@@ -299,7 +311,7 @@ public class ConstructorResolver {
                     type.getSimpleName().substring(1);
             if (beanFactory.containsBean(typeNameBean)) {
                 System.out.println("使用类型名称找到Bean: " + typeNameBean);
-                return beanFactory.getBean(typeNameBean);
+                return getDependencyBean(typeNameBean, beanName);
             }
 
             throw new BeansException("找不到类型为 '" + type.getName() + "' 的Bean");
@@ -5,14 +5,12 @@ import com.minispring.beans.factory.BeanFactory;
 
 import com.minispring.beans.factory.ConfigurableListableBeanFactory;
 import com.minispring.beans.factory.config.BeanDefinition;
-import com.minispring.beans.factory.config.Scope;
 import com.minispring.core.env.MapPropertySource;
 
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 默认的可列表Bean工厂实现
@@ -31,11 +29,6 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
      */
     private BeanFactory parentBeanFactory;
 
-    /**
-     * 作用域容器
-     */
-    private final Map<String, Scope> scopes = new ConcurrentHashMap<>(8);
-
     @Override
     public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
         beanDefinitionMap.put(beanName, beanDefinition);
@@ -124,8 +117,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         // 预初始化所有非懒加载的单例Bean
         for (String beanName : getBeanDefinitionNames()) {// 遍历Bean定义
             BeanDefinition beanDefinition = getBeanDefinition(beanName);
-            if (beanDefinition.isSingleton()) {
-                getBean(beanName);//  预初始化单例Bean
+            if (beanDefinition.isSingleton() && !beanDefinition.isLazyInit()) {
+                getBean(beanName);//  预初始化单例Bean，延迟初始化的单例在第一次获取时创建
             }
         }
     }
@@ -151,9 +144,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
      */
     @Override
     public Object createBean(Class<?> beanClass) throws BeansException {
-        // 简单实现，创建一个新的Bean实例
+        // 与容器内的Bean一样，通过实例化策略创建实例
         try {
-            return beanClass.newInstance();
+            return getInstantiationStrategy().instantiate(new BeanDefinition(beanClass), beanClass.getName(), this, null, null);
         } catch (Exception e) {
             throw new BeansException("创建Bean实例失败，类型：" + beanClass.getName(), e);
         }
@@ -210,22 +203,4 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
         throw new BeansException("找不到名为 '" + name + "' 的Bean定义");
     }
-
-    @Override
-    public void registerScope(String scopeName, Scope scope) {
-        this.scopes.put(scopeName, scope);
-    }
-    /**
-     * 获取指定名称的Bean的Scope
-     *
-     * @param scopeName Scope名称
-     * @return Scope实例
-     */
-    @Override
-    public Scope getRegisteredScope(String scopeName) {
-        return this.scopes.get(scopeName);
-    }
-
-
-
-}
\ No newline at end of file
+}
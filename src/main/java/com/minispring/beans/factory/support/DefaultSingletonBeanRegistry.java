@@ -6,11 +6,30 @@ import com.minispring.beans.factory.DisposableBean;
 import com.minispring.beans.factory.ObjectFactory;
 import com.minispring.beans.factory.config.SingletonBeanRegistry;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 默认单例Bean注册表实现
@@ -41,6 +60,15 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
 
     private final Map<String, DisposableBean> disposableBeans = new LinkedHashMap<>();
 
+    /** Bean名称 -> 依赖于它的Bean名称，销毁时依赖方先于被依赖方销毁 */
+    private final Map<String, Set<String>> dependentBeanMap = new ConcurrentHashMap<>(64);
+
+    /** 单个Bean销毁的超时时间 */
+    private volatile Duration destroyTimeout = Duration.ofSeconds(10);
+
+    /** 同时销毁的Bean数 */
+    private volatile int destroyParallelism = Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
     /**
      * . 职责分离的设计原则
      * 在软件设计中，遵循单一职责原则（Single Responsibility Principle, SRP）是非常重要的。这意味着一个方法或类应该只负责一件事情。将查找和创建分开，可以让代码更加清晰、可维护性更高。
@@ -94,6 +122,17 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
      */
     @Override
     public Object getSingleton(String beanName) {
+        return getSingleton(beanName, true);
+    }
+
+    /**
+     * 获取单例Bean
+     * 
+     * @param beanName Bean名称
+     * @param allowEarlyReference 是否允许通过三级缓存中的工厂创建早期引用
+     * @return 单例Bean对象，如果不存在返回null
+     */
+    protected Object getSingleton(String beanName, boolean allowEarlyReference) {
         // 首先从一级缓存中获取
         Object singletonObject = singletonObjects.get(beanName);
         
@@ -104,7 +143,7 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
                 singletonObject = earlySingletonObjects.get(beanName);
                 
                 // 如果二级缓存也没有，则尝试从三级缓存获取
-                if (singletonObject == null) {
+                if (singletonObject == null && allowEarlyReference) {
                     ObjectFactory<?> singletonFactory = singletonFactories.get(beanName);
                     if (singletonFactory != null) {
                         // 通过工厂获取对象
@@ -210,34 +249,235 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
      * @param bean 需要销毁的Bean
      */
     public void registerDisposableBean(String beanName, DisposableBean bean) {
-        disposableBeans.put(beanName, bean);
+        synchronized (this.disposableBeans) {
+            this.disposableBeans.put(beanName, bean);
+        }
+    }
+
+    /**
+     * 记录Bean之间的依赖关系
+     *
+     * @param beanName 被依赖的Bean名称
+     * @param dependentBeanName 依赖于它的Bean名称
+     */
+    public void registerDependentBean(String beanName, String dependentBeanName) {
+        if (beanName.equals(dependentBeanName)) {
+            return;
+        }
+        this.dependentBeanMap.computeIfAbsent(beanName, key -> ConcurrentHashMap.newKeySet()).add(dependentBeanName);
+    }
+
+    /**
+     * 获取依赖于指定Bean的Bean名称
+     *
+     * @param beanName Bean名称
+     * @return 依赖于它的Bean名称，没有时返回空数组
+     */
+    public String[] getDependentBeans(String beanName) {
+        Set<String> dependents = this.dependentBeanMap.get(beanName);
+        return dependents != null ? dependents.toArray(new String[0]) : new String[0];
+    }
+
+    /**
+     * 设置单个Bean销毁的超时时间，默认10秒
+     * 从Bean的销毁方法开始执行时计算，排队等待的时间不算在内；超时的Bean视为销毁失败，被它依赖的Bean继续销毁
+     *
+     * @param destroyTimeout 超时时间
+     */
+    public void setDestroyTimeout(Duration destroyTimeout) {
+        if (destroyTimeout == null || destroyTimeout.isNegative() || destroyTimeout.isZero()) {
+            throw new IllegalArgumentException("销毁超时时间必须大于0");
+        }
+        this.destroyTimeout = destroyTimeout;
+    }
+
+    /**
+     * 设置同时销毁的Bean数，默认为CPU核数，最多8个
+     *
+     * @param destroyParallelism 同时销毁的Bean数，为1时逐个销毁
+     */
+    public void setDestroyParallelism(int destroyParallelism) {
+        if (destroyParallelism <= 0) {
+            throw new IllegalArgumentException("同时销毁的Bean数必须大于0");
+        }
+        this.destroyParallelism = destroyParallelism;
     }
 
     /**
      * 销毁单例Bean
-     * 按照注册的相反顺序销毁Bean
+     * 依赖方先于被依赖方销毁，互不依赖的Bean并发销毁；同时可以销毁的Bean中，后注册的先提交。
+     * 每个Bean的销毁有超时时间，某个Bean销毁失败或超时不影响其他Bean，全部处理完后统一抛出异常
      */
     public void destroySingletons() {
-        Set<String> beanNames = disposableBeans.keySet();// 获取所有需要销毁的Bean名称
-        String[] disposableBeanNames = beanNames.toArray(new String[0]);// 转换为数组
-
-        // 按照注册的相反顺序销毁Bean
-        for (int i = disposableBeanNames.length - 1; i >= 0; i--) {
-            String beanName = disposableBeanNames[i];
-            // 获取并销毁Bean
-            DisposableBean disposableBean = disposableBeans.remove(beanName);
-            try {
-                disposableBean.destroy();
-            } catch (Exception e) {
-                throw new BeansException("销毁Bean[" + beanName + "]时发生异常", e);
+        Map<String, DisposableBean> beansToDestroy;
+        synchronized (this.disposableBeans) {
+            beansToDestroy = new LinkedHashMap<>(this.disposableBeans);
+            this.disposableBeans.clear();
+        }
+
+        Map<String, Throwable> failures = Collections.emptyMap();
+        try {
+            if (!beansToDestroy.isEmpty()) {
+                failures = destroyBeans(beansToDestroy);
+            }
+        } finally {
+            // 清空所有缓存
+            synchronized (this.singletonObjects) {
+                this.singletonObjects.clear();
+                this.earlySingletonObjects.clear();
+                this.singletonFactories.clear();
             }
+            this.singletonsCurrentlyInCreation.clear();
+            this.dependentBeanMap.clear();
         }
 
-        // 清空所有缓存
-        this.singletonObjects.clear();
-        this.earlySingletonObjects.clear();
-        this.singletonFactories.clear();
-        this.singletonsCurrentlyInCreation.clear();
+        if (!failures.isEmpty()) {
+            BeansException ex = new BeansException("销毁Bean时发生异常: " + failures.keySet(),
+                    failures.values().iterator().next());
+            failures.values().stream().skip(1).forEach(ex::addSuppressed);
+            throw ex;
+        }
+    }
+
+    /**
+     * 按依赖关系并发销毁Bean
+     *
+     * @param beansToDestroy 需要销毁的Bean，按注册顺序排列
+     * @return 销毁失败的Bean名称及原因
+     */
+    private Map<String, Throwable> destroyBeans(Map<String, DisposableBean> beansToDestroy) {
+        List<String> registrationOrder = new ArrayList<>(beansToDestroy.keySet());
+        // 每个Bean还有多少依赖方没有销毁，以及每个Bean依赖的Bean
+        Map<String, Integer> pendingDependents = new HashMap<>();
+        Map<String, List<String>> dependencies = new HashMap<>();
+        for (String beanName : registrationOrder) {
+            int count = 0;
+            for (String dependent : getDependentBeans(beanName)) {
+                if (beansToDestroy.containsKey(dependent)) {
+                    count++;
+                    dependencies.computeIfAbsent(dependent, key -> new ArrayList<>()).add(beanName);
+                }
+            }
+            pendingDependents.put(beanName, count);
+        }
+
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        Set<String> remaining = new LinkedHashSet<>(registrationOrder);
+        Set<String> started = new HashSet<>();
+        Deque<String> ready = new ArrayDeque<>();
+        for (int i = registrationOrder.size() - 1; i >= 0; i--) {
+            if (pendingDependents.get(registrationOrder.get(i)) == 0) {
+                ready.add(registrationOrder.get(i));
+            }
+        }
+
+        long timeoutNanos = this.destroyTimeout.toNanos();
+        int parallelism = this.destroyParallelism;
+        // 超时的销毁任务可能一直占着线程，使用按需创建线程的线程池，由下面的提交数量控制并发度
+        ExecutorService executor = Executors.newCachedThreadPool(new DestroyThreadFactory());
+        CompletionService<String> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<String>, String> running = new HashMap<>();
+        // 任务真正开始执行的时间，超时从这里开始计算
+        Map<String, Long> startTimes = new ConcurrentHashMap<>();
+        try {
+            while (!remaining.isEmpty()) {
+                if (ready.isEmpty() && running.isEmpty()) {
+                    // 循环依赖中的Bean互相等待，按注册的相反顺序销毁最后注册的一个
+                    String last = null;
+                    for (String beanName : remaining) {
+                        if (!started.contains(beanName)) {
+                            last = beanName;
+                        }
+                    }
+                    System.out.println("Bean存在循环依赖，按注册的相反顺序销毁: " + last);
+                    ready.add(last);
+                }
+                while (!ready.isEmpty() && running.size() < parallelism) {
+                    String beanName = ready.poll();
+                    started.add(beanName);
+                    DisposableBean disposableBean = beansToDestroy.get(beanName);
+                    Future<String> future = completionService.submit(() -> {
+                        startTimes.put(beanName, System.nanoTime());
+                        disposableBean.destroy();
+                        return beanName;
+                    });
+                    running.put(future, beanName);
+                }
+
+                // 还没开始执行的任务没有截止时间，稍后再检查
+                long waitNanos = Long.MAX_VALUE;
+                long now = System.nanoTime();
+                for (String beanName : running.values()) {
+                    Long startTime = startTimes.get(beanName);
+                    long wait = startTime != null ? startTime + timeoutNanos - now : TimeUnit.MILLISECONDS.toNanos(10);
+                    waitNanos = Math.min(waitNanos, wait);
+                }
+                Future<String> completed = completionService.poll(Math.max(0, waitNanos), TimeUnit.NANOSECONDS);
+
+                List<Future<String>> finished = new ArrayList<>();
+                if (completed != null && running.containsKey(completed)) {
+                    finished.add(completed);
+                }
+                now = System.nanoTime();
+                for (Map.Entry<Future<String>, String> entry : running.entrySet()) {
+                    Long startTime = startTimes.get(entry.getValue());
+                    if (startTime != null && startTime + timeoutNanos - now <= 0 && !entry.getKey().isDone()) {
+                        entry.getKey().cancel(true);
+                        failures.put(entry.getValue(), new TimeoutException(
+                                "销毁Bean[" + entry.getValue() + "]超过" + this.destroyTimeout.toMillis() + "ms"));
+                        finished.add(entry.getKey());
+                    }
+                }
+
+                for (Future<String> future : finished) {
+                    String beanName = running.remove(future);
+                    if (!failures.containsKey(beanName)) {
+                        try {
+                            future.get();
+                        } catch (ExecutionException e) {
+                            failures.put(beanName, e.getCause());
+                        } catch (CancellationException e) {
+                            failures.put(beanName, e);
+                        }
+                    }
+                    remaining.remove(beanName);
+                    // 依赖方销毁完成后，被依赖的Bean才可以销毁
+                    for (String dependency : dependencies.getOrDefault(beanName, Collections.emptyList())) {
+                        int count = pendingDependents.merge(dependency, -1, Integer::sum);
+                        if (count == 0 && !started.contains(dependency)) {
+                            ready.add(dependency);
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (String beanName : remaining) {
+                failures.putIfAbsent(beanName, e);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Map.Entry<String, Throwable> failure : failures.entrySet()) {
+            System.err.println("销毁Bean[" + failure.getKey() + "]时发生异常: " + failure.getValue());
+        }
+        return failures;
+    }
+
+    /**
+     * 销毁线程工厂，使用守护线程，超时未结束的销毁方法不会阻止JVM退出
+     */
+    private static final class DestroyThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "destroy-singletons-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
     
     /**
@@ -21,9 +21,11 @@ public class DisposableBeanAdapter implements DisposableBean {
     private final Object bean;// 目标Bean
     private final String beanName;// Bean名称
     private final String destroyMethodName;// 销毁方法名称
+    private final Method destroyMethod;// 注册时解析好的销毁方法，不需要反射调用时为null
     
     /**
      * 构造函数
+     * 注册时就解析销毁方法，关闭容器时不再查找
      * 
      * @param bean 目标Bean
      * @param beanName Bean名称
@@ -33,6 +35,23 @@ public class DisposableBeanAdapter implements DisposableBean {
         this.bean = bean;
         this.beanName = beanName;
         this.destroyMethodName = destroyMethodName;
+        this.destroyMethod = resolveDestroyMethod(bean, destroyMethodName);
+    }
+
+    /**
+     * 解析自定义销毁方法
+     * 找不到方法时返回null，销毁时再报错，不影响Bean的创建
+     */
+    private static Method resolveDestroyMethod(Object bean, String destroyMethodName) {
+        if (destroyMethodName == null || destroyMethodName.isEmpty()
+                || (bean instanceof DisposableBean && "destroy".equals(destroyMethodName))) {
+            return null;
+        }
+        try {
+            return bean.getClass().getMethod(destroyMethodName);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
     }
     
     /**
@@ -72,14 +91,13 @@ public class DisposableBeanAdapter implements DisposableBean {
          * 最终，这个条件表示：只有当 Bean 没有实现 DisposableBean 接口，或者 destroyMethodName 不是 "destroy" 时，才会进入反射调用的逻辑。
          */
         if (destroyMethodName != null && !(bean instanceof DisposableBean && "destroy".equals(destroyMethodName))) {
+            if (destroyMethod == null) {
+                throw new BeansException("找不到Bean[" + beanName + "]的销毁方法：" + destroyMethodName);
+            }
             try {
-                // 获取Bean的销毁方法
-                Method destroyMethod = bean.getClass().getMethod(destroyMethodName);
-                // 调用Bean的销毁方法
+                // 调用注册时解析好的销毁方法
                 destroyMethod.invoke(bean);
                 System.out.println("执行Bean[" + beanName + "]的自定义销毁方法：" + destroyMethodName);
-            } catch (NoSuchMethodException e) {
-                throw new BeansException("找不到Bean[" + beanName + "]的销毁方法：" + destroyMethodName, e);
             } catch (Exception e) {
                 throw new BeansException("执行Bean[" + beanName + "]的销毁方法[" + destroyMethodName + "]失败", e);
             }
@@ -1,6 +1,7 @@
 package com.minispring.beans.factory.support;
 
 import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.BeanFactory;
 import com.minispring.beans.factory.config.BeanDefinition;
 
 import java.lang.reflect.Constructor;
@@ -21,4 +22,19 @@ public interface InstantiationStrategy {
      */
     Object instantiate(BeanDefinition beanDefinition, String beanName, Constructor<?> constructor, Object[] args) throws BeansException;
 
+    /**
+     * 实例化Bean，并传入所属的Bean工厂
+     * 需要访问容器的策略（例如处理lookup-method）应覆盖此方法
+     * @param beanDefinition Bean定义
+     * @param beanName Bean名称
+     * @param owner 所属的Bean工厂
+     * @param constructor 构造函数
+     * @param args 构造函数参数
+     * @return 实例化后的Bean对象
+     * @throws BeansException 如果实例化过程中发生异常
+     */
+    default Object instantiate(BeanDefinition beanDefinition, String beanName, BeanFactory owner, Constructor<?> constructor, Object[] args) throws BeansException {
+        return instantiate(beanDefinition, beanName, constructor, args);
+    }
+
 }
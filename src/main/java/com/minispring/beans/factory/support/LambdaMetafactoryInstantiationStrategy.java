@@ -0,0 +1,217 @@
+package com.minispring.beans.factory.support;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.BeanFactory;
+import com.minispring.beans.factory.config.BeanDefinition;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 基于LambdaMetafactory的实例化策略
+ * 为每个构造函数生成一个实例化函数并缓存，稳定后创建原型Bean的开销接近直接new
+ *
+ * 1. 无参构造函数通过LambdaMetafactory生成Supplier，调用时等价于直接执行new
+ * 2. 有参构造函数按参数个数生成Function、BiFunction或Function3~Function5，
+ *    再包装为接收Object[]的Function，参数的类型转换和拆箱由生成的lambda完成
+ * 3. 参数超过5个或无法生成lambda时（例如Bean类不在可访问的模块中）退回到反射调用构造函数
+ * 4. 配置了方法覆盖的Bean仍然交给父类生成CGLIB子类
+ *
+ * 通过AbstractAutowireCapableBeanFactory.setInstantiationStrategy启用
+ */
+public class LambdaMetafactoryInstantiationStrategy extends CglibSubclassingInstantiationStrategy {
+
+    // 按构造函数参数个数使用的函数式接口，下标为参数个数
+    private static final Class<?>[] ARITY_INTERFACES = {
+            Supplier.class, Function.class, BiFunction.class,
+            ArityFunctions.Function3.class, ArityFunctions.Function4.class, ArityFunctions.Function5.class};
+
+    // 构造函数到实例化函数的缓存
+    private final Map<Constructor<?>, Function<Object[], Object>> constructorFunctionCache = new ConcurrentHashMap<>(256);
+
+    // Bean类型到默认构造函数Supplier的缓存
+    private final Map<Class<?>, Supplier<Object>> defaultConstructorSupplierCache = new ConcurrentHashMap<>(256);
+
+    /**
+     * 实例化Bean
+     * 没有方法覆盖时调用缓存的实例化函数，否则交给父类生成子类
+     */
+    @Override
+    public Object instantiate(BeanDefinition beanDefinition, String beanName, BeanFactory owner, Constructor<?> constructor, Object[] args) throws BeansException {
+        if (beanDefinition.hasMethodOverrides()) {
+            return instantiateWithMethodInjection(beanDefinition, beanName, owner, constructor, args);
+        }
+        try {
+            if (constructor == null || constructor.getParameterCount() == 0) {
+                if (args != null && args.length != 0) {
+                    throw new BeansException("参数个数不匹配");
+                }
+                Class<?> beanClass = constructor != null ? constructor.getDeclaringClass() : beanDefinition.getBeanClass();
+                return getDefaultConstructorSupplier(beanClass).get();
+            }
+            //检查参数的个数是否与构造函数的参数个数匹配
+            if (args == null || args.length != constructor.getParameterCount()) {
+                throw new BeansException("参数个数不匹配");
+            }
+            return getConstructorFunction(constructor).apply(args);
+        } catch (BeansException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeansException("实例化Bean失败 [" + beanName + "]", e);
+        }
+    }
+
+    /**
+     * 获取Bean类型默认构造函数对应的Supplier
+     * @param beanClass Bean类型
+     * @return 创建新实例的Supplier
+     */
+    protected Supplier<Object> getDefaultConstructorSupplier(Class<?> beanClass) throws Throwable {
+        Supplier<Object> supplier = this.defaultConstructorSupplierCache.get(beanClass);
+        if (supplier == null) {
+            supplier = createDefaultConstructorSupplier(beanClass);
+            Supplier<Object> existing = this.defaultConstructorSupplierCache.putIfAbsent(beanClass, supplier);
+            if (existing != null) {
+                supplier = existing;
+            }
+        }
+        return supplier;
+    }
+
+    /**
+     * 获取有参构造函数对应的实例化函数
+     * @param constructor 构造函数
+     * @return 接收构造参数数组并返回新实例的函数
+     */
+    protected Function<Object[], Object> getConstructorFunction(Constructor<?> constructor) {
+        Function<Object[], Object> function = this.constructorFunctionCache.get(constructor);
+        if (function == null) {
+            function = createConstructorFunction(constructor);
+            Function<Object[], Object> existing = this.constructorFunctionCache.putIfAbsent(constructor, function);
+            if (existing != null) {
+                function = existing;
+            }
+        }
+        return function;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Supplier<Object> createDefaultConstructorSupplier(Class<?> beanClass) throws Throwable {
+        try {
+            return (Supplier<Object>) createLambda(beanClass.getDeclaredConstructor());
+        } catch (IllegalAccessException | LambdaConversionException e) {
+            // 无法取得完整访问权限时退回到反射调用
+            System.out.println("无法为[" + beanClass.getName() + "]生成Supplier，使用反射调用: " + e.getMessage());
+            Function<Object[], Object> function = toFunction(getDefaultConstructor(beanClass));
+            Object[] noArgs = new Object[0];
+            return () -> function.apply(noArgs);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Function<Object[], Object> createConstructorFunction(Constructor<?> constructor) {
+        if (constructor.getParameterCount() < ARITY_INTERFACES.length) {
+            try {
+                Object lambda = createLambda(constructor);
+                // 每种参数个数一个固定的展开方式，调用生成的lambda时不再经过反射
+                switch (constructor.getParameterCount()) {
+                    case 1: {
+                        Function<Object, Object> function = (Function<Object, Object>) lambda;
+                        return args -> function.apply(args[0]);
+                    }
+                    case 2: {
+                        BiFunction<Object, Object, Object> function = (BiFunction<Object, Object, Object>) lambda;
+                        return args -> function.apply(args[0], args[1]);
+                    }
+                    case 3: {
+                        ArityFunctions.Function3 function = (ArityFunctions.Function3) lambda;
+                        return args -> function.apply(args[0], args[1], args[2]);
+                    }
+                    case 4: {
+                        ArityFunctions.Function4 function = (ArityFunctions.Function4) lambda;
+                        return args -> function.apply(args[0], args[1], args[2], args[3]);
+                    }
+                    case 5: {
+                        ArityFunctions.Function5 function = (ArityFunctions.Function5) lambda;
+                        return args -> function.apply(args[0], args[1], args[2], args[3], args[4]);
+                    }
+                    default:
+                        break;
+                }
+            } catch (Throwable e) {
+                System.out.println("无法为[" + constructor + "]生成实例化函数，使用反射调用: " + e.getMessage());
+            }
+        }
+        return toFunction(getAccessibleConstructor(constructor));
+    }
+
+    /**
+     * 通过LambdaMetafactory为构造函数生成对应参数个数的函数式接口实现
+     * 以Bean类的私有Lookup生成lambda，非public的Bean类和构造函数同样可以访问
+     * @param constructor 参数个数小于ARITY_INTERFACES长度的构造函数
+     * @return 调用时直接执行new的lambda
+     */
+    private static Object createLambda(Constructor<?> constructor) throws Throwable {
+        Class<?> beanClass = constructor.getDeclaringClass();
+        int parameterCount = constructor.getParameterCount();
+        Class<?> interfaceType = ARITY_INTERFACES[parameterCount];
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(beanClass, MethodHandles.lookup());
+        MethodHandle constructorHandle = lookup.unreflectConstructor(constructor);
+        // 接口方法擦除后的类型：(Object...)Object
+        MethodType erasedType = MethodType.genericMethodType(parameterCount);
+        CallSite callSite = LambdaMetafactory.metafactory(lookup, parameterCount == 0 ? "get" : "apply",
+                MethodType.methodType(interfaceType), erasedType, constructorHandle,
+                // 基本类型参数以包装类型接收，由lambda拆箱
+                constructorHandle.type().wrap());
+        return callSite.getTarget().invoke();
+    }
+
+    /**
+     * 将构造函数包装为Function
+     */
+    private static Function<Object[], Object> toFunction(Constructor<?> constructor) {
+        return args -> {
+            try {
+                return constructor.newInstance(args);
+            } catch (InvocationTargetException e) {
+                throw new BeansException("调用构造函数失败", e.getTargetException());
+            } catch (ReflectiveOperationException e) {
+                throw new BeansException("调用构造函数失败", e);
+            }
+        };
+    }
+
+    /**
+     * 三个到五个参数的构造函数对应的函数式接口
+     * 生成的lambda类定义在Bean类所在的包中，接口本身必须是public的才能被其实现，
+     * 外层类是private的，接口因此不会成为本策略对外的API
+     */
+    private static final class ArityFunctions {
+
+        @FunctionalInterface
+        public interface Function3 {
+            Object apply(Object arg0, Object arg1, Object arg2);
+        }
+
+        @FunctionalInterface
+        public interface Function4 {
+            Object apply(Object arg0, Object arg1, Object arg2, Object arg3);
+        }
+
+        @FunctionalInterface
+        public interface Function5 {
+            Object apply(Object arg0, Object arg1, Object arg2, Object arg3, Object arg4);
+        }
+    }
+}
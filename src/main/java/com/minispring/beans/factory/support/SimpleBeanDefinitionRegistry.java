@@ -0,0 +1,42 @@
+package com.minispring.beans.factory.support;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.config.BeanDefinition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 简单的Bean定义注册表
+ * 只保存Bean定义，不创建Bean，按注册顺序记录
+ * 用于只需要读取或扫描Bean定义、不需要BeanFactory的场景
+ */
+public class SimpleBeanDefinitionRegistry implements BeanDefinitionRegistry {
+
+    private final Map<String, BeanDefinition> beanDefinitionMap = new LinkedHashMap<>();
+
+    @Override
+    public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
+        // 与DefaultListableBeanFactory一致：同名定义后注册的覆盖先注册的，但保留首次注册的位置
+        beanDefinitionMap.put(beanName, beanDefinition);
+    }
+
+    @Override
+    public BeanDefinition getBeanDefinition(String beanName) throws BeansException {
+        BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
+        if (beanDefinition == null) {
+            throw new BeansException("找不到名为 '" + beanName + "' 的BeanDefinition");
+        }
+        return beanDefinition;
+    }
+
+    @Override
+    public boolean containsBeanDefinition(String beanName) {
+        return beanDefinitionMap.containsKey(beanName);
+    }
+
+    @Override
+    public String[] getBeanDefinitionNames() {
+        return beanDefinitionMap.keySet().toArray(new String[0]);
+    }
+}
@@ -1,17 +1,28 @@
 package com.minispring.beans.factory.support;
 
 import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.BeanFactory;
 import com.minispring.beans.factory.config.BeanDefinition;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 简单实例化策略
- * 基于Jdk反射机制实现Bean的实例化策略
+ * 直接调用构造函数实例化Bean，不生成子类
+ * 构造函数只查找和设置访问权限一次并缓存，重复实例化时直接调用Constructor.newInstance；
+ * 需要更低的实例化开销时使用LambdaMetafactoryInstantiationStrategy
  */
 public class SimpleInstantiationStrategy implements InstantiationStrategy{
 
+    // 构造函数到已设置访问权限的构造函数的缓存
+    private final Map<Constructor<?>, Constructor<?>> accessibleConstructorCache = new ConcurrentHashMap<>(256);
+
+    // Bean类型到默认构造函数的缓存
+    private final Map<Class<?>, Constructor<?>> defaultConstructorCache = new ConcurrentHashMap<>(256);
+
     /**
      * 实例化Bean
      * @param beanDefinition Bean定义
@@ -20,9 +31,20 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy{
      */
     @Override
     public Object instantiate(BeanDefinition beanDefinition, String beanName, Constructor<?> constructor, Object[] args) throws BeansException {
+        return instantiate(beanDefinition, beanName, null, constructor, args);
+    }
+
+    /**
+     * 实例化Bean
+     * 没有方法覆盖时直接调用构造函数，否则交给instantiateWithMethodInjection生成子类
+     */
+    @Override
+    public Object instantiate(BeanDefinition beanDefinition, String beanName, BeanFactory owner, Constructor<?> constructor, Object[] args) throws BeansException {
+        if (beanDefinition.hasMethodOverrides()) {
+            return instantiateWithMethodInjection(beanDefinition, beanName, owner, constructor, args);
+        }
         // 获取Bean的Class对象
         Class<?> beanClass = beanDefinition.getBeanClass();
-        //2.
         try {
             if (constructor != null) {
                 //参数校验
@@ -35,15 +57,63 @@ public class SimpleInstantiationStrategy implements InstantiationStrategy{
                     throw new BeansException("参数个数不匹配");
                 }
                 //使用指定的构造函数创建实例
-                return constructor.newInstance(args);
+                return getAccessibleConstructor(constructor).newInstance(args);
             } else {
                 // 如果没有指定构造函数，则使用默认（无参）构造函数创建实例
-                return beanClass.getDeclaredConstructor().newInstance();
+                return getDefaultConstructor(beanClass).newInstance();
             }
+        } catch (InvocationTargetException e) {
+            throw new BeansException("实例化Bean失败 [" + beanName + "]", e.getTargetException());
         } catch (Exception e) {
             throw new BeansException("实例化Bean失败 [" + beanName + "]", e);
         }
+    }
 
+    /**
+     * 存在方法覆盖时的实例化
+     * 简单实例化策略不支持方法注入，由CglibSubclassingInstantiationStrategy实现
+     * @param beanDefinition Bean定义
+     * @param beanName Bean名称
+     * @param owner 所属的Bean工厂
+     * @param constructor 构造函数
+     * @param args 构造函数参数
+     * @return 实例化后的Bean对象
+     */
+    protected Object instantiateWithMethodInjection(BeanDefinition beanDefinition, String beanName, BeanFactory owner, Constructor<?> constructor, Object[] args) {
+        throw new BeansException("Bean[" + beanName + "]配置了方法覆盖，" + getClass().getSimpleName() + "不支持方法注入");
+    }
 
+    /**
+     * 获取可以直接调用的构造函数，访问权限只设置一次
+     * @param constructor 构造函数
+     * @return 已设置访问权限的构造函数
+     */
+    protected Constructor<?> getAccessibleConstructor(Constructor<?> constructor) {
+        Constructor<?> accessible = this.accessibleConstructorCache.get(constructor);
+        if (accessible == null) {
+            accessible = constructor;
+            if (!accessible.canAccess(null)) {
+                accessible.setAccessible(true);
+            }
+            Constructor<?> existing = this.accessibleConstructorCache.putIfAbsent(constructor, accessible);
+            if (existing != null) {
+                accessible = existing;
+            }
+        }
+        return accessible;
+    }
+
+    /**
+     * 获取Bean类型的默认构造函数
+     * @param beanClass Bean类型
+     * @return 已设置访问权限的无参构造函数
+     */
+    protected Constructor<?> getDefaultConstructor(Class<?> beanClass) throws NoSuchMethodException {
+        Constructor<?> constructor = this.defaultConstructorCache.get(beanClass);
+        if (constructor == null) {
+            constructor = getAccessibleConstructor(beanClass.getDeclaredConstructor());
+            this.defaultConstructorCache.putIfAbsent(beanClass, constructor);
+        }
+        return constructor;
     }
 }
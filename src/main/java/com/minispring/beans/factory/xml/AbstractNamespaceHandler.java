@@ -1,6 +1,7 @@
 package com.minispring.beans.factory.xml;
 
 import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.config.BeanDefinition;
 import com.minispring.beans.factory.support.BeanDefinitionRegistry;
 
 import org.dom4j.Element;
@@ -82,6 +83,25 @@ public abstract class AbstractNamespaceHandler implements NamespaceHandler{
     }
 
 
+    /**
+     * 用属性装饰Bean定义
+     * @param element 要解析的元素
+     * @param attributeName 要解析的属性名
+     * @param beanDefinition 正在解析的Bean定义
+     * @param registry Bean定义注册表
+     * @throws BeansException 如果解析过程中发生错误
+     */
+    @Override
+    public void decorate(Element element, String attributeName, BeanDefinition beanDefinition, BeanDefinitionRegistry registry) throws BeansException {
+        AttributeDecorator decorator = attributeDecorators.get(attributeName);
+        if (decorator != null) {
+            decorator.decorate(element, attributeName, beanDefinition, registry);
+        } else {
+            throw new XmlBeanDefinitionStoreException("未知的属性 [" + attributeName + "] 在命名空间 [" + element.getNamespaceURI() + "]");
+        }
+    }
+
+
     public interface ElementParser{
         /**
          * 元素解析器
@@ -100,6 +120,18 @@ public abstract class AbstractNamespaceHandler implements NamespaceHandler{
          * @throws BeansException 如果解析过程中发生错误
          */
         void decorate(Element element, String attributeName, BeanDefinitionRegistry registry) throws BeansException;
+
+        /**
+         * 用属性装饰Bean定义，默认忽略Bean定义
+         * @param element 要解析的元素
+         * @param attributeName 要解析的属性名
+         * @param beanDefinition 正在解析的Bean定义
+         * @param registry Bean定义注册表
+         * @throws BeansException 如果解析过程中发生错误
+         */
+        default void decorate(Element element, String attributeName, BeanDefinition beanDefinition, BeanDefinitionRegistry registry) throws BeansException {
+            decorate(element, attributeName, registry);
+        }
     }
 
 
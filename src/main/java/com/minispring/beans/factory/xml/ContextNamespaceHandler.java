@@ -1,8 +1,15 @@
 package com.minispring.beans.factory.xml;
 
 import com.minispring.beans.BeansException;
+import com.minispring.beans.PropertyValue;
+import com.minispring.beans.PropertyValues;
+import com.minispring.beans.factory.config.BeanDefinition;
 import com.minispring.beans.factory.support.BeanDefinitionRegistry;
+import com.minispring.context.annotation.ClassPathBeanDefinitionScanner;
+import com.minispring.context.support.PropertySourcesPlaceholderConfigurer;
 import org.dom4j.Element;
+
+import java.util.Arrays;
 /**
  * DefaultNamespaceHandlerResolver 负责解析命名空间 URI 并找到对应的命名空间处理器（如 ContextNamespaceHandler）。
  * ContextNamespaceHandler 负责具体解析该命名空间下的自定义标签，并将解析结果注册到 Spring 容器中。
@@ -43,10 +50,24 @@ public class ContextNamespaceHandler extends AbstractNamespaceHandler{
         @Override
         public void parse(Element element, BeanDefinitionRegistry registry) throws BeansException {
             String location = element.attributeValue("location");
+            BeanDefinition beanDefinition = new BeanDefinition(PropertySourcesPlaceholderConfigurer.class);
+            PropertyValues propertyValues = beanDefinition.getPropertyValues();
             if (location!=null&&!location.isEmpty()){
                 System.out.println("解析 property-placeholder 元素，加载属性文件：" + location);
-                // 实际实现中，这里应该加载属性文件并创建 PropertyPlaceholderConfigurer Bean
+                propertyValues.addPropertyValue(new PropertyValue("location", location));
+            }
+            String ignoreUnresolvable = element.attributeValue("ignore-unresolvable");
+            if (ignoreUnresolvable != null && !ignoreUnresolvable.isEmpty()) {
+                propertyValues.addPropertyValue(new PropertyValue("ignoreUnresolvablePlaceholders", ignoreUnresolvable));
+            }
+            String ignoreResourceNotFound = element.attributeValue("ignore-resource-not-found");
+            if (ignoreResourceNotFound != null && !ignoreResourceNotFound.isEmpty()) {
+                propertyValues.addPropertyValue(new PropertyValue("ignoreResourceNotFound", ignoreResourceNotFound));
             }
+            // 以属性文件位置命名，同一位置只注册一个配置器，并行加载的多个配置文件也不会互相覆盖
+            String beanName = PropertySourcesPlaceholderConfigurer.class.getName() + "#"
+                    + (location != null && !location.isEmpty() ? location : "environment");
+            registry.registerBeanDefinition(beanName, beanDefinition);
         }
     }
 
@@ -66,7 +87,11 @@ public class ContextNamespaceHandler extends AbstractNamespaceHandler{
             String basePackage = element.attributeValue("base-package");
             if (basePackage != null && !basePackage.isEmpty()) {
                 System.out.println("解析 component-scan 元素，扫描包：" + basePackage);
-                // 实际实现中，这里应该扫描指定包下的组件并注册为 Bean
+                // 多个包可以用逗号、分号或空白分隔
+                String[] basePackages = Arrays.stream(basePackage.split("[,;\\s]+"))
+                        .filter(name -> !name.isEmpty())
+                        .toArray(String[]::new);
+                new ClassPathBeanDefinitionScanner(registry).scan(basePackages);
             }
         }
     }
@@ -74,6 +99,7 @@ public class ContextNamespaceHandler extends AbstractNamespaceHandler{
 
     /**
      * 默认延迟初始化属性装饰器
+     * 写在根元素上时作为文档中所有Bean的默认值，Bean自己设置了lazy-init时以Bean的设置为准
      */
     private static class DefaultLazyInitAttributeDecorator implements AttributeDecorator {
 
@@ -86,10 +112,14 @@ public class ContextNamespaceHandler extends AbstractNamespaceHandler{
          */
         @Override
         public void decorate(Element element, String attributeName, BeanDefinitionRegistry registry) throws BeansException {
+            // 没有Bean定义时无事可做，默认值在解析每个Bean定义时应用
+        }
+
+        @Override
+        public void decorate(Element element, String attributeName, BeanDefinition beanDefinition, BeanDefinitionRegistry registry) throws BeansException {
             String value = element.attributeValue(attributeName);
-            if ("true".equals(value)) {
-                System.out.println("设置默认延迟初始化为 true");
-                // 实际实现中，这里应该设置所有 Bean 的默认延迟初始化属性
+            if (beanDefinition.getLazyInit() == null && value != null && !value.isEmpty()) {
+                beanDefinition.setLazyInit(Boolean.parseBoolean(value.trim()));
             }
         }
     }
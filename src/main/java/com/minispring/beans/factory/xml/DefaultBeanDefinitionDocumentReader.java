@@ -5,6 +5,8 @@ import com.minispring.beans.PropertyValue;
 import com.minispring.beans.PropertyValues;
 import com.minispring.beans.factory.config.BeanDefinition;
 import com.minispring.beans.factory.config.BeanReference;
+import com.minispring.beans.factory.config.LookupOverride;
+import com.minispring.beans.factory.config.ReplaceOverride;
 import com.minispring.beans.factory.support.BeanDefinitionRegistry;
 import org.dom4j.Document;
 import org.dom4j.Element;
@@ -30,6 +32,13 @@ public class DefaultBeanDefinitionDocumentReader implements BeanDefinitionDocume
     public static final String INIT_METHOD_ATTRIBUTE = "init-method";
     public static final String DESTROY_METHOD_ATTRIBUTE = "destroy-method";
     public static final String SCOPE_ATTRIBUTE = "scope";
+    public static final String LAZY_INIT_ATTRIBUTE = "lazy-init";
+    public static final String DEFAULT_LAZY_INIT_ATTRIBUTE = "default-lazy-init";
+    public static final String LAZY_ATTRIBUTE = "lazy";
+    public static final String LOOKUP_METHOD_ELEMENT = "lookup-method";
+    public static final String REPLACED_METHOD_ELEMENT = "replaced-method";
+    public static final String BEAN_ATTRIBUTE = "bean";
+    public static final String REPLACER_ATTRIBUTE = "replacer";
 
     /**
      * 命名空间处理器解析器
@@ -93,16 +102,28 @@ public class DefaultBeanDefinitionDocumentReader implements BeanDefinitionDocume
         // 处理根元素下的所有子元素
         List<Element> elements = root.elements();
         for (Element element : elements) {
-            // 获取元素的命名空间
-            String namespaceUri = element.getNamespaceURI();
+            processElement(element, registry);
+        }
+    }
 
-            if (namespaceUri != null && !namespaceUri.isEmpty()) {
-                // 处理自定义命名空间
-                parseCustomElement(element, registry);
-            } else if (element.getName().equals(BEAN_ELEMENT)) {
-                // 处理默认的bean元素
-                processBeanDefinition(element, registry);
-            }
+    /**
+     * 解析根元素下的单个顶层元素
+     * 流式读取器每读完一个顶层元素就调用一次，与整篇文档解析时的分派规则相同
+     *
+     * @param element 顶层元素
+     * @param registry Bean定义注册表
+     * @throws BeansException 如果解析过程中发生错误
+     */
+    protected void processElement(Element element, BeanDefinitionRegistry registry) throws BeansException {
+        // 获取元素的命名空间
+        String namespaceUri = element.getNamespaceURI();
+
+        if (namespaceUri != null && !namespaceUri.isEmpty()) {
+            // 处理自定义命名空间
+            parseCustomElement(element, registry);
+        } else if (element.getName().equals(BEAN_ELEMENT)) {
+            // 处理默认的bean元素
+            processBeanDefinition(element, registry);
         }
     }
 
@@ -171,11 +192,27 @@ public class DefaultBeanDefinitionDocumentReader implements BeanDefinitionDocume
             beanDefinition.setScope(scope);
         }
 
+        // 设置延迟初始化，没有设置时使用根元素上的default-lazy-init
+        String lazyInit = beanElement.attributeValue(LAZY_INIT_ATTRIBUTE);
+        if (lazyInit == null || lazyInit.isEmpty() || "default".equals(lazyInit)) {
+            Element root = beanElement.getParent();
+            lazyInit = root != null ? root.attributeValue(DEFAULT_LAZY_INIT_ATTRIBUTE) : null;
+        }
+        if (lazyInit != null && !lazyInit.isEmpty() && !"default".equals(lazyInit)) {
+            beanDefinition.setLazyInit(Boolean.parseBoolean(lazyInit.trim()));
+        }
+
         // 解析property元素
         parsePropertyElements(beanElement, beanDefinition);
 
-        // 处理自定义属性
+        // 解析lookup-method和replaced-method元素
+        parseMethodOverrideElements(beanElement, beanDefinition);
+
+        // 处理自定义属性，先处理Bean自己的，再处理根元素上作为默认值的
         parseCustomAttributes(beanElement, beanDefinition, registry);
+        if (beanElement.getParent() != null) {
+            parseCustomAttributes(beanElement.getParent(), beanDefinition, registry);
+        }
 
         // 注册BeanDefinition
         registry.registerBeanDefinition(beanName, beanDefinition);
@@ -196,7 +233,7 @@ public class DefaultBeanDefinitionDocumentReader implements BeanDefinitionDocume
             if (namespaceUri != null && !namespaceUri.isEmpty()) {
                 NamespaceHandler handler = namespaceHandlerResolver.resolve(namespaceUri);
                 if (handler != null) {
-                    handler.decorate(element, attribute.getName(), registry);
+                    handler.decorate(element, attribute.getName(), beanDefinition, registry);
                 }
             }
         }
@@ -220,6 +257,32 @@ public class DefaultBeanDefinitionDocumentReader implements BeanDefinitionDocume
         beanDefinition.setPropertyValues(propertyValues);
     }
 
+    /**
+     * 解析Bean元素中的lookup-method和replaced-method元素
+     *
+     * @param beanElement Bean元素
+     * @param beanDefinition Bean定义
+     * @throws BeansException 如果解析过程中发生错误
+     */
+    protected void parseMethodOverrideElements(Element beanElement, BeanDefinition beanDefinition) throws BeansException {
+        for (Element lookupElement : beanElement.elements(LOOKUP_METHOD_ELEMENT)) {
+            String methodName = lookupElement.attributeValue(NAME_ATTRIBUTE);
+            if (methodName == null || methodName.isEmpty()) {
+                throw new XmlBeanDefinitionStoreException("lookup-method元素必须指定name属性");
+            }
+            beanDefinition.getMethodOverrides().addOverride(
+                    new LookupOverride(methodName, lookupElement.attributeValue(BEAN_ATTRIBUTE)));
+        }
+        for (Element replacedElement : beanElement.elements(REPLACED_METHOD_ELEMENT)) {
+            String methodName = replacedElement.attributeValue(NAME_ATTRIBUTE);
+            String replacer = replacedElement.attributeValue(REPLACER_ATTRIBUTE);
+            if (methodName == null || methodName.isEmpty() || replacer == null || replacer.isEmpty()) {
+                throw new XmlBeanDefinitionStoreException("replaced-method元素必须指定name和replacer属性");
+            }
+            beanDefinition.getMethodOverrides().addOverride(new ReplaceOverride(methodName, replacer));
+        }
+    }
+
     /**
      * 解析单个property元素
      *
@@ -241,8 +304,8 @@ public class DefaultBeanDefinitionDocumentReader implements BeanDefinitionDocume
             // 普通属性值
             value = propertyValue;
         } else if (propertyRef != null && !propertyRef.isEmpty()) {
-            // 引用其他Bean
-            value = new BeanReference(propertyRef);
+            // 引用其他Bean，lazy="true"时注入延迟解析代理
+            value = new BeanReference(propertyRef, Boolean.parseBoolean(propertyElement.attributeValue(LAZY_ATTRIBUTE)));
         } else {
             throw new XmlBeanDefinitionStoreException("Bean的property元素必须指定value或ref属性之一");
         }
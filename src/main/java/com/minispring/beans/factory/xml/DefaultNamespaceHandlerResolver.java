@@ -2,9 +2,15 @@ package com.minispring.beans.factory.xml;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 /**
  * DefaultNamespaceHandlerResolver 负责解析命名空间 URI 并找到对应的命名空间处理器（如 ContextNamespaceHandler）。
  * ContextNamespaceHandler 负责具体解析该命名空间下的自定义标签，并将解析结果注册到 Spring 容器中。
@@ -21,6 +27,9 @@ import java.util.Properties;
 /**
  * 默认的命名空间处理器解析器实现
  * 从配置文件中加载命名空间URI到处理器类的映射
+ *
+ * 类加载器能看到的所有映射文件（每个jar都可以有自己的META-INF/spring.handlers）合并为一个索引，
+ * 索引按类加载器和文件路径只加载一次，由所有解析器实例共享；处理器实例按解析器缓存，并发解析时只初始化一次
  */
 public class DefaultNamespaceHandlerResolver implements NamespaceHandlerResolver{
 
@@ -30,20 +39,30 @@ public class DefaultNamespaceHandlerResolver implements NamespaceHandlerResolver
     public static final String DEFAULT_HANDLER_MAPPINGS_LOCATION = "META-INF/spring.handlers";
 
     /**
-     * 命名空间URI到处理器类名的映射
+     * 类加载器 -> (映射文件路径 -> 合并后的映射)，类加载器被回收后对应的索引随之释放
      */
-    private final Map<String, String> handlerMappings = new HashMap<>();
+    private static final Map<ClassLoader, Map<String, Map<String, String>>> MAPPINGS_INDEX = new WeakHashMap<>();
 
     /**
-     * 已解析的处理器缓存
+     * 加载处理器类和映射文件的类加载器
      */
-    private final Map<String, NamespaceHandler> handlerCache = new HashMap<>();
+    private final ClassLoader classLoader;
+
+    /**
+     * 命名空间URI到处理器类名的映射，只读
+     */
+    private final Map<String, String> handlerMappings;
+
+    /**
+     * 已解析的处理器缓存，并行加载多个配置资源时会被多个线程同时访问
+     */
+    private final Map<String, NamespaceHandler> handlerCache = new ConcurrentHashMap<>();
 
     /**
      * 使用默认的处理器映射文件路径创建解析器
      */
     public DefaultNamespaceHandlerResolver() {
-        this(DEFAULT_HANDLER_MAPPINGS_LOCATION);
+        this(null, DEFAULT_HANDLER_MAPPINGS_LOCATION);
     }
 
     /**
@@ -52,34 +71,75 @@ public class DefaultNamespaceHandlerResolver implements NamespaceHandlerResolver
      * @param handlerMappingsLocation 处理器映射文件路径
      */
     public DefaultNamespaceHandlerResolver(String handlerMappingsLocation) {
-        loadHandlerMappings(handlerMappingsLocation);
+        this(null, handlerMappingsLocation);
     }
 
     /**
-     * 从配置文件加载处理器映射
+     * 使用指定的类加载器和处理器映射文件路径创建解析器
      *
+     * @param classLoader 类加载器，为null时使用本类的类加载器
      * @param handlerMappingsLocation 处理器映射文件路径
      */
-    private void loadHandlerMappings(String handlerMappingsLocation) {
+    public DefaultNamespaceHandlerResolver(ClassLoader classLoader, String handlerMappingsLocation) {
+        this.classLoader = classLoader != null ? classLoader : DefaultNamespaceHandlerResolver.class.getClassLoader();
+        this.handlerMappings = getHandlerMappings(this.classLoader, handlerMappingsLocation);
+    }
+
+    /**
+     * 获取合并后的处理器映射，第一次访问时加载
+     *
+     * @param classLoader 类加载器
+     * @param handlerMappingsLocation 处理器映射文件路径
+     * @return 命名空间URI到处理器类名的只读映射
+     */
+    private static Map<String, String> getHandlerMappings(ClassLoader classLoader, String handlerMappingsLocation) {
+        Map<String, Map<String, String>> byLocation;
+        synchronized (MAPPINGS_INDEX) {
+            byLocation = MAPPINGS_INDEX.computeIfAbsent(classLoader, cl -> new ConcurrentHashMap<>());
+        }
+        return byLocation.computeIfAbsent(handlerMappingsLocation, location -> loadHandlerMappings(classLoader, location));
+    }
+
+    /**
+     * 从类路径上所有同名的配置文件加载处理器映射
+     * 同一个命名空间出现在多个文件中时，以类路径顺序中第一个为准
+     *
+     * @param classLoader 类加载器
+     * @param handlerMappingsLocation 处理器映射文件路径
+     */
+    private static Map<String, String> loadHandlerMappings(ClassLoader classLoader, String handlerMappingsLocation) {
+        Map<String, String> handlerMappings = new HashMap<>();
         try {
-            Properties mappings = new Properties();
-            InputStream is = getClass().getClassLoader().getResourceAsStream(handlerMappingsLocation);
-            if (is != null) {
-                try {
+            Enumeration<URL> urls = classLoader.getResources(handlerMappingsLocation);
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                Properties mappings = new Properties();
+                try (InputStream is = url.openStream()) {
                     mappings.load(is);
-                } finally {
-                    is.close();
                 }
-
                 for (Map.Entry<Object, Object> entry : mappings.entrySet()) {
                     String namespaceUri = (String) entry.getKey();
-                    String handlerClassName = (String) entry.getValue();
-                    handlerMappings.put(namespaceUri, handlerClassName);
+                    // 去掉值末尾可能残留的空白，Properties只去掉前导空白
+                    String handlerClassName = ((String) entry.getValue()).trim();
+                    String existing = handlerMappings.putIfAbsent(namespaceUri, handlerClassName);
+                    if (existing != null && !existing.equals(handlerClassName)) {
+                        System.out.println("命名空间 [" + namespaceUri + "] 已映射到 " + existing + "，忽略 " + url + " 中的 " + handlerClassName);
+                    }
                 }
             }
         } catch (IOException ex) {
             throw new IllegalStateException("无法加载命名空间处理器映射: " + handlerMappingsLocation, ex);
         }
+        return Collections.unmodifiableMap(handlerMappings);
+    }
+
+    /**
+     * 获取命名空间URI到处理器类名的映射
+     *
+     * @return 只读映射
+     */
+    public Map<String, String> getHandlerMappings() {
+        return handlerMappings;
     }
 
     /**
@@ -102,29 +162,32 @@ public class DefaultNamespaceHandlerResolver implements NamespaceHandlerResolver
             return null;
         }
 
+        // 同一个命名空间的处理器只实例化和初始化一次
+        return handlerCache.computeIfAbsent(namespaceUri, uri -> createHandler(handlerClassName));
+    }
+
+    private NamespaceHandler createHandler(String handlerClassName) {
         try {
             // 加载处理器类
-            Class<?> handlerClass = Class.forName(handlerClassName);
+            Class<?> handlerClass = Class.forName(handlerClassName, true, classLoader);
             if (!NamespaceHandler.class.isAssignableFrom(handlerClass)) {
                 throw new IllegalStateException("类 [" + handlerClassName + "] 不是 NamespaceHandler 的实现");
             }
 
             // 实例化处理器
-            handler = (NamespaceHandler) handlerClass.newInstance();
+            NamespaceHandler handler = (NamespaceHandler) handlerClass.getDeclaredConstructor().newInstance();
 
             // 初始化处理器
             handler.init();
-
-            // 缓存处理器
-            handlerCache.put(namespaceUri, handler);
-
             return handler;
         } catch (ClassNotFoundException ex) {
             throw new IllegalStateException("找不到命名空间处理器类: " + handlerClassName, ex);
-        } catch (InstantiationException ex) {
+        } catch (InstantiationException | NoSuchMethodException ex) {
             throw new IllegalStateException("无法实例化命名空间处理器类: " + handlerClassName, ex);
         } catch (IllegalAccessException ex) {
             throw new IllegalStateException("无法访问命名空间处理器类: " + handlerClassName, ex);
+        } catch (InvocationTargetException ex) {
+            throw new IllegalStateException("命名空间处理器类的构造函数抛出异常: " + handlerClassName, ex.getTargetException());
         }
     }
 }
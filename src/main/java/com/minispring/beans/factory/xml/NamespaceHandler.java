@@ -1,6 +1,7 @@
 package com.minispring.beans.factory.xml;
 
 import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.config.BeanDefinition;
 import com.minispring.beans.factory.support.BeanDefinitionRegistry;
 import org.dom4j.Element;
 
@@ -33,4 +34,18 @@ public interface NamespaceHandler {
      * @throws BeansException 如果解析过程中发生错误
      */
     void decorate(Element element, String attributeName, BeanDefinitionRegistry registry) throws BeansException;
+
+    /**
+     * 用自定义属性装饰正在解析的Bean定义
+     * 属性可以出现在bean元素上，也可以出现在根元素上作为文档级默认值，此时对文档中的每个Bean定义调用一次
+     *
+     * @param element 包含属性的元素
+     * @param attributeName 属性名
+     * @param beanDefinition 正在解析的Bean定义，尚未注册
+     * @param registry Bean定义注册表
+     * @throws BeansException 如果解析过程中发生错误
+     */
+    default void decorate(Element element, String attributeName, BeanDefinition beanDefinition, BeanDefinitionRegistry registry) throws BeansException {
+        decorate(element, attributeName, registry);
+    }
 }
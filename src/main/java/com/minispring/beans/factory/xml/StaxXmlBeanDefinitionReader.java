@@ -0,0 +1,186 @@
+package com.minispring.beans.factory.xml;
+
+import com.minispring.beans.factory.support.BeanDefinitionRegistry;
+import com.minispring.core.io.Resource;
+import com.minispring.core.io.ResourceLoader;
+import org.dom4j.DocumentException;
+import org.dom4j.DocumentFactory;
+import org.dom4j.Element;
+import org.dom4j.QName;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * 基于StAX的流式XML Bean定义读取器
+ * 不构建整篇文档的DOM树，而是逐个读取根元素下的顶层元素，读完一个就交给文档读取器解析，
+ * 解析期间的内存占用只与单个顶层元素的大小有关，适合包含大量Bean定义的大型配置文件
+ *
+ * 1. 每个顶层元素（bean或自定义命名空间元素）被读成一个独立的dom4j元素，
+ *    挂在只含属性和命名空间声明的根元素副本下，解析后立即移除
+ * 2. 元素的分派与DefaultBeanDefinitionDocumentReader完全相同，命名空间处理器照常工作
+ * 3. 文档读取器不是DefaultBeanDefinitionDocumentReader时，退回到父类的整篇文档解析
+ * 4. 只使用JDK自带的javax.xml.stream，禁用DTD和外部实体
+ * 5. 并行加载多个资源时不预先读取，每个资源在注册阶段边读边注册，保持流式解析的内存占用
+ */
+public class StaxXmlBeanDefinitionReader extends XmlBeanDefinitionReader {
+
+    private final XMLInputFactory inputFactory;
+
+    private final DocumentFactory documentFactory = DocumentFactory.getInstance();
+
+    /**
+     * 构造函数
+     * @param registry Bean定义注册表
+     */
+    public StaxXmlBeanDefinitionReader(BeanDefinitionRegistry registry) {
+        super(registry);
+        this.inputFactory = createInputFactory();
+    }
+
+    /**
+     * 构造函数
+     * @param registry Bean定义注册表
+     * @param resourceLoader 资源加载器
+     */
+    public StaxXmlBeanDefinitionReader(BeanDefinitionRegistry registry, ResourceLoader resourceLoader) {
+        super(registry, resourceLoader);
+        this.inputFactory = createInputFactory();
+    }
+
+    /**
+     * 流式解析时不在解析线程中预先读取资源，读取和注册都在调用线程中按声明顺序进行
+     * @param resource 资源
+     * @return 读取并注册资源中Bean定义的操作
+     */
+    @Override
+    protected Consumer<BeanDefinitionRegistry> parseResource(Resource resource) {
+        if (!(getBeanDefinitionDocumentReader() instanceof DefaultBeanDefinitionDocumentReader)) {
+            return super.parseResource(resource);
+        }
+        return registry -> loadBeanDefinitions(resource, registry);
+    }
+
+    /**
+     * 以流的方式从输入流中加载Bean定义
+     * @param inputStream 输入流
+     * @param resource 资源（用于错误报告）
+     * @param registry 目标注册器
+     * @throws DocumentException XML解析异常
+     */
+    @Override
+    protected void doLoadBeanDefinitions(InputStream inputStream, Resource resource, BeanDefinitionRegistry registry) throws DocumentException {
+        BeanDefinitionDocumentReader documentReader = getBeanDefinitionDocumentReader();
+        if (!(documentReader instanceof DefaultBeanDefinitionDocumentReader)) {
+            super.doLoadBeanDefinitions(inputStream, resource, registry);
+            return;
+        }
+        DefaultBeanDefinitionDocumentReader elementReader = (DefaultBeanDefinitionDocumentReader) documentReader;
+
+        int count = 0;
+        XMLStreamReader reader = null;
+        try {
+            reader = this.inputFactory.createXMLStreamReader(inputStream);
+            Element root = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if (root == null) {
+                        // 根元素只保留属性和命名空间声明，不保留子元素
+                        root = createElement(reader);
+                    } else {
+                        Element element = readElement(reader);
+                        root.add(element);
+                        try {
+                            elementReader.processElement(element, registry);
+                        } finally {
+                            root.remove(element);
+                        }
+                        count++;
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new DocumentException("流式解析XML失败: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // 关闭失败不影响已解析的结果
+                }
+            }
+        }
+
+        System.out.println("从资源 [" + resource + "] 流式加载了Bean定义，顶层元素数量: " + count);
+    }
+
+    /**
+     * 读取从当前START_ELEMENT开始的完整元素
+     * 返回时reader停在该元素对应的END_ELEMENT上
+     */
+    private Element readElement(XMLStreamReader reader) throws XMLStreamException {
+        Element element = createElement(reader);
+        Element current = element;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    Element child = createElement(reader);
+                    current.add(child);
+                    current = child;
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    if (depth > 0) {
+                        current = current.getParent();
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    current.addText(reader.getText());
+                    break;
+                default:
+                    // 注释、处理指令等对Bean定义没有影响
+                    break;
+            }
+        }
+        return element;
+    }
+
+    /**
+     * 根据当前START_ELEMENT创建不含子节点的元素
+     */
+    private Element createElement(XMLStreamReader reader) {
+        Element element = this.documentFactory.createElement(createQName(reader.getLocalName(), reader.getPrefix(), reader.getNamespaceURI()));
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            element.addNamespace(prefix != null ? prefix : "", reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            element.addAttribute(createQName(reader.getAttributeLocalName(i), reader.getAttributePrefix(i),
+                    reader.getAttributeNamespace(i)), reader.getAttributeValue(i));
+        }
+        return element;
+    }
+
+    private QName createQName(String localName, String prefix, String namespaceUri) {
+        return this.documentFactory.createQName(localName, prefix != null ? prefix : "", namespaceUri != null ? namespaceUri : "");
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        return factory;
+    }
+}
@@ -11,6 +11,7 @@ import org.dom4j.tree.DefaultDocument;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.function.Consumer;
 
 /**
  * XML Bean定义读取器
@@ -70,31 +71,66 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
     }
 
     /**
-     * 从资源中加载Bean定义
+     * 获取Bean定义文档读取器
+     * @return Bean定义文档读取器
+     */
+    public BeanDefinitionDocumentReader getBeanDefinitionDocumentReader() {
+        return this.beanDefinitionDocumentReader;
+    }
+
+    /**
+     * 从资源中加载Bean定义到指定的注册器
      * @param resource 资源
+     * @param registry 目标注册器
      * @throws BeansException Bean定义加载异常
      */
     @Override
-    public void loadBeanDefinitions(Resource resource) throws BeansException {
+    protected void loadBeanDefinitions(Resource resource, BeanDefinitionRegistry registry) throws BeansException {
         try (InputStream inputStream = resource.getInputStream()) {
-            doLoadBeanDefinitions(inputStream, resource);
+            doLoadBeanDefinitions(inputStream, resource, registry);
         } catch (IOException | DocumentException e) {
             throw new XmlBeanDefinitionStoreException("解析XML文件失败 [" + resource + "]", e);
         }
     }
 
+    /**
+     * 并行加载时在解析线程中读取XML文档，注册Bean定义（包括命名空间处理器）留给调用线程
+     * @param resource 资源
+     * @return 把文档中的Bean定义注册到注册器的操作
+     * @throws BeansException 读取或解析XML失败时抛出
+     */
+    @Override
+    protected Consumer<BeanDefinitionRegistry> parseResource(Resource resource) throws BeansException {
+        Document document;
+        try (InputStream inputStream = resource.getInputStream()) {
+            document = documentLoader.loadDocument(inputStream);
+        } catch (IOException | DocumentException e) {
+            throw new XmlBeanDefinitionStoreException("解析XML文件失败 [" + resource + "]", e);
+        }
+        return registry -> registerBeanDefinitions(document, resource, registry);
+    }
+
     /**
      * 从输入流中加载Bean定义
      * @param inputStream 输入流
      * @param resource 资源（用于错误报告）
+     * @param registry 目标注册器
      * @throws DocumentException XML解析异常
      */
-    protected void doLoadBeanDefinitions(InputStream inputStream, Resource resource) throws DocumentException {
+    protected void doLoadBeanDefinitions(InputStream inputStream, Resource resource, BeanDefinitionRegistry registry) throws DocumentException {
         // 使用DocumentLoader加载XML文档
-        Document document = documentLoader.loadDocument(inputStream);
+        registerBeanDefinitions(documentLoader.loadDocument(inputStream), resource, registry);
+    }
 
+    /**
+     * 注册XML文档中的Bean定义
+     * @param document XML文档
+     * @param resource 资源（用于日志）
+     * @param registry 目标注册器
+     */
+    protected void registerBeanDefinitions(Document document, Resource resource, BeanDefinitionRegistry registry) {
         // 使用BeanDefinitionDocumentReader注册Bean定义
-        beanDefinitionDocumentReader.registerBeanDefinitions(document, getRegistry());
+        beanDefinitionDocumentReader.registerBeanDefinitions(document, registry);
 
         // 记录日志
         System.out.println("从资源 [" + resource + "] 加载了Bean定义");
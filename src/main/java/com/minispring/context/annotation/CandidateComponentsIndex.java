@@ -0,0 +1,161 @@
+package com.minispring.context.annotation;
+
+import com.minispring.beans.factory.support.SimpleBeanDefinitionRegistry;
+import com.minispring.core.type.classreading.ClassMetadata;
+import com.minispring.core.type.classreading.ClassMetadataReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 构建时生成的候选组件索引
+ * 索引文件META-INF/minispring.components是properties格式，每行"类名=构造型注解类名"，
+ * 类路径上存在索引文件时，组件扫描直接从索引中取候选类，不再遍历目录和jar
+ *
+ * 索引可以在编译后用main方法生成：
+ * java com.minispring.context.annotation.CandidateComponentsIndex target/classes
+ */
+public class CandidateComponentsIndex {
+
+    /**
+     * 索引文件在类路径中的位置
+     */
+    public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/minispring.components";
+
+    /**
+     * 类名 -> 构造型注解类名
+     */
+    private final Map<String, Set<String>> index;
+
+    CandidateComponentsIndex(Map<String, Set<String>> index) {
+        this.index = index;
+    }
+
+    /**
+     * 合并类路径上所有的索引文件
+     *
+     * @param classLoader 类加载器
+     * @return 索引，类路径上没有索引文件时返回null
+     * @throws IOException 读取索引文件失败时抛出
+     */
+    public static CandidateComponentsIndex load(ClassLoader classLoader) throws IOException {
+        Enumeration<URL> urls = classLoader.getResources(COMPONENTS_RESOURCE_LOCATION);
+        if (!urls.hasMoreElements()) {
+            return null;
+        }
+        Map<String, Set<String>> index = new LinkedHashMap<>();
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            Properties properties = new Properties();
+            try (InputStream inputStream = url.openStream()) {
+                properties.load(inputStream);
+            }
+            for (String className : properties.stringPropertyNames()) {
+                Set<String> stereotypes = index.computeIfAbsent(className, key -> new LinkedHashSet<>());
+                for (String stereotype : properties.getProperty(className).split(",")) {
+                    if (!stereotype.trim().isEmpty()) {
+                        stereotypes.add(stereotype.trim());
+                    }
+                }
+            }
+        }
+        return new CandidateComponentsIndex(index);
+    }
+
+    /**
+     * 获取基础包（含子包）下标注了指定构造型的类
+     *
+     * @param basePackage 基础包
+     * @param stereotype 构造型注解类名
+     * @return 按类名排序的候选类名
+     */
+    public List<String> getCandidateTypes(String basePackage, String stereotype) {
+        String prefix = basePackage.isEmpty() ? "" : basePackage + ".";
+        return index.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix) && entry.getValue().contains(stereotype))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 扫描编译输出目录，生成索引文件
+     *
+     * @param classesDir 编译输出目录
+     * @param outputFile 索引文件
+     * @param classLoader 用于解析元注解的类加载器，需要能找到classesDir中的类
+     * @return 写入的候选组件数量
+     * @throws IOException 读写失败时抛出
+     */
+    public static int writeIndex(Path classesDir, Path outputFile, ClassLoader classLoader) throws IOException {
+        ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(new SimpleBeanDefinitionRegistry(), classLoader);
+        List<Path> classFiles;
+        try (Stream<Path> paths = Files.walk(classesDir)) {
+            classFiles = paths.filter(path -> path.toString().endsWith(".class")).collect(Collectors.toList());
+        }
+        Map<String, String> entries = new TreeMap<>();
+        for (Path classFile : classFiles) {
+            ClassMetadata metadata;
+            try (InputStream inputStream = Files.newInputStream(classFile)) {
+                metadata = ClassMetadataReader.read(inputStream);
+            }
+            if (scanner.isCandidateComponent(metadata)) {
+                entries.put(metadata.getClassName(), ClassPathBeanDefinitionScanner.COMPONENT_ANNOTATION);
+            }
+        }
+
+        List<String> lines = new ArrayList<>();
+        entries.forEach((className, stereotype) -> lines.add(className + "=" + stereotype));
+        Path parent = outputFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tempFile = Files.createTempFile(parent, "minispring", ".components");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                for (String line : lines) {
+                    outputStream.write((line + "\n").getBytes(StandardCharsets.ISO_8859_1));
+                }
+            }
+            Files.move(tempFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        return lines.size();
+    }
+
+    /**
+     * 命令行入口
+     * 参数：编译输出目录 [索引文件，默认为目录下的META-INF/minispring.components]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("用法: CandidateComponentsIndex <classesDir> [outputFile]");
+            System.exit(1);
+        }
+        Path classesDir = Paths.get(args[0]);
+        Path outputFile = args.length > 1 ? Paths.get(args[1]) : classesDir.resolve(COMPONENTS_RESOURCE_LOCATION);
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDir.toUri().toURL()},
+                CandidateComponentsIndex.class.getClassLoader())) {
+            int count = writeIndex(classesDir, outputFile, classLoader);
+            System.out.println("生成组件索引 [" + outputFile + "]，候选组件数量: " + count);
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package com.minispring.context.annotation;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.support.BeanDefinitionRegistry;
+import com.minispring.beans.factory.support.BeanDefinitionSnapshotCache;
+import com.minispring.core.type.classreading.ClassMetadata;
+import com.minispring.core.type.classreading.ClassMetadataReader;
+import com.minispring.core.util.ClassUtils;
+import com.minispring.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 类路径Bean定义扫描器
+ * 在基础包下查找标注了Component（或以Component为元注解的构造型）的类，并注册为Bean定义
+ *
+ * 1. 候选类通过ClassMetadataReader直接读取class文件判断，只有最终注册的类才会被加载（不初始化）
+ * 2. 支持目录和jar两种类路径根，多个根在每次扫描自己的有界线程池中并行扫描，结果按类路径顺序合并
+ * 3. 类路径上存在META-INF/minispring.components索引时，直接从索引取候选类，不再遍历目录和jar；
+ *    设置系统属性minispring.index.ignore=true可以忽略索引
+ * 4. Bean名称取构造型注解的value，为空时使用首字母小写的简单类名
+ */
+public class ClassPathBeanDefinitionScanner {
+
+    /**
+     * 忽略组件索引的系统属性
+     */
+    public static final String IGNORE_INDEX_PROPERTY = "minispring.index.ignore";
+
+    static final String COMPONENT_ANNOTATION = Component.class.getName();
+
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    private final BeanDefinitionRegistry registry;
+
+    private final ClassLoader classLoader;
+
+    private boolean useIndex = !Boolean.getBoolean(IGNORE_INDEX_PROPERTY);
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();//并行扫描的最大线程数
+
+    /**
+     * 组件索引，加载一次；Optional.empty表示类路径上没有索引
+     */
+    private volatile Optional<CandidateComponentsIndex> componentsIndex;
+
+    /**
+     * 注解类名 -> 是否是组件构造型（本身是Component或以它为元注解）
+     */
+    private final Map<String, Boolean> stereotypeCache = new ConcurrentHashMap<>();
+
+    /**
+     * 使用默认类加载器创建扫描器
+     *
+     * @param registry Bean定义注册表
+     */
+    public ClassPathBeanDefinitionScanner(BeanDefinitionRegistry registry) {
+        this(registry, ClassUtils.getDefaultClassLoader());
+    }
+
+    /**
+     * 创建扫描器
+     *
+     * @param registry Bean定义注册表
+     * @param classLoader 查找类文件和加载候选类的类加载器
+     */
+    public ClassPathBeanDefinitionScanner(BeanDefinitionRegistry registry, ClassLoader classLoader) {
+        this.registry = registry;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * 设置是否使用组件索引
+     *
+     * @param useIndex 为false时总是扫描类路径
+     */
+    public void setUseIndex(boolean useIndex) {
+        this.useIndex = useIndex;
+    }
+
+    /**
+     * 设置并行扫描类路径根的最大线程数
+     * 每次扫描使用自己的线程池，线程数不超过类路径根的个数，扫描结束后关闭
+     *
+     * @param parallelism 最大线程数，小于2时顺序扫描，默认为CPU核数
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 扫描基础包并注册找到的组件
+     *
+     * @param basePackages 基础包（含子包）
+     * @return 新注册的Bean定义数量
+     * @throws BeansException 扫描失败或Bean名称冲突时抛出
+     */
+    public int scan(String... basePackages) throws BeansException {
+        int count = 0;
+        for (String basePackage : basePackages) {
+            for (ClassMetadata candidate : findCandidateComponents(basePackage)) {
+                if (registerCandidate(candidate)) {
+                    count++;
+                }
+            }
+        }
+        System.out.println("组件扫描完成，包：" + String.join(",", basePackages) + "，注册Bean数量：" + count);
+        return count;
+    }
+
+    /**
+     * 查找基础包下的候选组件
+     *
+     * @param basePackage 基础包
+     * @return 按类路径顺序、类名排序的候选组件元数据
+     * @throws BeansException 读取类路径失败时抛出
+     */
+    public List<ClassMetadata> findCandidateComponents(String basePackage) throws BeansException {
+        try {
+            CandidateComponentsIndex index = useIndex ? getComponentsIndex() : null;
+            if (index != null) {
+                return findCandidatesFromIndex(index, basePackage);
+            }
+            return scanCandidateComponents(basePackage);
+        } catch (IOException e) {
+            throw new BeansException("扫描包 [" + basePackage + "] 失败", e);
+        }
+    }
+
+    /**
+     * 判断类是否是可以注册的组件：独立的具体类，并且标注了组件构造型
+     *
+     * @param metadata 类元数据
+     * @return 是否是候选组件
+     */
+    public boolean isCandidateComponent(ClassMetadata metadata) {
+        return metadata.isIndependent() && metadata.isConcrete() && !metadata.isAnnotation()
+                && findStereotype(metadata) != null;
+    }
+
+    private CandidateComponentsIndex getComponentsIndex() throws IOException {
+        Optional<CandidateComponentsIndex> index = this.componentsIndex;
+        if (index == null) {
+            index = Optional.ofNullable(CandidateComponentsIndex.load(classLoader));
+            this.componentsIndex = index;
+        }
+        return index.orElse(null);
+    }
+
+    private List<ClassMetadata> findCandidatesFromIndex(CandidateComponentsIndex index, String basePackage) throws IOException {
+        List<ClassMetadata> candidates = new ArrayList<>();
+        for (String className : index.getCandidateTypes(basePackage, COMPONENT_ANNOTATION)) {
+            // 只读取索引中列出的类文件，用于确定Bean名称
+            ClassMetadata metadata = readMetadata(className);
+            if (metadata != null && isCandidateComponent(metadata)) {
+                candidates.add(metadata);
+            }
+        }
+        return candidates;
+    }
+
+    private List<ClassMetadata> scanCandidateComponents(String basePackage) throws IOException {
+        String packagePath = basePackage.replace('.', '/');
+        List<URL> roots = new ArrayList<>();
+        Enumeration<URL> urls = classLoader.getResources(packagePath);
+        while (urls.hasMoreElements()) {
+            roots.add(urls.nextElement());
+        }
+
+        List<List<ClassMetadata>> results = new ArrayList<>(roots.size());
+        if (roots.size() < 2 || parallelism < 2) {
+            for (URL root : roots) {
+                results.add(scanRoot(root, packagePath));
+            }
+        } else {
+            // 目录遍历和jar读取是阻塞IO，不占用公共线程池
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, roots.size()),
+                    new ScannerThreadFactory(classLoader));
+            try {
+                List<Future<List<ClassMetadata>>> futures = new ArrayList<>(roots.size());
+                for (URL root : roots) {
+                    futures.add(executor.submit(() -> scanRoot(root, packagePath)));
+                }
+                for (Future<List<ClassMetadata>> future : futures) {
+                    try {
+                        results.add(future.get());
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof IOException) {
+                            throw (IOException) cause;
+                        }
+                        if (cause instanceof RuntimeException) {
+                            throw (RuntimeException) cause;
+                        }
+                        if (cause instanceof Error) {
+                            throw (Error) cause;
+                        }
+                        throw new BeansException("扫描包 [" + basePackage + "] 失败", cause);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new BeansException("扫描包 [" + basePackage + "] 时被中断", e);
+                    }
+                }
+            } finally {
+                // 出错时不再等待其余根的扫描
+                executor.shutdownNow();
+            }
+        }
+
+        // 同名类以类路径中靠前的根为准，与类加载器的查找顺序一致
+        Map<String, ClassMetadata> candidates = new LinkedHashMap<>();
+        for (List<ClassMetadata> result : results) {
+            for (ClassMetadata metadata : result) {
+                candidates.putIfAbsent(metadata.getClassName(), metadata);
+            }
+        }
+        return new ArrayList<>(candidates.values());
+    }
+
+    /**
+     * 扫描一个类路径根下的包目录
+     */
+    private List<ClassMetadata> scanRoot(URL root, String packagePath) throws IOException {
+        List<ClassMetadata> candidates = new ArrayList<>();
+        if ("file".equals(root.getProtocol())) {
+            Path directory;
+            try {
+                directory = Paths.get(root.toURI());
+            } catch (URISyntaxException e) {
+                throw new IOException("无效的类路径目录: " + root, e);
+            }
+            List<Path> classFiles;
+            try (Stream<Path> paths = Files.walk(directory)) {
+                classFiles = paths.filter(path -> path.toString().endsWith(CLASS_FILE_SUFFIX))
+                        .collect(Collectors.toList());
+            }
+            for (Path classFile : classFiles) {
+                try (InputStream inputStream = Files.newInputStream(classFile)) {
+                    addIfCandidate(ClassMetadataReader.read(inputStream), candidates);
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("跳过无法读取的类文件: " + classFile + "，原因：" + e.getMessage());
+                }
+            }
+        } else if ("jar".equals(root.getProtocol())) {
+            URLConnection connection = root.openConnection();
+            if (!(connection instanceof JarURLConnection)) {
+                return candidates;
+            }
+            JarURLConnection jarConnection = (JarURLConnection) connection;
+            // 不使用JDK的JarFile缓存，扫描完成后关闭
+            jarConnection.setUseCaches(false);
+            String prefix = packagePath.isEmpty() ? "" : packagePath + "/";
+            try (JarFile jarFile = jarConnection.getJarFile()) {
+                Enumeration<JarEntry> entries = jarFile.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    String name = entry.getName();
+                    if (name.startsWith(prefix) && name.endsWith(CLASS_FILE_SUFFIX)) {
+                        try (InputStream inputStream = jarFile.getInputStream(entry)) {
+                            addIfCandidate(ClassMetadataReader.read(inputStream), candidates);
+                        } catch (IOException | RuntimeException e) {
+                            System.out.println("跳过无法读取的类文件: " + root + "!/" + name + "，原因：" + e.getMessage());
+                        }
+                    }
+                }
+            }
+        } else {
+            System.out.println("跳过不支持的类路径根: " + root);
+        }
+        candidates.sort((a, b) -> a.getClassName().compareTo(b.getClassName()));
+        return candidates;
+    }
+
+    private void addIfCandidate(ClassMetadata metadata, List<ClassMetadata> candidates) {
+        if (isCandidateComponent(metadata)) {
+            candidates.add(metadata);
+        }
+    }
+
+    /**
+     * 注册候选组件
+     *
+     * @return 是否新注册了Bean定义
+     */
+    private boolean registerCandidate(ClassMetadata candidate) throws BeansException {
+        String beanName = generateBeanName(candidate);
+        if (registry.containsBeanDefinition(beanName)) {
+            Class<?> existingClass = registry.getBeanDefinition(beanName).getBeanClass();
+            if (existingClass != null && existingClass.getName().equals(candidate.getClassName())) {
+                // 同一个类被重复扫描，保留已有定义
+                return false;
+            }
+            throw new BeansException("组件扫描得到的Bean名称 '" + beanName + "' [" + candidate.getClassName()
+                    + "] 与已有的Bean定义 [" + (existingClass != null ? existingClass.getName() : null) + "] 冲突");
+        }
+        Class<?> beanClass;
+        try {
+            // 只加载不初始化，静态初始化推迟到第一次创建Bean
+            beanClass = Class.forName(candidate.getClassName(), false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new BeansException("无法加载组件类 [" + candidate.getClassName() + "]", e);
+        }
+        BeanDefinition beanDefinition = new BeanDefinition(beanClass);
+        // 组件类不在配置资源中，标记出来避免写入Bean定义快照
+        beanDefinition.setAttribute(BeanDefinitionSnapshotCache.EXTERNAL_SOURCE_ATTRIBUTE, candidate.getClassName());
+        registry.registerBeanDefinition(beanName, beanDefinition);
+        return true;
+    }
+
+    /**
+     * 生成Bean名称：构造型注解的value，为空时使用首字母小写的简单类名
+     */
+    String generateBeanName(ClassMetadata metadata) {
+        String stereotype = findStereotype(metadata);
+        Map<String, String> attributes = stereotype != null ? metadata.getAnnotationAttributes(stereotype) : null;
+        String value = attributes != null ? attributes.get("value") : null;
+        if (value != null && !value.isEmpty()) {
+            return value;
+        }
+        String className = metadata.getClassName();
+        String shortName = className.substring(className.lastIndexOf('.') + 1).replace('$', '.');
+        return decapitalize(shortName);
+    }
+
+    /**
+     * 与java.beans.Introspector.decapitalize相同：前两个字母都是大写时保持不变
+     */
+    private static String decapitalize(String name) {
+        if (name.isEmpty() || (name.length() > 1 && Character.isUpperCase(name.charAt(1))
+                && Character.isUpperCase(name.charAt(0)))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * 查找类上直接标注的组件构造型注解
+     *
+     * @return 构造型注解类名，没有时返回null
+     */
+    private String findStereotype(ClassMetadata metadata) {
+        for (String annotationType : metadata.getAnnotationTypes()) {
+            if (isStereotype(annotationType, new StereotypeSearch())) {
+                return annotationType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 判断注解是否是组件构造型，递归读取注解自身的class文件检查元注解
+     * 遇到循环时当前路径上的结果不完整：只有从搜索起点得到的结果，或没有截断过循环的结果才会被缓存
+     */
+    private boolean isStereotype(String annotationType, StereotypeSearch search) {
+        if (COMPONENT_ANNOTATION.equals(annotationType)) {
+            return true;
+        }
+        if (annotationType.startsWith("java.")) {
+            return false;
+        }
+        Boolean cached = stereotypeCache.get(annotationType);
+        if (cached != null) {
+            return cached;
+        }
+        if (!search.visiting.add(annotationType)) {
+            // 注解之间循环标注，当前路径上不再继续查找
+            search.cycles++;
+            return false;
+        }
+        boolean root = search.visiting.size() == 1;
+        int cyclesBefore = search.cycles;
+        boolean stereotype = false;
+        ClassMetadata metadata = readMetadata(annotationType);
+        if (metadata != null && metadata.isAnnotation()) {
+            for (String metaAnnotationType : metadata.getAnnotationTypes()) {
+                if (isStereotype(metaAnnotationType, search)) {
+                    stereotype = true;
+                    break;
+                }
+            }
+        }
+        // 找到Component的结果总是确定的；循环中途得到的false可能只是因为回到了还没检查完的注解
+        if (stereotype || root || search.cycles == cyclesBefore) {
+            stereotypeCache.put(annotationType, stereotype);
+        }
+        return stereotype;
+    }
+
+    /**
+     * 扫描线程工厂，创建使用扫描器类加载器作为上下文类加载器的守护线程
+     */
+    private static final class ScannerThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger threadNumber = new AtomicInteger();
+
+        private final ClassLoader contextClassLoader;
+
+        ScannerThreadFactory(ClassLoader contextClassLoader) {
+            this.contextClassLoader = contextClassLoader;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "component-scanner-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(this.contextClassLoader);
+            return thread;
+        }
+    }
+
+    /**
+     * 一次构造型查找的状态
+     */
+    private static final class StereotypeSearch {
+
+        /**
+         * 当前路径上正在检查的注解
+         */
+        final Set<String> visiting = new HashSet<>();
+
+        /**
+         * 截断循环的次数
+         */
+        int cycles;
+    }
+
+    /**
+     * 通过类加载器读取类文件的元数据，类文件不存在或无法解析时返回null
+     */
+    private ClassMetadata readMetadata(String className) {
+        String resourceName = className.replace('.', '/') + CLASS_FILE_SUFFIX;
+        try (InputStream inputStream = classLoader.getResourceAsStream(resourceName)) {
+            return inputStream != null ? ClassMetadataReader.read(inputStream) : null;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("跳过无法读取的类文件: " + resourceName + "，原因：" + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.minispring.context.aot;
+
+import com.minispring.beans.factory.support.BeanDefinitionRegistry;
+
+/**
+ * AOT生成的Bean定义注册器
+ * 由BeanDefinitionAotGenerator在构建时生成实现类，运行时直接注册Bean定义，
+ * 无需解析XML，也无需反射查找构造函数和setter
+ */
+public interface AotBeanDefinitionRegistrar {
+
+    /**
+     * 注册Bean定义
+     * @param registry Bean定义注册表
+     */
+    void registerBeanDefinitions(BeanDefinitionRegistry registry);
+}
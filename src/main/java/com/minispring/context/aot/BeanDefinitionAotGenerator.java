@@ -0,0 +1,407 @@
+package com.minispring.context.aot;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.PropertyValue;
+import com.minispring.beans.factory.ConfigurableListableBeanFactory;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.BeanReference;
+import com.minispring.beans.factory.config.LookupOverride;
+import com.minispring.beans.factory.config.MethodOverride;
+import com.minispring.beans.factory.config.ReplaceOverride;
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.beans.factory.xml.XmlBeanDefinitionReader;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bean定义AOT生成器
+ * 在构建时加载XML配置，生成注册Bean定义的Java源码（AotBeanDefinitionRegistrar的实现）
+ *
+ * 1. 生成的代码直接用类字面量创建BeanDefinition，运行时不再解析XML、不再Class.forName
+ * 2. 有public无参构造函数的Bean生成构造函数引用作为实例提供者
+ * 3. 属性值能在构建时确定类型的（字符串、基本类型、Bean引用），生成直接调用setter的属性注入器，
+ *    并声明注入器引用的Bean名称，供容器记录依赖关系
+ * 4. 无法静态生成的部分（非public类、含占位符的值、嵌套属性等）保留为PropertyValues，运行时仍走反射
+ *
+ * 命令行用法：BeanDefinitionAotGenerator 输出目录 生成类全名 配置文件位置...
+ */
+public class BeanDefinitionAotGenerator {
+
+    // 缩进
+    private static final String INDENT = "    ";
+
+    // 生成类的全名
+    private final String generatedClassName;
+
+    /**
+     * 构造函数
+     * @param generatedClassName 生成类的全名，例如com.example.AppBeanDefinitions
+     */
+    public BeanDefinitionAotGenerator(String generatedClassName) {
+        if (generatedClassName == null || generatedClassName.isEmpty()) {
+            throw new IllegalArgumentException("生成类的名称不能为空");
+        }
+        this.generatedClassName = generatedClassName;
+    }
+
+    /**
+     * 命令行入口
+     * @param args 输出目录、生成类全名、配置文件位置
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("用法: BeanDefinitionAotGenerator <输出目录> <生成类全名> <配置文件位置...>");
+            System.exit(1);
+        }
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(Arrays.copyOfRange(args, 2, args.length));
+        Path file = new BeanDefinitionAotGenerator(args[1]).generate(beanFactory, Paths.get(args[0]));
+        System.out.println("已生成AOT Bean定义: " + file);
+    }
+
+    /**
+     * 生成源码并写入输出目录，按包名创建子目录
+     * @param beanFactory 已加载Bean定义的Bean工厂
+     * @param outputDirectory 源码输出目录
+     * @return 生成的源文件
+     * @throws IOException 写入失败
+     */
+    public Path generate(ConfigurableListableBeanFactory beanFactory, Path outputDirectory) throws IOException {
+        Path file = outputDirectory.resolve(this.generatedClassName.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParent());
+        Files.write(file, generate(beanFactory).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * 生成源码
+     * @param beanFactory 已加载Bean定义的Bean工厂
+     * @return 生成类的源码
+     * @throws BeansException 存在无法生成代码的Bean定义
+     */
+    public String generate(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        String[] beanNames = beanFactory.getBeanDefinitionNames();
+        // 按名称排序，保证每次生成的源码相同
+        Arrays.sort(beanNames);
+
+        int lastDot = this.generatedClassName.lastIndexOf('.');
+        String packageName = lastDot > 0 ? this.generatedClassName.substring(0, lastDot) : null;
+        String simpleName = this.generatedClassName.substring(lastDot + 1);
+
+        StringBuilder code = new StringBuilder();
+        if (packageName != null) {
+            code.append("package ").append(packageName).append(";\n\n");
+        }
+        code.append("/**\n * Generated by BeanDefinitionAotGenerator, do not edit\n */\n");
+        code.append("public final class ").append(simpleName)
+                .append(" implements com.minispring.context.aot.AotBeanDefinitionRegistrar {\n\n");
+
+        code.append(INDENT).append("@Override\n");
+        code.append(INDENT).append("public void registerBeanDefinitions(com.minispring.beans.factory.support.BeanDefinitionRegistry registry) {\n");
+        for (int i = 0; i < beanNames.length; i++) {
+            code.append(INDENT).append(INDENT).append("registerBean").append(i).append("(registry);\n");
+        }
+        code.append(INDENT).append("}\n");
+
+        // 每个Bean一个方法，避免单个方法超过字节码长度限制
+        for (int i = 0; i < beanNames.length; i++) {
+            appendBeanRegistration(code, i, beanNames[i], beanFactory.getBeanDefinition(beanNames[i]));
+        }
+
+        code.append("\n").append(INDENT).append("private static Class<?> loadClass(String className) {\n");
+        code.append(INDENT).append(INDENT).append("try {\n");
+        code.append(INDENT).append(INDENT).append(INDENT).append("return Class.forName(className);\n");
+        code.append(INDENT).append(INDENT).append("} catch (ClassNotFoundException e) {\n");
+        code.append(INDENT).append(INDENT).append(INDENT)
+                .append("throw new com.minispring.beans.BeansException(").append(stringLiteral("找不到类 ["))
+                .append(" + className + \"]\", e);\n");
+        code.append(INDENT).append(INDENT).append("}\n");
+        code.append(INDENT).append("}\n");
+        code.append("}\n");
+        return code.toString();
+    }
+
+    /**
+     * 生成注册单个Bean定义的方法
+     */
+    private void appendBeanRegistration(StringBuilder code, int index, String beanName, BeanDefinition beanDefinition) {
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        boolean accessible = isAccessible(beanClass);
+        String body = INDENT + INDENT;
+
+        code.append("\n").append(INDENT).append("// ").append(beanName).append("\n");
+        code.append(INDENT).append("private static void registerBean").append(index)
+                .append("(com.minispring.beans.factory.support.BeanDefinitionRegistry registry) {\n");
+        code.append(body).append("com.minispring.beans.factory.config.BeanDefinition beanDefinition = new com.minispring.beans.factory.config.BeanDefinition(")
+                .append(accessible ? beanClass.getCanonicalName() + ".class" : "loadClass(" + stringLiteral(beanClass.getName()) + ")")
+                .append(");\n");
+
+        if (!BeanDefinition.SCOPE_SINGLETON.equals(beanDefinition.getScope())) {
+            code.append(body).append("beanDefinition.setScope(").append(stringLiteral(beanDefinition.getScope())).append(");\n");
+        }
+        if (beanDefinition.getInitMethodName() != null) {
+            code.append(body).append("beanDefinition.setInitMethodName(")
+                    .append(stringLiteral(beanDefinition.getInitMethodName())).append(");\n");
+        }
+        if (beanDefinition.getDestroyMethodName() != null) {
+            code.append(body).append("beanDefinition.setDestroyMethodName(")
+                    .append(stringLiteral(beanDefinition.getDestroyMethodName())).append(");\n");
+        }
+        if (beanDefinition.getLazyInit() != null) {
+            code.append(body).append("beanDefinition.setLazyInit(").append(beanDefinition.getLazyInit()).append(");\n");
+        }
+        for (MethodOverride override : beanDefinition.getMethodOverrides().getOverrides()) {
+            code.append(body).append("beanDefinition.getMethodOverrides().addOverride(");
+            if (override instanceof LookupOverride) {
+                code.append("new com.minispring.beans.factory.config.LookupOverride(")
+                        .append(stringLiteral(override.getMethodName())).append(", ")
+                        .append(stringLiteral(((LookupOverride) override).getBeanName())).append(")");
+            } else {
+                code.append("new com.minispring.beans.factory.config.ReplaceOverride(")
+                        .append(stringLiteral(override.getMethodName())).append(", ")
+                        .append(stringLiteral(((ReplaceOverride) override).getMethodReplacerBeanName())).append(")");
+            }
+            code.append(");\n");
+        }
+
+        // 实例提供者：直接调用public无参构造函数
+        if (accessible && !beanDefinition.hasMethodOverrides() && hasPublicNoArgConstructor(beanClass)) {
+            code.append(body).append("beanDefinition.setInstanceSupplier(")
+                    .append(beanClass.getCanonicalName()).append("::new);\n");
+        }
+
+        // 属性注入器：所有属性都能静态生成时直接调用setter，否则保留PropertyValues
+        PropertyValue[] propertyValues = beanDefinition.getPropertyValues().getPropertyValues();
+        if (propertyValues.length > 0) {
+            List<String> setterCalls = accessible ? generateSetterCalls(beanClass, propertyValues) : null;
+            if (setterCalls != null) {
+                code.append(body).append("beanDefinition.setPropertyInjector((bean, beanFactory) -> {\n");
+                code.append(body).append(INDENT).append(beanClass.getCanonicalName()).append(" target = (")
+                        .append(beanClass.getCanonicalName()).append(") bean;\n");
+                for (String setterCall : setterCalls) {
+                    code.append(body).append(INDENT).append(setterCall).append("\n");
+                }
+                code.append(body).append("});\n");
+                List<String> injectedBeanNames = referencedBeanNames(propertyValues);
+                if (!injectedBeanNames.isEmpty()) {
+                    // 注入器直接调用getBean，声明引用的Bean以便容器记录依赖关系
+                    code.append(body).append("beanDefinition.setInjectedBeanNames(");
+                    for (int i = 0; i < injectedBeanNames.size(); i++) {
+                        code.append(i > 0 ? ", " : "").append(stringLiteral(injectedBeanNames.get(i)));
+                    }
+                    code.append(");\n");
+                }
+            } else {
+                for (PropertyValue propertyValue : propertyValues) {
+                    code.append(body).append("beanDefinition.getPropertyValues().addPropertyValue(new com.minispring.beans.PropertyValue(")
+                            .append(stringLiteral(propertyValue.getName())).append(", ")
+                            .append(propertyValueExpression(beanName, propertyValue)).append("));\n");
+                }
+            }
+        }
+
+        code.append(body).append("registry.registerBeanDefinition(").append(stringLiteral(beanName)).append(", beanDefinition);\n");
+        code.append(INDENT).append("}\n");
+    }
+
+    /**
+     * 为所有属性生成setter调用
+     * @return setter调用语句，有任意属性无法静态生成时返回null
+     */
+    private List<String> generateSetterCalls(Class<?> beanClass, PropertyValue[] propertyValues) {
+        List<String> calls = new ArrayList<>(propertyValues.length);
+        for (PropertyValue propertyValue : propertyValues) {
+            String name = propertyValue.getName();
+            if (name == null || name.isEmpty() || name.contains(".")) {
+                return null;
+            }
+            Method setter = findSetter(beanClass, name);
+            if (setter == null) {
+                return null;
+            }
+            Class<?> parameterType = setter.getParameterTypes()[0];
+            Object value = propertyValue.getValue();
+            String argument;
+            if (value instanceof BeanReference) {
+                // 延迟引用需要运行时根据属性类型创建代理，保留在PropertyValues中
+                if (((BeanReference) value).isLazy() || parameterType.isPrimitive() || !isAccessible(parameterType)) {
+                    return null;
+                }
+                argument = "(" + parameterType.getCanonicalName() + ") beanFactory.getBean("
+                        + stringLiteral(((BeanReference) value).getBeanName()) + ")";
+            } else if (value instanceof String && !((String) value).contains("${")) {
+                argument = literal((String) value, parameterType);
+            } else {
+                argument = null;
+            }
+            if (argument == null) {
+                return null;
+            }
+            calls.add("target." + setter.getName() + "(" + argument + ");");
+        }
+        return calls;
+    }
+
+    /**
+     * 收集属性值中引用的Bean名称
+     */
+    private static List<String> referencedBeanNames(PropertyValue[] propertyValues) {
+        List<String> beanNames = new ArrayList<>();
+        for (PropertyValue propertyValue : propertyValues) {
+            if (propertyValue.getValue() instanceof BeanReference) {
+                beanNames.add(((BeanReference) propertyValue.getValue()).getBeanName());
+            }
+        }
+        return beanNames;
+    }
+
+    /**
+     * 查找唯一的public setter，与BeanWrapper的查找规则一致
+     */
+    private static Method findSetter(Class<?> beanClass, String propertyName) {
+        String setterName = "set" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
+        Method found = null;
+        for (Method method : beanClass.getMethods()) {
+            if (method.getName().equals(setterName) && method.getParameterCount() == 1) {
+                if (found != null) {
+                    // 存在重载时交给运行时的BeanWrapper处理
+                    return null;
+                }
+                found = method;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 把字符串值按参数类型转换为Java字面量
+     * @return 字面量，无法转换时返回null
+     */
+    private static String literal(String value, Class<?> type) {
+        if (type.isAssignableFrom(String.class)) {
+            return stringLiteral(value);
+        }
+        String trimmed = value.trim();
+        try {
+            if (type == int.class || type == Integer.class) {
+                return String.valueOf(Integer.parseInt(trimmed));
+            } else if (type == long.class || type == Long.class) {
+                return Long.parseLong(trimmed) + "L";
+            } else if (type == short.class || type == Short.class) {
+                return "(short) " + Short.parseShort(trimmed);
+            } else if (type == byte.class || type == Byte.class) {
+                return "(byte) " + Byte.parseByte(trimmed);
+            } else if (type == double.class || type == Double.class) {
+                double d = Double.parseDouble(trimmed);
+                return Double.isFinite(d) ? d + "d" : null;
+            } else if (type == float.class || type == Float.class) {
+                float f = Float.parseFloat(trimmed);
+                return Float.isFinite(f) ? f + "f" : null;
+            } else if (type == boolean.class || type == Boolean.class) {
+                if ("true".equalsIgnoreCase(trimmed) || "false".equalsIgnoreCase(trimmed)) {
+                    return trimmed.toLowerCase();
+                }
+            } else if ((type == char.class || type == Character.class) && value.length() == 1) {
+                return "'" + escape(value) + "'";
+            }
+        } catch (NumberFormatException e) {
+            // 构建时无法转换的值留给运行时报告错误
+        }
+        return null;
+    }
+
+    /**
+     * 生成保留在PropertyValues中的属性值表达式
+     */
+    private static String propertyValueExpression(String beanName, PropertyValue propertyValue) {
+        Object value = propertyValue.getValue();
+        if (value instanceof BeanReference) {
+            BeanReference beanReference = (BeanReference) value;
+            return "new com.minispring.beans.factory.config.BeanReference("
+                    + stringLiteral(beanReference.getBeanName()) + (beanReference.isLazy() ? ", true" : "") + ")";
+        }
+        if (value instanceof String) {
+            return stringLiteral((String) value);
+        }
+        if (value == null) {
+            return "null";
+        }
+        throw new BeansException("无法为Bean[" + beanName + "]的属性[" + propertyValue.getName()
+                + "]生成AOT代码，不支持的值类型: " + value.getClass().getName());
+    }
+
+    /**
+     * 判断类型能否在生成的代码中通过规范名直接引用
+     */
+    private static boolean isAccessible(Class<?> type) {
+        if (type.isArray()) {
+            return isAccessible(type.getComponentType());
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        if (type.getCanonicalName() == null || type.isLocalClass() || type.isAnonymousClass()) {
+            return false;
+        }
+        for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+            if (current.getEnclosingClass() != null && !Modifier.isStatic(current.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasPublicNoArgConstructor(Class<?> beanClass) {
+        if (Modifier.isAbstract(beanClass.getModifiers()) || beanClass.isInterface()) {
+            return false;
+        }
+        for (Constructor<?> constructor : beanClass.getConstructors()) {
+            if (constructor.getParameterCount() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stringLiteral(String value) {
+        return value == null ? "null" : "\"" + escape(value) + "\"";
+    }
+
+    /**
+     * 转义字符串，非ASCII字符使用Unicode转义，生成的源码与编译时的编码无关
+     */
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': escaped.append("\\\""); break;
+                case '\'': escaped.append("\\'"); break;
+                case '\\': escaped.append("\\\\"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': escaped.append("\\r"); break;
+                case '\t': escaped.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+            }
+        }
+        return escaped.toString();
+    }
+}
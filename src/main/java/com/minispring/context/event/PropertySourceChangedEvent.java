@@ -0,0 +1,57 @@
+package com.minispring.context.event;
+
+import com.minispring.context.ApplicationEvent;
+
+import java.util.Set;
+
+/**
+ * 属性源变化事件
+ * 可重新加载的属性源在文件变化并重新加载后发布，携带发生变化的键
+ */
+public class PropertySourceChangedEvent extends ApplicationEvent {
+
+    private final String propertySourceName;
+
+    private final Set<String> changedKeys;
+
+    /**
+     * 构造函数
+     *
+     * @param source 事件源（应用上下文）
+     * @param propertySourceName 发生变化的属性源名称
+     * @param changedKeys 新增、删除或值发生变化的键
+     */
+    public PropertySourceChangedEvent(Object source, String propertySourceName, Set<String> changedKeys) {
+        super(source);
+        this.propertySourceName = propertySourceName;
+        this.changedKeys = changedKeys;
+    }
+
+    /**
+     * 获取发生变化的属性源名称
+     *
+     * @return 属性源名称
+     */
+    public String getPropertySourceName() {
+        return propertySourceName;
+    }
+
+    /**
+     * 获取发生变化的键
+     *
+     * @return 只读的键集合
+     */
+    public Set<String> getChangedKeys() {
+        return changedKeys;
+    }
+
+    /**
+     * 判断某个键是否发生了变化
+     *
+     * @param key 属性名
+     * @return 是否变化
+     */
+    public boolean isChanged(String key) {
+        return changedKeys.contains(key);
+    }
+}
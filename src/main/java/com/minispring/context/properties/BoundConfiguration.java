@@ -0,0 +1,102 @@
+package com.minispring.context.properties;
+
+import com.minispring.beans.BeansException;
+import com.minispring.core.env.MutablePropertySources;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 绑定后的配置对象
+ * 保存配置对象和绑定时属性源集合的版本号，get时只比较一次版本号；
+ * 属性源集合变化后重新绑定，新的配置对象完整创建后才整体替换，读取方不会看到绑定到一半的配置
+ *
+ * 属性源集合的版本号只在增删替换属性源时变化，属性源内部的值变化（如System.setProperty）需要调用rebind
+ *
+ * @param <T> 配置类型
+ */
+public class BoundConfiguration<T> implements Supplier<T> {
+
+    private final ConfigurationPropertiesBinder binder;
+
+    private final ConfigurationPropertiesBinder.TypeBinding<T> typeBinding;
+
+    private final MutablePropertySources propertySources;
+
+    private final AtomicReference<Snapshot<T>> current = new AtomicReference<>();
+
+    BoundConfiguration(ConfigurationPropertiesBinder binder, ConfigurationPropertiesBinder.TypeBinding<T> typeBinding) {
+        this.binder = binder;
+        this.typeBinding = typeBinding;
+        this.propertySources = binder.getEnvironment().getPropertySources();
+        rebind();
+    }
+
+    /**
+     * 获取配置对象，属性源集合变化后先重新绑定
+     * 重新绑定失败时继续使用原来的配置对象，直到属性源集合再次变化或显式调用rebind
+     *
+     * @return 配置对象
+     */
+    @Override
+    public T get() {
+        Snapshot<T> snapshot = current.get();
+        if (snapshot.version != propertySources.getVersion()) {
+            snapshot = refresh(snapshot);
+        }
+        return snapshot.value;
+    }
+
+    /**
+     * 立即重新绑定
+     *
+     * @return 新的配置对象
+     * @throws BeansException 绑定失败时抛出，原来的配置对象保持不变
+     */
+    public synchronized T rebind() throws BeansException {
+        // 先读版本号再绑定，绑定期间属性源集合发生变化时下次get会再次绑定
+        long version = propertySources.getVersion();
+        T value = typeBinding.bind(binder);
+        current.set(new Snapshot<>(version, value));
+        return value;
+    }
+
+    /**
+     * 当前配置对象对应的属性源集合版本号
+     *
+     * @return 版本号
+     */
+    public long getVersion() {
+        return current.get().version;
+    }
+
+    private synchronized Snapshot<T> refresh(Snapshot<T> stale) {
+        Snapshot<T> snapshot = current.get();
+        if (snapshot != stale) {
+            // 其他线程已经完成了重新绑定
+            return snapshot;
+        }
+        long version = propertySources.getVersion();
+        try {
+            snapshot = new Snapshot<>(version, typeBinding.bind(binder));
+            System.out.println("属性源已变化，重新绑定配置 [" + typeBinding.getType().getName() + "]");
+        } catch (BeansException e) {
+            System.out.println("重新绑定配置 [" + typeBinding.getType().getName() + "] 失败，继续使用原配置: " + e.getMessage());
+            snapshot = new Snapshot<>(version, stale.value);
+        }
+        current.set(snapshot);
+        return snapshot;
+    }
+
+    private static final class Snapshot<T> {
+
+        private final long version;
+
+        private final T value;
+
+        Snapshot(long version, T value) {
+            this.version = version;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.minispring.context.properties;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.SimpleTypeConverter;
+import com.minispring.beans.TypeConverter;
+import com.minispring.core.env.ConfigurableEnvironment;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.time.Duration;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 配置属性绑定器
+ * 把某个前缀下的属性一次性转换并通过构造函数绑定到不可变的配置对象上，
+ * 使用方直接读取配置对象的final字段，不再在每次请求时查找字符串并做类型转换
+ *
+ * 1. 配置类可以是record，或者只有一个public构造函数的类（需要以-parameters编译以保留参数名）
+ * 2. 构造参数名对应"前缀.参数名"，找不到时再尝试短横线形式，如maxConnections对应max-connections
+ * 3. 构造参数是配置类时按"前缀.参数名"作为嵌套前缀递归绑定
+ * 4. 类型转换使用SimpleTypeConverter，缺失的属性绑定为null，基本类型绑定为默认值
+ */
+public class ConfigurationPropertiesBinder {
+
+    private final ConfigurableEnvironment environment;
+
+    private final TypeConverter typeConverter;
+
+    public ConfigurationPropertiesBinder(ConfigurableEnvironment environment) {
+        this(environment, new SimpleTypeConverter());
+    }
+
+    public ConfigurationPropertiesBinder(ConfigurableEnvironment environment, TypeConverter typeConverter) {
+        this.environment = environment;
+        this.typeConverter = typeConverter;
+    }
+
+    /**
+     * 把前缀下的属性绑定到配置对象上
+     *
+     * @param prefix 属性前缀，如server
+     * @param type 配置类
+     * @param <T> 配置类型
+     * @return 配置对象
+     * @throws BeansException 配置类无法通过构造函数绑定或类型转换失败时抛出
+     */
+    public <T> T bind(String prefix, Class<T> type) throws BeansException {
+        return compile(prefix, type).bind(this);
+    }
+
+    /**
+     * 绑定配置对象，并在属性源集合变化后自动重新绑定
+     * 绑定计划（构造函数、属性名和嵌套结构）只解析一次
+     *
+     * @param prefix 属性前缀
+     * @param type 配置类
+     * @param <T> 配置类型
+     * @return 绑定后的配置
+     * @throws BeansException 首次绑定失败时抛出
+     */
+    public <T> BoundConfiguration<T> bindTracked(String prefix, Class<T> type) throws BeansException {
+        return new BoundConfiguration<>(this, compile(prefix, type));
+    }
+
+    ConfigurableEnvironment getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * 解析配置类的绑定计划
+     */
+    <T> TypeBinding<T> compile(String prefix, Class<T> type) throws BeansException {
+        return compile(prefix, type, new ArrayList<>());
+    }
+
+    private <T> TypeBinding<T> compile(String prefix, Class<T> type, List<Class<?>> path) throws BeansException {
+        if (path.contains(type)) {
+            throw new BeansException("配置类 [" + type.getName() + "] 存在循环嵌套: " + path);
+        }
+        path.add(type);
+        try {
+            Constructor<T> constructor = findBindingConstructor(type);
+            String[] names = getParameterNames(type, constructor);
+            Parameter[] parameters = constructor.getParameters();
+            ParameterBinding[] bindings = new ParameterBinding[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                Class<?> parameterType = parameters[i].getType();
+                String key = prefix.isEmpty() ? names[i] : prefix + "." + names[i];
+                TypeBinding<?> nested = isSimpleType(parameterType) ? null : compile(key, parameterType, path);
+                bindings[i] = new ParameterBinding(key, toDashedForm(key), parameterType, nested);
+            }
+            constructor.setAccessible(true);
+            return new TypeBinding<>(type, constructor, bindings);
+        } finally {
+            path.remove(path.size() - 1);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Constructor<T> findBindingConstructor(Class<T> type) throws BeansException {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new BeansException("无法绑定接口或抽象类 [" + type.getName() + "]");
+        }
+        if (type.isRecord()) {
+            Class<?>[] componentTypes = Arrays.stream(type.getRecordComponents())
+                    .map(RecordComponent::getType).toArray(Class<?>[]::new);
+            try {
+                return type.getDeclaredConstructor(componentTypes);
+            } catch (NoSuchMethodException e) {
+                throw new BeansException("找不到record [" + type.getName() + "] 的规范构造函数", e);
+            }
+        }
+        Constructor<?>[] constructors = type.getConstructors();
+        if (constructors.length != 1) {
+            throw new BeansException("配置类 [" + type.getName() + "] 必须有且只有一个public构造函数，当前有 " + constructors.length + " 个");
+        }
+        return (Constructor<T>) constructors[0];
+    }
+
+    private String[] getParameterNames(Class<?> type, Constructor<?> constructor) throws BeansException {
+        if (type.isRecord()) {
+            return Arrays.stream(type.getRecordComponents()).map(RecordComponent::getName).toArray(String[]::new);
+        }
+        Parameter[] parameters = constructor.getParameters();
+        String[] names = new String[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            if (!parameters[i].isNamePresent()) {
+                throw new BeansException("配置类 [" + type.getName() + "] 的构造参数名不可用，请使用record或以-parameters编译");
+            }
+            names[i] = parameters[i].getName();
+        }
+        return names;
+    }
+
+    /**
+     * 判断是否是直接从字符串转换的类型，其余类型按嵌套配置类绑定
+     */
+    private boolean isSimpleType(Class<?> type) {
+        return type.isPrimitive() || type == String.class || type == Boolean.class || type == Character.class
+                || Number.class.isAssignableFrom(type) || type.isEnum() || type == Duration.class
+                || Temporal.class.isAssignableFrom(type);
+    }
+
+    /**
+     * 驼峰形式转换为短横线形式，如server.maxConnections转换为server.max-connections
+     */
+    private String toDashedForm(String key) {
+        StringBuilder result = new StringBuilder(key.length() + 4);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0 && key.charAt(i - 1) != '.') {
+                    result.append('-');
+                }
+                result.append(Character.toLowerCase(c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * 某个配置类的绑定计划
+     */
+    static final class TypeBinding<T> {
+
+        private final Class<T> type;
+
+        private final Constructor<T> constructor;
+
+        private final ParameterBinding[] parameters;
+
+        TypeBinding(Class<T> type, Constructor<T> constructor, ParameterBinding[] parameters) {
+            this.type = type;
+            this.constructor = constructor;
+            this.parameters = parameters;
+        }
+
+        T bind(ConfigurationPropertiesBinder binder) throws BeansException {
+            Object[] args = new Object[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                args[i] = parameters[i].resolve(binder);
+            }
+            try {
+                return constructor.newInstance(args);
+            } catch (InvocationTargetException e) {
+                throw new BeansException("创建配置对象 [" + type.getName() + "] 失败: " + e.getTargetException().getMessage(),
+                        e.getTargetException());
+            } catch (ReflectiveOperationException e) {
+                throw new BeansException("创建配置对象 [" + type.getName() + "] 失败", e);
+            }
+        }
+
+        Class<T> getType() {
+            return type;
+        }
+    }
+
+    /**
+     * 构造参数的绑定计划
+     */
+    private static final class ParameterBinding {
+
+        private final String key;
+
+        private final String dashedKey;
+
+        private final Class<?> type;
+
+        private final TypeBinding<?> nested;
+
+        ParameterBinding(String key, String dashedKey, Class<?> type, TypeBinding<?> nested) {
+            this.key = key;
+            this.dashedKey = dashedKey.equals(key) ? null : dashedKey;
+            this.type = type;
+            this.nested = nested;
+        }
+
+        Object resolve(ConfigurationPropertiesBinder binder) throws BeansException {
+            if (nested != null) {
+                return nested.bind(binder);
+            }
+            String value = binder.environment.getProperty(key);
+            if (value == null && dashedKey != null) {
+                value = binder.environment.getProperty(dashedKey);
+            }
+            if (value == null) {
+                return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+            }
+            try {
+                return binder.typeConverter.convertIfNecessary(value, type);
+            } catch (BeansException e) {
+                throw new BeansException("绑定属性 '" + key + "' 失败，无法将 [" + value + "] 转换为 [" + type.getName() + "]", e);
+            }
+        }
+    }
+}
@@ -10,7 +10,11 @@ import com.minispring.context.event.*;
 import com.minispring.core.env.ConfigurableEnvironment;
 import com.minispring.core.env.StandardEnvironment;
 import com.minispring.core.io.DefaultResourceLoader;
+import com.minispring.core.io.PathMatchingResourcePatternResolver;
+import com.minispring.core.io.Resource;
+import com.minispring.core.io.ResourcePatternResolver;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
@@ -19,7 +23,7 @@ import java.util.Map;
  * ApplicationContext的抽象实现，实现了ApplicationContext接口
  * 提供模板方法模式的刷新流程
  */
-public abstract class AbstractApplicationContext extends DefaultResourceLoader implements ConfigurableApplicationContext {
+public abstract class AbstractApplicationContext extends DefaultResourceLoader implements ConfigurableApplicationContext, ResourcePatternResolver {
 
     //应用上下文名称
     private String applicationName ="";
@@ -33,12 +37,29 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
      */
     private ConfigurableEnvironment environment;
 
+    /**
+     * 资源模式解析器，单个位置仍由上下文自己解析
+     */
+    private final ResourcePatternResolver resourcePatternResolver = new PathMatchingResourcePatternResolver(this);
+
     /**
      * 默认构造函数
      */
     public AbstractApplicationContext() {
     }
 
+    /**
+     * 把位置模式解析为资源，支持classpath*:和通配符
+     *
+     * @param locationPattern 位置模式
+     * @return 匹配的资源
+     * @throws IOException 遍历目录或读取jar失败时抛出
+     */
+    @Override
+    public Resource[] getResources(String locationPattern) throws IOException {
+        return resourcePatternResolver.getResources(locationPattern);
+    }
+
     /**
      * 刷新应用上下文，这是一个模板方法，定义了刷新应用上下文的标准流程
      * 初始化或重新加载应用上下文，包括加载配置文件、注册 Bean 定义、初始化单例 Bean 等。
@@ -1,16 +1,57 @@
 package com.minispring.context.support;
 
 import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.support.BeanDefinitionSnapshotCache;
 import com.minispring.beans.factory.support.DefaultListableBeanFactory;
 import com.minispring.beans.factory.xml.XmlBeanDefinitionReader;
 import com.minispring.core.io.Resource;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * 基于XML配置的应用上下文抽象实现
  * 从XML文件加载Bean定义
  */
 public abstract class AbstractXmlApplicationContext extends AbstractRefreshableApplicationContext{
 
+    /**
+     * 指定Bean定义快照文件的系统属性，构造函数中就会刷新的上下文可以通过它启用快照
+     */
+    public static final String SNAPSHOT_FILE_PROPERTY = "minispring.beanDefinitionSnapshot";
+
+    /**
+     * Bean定义快照文件，为null时不使用快照
+     */
+    private Path beanDefinitionSnapshotFile;
+
+    /**
+     * 设置Bean定义快照文件
+     * 设置后，配置资源没有变化时从快照加载Bean定义，跳过XML解析；下次refresh生效
+     *
+     * @param beanDefinitionSnapshotFile 快照文件，为null时关闭快照
+     */
+    public void setBeanDefinitionSnapshotFile(Path beanDefinitionSnapshotFile) {
+        this.beanDefinitionSnapshotFile = beanDefinitionSnapshotFile;
+    }
+
+    /**
+     * 获取Bean定义快照文件
+     * 没有显式设置时读取系统属性
+     *
+     * @return 快照文件，没有配置时返回null
+     */
+    public Path getBeanDefinitionSnapshotFile() {
+        if (this.beanDefinitionSnapshotFile != null) {
+            return this.beanDefinitionSnapshotFile;
+        }
+        String location = System.getProperty(SNAPSHOT_FILE_PROPERTY);
+        return location != null && !location.isEmpty() ? Paths.get(location) : null;
+    }
+
     /**
      * 加载Bean定义
      * 从XML配置文件加载Bean定义
@@ -21,20 +62,60 @@ public abstract class AbstractXmlApplicationContext extends AbstractRefreshableA
     protected void loadBeanDefinitions(DefaultListableBeanFactory beanFactory) throws BeansException {
         //从XML配置文件中加载Bean定义
         XmlBeanDefinitionReader beanDefinitionReader = new XmlBeanDefinitionReader(beanFactory);
-        //获取配置文件资源
+
+        Path snapshotFile = getBeanDefinitionSnapshotFile();
+        if (snapshotFile != null) {
+            loadBeanDefinitionsWithSnapshot(beanFactory, beanDefinitionReader, new BeanDefinitionSnapshotCache(snapshotFile));
+            return;
+        }
+
+        // 配置资源和配置位置作为一批加载，多个资源时并行解析、按声明顺序合并
+        beanDefinitionReader.loadBeanDefinitions(resolveConfigResources(beanDefinitionReader));
+    }
+
+    /**
+     * 使用快照加载Bean定义
+     * 快照有效时直接从快照注册，否则解析XML并重新写入快照
+     *
+     * @param beanFactory Bean工厂
+     * @param beanDefinitionReader XML读取器
+     * @param snapshotCache 快照缓存
+     * @throws BeansException 如果加载过程中发生错误
+     */
+    protected void loadBeanDefinitionsWithSnapshot(DefaultListableBeanFactory beanFactory, XmlBeanDefinitionReader beanDefinitionReader,
+                                                   BeanDefinitionSnapshotCache snapshotCache) throws BeansException {
+        // 与XML读取器使用相同的资源加载器解析配置位置，保证快照的键与实际解析的资源一致
+        Resource[] allResources = resolveConfigResources(beanDefinitionReader);
+
+        if (snapshotCache.load(allResources, beanFactory)) {
+            return;
+        }
+        beanDefinitionReader.loadBeanDefinitions(allResources);
+        snapshotCache.write(allResources, beanFactory);
+    }
+
+    /**
+     * 把配置资源和配置位置合并为一个资源数组，配置资源在前
+     * 配置位置使用XML读取器的资源加载器解析，一个位置可以是classpath*:或通配符模式
+     *
+     * @param beanDefinitionReader XML读取器
+     * @return 按声明顺序排列的全部配置资源
+     */
+    protected Resource[] resolveConfigResources(XmlBeanDefinitionReader beanDefinitionReader) {
+        List<Resource> resources = new ArrayList<>();
         Resource[] configResources = getConfigResources();
         if (configResources != null) {
-            //从资源加载Bean定义
-            beanDefinitionReader.loadBeanDefinitions(configResources);
+            resources.addAll(Arrays.asList(configResources));
         }
-
-        // 获取配置文件位置
         String[] configLocations = getConfigLocations();
         if (configLocations != null) {
-            // 从位置加载Bean定义
-            beanDefinitionReader.loadBeanDefinitions(configLocations);
+            for (String location : configLocations) {
+                resources.addAll(Arrays.asList(beanDefinitionReader.resolveResources(location)));
+            }
         }
+        return resources.toArray(new Resource[0]);
     }
+
     /**
      * 获取配置资源
      * 默认实现返回null，子类可以覆盖
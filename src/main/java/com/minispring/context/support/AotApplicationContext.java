@@ -0,0 +1,72 @@
+package com.minispring.context.support;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.context.aot.AotBeanDefinitionRegistrar;
+
+/**
+ * 基于AOT生成代码的应用上下文
+ * 由BeanDefinitionAotGenerator生成的注册器提供Bean定义，启动时不解析XML
+ */
+public class AotApplicationContext extends AbstractRefreshableApplicationContext {
+
+    /**
+     * 生成的Bean定义注册器
+     */
+    private final AotBeanDefinitionRegistrar[] registrars;
+
+    /**
+     * 构造函数，使用生成的注册器类名
+     *
+     * @param registrarClassName 生成的注册器类全名
+     * @throws BeansException 如果创建上下文失败
+     */
+    public AotApplicationContext(String registrarClassName) throws BeansException {
+        this(instantiateRegistrar(registrarClassName));
+    }
+
+    /**
+     * 构造函数，使用一个或多个注册器
+     *
+     * @param registrars 生成的Bean定义注册器
+     * @throws BeansException 如果创建上下文失败
+     */
+    public AotApplicationContext(AotBeanDefinitionRegistrar... registrars) throws BeansException {
+        this.registrars = registrars;
+        refresh();
+    }
+
+    /**
+     * 加载Bean定义
+     * 依次调用生成的注册器
+     *
+     * @param beanFactory Bean工厂
+     * @throws BeansException 如果注册过程中发生错误
+     */
+    @Override
+    protected void loadBeanDefinitions(DefaultListableBeanFactory beanFactory) throws BeansException {
+        for (AotBeanDefinitionRegistrar registrar : this.registrars) {
+            registrar.registerBeanDefinitions(beanFactory);
+        }
+    }
+
+    /**
+     * 检查是否包含指定名称的Bean定义
+     *
+     * @param beanName Bean名称
+     * @return 如果包含返回true
+     */
+    @Override
+    public boolean containsBeanDefinition(String beanName) {
+        return getBeanFactory().containsBeanDefinition(beanName);
+    }
+
+    private static AotBeanDefinitionRegistrar instantiateRegistrar(String registrarClassName) {
+        try {
+            Class<?> registrarClass = Class.forName(registrarClassName);
+            return (AotBeanDefinitionRegistrar) registrarClass.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new BeansException("无法创建AOT Bean定义注册器 [" + registrarClassName + "]", e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.minispring.context.support;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.PropertyValue;
+import com.minispring.beans.PropertyValues;
+import com.minispring.beans.factory.ConfigurableListableBeanFactory;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.BeanFactoryPostProcessor;
+import com.minispring.beans.factory.config.PropertyPlaceholderResolver;
+import com.minispring.context.ApplicationContext;
+import com.minispring.context.ApplicationContextAware;
+import com.minispring.core.env.Environment;
+import com.minispring.core.io.DefaultResourceLoader;
+import com.minispring.core.io.Resource;
+import com.minispring.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * 属性占位符配置器
+ * 在Bean实例化之前，把Bean定义中字符串属性值里的${...}占位符替换为实际的值
+ *
+ * 1. 先从Environment中查找属性，找不到再从location指定的属性文件中查找
+ * 2. 属性文件按UTF-8读取，多个位置用逗号分隔，位置本身可以包含Environment中的占位符
+ * 3. 每个字符串模板只编译一次，每个属性键只解析一次，同一个值被多个Bean引用时直接命中缓存
+ * 4. 默认遇到无法解析的占位符时报错，可以设置ignoreUnresolvablePlaceholders原样保留
+ */
+public class PropertySourcesPlaceholderConfigurer implements BeanFactoryPostProcessor, ApplicationContextAware {
+
+    private String[] locations = new String[0];
+
+    private boolean ignoreUnresolvablePlaceholders = false;
+
+    private boolean ignoreResourceNotFound = false;
+
+    private Environment environment;
+
+    private ApplicationContext applicationContext;
+
+    /**
+     * 设置属性文件位置，多个位置用逗号分隔
+     * @param location 属性文件位置
+     */
+    public void setLocation(String location) {
+        this.locations = Arrays.stream(location.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * 设置多个属性文件位置，后面的文件覆盖前面文件中的同名属性
+     * @param locations 属性文件位置
+     */
+    public void setLocations(String... locations) {
+        this.locations = locations.clone();
+    }
+
+    /**
+     * 设置是否原样保留无法解析的占位符
+     * @param ignoreUnresolvablePlaceholders 为false时遇到无法解析的占位符抛出异常
+     */
+    public void setIgnoreUnresolvablePlaceholders(boolean ignoreUnresolvablePlaceholders) {
+        this.ignoreUnresolvablePlaceholders = ignoreUnresolvablePlaceholders;
+    }
+
+    /**
+     * 设置属性文件不存在时是否忽略
+     * @param ignoreResourceNotFound 为false时属性文件不存在抛出异常
+     */
+    public void setIgnoreResourceNotFound(boolean ignoreResourceNotFound) {
+        this.ignoreResourceNotFound = ignoreResourceNotFound;
+    }
+
+    /**
+     * 设置查找属性的Environment，不设置时使用所在应用上下文的Environment
+     * @param environment 环境
+     */
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * 替换所有Bean定义中的占位符
+     * @param beanFactory 可配置的Bean工厂
+     * @throws BeansException 加载属性文件失败或占位符无法解析时抛出
+     */
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        Environment environment = this.environment != null ? this.environment
+                : (applicationContext != null ? applicationContext.getEnvironment() : null);
+        Properties localProperties = loadProperties(environment);
+
+        PropertyPlaceholderResolver resolver = new PropertyPlaceholderResolver(key -> {
+            String value = environment != null ? environment.getProperty(key) : null;
+            return value != null ? value : localProperties.getProperty(key);
+        });
+        resolver.setIgnoreUnresolvablePlaceholders(ignoreUnresolvablePlaceholders);
+
+        int count = 0;
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+            PropertyValues propertyValues = beanDefinition.getPropertyValues();
+            for (PropertyValue propertyValue : propertyValues.getPropertyValues()) {
+                Object value = propertyValue.getValue();
+                if (!(value instanceof String) || !resolver.containsPlaceholder((String) value)) {
+                    continue;
+                }
+                String resolved;
+                try {
+                    resolved = resolver.resolvePlaceholders((String) value);
+                } catch (IllegalArgumentException e) {
+                    throw new BeansException("解析Bean '" + beanName + "' 的属性 '" + propertyValue.getName()
+                            + "' 中的占位符失败: " + e.getMessage(), e);
+                }
+                if (!resolved.equals(value)) {
+                    propertyValues.addPropertyValue(new PropertyValue(propertyValue.getName(), resolved));
+                    count++;
+                }
+            }
+        }
+        System.out.println("属性占位符替换完成，替换的属性值数量: " + count);
+    }
+
+    /**
+     * 按顺序加载属性文件
+     */
+    private Properties loadProperties(Environment environment) throws BeansException {
+        Properties properties = new Properties();
+        ResourceLoader resourceLoader = applicationContext instanceof ResourceLoader
+                ? (ResourceLoader) applicationContext : new DefaultResourceLoader();
+        PropertyPlaceholderResolver locationResolver = environment != null ? new PropertyPlaceholderResolver(environment) : null;
+        for (String location : locations) {
+            String resolvedLocation = locationResolver != null ? locationResolver.resolvePlaceholders(location) : location;
+            Resource resource = resourceLoader.getResource(resolvedLocation);
+            try (InputStream inputStream = resource.getInputStream();
+                 Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                if (ignoreResourceNotFound) {
+                    System.out.println("忽略无法加载的属性文件: " + resolvedLocation);
+                    continue;
+                }
+                throw new BeansException("加载属性文件失败 [" + resolvedLocation + "]", e);
+            }
+        }
+        return properties;
+    }
+}
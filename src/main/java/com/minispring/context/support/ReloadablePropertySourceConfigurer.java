@@ -0,0 +1,149 @@
+package com.minispring.context.support;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.ConfigurableListableBeanFactory;
+import com.minispring.beans.factory.DisposableBean;
+import com.minispring.beans.factory.config.BeanFactoryPostProcessor;
+import com.minispring.beans.factory.config.PropertyPlaceholderResolver;
+import com.minispring.context.ApplicationContext;
+import com.minispring.context.ApplicationContextAware;
+import com.minispring.context.ConfigurableApplicationContext;
+import com.minispring.context.event.PropertySourceChangedEvent;
+import com.minispring.core.env.ConfigurableEnvironment;
+import com.minispring.core.env.Environment;
+import com.minispring.core.env.MutablePropertySources;
+import com.minispring.core.env.ReloadablePropertySource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+
+/**
+ * 可重新加载属性文件的配置器
+ * 把文件系统中的属性文件注册为Environment中的属性源，文件变化后自动重新加载，
+ * 并通过应用上下文的事件多播器发布PropertySourceChangedEvent，修改配置不再需要重启
+ *
+ * 重新加载后会重新登记属性源，使属性源集合的版本号递增，BoundConfiguration等依赖版本号的缓存随之更新
+ */
+public class ReloadablePropertySourceConfigurer implements BeanFactoryPostProcessor, ApplicationContextAware, DisposableBean {
+
+    private static final String FILE_URL_PREFIX = "file:";
+
+    private String location;
+
+    private String name;
+
+    private boolean addFirst = true;
+
+    private boolean watch = true;
+
+    private ApplicationContext applicationContext;
+
+    private ReloadablePropertySource propertySource;
+
+    /**
+     * 设置属性文件路径，可以带file:前缀，也可以包含Environment中的占位符
+     * @param location 属性文件路径
+     */
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    /**
+     * 设置属性源名称，默认使用文件路径
+     * @param name 属性源名称
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 设置是否把属性源放在最高优先级，为false时放在最后
+     * @param addFirst 是否最高优先级
+     */
+    public void setAddFirst(boolean addFirst) {
+        this.addFirst = addFirst;
+    }
+
+    /**
+     * 设置是否监听文件变化
+     * @param watch 为false时只加载一次
+     */
+    public void setWatch(boolean watch) {
+        this.watch = watch;
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * 获取注册的属性源
+     * @return 属性源，尚未注册时返回null
+     */
+    public ReloadablePropertySource getPropertySource() {
+        return propertySource;
+    }
+
+    /**
+     * 注册属性源并开始监听文件变化
+     * @param beanFactory 可配置的Bean工厂
+     * @throws BeansException 没有设置文件路径、环境不可配置或读取文件失败时抛出
+     */
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        if (location == null) {
+            throw new BeansException("必须设置属性文件路径location");
+        }
+        Environment environment = applicationContext != null ? applicationContext.getEnvironment() : null;
+        if (!(environment instanceof ConfigurableEnvironment)) {
+            throw new BeansException("可重新加载的属性源需要可配置的Environment");
+        }
+        String resolvedLocation = new PropertyPlaceholderResolver(environment).resolvePlaceholders(location.trim());
+        if (resolvedLocation.startsWith(FILE_URL_PREFIX)) {
+            resolvedLocation = resolvedLocation.substring(FILE_URL_PREFIX.length());
+        }
+        Path file = Paths.get(resolvedLocation);
+        String sourceName = name != null ? name : file.toAbsolutePath().normalize().toString();
+        MutablePropertySources propertySources = ((ConfigurableEnvironment) environment).getPropertySources();
+        try {
+            propertySource = new ReloadablePropertySource(sourceName, file);
+            if (addFirst) {
+                propertySources.addFirst(propertySource);
+            } else {
+                propertySources.addLast(propertySource);
+            }
+            if (watch) {
+                propertySource.startWatching(changedKeys -> onChange(propertySources, changedKeys));
+            }
+        } catch (IOException e) {
+            throw new BeansException("加载属性文件失败 [" + resolvedLocation + "]", e);
+        }
+    }
+
+    /**
+     * 文件重新加载后调用，在监听线程中执行
+     */
+    private void onChange(MutablePropertySources propertySources, Set<String> changedKeys) {
+        if (propertySources.get(propertySource.getName()) == propertySource) {
+            // 重新登记，使属性源集合的版本号递增
+            propertySources.replace(propertySource.getName(), propertySource);
+        }
+        if (applicationContext instanceof ConfigurableApplicationContext) {
+            ((ConfigurableApplicationContext) applicationContext).publishEvent(
+                    new PropertySourceChangedEvent(applicationContext, propertySource.getName(), changedKeys));
+        }
+    }
+
+    /**
+     * 停止监听文件变化
+     */
+    @Override
+    public void destroy() {
+        if (propertySource != null) {
+            propertySource.close();
+        }
+    }
+}
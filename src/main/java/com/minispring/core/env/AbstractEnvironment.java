@@ -1,6 +1,7 @@
 package com.minispring.core.env;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Environment的抽象基类
@@ -33,6 +34,11 @@ public class AbstractEnvironment implements ConfigurableEnvironment{
      */
     private final MutablePropertySources propertySources = new MutablePropertySources();
 
+    /**
+     * 属性查找缓存，属性源集合的版本号变化后整体丢弃
+     */
+    private volatile PropertyCache propertyCache;
+
     /**
      * 构造函数
      */
@@ -264,13 +270,8 @@ public class AbstractEnvironment implements ConfigurableEnvironment{
      */
     @Override
     public String getProperty(String key) {
-        for (PropertySource<?> propertySource : this.propertySources) {
-            Object value = propertySource.getProperty(key);
-            if (value != null) {
-                return value.toString();
-            }
-        }
-        return null;
+        Object value = findProperty(key);
+        return value != null ? value.toString() : null;
     }
       /**
      * 获取指定名称的属性值，如果不存在则使用默认值
@@ -325,12 +326,25 @@ public class AbstractEnvironment implements ConfigurableEnvironment{
      */
     @Override
     public boolean containsProperty(String key) {
-        for (PropertySource<?> propertySource : this.propertySources) {
-            if (propertySource.containsProperty(key)) {
-                return true;
-            }
+        return findProperty(key) != null;
+    }
+
+    /**
+     * 按优先级查找属性值
+     * 属性源集合的版本号没有变化时使用缓存，重复查找同一个键只需一次哈希查找
+     *
+     * @param key 属性名称
+     * @return 属性值，如果不存在返回null
+     */
+    private Object findProperty(String key) {
+        long version = this.propertySources.getVersion();
+        PropertyCache cache = this.propertyCache;
+        if (cache == null || cache.version != version) {
+            // 先读版本号再取快照，快照不会比版本号旧；期间如有修改，下次查找会再次重建
+            cache = new PropertyCache(version, this.propertySources.toArray());
+            this.propertyCache = cache;
         }
-        return false;
+        return cache.get(key);
     }
 
     /**
@@ -379,8 +393,89 @@ public class AbstractEnvironment implements ConfigurableEnvironment{
                 ", propertySources=" + this.propertySources + "}";
     }
 
+    /**
+     * 某个版本的属性源快照及其查找缓存
+     *
+     * 只缓存不可变属性源中的结果（包括在所有不可变属性源中都没找到）；
+     * 命中缓存时仍会检查排在命中位置之前的可变属性源（如系统属性），因此System.setProperty之后也能立刻生效
+     */
+    private static final class PropertyCache {
+
+        /**
+         * 缓存条目的上限，超过后不再缓存新的键
+         */
+        private static final int MAX_SIZE = 8192;
 
+        private final long version;
 
+        private final PropertySource<?>[] sources;
 
+        /**
+         * 排在每个位置之前的可变属性源下标
+         */
+        private final int[][] mutableBefore;
 
+        private final Map<String, CachedProperty> cache = new ConcurrentHashMap<>();
+
+        PropertyCache(long version, PropertySource<?>[] sources) {
+            this.version = version;
+            this.sources = sources;
+            this.mutableBefore = new int[sources.length + 1][];
+            List<Integer> mutable = new ArrayList<>();
+            for (int i = 0; i <= sources.length; i++) {
+                this.mutableBefore[i] = mutable.stream().mapToInt(Integer::intValue).toArray();
+                if (i < sources.length && !sources[i].isImmutable()) {
+                    mutable.add(i);
+                }
+            }
+        }
+
+        Object get(String key) {
+            CachedProperty cached = cache.get(key);
+            if (cached != null) {
+                for (int index : mutableBefore[cached.sourceIndex]) {
+                    Object value = sources[index].getProperty(key);
+                    if (value != null) {
+                        return value;
+                    }
+                }
+                return cached.value;
+            }
+            for (int i = 0; i < sources.length; i++) {
+                Object value = sources[i].getProperty(key);
+                if (value != null) {
+                    if (sources[i].isImmutable()) {
+                        put(key, new CachedProperty(value, i));
+                    }
+                    return value;
+                }
+            }
+            put(key, new CachedProperty(null, sources.length));
+            return null;
+        }
+
+        private void put(String key, CachedProperty cachedProperty) {
+            if (cache.size() < MAX_SIZE) {
+                cache.put(key, cachedProperty);
+            }
+        }
+    }
+
+    /**
+     * 缓存的查找结果
+     */
+    private static final class CachedProperty {
+
+        private final Object value;
+
+        /**
+         * 值所在的属性源下标，没找到时等于属性源数量
+         */
+        private final int sourceIndex;
+
+        CachedProperty(Object value, int sourceIndex) {
+            this.value = value;
+            this.sourceIndex = sourceIndex;
+        }
+    }
 }
@@ -8,6 +8,11 @@ import java.util.Map;
  */
 public class MapPropertySource extends PropertySource<Map<String, Object>>{
 
+    /**
+     * 底层Map是否不再修改
+     */
+    private final boolean immutable;
+
     /**
      * 构造函数
      * 调用父类构造函数：
@@ -23,7 +28,19 @@ public class MapPropertySource extends PropertySource<Map<String, Object>>{
      * 值可以是任何类型的对象（如字符串、数字、布尔值等），因此使用 Object 作为泛型参数以支持多种类型。
      */
     public MapPropertySource(String name, Map<String, Object> source) {
+        this(name, source, false);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param name 属性源名称
+     * @param source 属性Map
+     * @param immutable Map创建后是否不再修改，为true时Environment可以缓存查找结果
+     */
+    public MapPropertySource(String name, Map<String, Object> source, boolean immutable) {
         super(name, source);
+        this.immutable = immutable;
     }
     /**
      * 获取指定名称的属性值
@@ -45,4 +62,14 @@ public class MapPropertySource extends PropertySource<Map<String, Object>>{
     public boolean containsProperty(String name) {
         return this.source.containsKey(name);
     }
+
+    /**
+     * 底层Map是否不再修改
+     *
+     * @return 是否不可变
+     */
+    @Override
+    public boolean isImmutable() {
+        return this.immutable;
+    }
 }
@@ -1,12 +1,19 @@
 package com.minispring.core.env;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 可变属性元集合
  * 提供对属性源的增删改操作
+ *
+ * 每次修改都会递增版本号，并重建按名称查找的索引；
+ * Environment根据版本号判断缓存的属性查找结果是否失效
  */
 public class MutablePropertySources implements PropertySources{
 
@@ -16,6 +23,16 @@ public class MutablePropertySources implements PropertySources{
      */
     private final List<PropertySource<?>> propertySources;
 
+    /**
+     * 版本号，每次修改后递增
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 名称 -> 属性源，每次修改后整体替换
+     */
+    private volatile Map<String, PropertySource<?>> nameIndex = Collections.emptyMap();
+
     /**
      * 默认构造函数
      */
@@ -30,6 +47,7 @@ public class MutablePropertySources implements PropertySources{
      */
     public MutablePropertySources(List<PropertySource<?>> propertySources){
         this.propertySources = new CopyOnWriteArrayList<>(propertySources);
+        changed();
     }
 
     /**
@@ -44,18 +62,20 @@ public class MutablePropertySources implements PropertySources{
      * 添加属性源到顶部
      * @return
      */
-    public void addFirst(PropertySource<?> propertySource){
+    public synchronized void addFirst(PropertySource<?> propertySource){
         removeIfPresent(propertySource);
         this.propertySources.add(0, propertySource);
+        changed();
     }
 
     /**
      * 添加属性源到底部
      * @return
      */
-    public void addLast(PropertySource<?> propertySource) {
+    public synchronized void addLast(PropertySource<?> propertySource) {
         removeIfPresent(propertySource);
         this.propertySources.add(propertySource);
+        changed();
     }
 
     /**
@@ -70,7 +90,9 @@ public class MutablePropertySources implements PropertySources{
      *  检查该名称是否与目标属性源 propertySource.getName() 相等。
      */
     private void removeIfPresent(PropertySource<?> propertySource){
-        this.propertySources.removeIf(source -> source.getName().equals(propertySource.getName()));
+        if (this.propertySources.removeIf(source -> source.getName().equals(propertySource.getName()))) {
+            changed();
+        }
     }
 
     /**
@@ -80,7 +102,7 @@ public class MutablePropertySources implements PropertySources{
      * @param propertySource 要添加的属性源
      * @throws IllegalArgumentException 如果相对属性源不存在
      */
-    public void addBefore(String relativePropertySourceName, PropertySource<?> propertySource) {
+    public synchronized void addBefore(String relativePropertySourceName, PropertySource<?> propertySource) {
         assertLegalRelativeAddition(relativePropertySourceName, propertySource);
         removeIfPresent(propertySource);// 如果属性源已存在则移除
         int index = indexOf(relativePropertySourceName);// 获取相对属性源的索引
@@ -89,6 +111,7 @@ public class MutablePropertySources implements PropertySources{
                     "属性源 '" + relativePropertySourceName + "' 不存在");
         }
         this.propertySources.add(index, propertySource);
+        changed();
     }
     /**
      * 在指定名称的属性源之后添加属性源
@@ -97,7 +120,7 @@ public class MutablePropertySources implements PropertySources{
      * @param propertySource 要添加的属性源
      * @throws IllegalArgumentException 如果相对属性源不存在
      */
-    public void addAfter(String relativePropertySourceName,PropertySource<?> propertySource){
+    public synchronized void addAfter(String relativePropertySourceName,PropertySource<?> propertySource){
         assertLegalRelativeAddition(relativePropertySourceName, propertySource);
         removeIfPresent(propertySource);
         int index = indexOf(relativePropertySourceName);
@@ -106,6 +129,7 @@ public class MutablePropertySources implements PropertySources{
                     "属性源 '" + relativePropertySourceName + "' 不存在");
         }
         this.propertySources.add(index + 1,propertySource);
+        changed();
     }
 
     /**
@@ -113,12 +137,13 @@ public class MutablePropertySources implements PropertySources{
      * @param name 属性源名称
      * @return
      */
-    public void replace(String name,PropertySource<?> propertySource){
+    public synchronized void replace(String name,PropertySource<?> propertySource){
         int index = indexOf(name);
         if (index == -1){
             throw new IllegalArgumentException("属性源 '" + name + "' 不存在");
         }
         this.propertySources.set(index,propertySource);
+        changed();
     }
 
     /**
@@ -126,10 +151,12 @@ public class MutablePropertySources implements PropertySources{
      * @param name 属性源名称
      * @return
      */
-    public PropertySource<?> remove(String name) {
+    public synchronized PropertySource<?> remove(String name) {
         int index = indexOf(name);
         if (index != -1) {// 如果存在则移除
-            return this.propertySources.remove(index);
+            PropertySource<?> removed = this.propertySources.remove(index);
+            changed();
+            return removed;
         }
         return null;
     }
@@ -172,34 +199,52 @@ public class MutablePropertySources implements PropertySources{
     /**
      * 获取指定名称的属性源
      * @param name 属性源名称
-     * @return
+     * @return 属性源，如果不存在返回null
      */
     @Override
     public PropertySource<?> get(String name) {
-        for (PropertySource<?> propertySource : this.propertySources){
-            if (propertySource.getName().equals(name)){
-                return propertySource;
-            }
-        }
-        return null;
+        return this.nameIndex.get(name);
     }
 
     /**
      * 判断指定名称的属性源是否存在
      * @param name 属性源名称
-     * @return
-     *
-     * propertySource -> propertySource.getName().equals(name)
-     * 这是一个 Lambda 表达式
-     * 它的含义是：
-     * 遍历集合中的每个 source 元素。
-     * 调用 source.getName() 获取当前元素的名称。
-     * 检查该名称是否与目标属性源 propertySource.getName() 相等。
+     * @return 如果存在返回true，否则返回false
      */
     @Override
     public boolean contains(String name) {
-        return this.propertySources.stream()
-                .anyMatch(propertySource -> propertySource.getName().equals(name));
+        return this.nameIndex.containsKey(name);
+    }
+
+    /**
+     * 获取版本号
+     * 任何增删改操作之后版本号都会变化
+     *
+     * @return 版本号
+     */
+    public long getVersion() {
+        return this.version.get();
+    }
+
+    /**
+     * 获取当前属性源的快照，按优先级排列
+     *
+     * @return 属性源数组
+     */
+    PropertySource<?>[] toArray() {
+        return this.propertySources.toArray(new PropertySource<?>[0]);
+    }
+
+    /**
+     * 修改后重建名称索引并递增版本号
+     */
+    private void changed() {
+        Map<String, PropertySource<?>> index = new HashMap<>();
+        for (PropertySource<?> propertySource : this.propertySources) {
+            index.putIfAbsent(propertySource.getName(), propertySource);
+        }
+        this.nameIndex = index;
+        this.version.incrementAndGet();
     }
 
     /**
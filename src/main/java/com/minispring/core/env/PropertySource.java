@@ -61,6 +61,17 @@ public abstract class PropertySource<T> {
      */
     public abstract Object getProperty(String name);
 
+    /**
+     * 底层数据是否不会在属性源对象之外被修改
+     * Environment会缓存从不可变属性源中查到的值；可变的属性源每次查找都会重新访问
+     * 默认返回false，子类确认底层数据不变时覆盖
+     *
+     * @return 是否不可变
+     */
+    public boolean isImmutable() {
+        return false;
+    }
+
     /**
      * 重写equals方法
      * 根据属性源名称判断两个属性源是否相等
@@ -0,0 +1,290 @@
+package com.minispring.core.env;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 基于文件、可以在运行期间重新加载的属性源
+ * 支持properties文件，以及.yml/.yaml结尾的简单键值文件（按缩进嵌套，键用点号连接，不支持列表）
+ *
+ * 1. 每次加载都创建新的不可变Map并整体替换，读取时不加锁，也不会读到加载到一半的内容
+ * 2. startWatching使用WatchService监听文件所在目录，文件变化后重新加载，并把变化的键回调给监听方；
+ *    收到变化后等待一段静默期再加载，避免读到正在写入的文件，更新文件时最好先写临时文件再原子移动过去
+ * 3. 文件内容会变化，所以isImmutable返回false，Environment不会缓存这个属性源中的值
+ */
+public class ReloadablePropertySource extends PropertySource<Path> implements Closeable {
+
+    /**
+     * 当前的属性，每次加载后整体替换
+     */
+    private volatile Map<String, Object> properties;
+
+    /**
+     * 默认的静默期（毫秒）
+     */
+    private static final long DEFAULT_QUIET_PERIOD = 100;
+
+    private volatile WatchService watchService;
+
+    private volatile long quietPeriod = DEFAULT_QUIET_PERIOD;
+
+    private Thread watchThread;
+
+    /**
+     * 构造函数，立即加载一次文件
+     *
+     * @param name 属性源名称
+     * @param file 属性文件
+     * @throws IOException 读取文件失败时抛出
+     */
+    public ReloadablePropertySource(String name, Path file) throws IOException {
+        super(name, file.toAbsolutePath().normalize());
+        this.properties = load(getSource());
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return this.properties.get(name);
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return this.properties.containsKey(name);
+    }
+
+    /**
+     * 当前所有属性的只读视图
+     *
+     * @return 属性Map
+     */
+    public Map<String, Object> getProperties() {
+        return this.properties;
+    }
+
+    /**
+     * 设置静默期，文件变化后在这段时间内没有新的变化才重新加载
+     *
+     * @param quietPeriod 静默期（毫秒）
+     */
+    public void setQuietPeriod(long quietPeriod) {
+        this.quietPeriod = quietPeriod;
+    }
+
+    /**
+     * 重新加载文件，用新的属性整体替换原来的属性
+     *
+     * @return 新增、删除或值发生变化的键，没有变化时返回空集合
+     * @throws IOException 读取文件失败时抛出，原来的属性保持不变
+     */
+    public synchronized Set<String> reload() throws IOException {
+        Map<String, Object> loaded = load(getSource());
+        Map<String, Object> previous = this.properties;
+        Set<String> changedKeys = new LinkedHashSet<>();
+        for (Map.Entry<String, Object> entry : loaded.entrySet()) {
+            if (!Objects.equals(entry.getValue(), previous.get(entry.getKey()))) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+        for (String key : previous.keySet()) {
+            if (!loaded.containsKey(key)) {
+                changedKeys.add(key);
+            }
+        }
+        if (!changedKeys.isEmpty()) {
+            this.properties = loaded;
+        }
+        return Collections.unmodifiableSet(changedKeys);
+    }
+
+    /**
+     * 开始监听文件变化，文件变化并重新加载后在监听线程中回调变化的键
+     *
+     * @param listener 变化回调，只有确实有键变化时才会回调
+     * @throws IOException 创建WatchService失败时抛出
+     */
+    public synchronized void startWatching(Consumer<Set<String>> listener) throws IOException {
+        if (watchService != null) {
+            throw new IllegalStateException("属性源 [" + getName() + "] 已经在监听文件变化");
+        }
+        Path file = getSource();
+        WatchService service = FileSystems.getDefault().newWatchService();
+        file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        this.watchService = service;
+        this.watchThread = new Thread(() -> watchLoop(service, listener), "property-source-watcher-" + getName());
+        this.watchThread.setDaemon(true);
+        this.watchThread.start();
+        System.out.println("开始监听属性文件: " + file);
+    }
+
+    private void watchLoop(WatchService service, Consumer<Set<String>> listener) {
+        Path fileName = getSource().getFileName();
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            boolean affected = isAffected(key, fileName);
+            boolean valid = key.reset();
+            try {
+                // 等待静默期内的后续变化，合并为一次加载
+                WatchKey next;
+                while (valid && (next = service.poll(quietPeriod, TimeUnit.MILLISECONDS)) != null) {
+                    affected |= isAffected(next, fileName);
+                    valid = next.reset();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            if (affected) {
+                try {
+                    Set<String> changedKeys = reload();
+                    if (!changedKeys.isEmpty()) {
+                        System.out.println("属性文件已重新加载 [" + getSource() + "]，变化的键: " + changedKeys);
+                        listener.accept(changedKeys);
+                    }
+                } catch (IOException e) {
+                    // 文件被删除或正在写入，保留原来的属性，等待下一次变化
+                    System.err.println("重新加载属性文件失败 [" + getSource() + "]: " + e.getMessage());
+                } catch (RuntimeException e) {
+                    System.err.println("处理属性文件变化时发生错误: " + e.getMessage());
+                }
+            }
+            if (!valid) {
+                System.err.println("属性文件所在目录已不可访问，停止监听: " + getSource().getParent());
+                return;
+            }
+        }
+    }
+
+    private boolean isAffected(WatchKey key, Path fileName) {
+        boolean affected = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // OVERFLOW时无法知道具体文件，按可能变化处理
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                affected = true;
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * 停止监听文件变化
+     */
+    @Override
+    public synchronized void close() {
+        WatchService service = this.watchService;
+        if (service == null) {
+            return;
+        }
+        this.watchService = null;
+        try {
+            service.close();
+        } catch (IOException e) {
+            System.err.println("关闭WatchService失败: " + e.getMessage());
+        }
+        try {
+            this.watchThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.watchThread = null;
+    }
+
+    /**
+     * 按扩展名解析属性文件
+     */
+    private static Map<String, Object> load(Path file) throws IOException {
+        String fileName = file.getFileName().toString().toLowerCase();
+        Map<String, Object> result = new HashMap<>();
+        if (fileName.endsWith(".yml") || fileName.endsWith(".yaml")) {
+            parseYaml(Files.readAllLines(file, StandardCharsets.UTF_8), result);
+        } else {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            for (String key : properties.stringPropertyNames()) {
+                result.put(key, properties.getProperty(key));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 解析按缩进嵌套的键值文件
+     * 如"server:\n  port: 8080"解析为server.port=8080
+     */
+    private static void parseYaml(List<String> lines, Map<String, Object> result) throws IOException {
+        // 缩进 -> 键，栈顶是当前层级的父键
+        Deque<Map.Entry<Integer, String>> parents = new ArrayDeque<>();
+        int lineNumber = 0;
+        for (String line : lines) {
+            lineNumber++;
+            String content = stripComment(line);
+            if (content.trim().isEmpty() || content.trim().equals("---")) {
+                continue;
+            }
+            int indent = 0;
+            while (indent < content.length() && content.charAt(indent) == ' ') {
+                indent++;
+            }
+            int colon = content.indexOf(':', indent);
+            if (colon == -1) {
+                throw new IOException("第 " + lineNumber + " 行不是键值格式: " + line);
+            }
+            while (!parents.isEmpty() && parents.peek().getKey() >= indent) {
+                parents.pop();
+            }
+            String key = content.substring(indent, colon).trim();
+            String fullKey = parents.isEmpty() ? key : parents.peek().getValue() + "." + key;
+            String value = content.substring(colon + 1).trim();
+            if (value.isEmpty()) {
+                parents.push(new LinkedHashMap.SimpleEntry<>(indent, fullKey));
+            } else {
+                result.put(fullKey, unquote(value));
+            }
+        }
+    }
+
+    private static String stripComment(String line) {
+        int index = line.indexOf(" #");
+        if (line.trim().startsWith("#")) {
+            return "";
+        }
+        return index == -1 ? line : line.substring(0, index);
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.startsWith("\"") && value.endsWith("\"")
+                || value.startsWith("'") && value.endsWith("'"))) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+}
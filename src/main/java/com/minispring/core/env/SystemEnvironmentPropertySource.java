@@ -1,13 +1,33 @@
 package com.minispring.core.env;
 
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 用于处理系统环境变量的PropertySource
  * 系统环境变量通常是大写且包含下划线
  * 此类提供了对环境变量不同格式的支持
+ *
+ * 环境变量在进程运行期间不会变化，源Map视为不可变：
+ * 每个属性名第一次查找时解析出实际的键名并记入索引，之后的查找只需一次哈希查找，不再创建转换后的字符串
  */
 public class SystemEnvironmentPropertySource extends MapPropertySource{
+
+    /**
+     * 索引中表示"没有对应的环境变量"的标记
+     */
+    private static final String NO_MATCH = new String("<no match>");
+
+    /**
+     * 索引条目的上限，防止大量不同的属性名撑大索引
+     */
+    private static final int MAX_INDEX_SIZE = 4096;
+
+    /**
+     * 属性名 -> 实际的环境变量键名
+     */
+    private final Map<String, String> relaxedNameIndex = new ConcurrentHashMap<>();
+
     /**
      * 构造函数
      *
@@ -15,7 +35,7 @@ public class SystemEnvironmentPropertySource extends MapPropertySource{
      * @param source 系统环境变量Map
      */
     public SystemEnvironmentPropertySource(String name, Map<String, Object> source) {
-        super(name, source);
+        super(name, source, true);
     }
 
     /**
@@ -53,6 +73,24 @@ public class SystemEnvironmentPropertySource extends MapPropertySource{
      * @return 实际的环境变量键名，如果不存在返回null
      */
     private String resolveKey(String name) {
+        String indexed = relaxedNameIndex.get(name);
+        if (indexed != null) {
+            return indexed == NO_MATCH ? null : indexed;
+        }
+        String actualKey = doResolveKey(name);
+        if (relaxedNameIndex.size() < MAX_INDEX_SIZE) {
+            relaxedNameIndex.put(name, actualKey != null ? actualKey : NO_MATCH);
+        }
+        return actualKey;
+    }
+
+    /**
+     * 按原始、大写、大写下划线的顺序查找实际的键名
+     *
+     * @param name 属性名
+     * @return 实际的环境变量键名，如果不存在返回null
+     */
+    private String doResolveKey(String name) {
         // 尝试原始键名
         if (super.containsProperty(name)) {
             return name;
@@ -1,13 +1,40 @@
 package com.minispring.core.io;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 类路径资源加载器
+ * 资源在目录中时解析为文件，可以直接打开FileChannel和内存映射；在jar中时解析为jar条目，长度和修改时间取自条目元数据
+ *
+ * 资源位置按类加载器缓存，同一个类加载器下同一路径只调用一次ClassLoader.getResource，
+ * 类路径很大时（如fat jar）可以避免重复扫描；资源不存在的结果也会缓存，类路径变化后调用clearCache()
  */
 public class ClassPathResource implements Resource{
+
+    /**
+     * 每个类加载器缓存的路径数上限，超过后不再缓存新的路径
+     */
+    private static final int MAX_CACHE_SIZE = 4096;
+
+    /**
+     * 表示资源不存在的缓存值
+     */
+    private static final Object NOT_FOUND = new Object();
+
+    /**
+     * 类加载器 -> (路径 -> URL或NOT_FOUND)，类加载器被回收后对应的缓存随之释放
+     */
+    private static final Map<ClassLoader, Map<String, Object>> LOCATION_CACHE = new WeakHashMap<>();
+
     private final String path;//路径
     private final  ClassLoader classLoader;//类加载器,用于加载资源文件
 
@@ -44,9 +71,38 @@ public class ClassPathResource implements Resource{
 
 
 
+    /**
+     * 清空所有类加载器的资源位置缓存
+     */
+    public static void clearCache() {
+        synchronized (LOCATION_CACHE) {
+            LOCATION_CACHE.clear();
+        }
+    }
+
+    /**
+     * 通过缓存解析资源的URL
+     * @return 资源URL，不存在时返回null
+     */
+    private URL resolveURL() {
+        Map<String, Object> locations;
+        synchronized (LOCATION_CACHE) {
+            locations = LOCATION_CACHE.computeIfAbsent(classLoader, cl -> new ConcurrentHashMap<>());
+        }
+        Object location = locations.get(path);
+        if (location == null) {
+            URL url = classLoader.getResource(path);
+            location = url != null ? url : NOT_FOUND;
+            if (locations.size() < MAX_CACHE_SIZE) {
+                locations.putIfAbsent(path, location);
+            }
+        }
+        return location != NOT_FOUND ? (URL) location : null;
+    }
+
     @Override
     public boolean exists() {
-        return classLoader.getResource(path)!=null;
+        return resolveURL() != null;
     }
 
     /**
@@ -66,11 +122,58 @@ public class ClassPathResource implements Resource{
      */
     @Override
     public InputStream getInputStream() throws IOException {
-        InputStream resourceAsStream = classLoader.getResourceAsStream(path);
-        if (resourceAsStream == null){
+        return getURL().openStream();
+    }
+
+    /**
+     * 解析资源的URL
+     * @return 资源URL
+     * @throws FileNotFoundException 资源不存在时
+     */
+    public URL getURL() throws FileNotFoundException {
+        URL url = resolveURL();
+        if (url == null) {
             throw new FileNotFoundException("类路径资源 [" + path + "] 不存在");
         }
-        return resourceAsStream;
+        return url;
+    }
+
+    /**
+     * 资源是否在文件系统的目录中，而不是在jar中
+     * @return 是否是文件
+     */
+    @Override
+    public boolean isFile() {
+        return UrlResource.isFileUrl(resolveURL());
+    }
+
+    @Override
+    public File getFile() throws IOException {
+        return UrlResource.toFile(getURL(), getDescription());
+    }
+
+    @Override
+    public ReadableByteChannel readableChannel() throws IOException {
+        URL url = getURL();
+        if (UrlResource.isFileUrl(url)) {
+            return new FileSystemResource(UrlResource.toFile(url, getDescription())).readableChannel();
+        }
+        return Resource.super.readableChannel();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return UrlResource.contentLength(getURL(), this);
+    }
+
+    @Override
+    public long lastModified() throws IOException {
+        return UrlResource.lastModified(getURL(), this);
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer() throws IOException {
+        return UrlResource.asByteBuffer(getURL(), this);
     }
 
     /**
@@ -15,6 +15,11 @@ import java.net.URL;
 public class DefaultResourceLoader implements ResourceLoader{
     private ClassLoader classLoader;
 
+    /**
+     * URL资源使用的缓存，为null时不缓存
+     */
+    private UrlResourceCache urlResourceCache;
+
     public DefaultResourceLoader(ClassLoader classLoader) {
         // 如果外部传入了ClassLoader，则使用外部传入的ClassLoader
         this.classLoader = classLoader;
@@ -51,7 +56,7 @@ public class DefaultResourceLoader implements ResourceLoader{
         try {
             // 尝试作为URL资源加载
             URL url = new URL(resourceLocation);
-            return new UrlResource(url);
+            return new UrlResource(url, this.urlResourceCache);
         } catch (MalformedURLException ex) {
             // 作为文件系统资源加载
             return new FileSystemResource(resourceLocation);
@@ -82,4 +87,16 @@ public class DefaultResourceLoader implements ResourceLoader{
     public void setClassLoader(ClassLoader classLoader) {
         this.classLoader = classLoader;
     }
+
+    /**
+     * 设置HTTP和HTTPS资源使用的缓存
+     * @param urlResourceCache 缓存，为null时每次都直接请求
+     */
+    public void setUrlResourceCache(UrlResourceCache urlResourceCache) {
+        this.urlResourceCache = urlResourceCache;
+    }
+
+    public UrlResourceCache getUrlResourceCache() {
+        return this.urlResourceCache;
+    }
 }
@@ -2,10 +2,16 @@ package com.minispring.core.io;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
  * 文件资源实现类
@@ -49,6 +55,12 @@ public class FileSystemResource implements Resource{
         return path;
     }
 
+    @Override
+    public boolean isFile() {
+        return true;
+    }
+
+    @Override
     public File getFile() {
         return file;
     }
@@ -87,13 +99,61 @@ public class FileSystemResource implements Resource{
         return "文件系统资源 [" + path + "]";
     }
 
+    /**
+     * 获取文件的读取通道
+     * @return FileChannel
+     * @throws IOException 文件不存在或无法打开时
+     */
+    @Override
+    public ReadableByteChannel readableChannel() throws IOException {
+        try {
+            return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        } catch (NoSuchFileException ex) {
+            throw new FileNotFoundException("文件不存在 [" + path + "]");
+        }
+    }
+
+    /**
+     * 获取文件大小
+     * @return 字节数
+     * @throws IOException 文件不存在时
+     */
+    @Override
+    public long contentLength() throws IOException {
+        try {
+            return Files.size(file.toPath());
+        } catch (NoSuchFileException ex) {
+            throw new FileNotFoundException("文件不存在 [" + path + "]");
+        }
+    }
+
     /**
      * 获取文件的最后修改时间
      */
+    @Override
     public long lastModified() throws IOException{
         return Files.getLastModifiedTime(file.toPath()).toMillis();
 
     }
+
+    /**
+     * 把文件内存映射为只读ByteBuffer
+     * 映射建立后即可关闭通道，内容由操作系统按需换页，不占用堆内存
+     * @return 只读的MappedByteBuffer
+     * @throws IOException 文件不存在或超过2GB时
+     */
+    @Override
+    public ByteBuffer asByteBuffer() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("文件超过2GB，无法映射为单个ByteBuffer [" + path + "]");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (NoSuchFileException ex) {
+            throw new FileNotFoundException("文件不存在 [" + path + "]");
+        }
+    }
     /**
      * 创建相对于此资源的新资源
      * @param relativePath 相对路径
@@ -0,0 +1,442 @@
+package com.minispring.core.io;
+
+import com.minispring.core.util.AntPathMatcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.JarURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+/**
+ * 基于Ant风格路径匹配的资源模式解析器
+ *
+ * 1. 位置模式先拆分为根目录和子模式，如classpath*:META-INF/*-beans.xml拆分为classpath*:META-INF/和*-beans.xml
+ * 2. 根目录解析为一个或多个根（classpath*:时每个类路径根各一个），多个根在每次解析自己的有界线程池中并行遍历，
+ *    结果按根的顺序合并
+ * 3. 目录使用Files.walkFileTree遍历，子模式不含**时限制遍历深度
+ * 4. jar使用排好序的条目名索引查找，索引由解析器按jar文件缓存，jar文件的修改时间或大小变化后重建
+ * 5. 解析结果按位置模式缓存，类路径内容变化后可以调用clearCache，同时清空jar索引
+ */
+public class PathMatchingResourcePatternResolver implements ResourcePatternResolver {
+
+    private final ResourceLoader resourceLoader;
+
+    /**
+     * jar文件路径 -> 条目名索引，随解析器一起释放
+     */
+    private final Map<String, JarIndex> jarIndexCache = new ConcurrentHashMap<>();
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();//并行遍历的最大线程数
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    /**
+     * 位置模式 -> 解析结果
+     */
+    private final Map<String, Resource[]> resultCache = new ConcurrentHashMap<>();
+
+    private boolean cacheEnabled = true;
+
+    public PathMatchingResourcePatternResolver() {
+        this(new DefaultResourceLoader());
+    }
+
+    public PathMatchingResourcePatternResolver(ClassLoader classLoader) {
+        this(new DefaultResourceLoader(classLoader));
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param resourceLoader 解析单个位置使用的资源加载器
+     */
+    public PathMatchingResourcePatternResolver(ResourceLoader resourceLoader) {
+        if (resourceLoader == null) {
+            throw new IllegalArgumentException("资源加载器不能为空");
+        }
+        this.resourceLoader = resourceLoader;
+    }
+
+    /**
+     * 设置是否缓存解析结果
+     * @param cacheEnabled 默认开启
+     */
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    /**
+     * 清空解析结果缓存和jar索引，类路径或目录内容变化后调用
+     */
+    public void clearCache() {
+        resultCache.clear();
+        jarIndexCache.clear();
+    }
+
+    /**
+     * 设置并行遍历多个根的最大线程数
+     * 每次解析使用自己的线程池，线程数不超过根的个数，解析结束后关闭
+     *
+     * @param parallelism 最大线程数，小于2时顺序遍历，默认为CPU核数
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public ResourceLoader getResourceLoader() {
+        return resourceLoader;
+    }
+
+    @Override
+    public Resource getResource(String resourceLocation) {
+        return resourceLoader.getResource(resourceLocation);
+    }
+
+    @Override
+    public ClassLoader getClassLoader() {
+        return resourceLoader.getClassLoader();
+    }
+
+    /**
+     * 判断位置是否需要按模式解析为多个资源
+     *
+     * @param location 位置
+     * @return 以classpath*:开头或包含通配符时返回true
+     */
+    public boolean isPattern(String location) {
+        return location.startsWith(CLASSPATH_ALL_URL_PREFIX)
+                || pathMatcher.isPattern(location.substring(location.indexOf(':') + 1));
+    }
+
+    @Override
+    public Resource[] getResources(String locationPattern) throws IOException {
+        if (locationPattern == null || locationPattern.isEmpty()) {
+            throw new IllegalArgumentException("资源路径不能为空");
+        }
+        if (!isPattern(locationPattern)) {
+            return new Resource[]{getResource(locationPattern)};
+        }
+        if (!cacheEnabled) {
+            return doGetResources(locationPattern);
+        }
+        Resource[] resources = resultCache.get(locationPattern);
+        if (resources == null) {
+            resources = doGetResources(locationPattern);
+            resultCache.put(locationPattern, resources);
+        }
+        return resources.clone();
+    }
+
+    private Resource[] doGetResources(String locationPattern) throws IOException {
+        if (locationPattern.startsWith(CLASSPATH_ALL_URL_PREFIX)) {
+            String path = locationPattern.substring(CLASSPATH_ALL_URL_PREFIX.length());
+            if (pathMatcher.isPattern(path)) {
+                return findPathMatchingResources(locationPattern);
+            }
+            return findAllClassPathResources(path);
+        }
+        if (pathMatcher.isPattern(locationPattern.substring(locationPattern.indexOf(':') + 1))) {
+            return findPathMatchingResources(locationPattern);
+        }
+        return new Resource[]{getResource(locationPattern)};
+    }
+
+    /**
+     * 在所有类路径根中查找指定路径
+     */
+    private Resource[] findAllClassPathResources(String path) throws IOException {
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        Set<Resource> resources = new LinkedHashSet<>();
+        Enumeration<URL> urls = getClassLoader().getResources(path);
+        while (urls.hasMoreElements()) {
+            resources.add(new UrlResource(urls.nextElement()));
+        }
+        if (path.isEmpty()) {
+            // ClassLoader.getResources("")只返回目录根，jar根需要从类加载器的URL中补充
+            addJarRoots(getClassLoader(), resources);
+        }
+        return resources.toArray(new Resource[0]);
+    }
+
+    private void addJarRoots(ClassLoader classLoader, Set<Resource> resources) {
+        Set<String> jarPaths = new LinkedHashSet<>();
+        for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+            if (cl instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) cl).getURLs()) {
+                    if (UrlResource.isFileUrl(url) && url.getPath().endsWith(".jar")) {
+                        jarPaths.add(url.toString());
+                    }
+                }
+            }
+            if (cl == ClassLoader.getSystemClassLoader()) {
+                for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+                    if (entry.endsWith(".jar")) {
+                        try {
+                            jarPaths.add(new File(entry).getAbsoluteFile().toURI().toURL().toString());
+                        } catch (MalformedURLException ex) {
+                            System.out.println("跳过无效的类路径条目: " + entry);
+                        }
+                    }
+                }
+            }
+        }
+        for (String jarPath : jarPaths) {
+            try {
+                resources.add(new UrlResource("jar:" + jarPath + "!/"));
+            } catch (MalformedURLException ex) {
+                System.out.println("跳过无效的jar: " + jarPath);
+            }
+        }
+    }
+
+    /**
+     * 解析根目录，在每个根下查找匹配子模式的资源
+     */
+    private Resource[] findPathMatchingResources(String locationPattern) throws IOException {
+        String rootDir = pathMatcher.determineRootDir(locationPattern);
+        String subPattern = locationPattern.substring(rootDir.length());
+        Resource[] roots = doGetResources(rootDir);
+
+        List<List<Resource>> results = new ArrayList<>(roots.length);
+        if (roots.length < 2 || parallelism < 2) {
+            for (Resource root : roots) {
+                results.add(findInRoot(root, subPattern));
+            }
+        } else {
+            // 目录遍历和jar索引是阻塞IO，不占用公共线程池
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, roots.length),
+                    new ResolverThreadFactory(getClassLoader()));
+            try {
+                List<Future<List<Resource>>> futures = new ArrayList<>(roots.length);
+                for (Resource root : roots) {
+                    futures.add(executor.submit(() -> findInRoot(root, subPattern)));
+                }
+                for (Future<List<Resource>> future : futures) {
+                    try {
+                        results.add(future.get());
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof IOException) {
+                            throw (IOException) cause;
+                        }
+                        if (cause instanceof RuntimeException) {
+                            throw (RuntimeException) cause;
+                        }
+                        if (cause instanceof Error) {
+                            throw (Error) cause;
+                        }
+                        throw new IOException("解析资源位置失败 [" + locationPattern + "]", cause);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("解析资源位置 [" + locationPattern + "] 时被中断");
+                    }
+                }
+            } finally {
+                // 出错时不再等待其余根的遍历
+                executor.shutdownNow();
+            }
+        }
+
+        Set<Resource> resources = new LinkedHashSet<>();
+        for (List<Resource> result : results) {
+            resources.addAll(result);
+        }
+        return resources.toArray(new Resource[0]);
+    }
+
+    /**
+     * 在一个根下查找匹配子模式的资源，结果按路径排序
+     */
+    private List<Resource> findInRoot(Resource root, String subPattern) throws IOException {
+        URL rootUrl = getUrl(root);
+        if (rootUrl == null) {
+            return Collections.emptyList();
+        }
+        if (UrlResource.isFileUrl(rootUrl)) {
+            return findInDirectory(UrlResource.toFile(rootUrl, root.getDescription()), subPattern);
+        }
+        if ("jar".equals(rootUrl.getProtocol())) {
+            return findInJar(rootUrl, subPattern);
+        }
+        System.out.println("跳过不支持遍历的资源根: " + rootUrl);
+        return Collections.emptyList();
+    }
+
+    private URL getUrl(Resource root) throws IOException {
+        if (root instanceof UrlResource) {
+            return ((UrlResource) root).getUrl();
+        }
+        if (root instanceof ClassPathResource) {
+            return root.exists() ? ((ClassPathResource) root).getURL() : null;
+        }
+        if (root.isFile()) {
+            return root.getFile().toURI().toURL();
+        }
+        return null;
+    }
+
+    private List<Resource> findInDirectory(File directory, String subPattern) throws IOException {
+        if (!directory.isDirectory()) {
+            return Collections.emptyList();
+        }
+        Path rootPath = directory.toPath();
+        // 子模式不含**时，匹配的文件不会比子模式的段数更深
+        int maxDepth = subPattern.contains("**") ? Integer.MAX_VALUE
+                : (int) Arrays.stream(subPattern.split("/")).filter(segment -> !segment.isEmpty()).count();
+        List<Path> matches = new ArrayList<>();
+        Files.walkFileTree(rootPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), maxDepth, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) {
+                    String relativePath = rootPath.relativize(file).toString().replace(File.separatorChar, '/');
+                    if (pathMatcher.match(subPattern, relativePath)) {
+                        matches.add(file);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                System.out.println("跳过无法访问的文件: " + file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(matches);
+        return matches.stream().map(path -> (Resource) new FileSystemResource(path.toFile())).collect(Collectors.toList());
+    }
+
+    private List<Resource> findInJar(URL rootUrl, String subPattern) throws IOException {
+        URLConnection connection = rootUrl.openConnection();
+        if (!(connection instanceof JarURLConnection)) {
+            return Collections.emptyList();
+        }
+        JarURLConnection jarConnection = (JarURLConnection) connection;
+        URL jarFileUrl = jarConnection.getJarFileURL();
+        if (!UrlResource.isFileUrl(jarFileUrl)) {
+            System.out.println("跳过不在文件系统中的jar: " + jarFileUrl);
+            return Collections.emptyList();
+        }
+        String rootEntryPath = jarConnection.getEntryName() == null ? "" : jarConnection.getEntryName();
+        if (!rootEntryPath.isEmpty() && !rootEntryPath.endsWith("/")) {
+            rootEntryPath = rootEntryPath + "/";
+        }
+
+        JarIndex index = getJarIndex(UrlResource.toFile(jarFileUrl, rootUrl.toString()));
+        List<Resource> resources = new ArrayList<>();
+        for (String entryName : index.entriesWithPrefix(rootEntryPath)) {
+            String relativePath = entryName.substring(rootEntryPath.length());
+            if (!entryName.endsWith("/") && pathMatcher.match(subPattern, relativePath)) {
+                resources.add(new UrlResource(new URL("jar:" + jarFileUrl + "!/" + entryName)));
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * 获取jar的条目名索引，jar文件变化后重建
+     */
+    private JarIndex getJarIndex(File jar) throws IOException {
+        String key = jar.getAbsolutePath();
+        long lastModified = jar.lastModified();
+        long length = jar.length();
+        JarIndex index = jarIndexCache.get(key);
+        if (index != null && index.lastModified == lastModified && index.length == length) {
+            return index;
+        }
+        String[] entryNames;
+        try (JarFile jarFile = new JarFile(jar)) {
+            entryNames = jarFile.stream().map(JarEntry::getName).sorted().toArray(String[]::new);
+        }
+        index = new JarIndex(lastModified, length, entryNames);
+        jarIndexCache.put(key, index);
+        return index;
+    }
+
+    /**
+     * 遍历线程工厂，创建使用解析器类加载器作为上下文类加载器的守护线程
+     */
+    private static final class ResolverThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger threadNumber = new AtomicInteger();
+
+        private final ClassLoader contextClassLoader;
+
+        ResolverThreadFactory(ClassLoader contextClassLoader) {
+            this.contextClassLoader = contextClassLoader;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "resource-pattern-resolver-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(this.contextClassLoader);
+            return thread;
+        }
+    }
+
+    /**
+     * jar的条目名索引，条目名排好序，按前缀二分查找
+     */
+    private static final class JarIndex {
+
+        private final long lastModified;
+
+        private final long length;
+
+        private final String[] entryNames;
+
+        JarIndex(long lastModified, long length, String[] entryNames) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.entryNames = entryNames;
+        }
+
+        List<String> entriesWithPrefix(String prefix) {
+            int start = Arrays.binarySearch(entryNames, prefix);
+            if (start < 0) {
+                start = -start - 1;
+            }
+            List<String> result = new ArrayList<>();
+            for (int i = start; i < entryNames.length && entryNames[i].startsWith(prefix); i++) {
+                result.add(entryNames[i]);
+            }
+            return result;
+        }
+    }
+}
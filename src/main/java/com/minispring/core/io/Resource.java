@@ -1,7 +1,12 @@
 package com.minispring.core.io;
 
+import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 
 /**
  * 资源访问接口
@@ -33,4 +38,70 @@ public interface Resource {
      * return 资源描述
      */
     String getDescription();
+
+    /**
+     * 资源是否对应文件系统中的文件
+     * return 为true时getFile可用，asByteBuffer会使用内存映射
+     */
+    default boolean isFile() {
+        return false;
+    }
+
+    /**
+     * 获取资源对应的文件
+     * return 文件
+     * throws FileNotFoundException 资源不对应文件系统中的文件时
+     */
+    default File getFile() throws IOException {
+        throw new FileNotFoundException(getDescription() + " 不是文件系统中的文件");
+    }
+
+    /**
+     * 获取资源的读取通道
+     * 默认基于输入流创建，文件资源直接返回FileChannel
+     * return 读取通道
+     * throws IOException
+     */
+    default ReadableByteChannel readableChannel() throws IOException {
+        return Channels.newChannel(getInputStream());
+    }
+
+    /**
+     * 获取资源内容的长度
+     * 默认读完整个输入流来计算，子类应尽量从元数据中直接获取
+     * return 字节数
+     * throws IOException
+     */
+    default long contentLength() throws IOException {
+        try (InputStream inputStream = getInputStream()) {
+            long size = 0;
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                size += read;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * 获取资源的最后修改时间
+     * return 毫秒时间戳
+     * throws IOException 无法确定最后修改时间时
+     */
+    default long lastModified() throws IOException {
+        throw new FileNotFoundException(getDescription() + " 无法确定最后修改时间");
+    }
+
+    /**
+     * 以只读ByteBuffer的形式获取资源内容
+     * 文件资源使用FileChannel.map内存映射，不经过堆内存复制；其他资源一次性读入堆内存
+     * return 只读的ByteBuffer
+     * throws IOException
+     */
+    default ByteBuffer asByteBuffer() throws IOException {
+        try (InputStream inputStream = getInputStream()) {
+            return ByteBuffer.wrap(inputStream.readAllBytes()).asReadOnlyBuffer();
+        }
+    }
 }
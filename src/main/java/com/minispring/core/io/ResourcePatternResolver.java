@@ -0,0 +1,27 @@
+package com.minispring.core.io;
+
+import java.io.IOException;
+
+/**
+ * 资源模式解析器
+ * 在ResourceLoader的基础上，把一个位置模式解析为多个资源
+ *
+ * 1. classpath*:前缀在所有类路径根中查找，如classpath*:META-INF/spring.handlers
+ * 2. 位置中可以使用Ant风格的通配符，如classpath*:META-INF/*-beans.xml、file:/etc/app/**&#47;*.properties
+ */
+public interface ResourcePatternResolver extends ResourceLoader {
+
+    /**
+     * 在所有类路径根中查找的前缀
+     */
+    String CLASSPATH_ALL_URL_PREFIX = "classpath*:";
+
+    /**
+     * 把位置模式解析为资源数组
+     *
+     * @param locationPattern 位置模式
+     * @return 匹配的资源，没有匹配时返回空数组
+     * @throws IOException 遍历目录或读取jar失败时抛出
+     */
+    Resource[] getResources(String locationPattern) throws IOException;
+}
@@ -1,29 +1,56 @@
 package com.minispring.core.io;
 
+import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
+import java.net.JarURLConnection;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.jar.JarEntry;
 
 /**
  * url资源加载器
  * 支持访问各种url协议的资源：file、http、ftp、jar、classpath等
+ * 指定了UrlResourceCache时，HTTP和HTTPS资源通过缓存访问，重复访问时使用条件请求，资源没有变化时不再重新下载；
+ * 默认不缓存
  */
 public class UrlResource implements Resource{
     private final URL url;
 
+    /**
+     * HTTP资源使用的缓存，为null时每次都直接请求
+     */
+    private final UrlResourceCache cache;
+
     /**
      * 构造函数
      * 根据url构造资源
      * @param url
      */
     public UrlResource(URL url) {
+        this(url, null);
+    }
+
+    /**
+     * 构造函数
+     * 根据url和指定的缓存构造资源
+     * @param url
+     * @param cache HTTP资源使用的缓存，为null时不缓存
+     */
+    public UrlResource(URL url, UrlResourceCache cache) {
         if (url == null){
             throw new IllegalArgumentException("URL must not be null");
         }
         this.url = url;
+        this.cache = cache;
     }
 
     /**
@@ -37,18 +64,30 @@ public class UrlResource implements Resource{
             throw new IllegalArgumentException("URL must not be null");
         }
         this.url = new URL(url);
+        this.cache = null;
     }
 
     public URL getUrl() {
         return url;
     }
 
+    /**
+     * 是否通过缓存访问
+     */
+    private boolean isCached() {
+        return cache != null && ("http".equalsIgnoreCase(url.getProtocol()) || "https".equalsIgnoreCase(url.getProtocol()));
+    }
+
     /**
      * 判断资源是否存在
+     * HTTP资源通过缓存访问，有缓存时只是一次条件HEAD请求，不下载内容
      * @return
      */
     @Override
     public boolean exists() {
+        if (isCached()) {
+            return cache.exists(url);
+        }
         try {
             // 尝试HTTP HEAD请求
             URLConnection conn = url.openConnection();
@@ -75,11 +114,15 @@ public class UrlResource implements Resource{
 
     /**
      * 获取资源输入流
+     * HTTP资源返回缓存内容的输入流
      * @return
      * @throws IOException
      */
     @Override
     public InputStream getInputStream() throws IOException {
+        if (isCached()) {
+            return cache.fetch(url).openStream();
+        }
         URLConnection con = this.url.openConnection();
         try {
             return con.getInputStream();
@@ -97,6 +140,177 @@ public class UrlResource implements Resource{
         return "URL资源 [ " + this.url + " ]";
     }
 
+    /**
+     * file协议的URL对应文件系统中的文件
+     */
+    @Override
+    public boolean isFile() {
+        return isFileUrl(url);
+    }
+
+    @Override
+    public File getFile() throws IOException {
+        return toFile(url, getDescription());
+    }
+
+    @Override
+    public ReadableByteChannel readableChannel() throws IOException {
+        return isFile() ? new FileSystemResource(getFile()).readableChannel() : Resource.super.readableChannel();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        if (isCached()) {
+            long length = cache.head(url).getContentLength();
+            // 服务端的HEAD响应没有Content-Length时才下载内容
+            return length >= 0 ? length : cache.fetch(url).getContentLength();
+        }
+        return contentLength(url, this);
+    }
+
+    @Override
+    public long lastModified() throws IOException {
+        if (isCached()) {
+            long lastModified = cache.head(url).getLastModified();
+            if (lastModified <= 0) {
+                throw new FileNotFoundException(getDescription() + " 无法确定最后修改时间");
+            }
+            return lastModified;
+        }
+        return lastModified(url, this);
+    }
+
+    @Override
+    public ByteBuffer asByteBuffer() throws IOException {
+        if (isCached()) {
+            return cache.fetch(url).asByteBuffer();
+        }
+        return asByteBuffer(url, this);
+    }
+
+    /**
+     * 判断URL是否指向文件系统中的文件
+     */
+    static boolean isFileUrl(URL url) {
+        return url != null && "file".equalsIgnoreCase(url.getProtocol());
+    }
+
+    /**
+     * 把file协议的URL转换为文件
+     */
+    static File toFile(URL url, String description) throws FileNotFoundException {
+        if (!isFileUrl(url)) {
+            throw new FileNotFoundException(description + " 不是文件系统中的文件: " + url);
+        }
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException ex) {
+            // URL中包含未转义的字符时退回到按路径解码
+            return new File(URLDecoder.decode(url.getPath(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 获取URL资源的长度：文件直接取文件大小，jar条目取条目的解压后大小，否则使用连接的Content-Length
+     */
+    static long contentLength(URL url, Resource resource) throws IOException {
+        if (isFileUrl(url)) {
+            return new FileSystemResource(toFile(url, resource.getDescription())).contentLength();
+        }
+        URLConnection con = url.openConnection();
+        if (con instanceof JarURLConnection) {
+            JarEntry entry = ((JarURLConnection) con).getJarEntry();
+            if (entry != null && entry.getSize() >= 0) {
+                return entry.getSize();
+            }
+        } else if (con instanceof HttpURLConnection) {
+            HttpURLConnection httpCon = (HttpURLConnection) con;
+            httpCon.setRequestMethod("HEAD");
+            try {
+                long length = httpCon.getContentLengthLong();
+                if (length >= 0) {
+                    return length;
+                }
+            } finally {
+                httpCon.disconnect();
+            }
+        } else {
+            long length = con.getContentLengthLong();
+            if (length >= 0) {
+                return length;
+            }
+        }
+        // 元数据中没有长度时读完整个资源
+        long size = 0;
+        try (InputStream inputStream = resource.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                size += read;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 获取URL资源的最后修改时间：文件取文件的修改时间，jar条目取条目时间，否则使用连接的Last-Modified
+     */
+    static long lastModified(URL url, Resource resource) throws IOException {
+        if (isFileUrl(url)) {
+            return new FileSystemResource(toFile(url, resource.getDescription())).lastModified();
+        }
+        URLConnection con = url.openConnection();
+        if (con instanceof JarURLConnection) {
+            JarURLConnection jarCon = (JarURLConnection) con;
+            JarEntry entry = jarCon.getJarEntry();
+            if (entry != null && entry.getTime() > 0) {
+                return entry.getTime();
+            }
+            // 条目没有时间时使用jar文件本身的修改时间
+            return lastModified(jarCon.getJarFileURL(), resource);
+        }
+        if (con instanceof HttpURLConnection) {
+            ((HttpURLConnection) con).setRequestMethod("HEAD");
+        }
+        try {
+            long lastModified = con.getLastModified();
+            if (lastModified <= 0) {
+                throw new FileNotFoundException(resource.getDescription() + " 无法确定最后修改时间");
+            }
+            return lastModified;
+        } finally {
+            if (con instanceof HttpURLConnection) {
+                ((HttpURLConnection) con).disconnect();
+            }
+        }
+    }
+
+    /**
+     * 以ByteBuffer的形式获取URL资源的内容：文件使用内存映射，jar条目按条目大小一次性读入，不经过可增长的中间缓冲区
+     */
+    static ByteBuffer asByteBuffer(URL url, Resource resource) throws IOException {
+        if (isFileUrl(url)) {
+            return new FileSystemResource(toFile(url, resource.getDescription())).asByteBuffer();
+        }
+        URLConnection con = url.openConnection();
+        if (con instanceof JarURLConnection) {
+            JarEntry entry = ((JarURLConnection) con).getJarEntry();
+            if (entry != null && entry.getSize() >= 0 && entry.getSize() <= Integer.MAX_VALUE) {
+                byte[] content = new byte[(int) entry.getSize()];
+                try (InputStream inputStream = con.getInputStream()) {
+                    int read = inputStream.readNBytes(content, 0, content.length);
+                    if (read != content.length) {
+                        throw new IOException(resource.getDescription() + " 内容不完整，期望 " + content.length + " 字节，实际 " + read + " 字节");
+                    }
+                }
+                return ByteBuffer.wrap(content).asReadOnlyBuffer();
+            }
+        }
+        try (InputStream inputStream = resource.getInputStream()) {
+            return ByteBuffer.wrap(inputStream.readAllBytes()).asReadOnlyBuffer();
+        }
+    }
+
     /**
      * 判断两个url资源是否相等
      *（1）前面两个 if 的作用
@@ -0,0 +1,578 @@
+package com.minispring.core.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Properties;
+
+/**
+ * HTTP资源的元数据和内容缓存
+ * 按URL缓存ETag、Last-Modified、内容长度和内容本身，再次访问时使用条件请求（If-None-Match/If-Modified-Since），
+ * 资源没有变化时服务端只返回304，不再重新下载
+ *
+ * 缓存需要显式启用：创建UrlResource或DefaultResourceLoader时传入缓存实例，默认不缓存任何HTTP资源
+ *
+ * 1. ttl内认为缓存是新鲜的，直接使用缓存，不发任何请求；默认ttl为0，每次访问都做一次条件请求
+ * 2. 设置了缓存目录时，内容保存在磁盘上（按URL的SHA-256命名），重启后仍可用于条件请求；
+ *    否则内存中只保存元数据，除非通过setMaxMemorySize设置了内容的内存上限
+ * 3. 内存中的条目按最近访问顺序淘汰，条目数不超过maxEntries，内容总字节数不超过maxMemorySize
+ * 4. 判断是否存在、获取长度和修改时间使用条件HEAD请求，不下载内容
+ * 5. 服务端不可用时使用已有的缓存副本；资源返回404/410时删除缓存
+ * 6. 同一个URL的请求串行执行，并发访问不会重复下载
+ */
+public class UrlResourceCache {
+
+    private static final String BODY_SUFFIX = ".body";
+
+    private static final String META_SUFFIX = ".properties";
+
+    /**
+     * 请求锁的分段数，同一个URL总是使用同一把锁
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * URL -> 缓存条目，按访问顺序排列，最久未访问的在前；访问时以自身为锁
+     */
+    private final LinkedHashMap<String, CachedContent> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 内存中缓存的内容总字节数，由entries的锁保护
+     */
+    private long memoryBytes;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private volatile int maxEntries = 1024;
+
+    private volatile long maxMemorySize = 0;
+
+    private volatile long ttlMillis = 0;
+
+    private volatile Path directory;
+
+    private volatile int connectTimeout = 10000;
+
+    private volatile int readTimeout = 30000;
+
+    public UrlResourceCache() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * 设置缓存的新鲜期，新鲜期内直接使用缓存，不发请求
+     *
+     * @param ttl 新鲜期，为0时每次访问都做条件请求
+     */
+    public void setTtl(Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * 设置保存内容副本的目录
+     *
+     * @param directory 缓存目录，为null时内容只在maxMemorySize范围内保存在内存中
+     */
+    public void setDirectory(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 设置内存中最多缓存的URL个数，超过后淘汰最久未访问的条目
+     *
+     * @param maxEntries 最大条目数，默认1024
+     */
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        trim();
+    }
+
+    /**
+     * 设置内存中缓存内容的总字节数上限，超过后淘汰最久未访问的条目
+     * 单个内容超过上限时不在内存中保存，只保存元数据
+     *
+     * @param maxMemorySize 总字节数上限，默认0，即没有缓存目录时内存中只保存元数据
+     */
+    public void setMaxMemorySize(long maxMemorySize) {
+        this.maxMemorySize = maxMemorySize;
+        trim();
+    }
+
+    /**
+     * 获取内存中缓存内容的总字节数
+     *
+     * @return 总字节数
+     */
+    public long getMemorySize() {
+        synchronized (entries) {
+            return memoryBytes;
+        }
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * 清空内存中的缓存条目，磁盘上的副本保留，之后仍可用于条件请求
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            memoryBytes = 0;
+        }
+    }
+
+    /**
+     * 获取URL的内容，必要时发起条件请求
+     *
+     * @param url HTTP或HTTPS地址
+     * @return 缓存的内容
+     * @throws FileNotFoundException 资源不存在时
+     * @throws IOException 请求失败且没有可用的缓存副本时
+     */
+    CachedContent fetch(URL url) throws IOException {
+        String key = url.toString();
+        CachedContent cached = getEntry(key);
+        if (cached != null && cached.hasBody() && isFresh(cached)) {
+            return cached;
+        }
+        synchronized (lockFor(key)) {
+            cached = getEntry(key);
+            if (cached == null || !cached.hasBody()) {
+                CachedContent copy = loadFromDisk(key);
+                cached = copy != null ? copy : cached;
+            }
+            if (cached != null && cached.hasBody() && isFresh(cached)) {
+                return cached;
+            }
+            // 只有元数据时304无法还原内容，直接重新下载
+            CachedContent result = revalidate(url, cached != null && cached.hasBody() ? cached : null);
+            if (result.cacheable) {
+                putEntry(key, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 获取URL的元数据，必要时发起条件HEAD请求，不下载内容
+     *
+     * @param url HTTP或HTTPS地址
+     * @return 缓存的元数据，内容可能不可用
+     * @throws FileNotFoundException 资源不存在时
+     * @throws IOException 请求失败且没有可用的缓存条目时
+     */
+    CachedContent head(URL url) throws IOException {
+        String key = url.toString();
+        CachedContent cached = getEntry(key);
+        if (cached != null && isFresh(cached)) {
+            return cached;
+        }
+        synchronized (lockFor(key)) {
+            cached = getEntry(key);
+            if (cached == null) {
+                cached = loadFromDisk(key);
+            }
+            if (cached != null && isFresh(cached)) {
+                return cached;
+            }
+            HttpURLConnection connection = openConnection(url, cached);
+            connection.setRequestMethod("HEAD");
+            try {
+                int code = connection.getResponseCode();
+                long now = System.currentTimeMillis();
+                if (code == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                    CachedContent result = cached.revalidated(now);
+                    putEntry(key, result);
+                    return result;
+                }
+                checkStatus(url, code);
+                CachedContent result = new CachedContent(connection.getHeaderField("ETag"), connection.getLastModified(),
+                        connection.getContentLengthLong(), now, null, null);
+                if (isNoStore(connection)) {
+                    evict(key);
+                    return result.uncacheable();
+                }
+                if (cached != null && cached.hasBody() && cached.isSameVersion(result)) {
+                    result = cached.revalidated(now);
+                } else if (cached != null) {
+                    // 资源已经变化，缓存的内容作废，只保留新的元数据
+                    evict(key);
+                }
+                putEntry(key, result);
+                return result;
+            } catch (FileNotFoundException e) {
+                throw e;
+            } catch (IOException e) {
+                if (cached != null) {
+                    System.out.println("请求URL资源失败，使用缓存的元数据 [" + url + "]: " + e.getMessage());
+                    return cached;
+                }
+                throw e;
+            } finally {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * 通过条件HEAD请求判断URL资源是否存在
+     *
+     * @param url HTTP或HTTPS地址
+     * @return 是否存在
+     */
+    boolean exists(URL url) {
+        try {
+            head(url);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean isFresh(CachedContent cached) {
+        long ttl = this.ttlMillis;
+        return ttl > 0 && System.currentTimeMillis() - cached.validatedAt < ttl;
+    }
+
+    private Object lockFor(String key) {
+        return locks[(key.hashCode() & 0x7FFFFFFF) % LOCK_STRIPES];
+    }
+
+    /**
+     * 打开连接，有缓存时带上条件请求头
+     */
+    private HttpURLConnection openConnection(URL url, CachedContent cached) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setUseCaches(false);
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        if (cached != null) {
+            if (cached.etag != null) {
+                connection.setRequestProperty("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified > 0) {
+                connection.setIfModifiedSince(cached.lastModified);
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * 资源不存在时删除缓存并抛出FileNotFoundException，其他非2xx状态码抛出IOException
+     */
+    private void checkStatus(URL url, int code) throws IOException {
+        if (code == HttpURLConnection.HTTP_NOT_FOUND || code == HttpURLConnection.HTTP_GONE) {
+            evict(url.toString());
+            throw new FileNotFoundException("URL资源不存在 [" + url + "]，状态码: " + code);
+        }
+        if (code < 200 || code >= 300) {
+            throw new IOException("请求URL资源失败 [" + url + "]，状态码: " + code);
+        }
+    }
+
+    private static boolean isNoStore(HttpURLConnection connection) {
+        String cacheControl = connection.getHeaderField("Cache-Control");
+        return cacheControl != null && cacheControl.toLowerCase().contains("no-store");
+    }
+
+    /**
+     * 发起条件GET请求
+     */
+    private CachedContent revalidate(URL url, CachedContent cached) throws IOException {
+        HttpURLConnection connection = openConnection(url, cached);
+        try {
+            int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                drain(connection);
+                return cached.revalidated(System.currentTimeMillis());
+            }
+            if (code < 200 || code >= 300) {
+                drain(connection);
+            }
+            checkStatus(url, code);
+            byte[] body;
+            try (InputStream inputStream = connection.getInputStream()) {
+                body = inputStream.readAllBytes();
+            }
+            CachedContent result = new CachedContent(connection.getHeaderField("ETag"), connection.getLastModified(),
+                    body.length, System.currentTimeMillis(), body, null);
+            if (isNoStore(connection)) {
+                evict(url.toString());
+                return result.uncacheable();
+            }
+            return store(url.toString(), result);
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            if (cached != null) {
+                System.out.println("请求URL资源失败，使用缓存的副本 [" + url + "]: " + e.getMessage());
+                return cached;
+            }
+            throw e;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private CachedContent getEntry(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * 放入内存条目，内容超过内存上限时只保留元数据，然后按访问顺序淘汰多余的条目
+     */
+    private void putEntry(String key, CachedContent content) {
+        if (content.body != null && content.body.length > maxMemorySize) {
+            content = content.withoutBody();
+        }
+        synchronized (entries) {
+            CachedContent previous = entries.put(key, content);
+            memoryBytes += content.memorySize() - (previous != null ? previous.memorySize() : 0);
+        }
+        trim();
+    }
+
+    private void removeEntry(String key) {
+        synchronized (entries) {
+            CachedContent previous = entries.remove(key);
+            if (previous != null) {
+                memoryBytes -= previous.memorySize();
+            }
+        }
+    }
+
+    /**
+     * 淘汰最久未访问的条目，直到条目数和内容总字节数都不超过上限
+     */
+    private void trim() {
+        synchronized (entries) {
+            Iterator<CachedContent> iterator = entries.values().iterator();
+            while (iterator.hasNext() && (entries.size() > maxEntries || memoryBytes > maxMemorySize)) {
+                memoryBytes -= iterator.next().memorySize();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void drain(HttpURLConnection connection) {
+        try (InputStream errorStream = connection.getErrorStream()) {
+            if (errorStream != null) {
+                errorStream.readAllBytes();
+            }
+        } catch (IOException ignored) {
+            // 丢弃错误响应体失败不影响结果
+        }
+    }
+
+    /**
+     * 设置了缓存目录时把内容写到磁盘，内存中只保留元数据
+     */
+    private CachedContent store(String key, CachedContent content) {
+        Path dir = this.directory;
+        if (dir == null) {
+            return content;
+        }
+        String name = hash(key);
+        Path bodyFile = dir.resolve(name + BODY_SUFFIX);
+        Path metaFile = dir.resolve(name + META_SUFFIX);
+        try {
+            Files.createDirectories(dir);
+            Path tempBody = Files.createTempFile(dir, name, ".tmp");
+            Files.write(tempBody, content.body);
+            Files.move(tempBody, bodyFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Properties meta = new Properties();
+            meta.setProperty("url", key);
+            if (content.etag != null) {
+                meta.setProperty("etag", content.etag);
+            }
+            meta.setProperty("lastModified", String.valueOf(content.lastModified));
+            meta.setProperty("contentLength", String.valueOf(content.contentLength));
+            Path tempMeta = Files.createTempFile(dir, name, ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempMeta, StandardCharsets.UTF_8)) {
+                meta.store(writer, null);
+            }
+            Files.move(tempMeta, metaFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new CachedContent(content.etag, content.lastModified, content.contentLength, content.validatedAt, null, bodyFile);
+        } catch (IOException e) {
+            System.out.println("写入URL资源的磁盘副本失败 [" + key + "]: " + e.getMessage());
+            return content;
+        }
+    }
+
+    /**
+     * 从磁盘副本恢复缓存条目，恢复的条目需要重新验证
+     */
+    private CachedContent loadFromDisk(String key) {
+        Path dir = this.directory;
+        if (dir == null) {
+            return null;
+        }
+        String name = hash(key);
+        Path bodyFile = dir.resolve(name + BODY_SUFFIX);
+        Path metaFile = dir.resolve(name + META_SUFFIX);
+        if (!Files.isRegularFile(bodyFile) || !Files.isRegularFile(metaFile)) {
+            return null;
+        }
+        Properties meta = new Properties();
+        try (Reader reader = Files.newBufferedReader(metaFile, StandardCharsets.UTF_8)) {
+            meta.load(reader);
+        } catch (IOException e) {
+            return null;
+        }
+        if (!key.equals(meta.getProperty("url"))) {
+            return null;
+        }
+        return new CachedContent(meta.getProperty("etag"), Long.parseLong(meta.getProperty("lastModified", "0")),
+                Long.parseLong(meta.getProperty("contentLength", "-1")), 0, null, bodyFile);
+    }
+
+    private void evict(String key) {
+        removeEntry(key);
+        Path dir = this.directory;
+        if (dir != null) {
+            String name = hash(key);
+            try {
+                Files.deleteIfExists(dir.resolve(name + BODY_SUFFIX));
+                Files.deleteIfExists(dir.resolve(name + META_SUFFIX));
+            } catch (IOException e) {
+                System.out.println("删除URL资源的磁盘副本失败 [" + key + "]: " + e.getMessage());
+            }
+        }
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JVM不支持SHA-256", e);
+        }
+    }
+
+    /**
+     * 缓存的内容和元数据，内容在内存或磁盘副本中
+     */
+    static final class CachedContent {
+
+        private final String etag;
+
+        private final long lastModified;
+
+        private final long contentLength;
+
+        /**
+         * 最后一次与服务端确认的时间
+         */
+        private final long validatedAt;
+
+        private final byte[] body;
+
+        private final Path file;
+
+        /**
+         * 服务端要求不保存（Cache-Control: no-store）时为false
+         */
+        private final boolean cacheable;
+
+        CachedContent(String etag, long lastModified, long contentLength, long validatedAt, byte[] body, Path file) {
+            this(etag, lastModified, contentLength, validatedAt, body, file, true);
+        }
+
+        private CachedContent(String etag, long lastModified, long contentLength, long validatedAt, byte[] body, Path file,
+                              boolean cacheable) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.contentLength = contentLength;
+            this.validatedAt = validatedAt;
+            this.body = body;
+            this.file = file;
+            this.cacheable = cacheable;
+        }
+
+        CachedContent revalidated(long validatedAt) {
+            return new CachedContent(etag, lastModified, contentLength, validatedAt, body, file);
+        }
+
+        CachedContent uncacheable() {
+            return new CachedContent(etag, lastModified, contentLength, validatedAt, body, file, false);
+        }
+
+        CachedContent withoutBody() {
+            return new CachedContent(etag, lastModified, contentLength, validatedAt, null, file, cacheable);
+        }
+
+        /**
+         * 内容是否可用（在内存或磁盘副本中）
+         */
+        boolean hasBody() {
+            return body != null || file != null;
+        }
+
+        /**
+         * 与另一份元数据是否表示同一个版本：优先比较ETag，没有ETag时比较最后修改时间
+         */
+        boolean isSameVersion(CachedContent other) {
+            if (etag != null || other.etag != null) {
+                return etag != null && etag.equals(other.etag);
+            }
+            return lastModified > 0 && lastModified == other.lastModified;
+        }
+
+        long memorySize() {
+            return body != null ? body.length : 0;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * 获取内容长度
+         * @return 内容长度，元数据中没有且内容不可用时返回-1
+         */
+        long getContentLength() throws IOException {
+            if (contentLength >= 0) {
+                return contentLength;
+            }
+            return file != null ? Files.size(file) : -1;
+        }
+
+        InputStream openStream() throws IOException {
+            return body != null ? new ByteArrayInputStream(body) : Files.newInputStream(file);
+        }
+
+        ByteBuffer asByteBuffer() throws IOException {
+            return body != null ? ByteBuffer.wrap(body).asReadOnlyBuffer() : new FileSystemResource(file.toFile()).asByteBuffer();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.minispring.core.type.classreading;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 从class文件中读出的类元数据
+ * 只包含组件扫描需要的信息，读取时不加载类
+ */
+public class ClassMetadata {
+
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    private final String className;
+
+    private final int accessFlags;
+
+    private final boolean independent;
+
+    /**
+     * 注解类名 -> 注解中的字符串属性
+     */
+    private final Map<String, Map<String, String>> annotations;
+
+    ClassMetadata(String className, int accessFlags, boolean independent, Map<String, Map<String, String>> annotations) {
+        this.className = className;
+        this.accessFlags = accessFlags;
+        this.independent = independent;
+        this.annotations = Collections.unmodifiableMap(new LinkedHashMap<>(annotations));
+    }
+
+    /**
+     * 获取类的全限定名，嵌套类使用$分隔
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    public boolean isInterface() {
+        return (accessFlags & ACC_INTERFACE) != 0;
+    }
+
+    public boolean isAnnotation() {
+        return (accessFlags & ACC_ANNOTATION) != 0;
+    }
+
+    public boolean isAbstract() {
+        return (accessFlags & ACC_ABSTRACT) != 0;
+    }
+
+    /**
+     * 是否可以独立实例化：顶层类或静态嵌套类，不包括内部类、局部类和匿名类
+     */
+    public boolean isIndependent() {
+        return independent;
+    }
+
+    /**
+     * 是否是可以直接实例化的具体类
+     */
+    public boolean isConcrete() {
+        return !isInterface() && !isAbstract();
+    }
+
+    /**
+     * 获取类上直接标注的运行时可见注解的类名
+     */
+    public Set<String> getAnnotationTypes() {
+        return annotations.keySet();
+    }
+
+    /**
+     * 获取直接标注的注解中字符串类型的属性
+     *
+     * @param annotationType 注解类名
+     * @return 属性名到属性值的映射，没有该注解时返回null
+     */
+    public Map<String, String> getAnnotationAttributes(String annotationType) {
+        return annotations.get(annotationType);
+    }
+}
@@ -0,0 +1,254 @@
+package com.minispring.core.type.classreading;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 轻量的class文件读取器
+ * 直接解析class文件的常量池、访问标志、InnerClasses和RuntimeVisibleAnnotations属性，
+ * 不通过类加载器加载类，也不执行静态初始化，扫描大量类时开销远小于Class.forName
+ *
+ * 1. 常量池只保留UTF8和Class条目，其余条目按长度跳过
+ * 2. 字段和方法整体跳过，只读取类级别的属性
+ * 3. 注解属性只保留字符串值（如value），其他类型的值解析后丢弃
+ */
+public final class ClassMetadataReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_STATIC = 0x0008;
+
+    private ClassMetadataReader() {
+    }
+
+    /**
+     * 从class文件内容中读取类元数据
+     *
+     * @param inputStream class文件输入流，调用方负责关闭
+     * @return 类元数据
+     * @throws IOException 读取失败或不是合法的class文件时抛出
+     */
+    public static ClassMetadata read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("不是合法的class文件");
+        }
+        in.readUnsignedShort();// minor_version
+        in.readUnsignedShort();// major_version
+
+        ConstantPool pool = readConstantPool(in);
+
+        int accessFlags = in.readUnsignedShort();
+        int thisClassIndex = in.readUnsignedShort();
+        String className = pool.className(thisClassIndex);
+        in.readUnsignedShort();// super_class
+        skipFully(in, 2L * in.readUnsignedShort());// interfaces
+
+        skipMembers(in);// fields
+        skipMembers(in);// methods
+
+        boolean independent = true;
+        Map<String, Map<String, String>> annotations = Collections.emptyMap();
+        int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String attributeName = pool.utf8(in.readUnsignedShort());
+            int length = in.readInt();
+            if ("RuntimeVisibleAnnotations".equals(attributeName)) {
+                annotations = readAnnotations(in, pool);
+            } else if ("InnerClasses".equals(attributeName)) {
+                independent = readIndependent(in, pool, thisClassIndex);
+            } else {
+                skipFully(in, length);
+            }
+        }
+        return new ClassMetadata(className, accessFlags, independent, annotations);
+    }
+
+    private static ConstantPool readConstantPool(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classNameIndexes = new int[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:// Utf8，格式与DataInput.readUTF相同
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7:// Class
+                    classNameIndexes[i] = in.readUnsignedShort();
+                    break;
+                case 8:// String
+                case 16:// MethodType
+                case 19:// Module
+                case 20:// Package
+                    skipFully(in, 2);
+                    break;
+                case 15:// MethodHandle
+                    skipFully(in, 3);
+                    break;
+                case 3:// Integer
+                case 4:// Float
+                case 9:// Fieldref
+                case 10:// Methodref
+                case 11:// InterfaceMethodref
+                case 12:// NameAndType
+                case 17:// Dynamic
+                case 18:// InvokeDynamic
+                    skipFully(in, 4);
+                    break;
+                case 5:// Long
+                case 6:// Double
+                    skipFully(in, 8);
+                    i++;// 占两个常量池位置
+                    break;
+                default:
+                    throw new IOException("无法识别的常量池标记: " + tag);
+            }
+        }
+        return new ConstantPool(utf8, classNameIndexes);
+    }
+
+    private static void skipMembers(DataInputStream in) throws IOException {
+        int memberCount = in.readUnsignedShort();
+        for (int i = 0; i < memberCount; i++) {
+            skipFully(in, 6);// access_flags, name_index, descriptor_index
+            int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                skipFully(in, 2);
+                skipFully(in, in.readInt() & 0xFFFFFFFFL);
+            }
+        }
+    }
+
+    private static boolean readIndependent(DataInputStream in, ConstantPool pool, int thisClassIndex) throws IOException {
+        boolean independent = true;
+        int classCount = in.readUnsignedShort();
+        for (int i = 0; i < classCount; i++) {
+            int innerClassIndex = in.readUnsignedShort();
+            int outerClassIndex = in.readUnsignedShort();
+            int innerNameIndex = in.readUnsignedShort();
+            int innerAccessFlags = in.readUnsignedShort();
+            if (innerClassIndex == thisClassIndex) {
+                // 局部类和匿名类没有外部类，内部类没有static标志
+                independent = outerClassIndex != 0 && innerNameIndex != 0 && (innerAccessFlags & ACC_STATIC) != 0;
+            }
+        }
+        return independent;
+    }
+
+    private static Map<String, Map<String, String>> readAnnotations(DataInputStream in, ConstantPool pool) throws IOException {
+        Map<String, Map<String, String>> annotations = new LinkedHashMap<>();
+        int annotationCount = in.readUnsignedShort();
+        for (int i = 0; i < annotationCount; i++) {
+            String type = descriptorToClassName(pool.utf8(in.readUnsignedShort()));
+            annotations.put(type, readAnnotationAttributes(in, pool));
+        }
+        return annotations;
+    }
+
+    private static Map<String, String> readAnnotationAttributes(DataInputStream in, ConstantPool pool) throws IOException {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        int pairCount = in.readUnsignedShort();
+        for (int i = 0; i < pairCount; i++) {
+            String name = pool.utf8(in.readUnsignedShort());
+            String value = readElementValue(in, pool);
+            if (value != null) {
+                attributes.put(name, value);
+            }
+        }
+        return attributes;
+    }
+
+    /**
+     * 读取注解元素值，只有字符串常量返回值，其他类型返回null
+     */
+    private static String readElementValue(DataInputStream in, ConstantPool pool) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 's':
+                return pool.utf8(in.readUnsignedShort());
+            case 'B':
+            case 'C':
+            case 'D':
+            case 'F':
+            case 'I':
+            case 'J':
+            case 'S':
+            case 'Z':
+            case 'c':
+                skipFully(in, 2);
+                return null;
+            case 'e':
+                skipFully(in, 4);
+                return null;
+            case '@':
+                skipFully(in, 2);
+                readAnnotationAttributes(in, pool);
+                return null;
+            case '[':
+                int valueCount = in.readUnsignedShort();
+                for (int i = 0; i < valueCount; i++) {
+                    readElementValue(in, pool);
+                }
+                return null;
+            default:
+                throw new IOException("无法识别的注解元素标记: " + (char) tag);
+        }
+    }
+
+    /**
+     * 把类型描述符（如Lcom/example/Foo;）转换为类名
+     */
+    private static String descriptorToClassName(String descriptor) {
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    private static void skipFully(DataInputStream in, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new IOException("class文件意外结束");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    /**
+     * 只保留UTF8和Class条目的常量池
+     */
+    private static final class ConstantPool {
+
+        private final String[] utf8;
+
+        private final int[] classNameIndexes;
+
+        ConstantPool(String[] utf8, int[] classNameIndexes) {
+            this.utf8 = utf8;
+            this.classNameIndexes = classNameIndexes;
+        }
+
+        String utf8(int index) throws IOException {
+            String value = index > 0 && index < utf8.length ? utf8[index] : null;
+            if (value == null) {
+                throw new IOException("常量池索引 " + index + " 不是UTF8条目");
+            }
+            return value;
+        }
+
+        String className(int index) throws IOException {
+            if (index <= 0 || index >= classNameIndexes.length || classNameIndexes[index] == 0) {
+                throw new IOException("常量池索引 " + index + " 不是Class条目");
+            }
+            return utf8(classNameIndexes[index]).replace('/', '.');
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.minispring.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Ant风格的路径匹配器
+ * ? 匹配一个字符，* 匹配一段路径中的零个或多个字符，** 匹配零段或多段路径
+ * 如 META-INF/*-beans.xml、com/example/**&#47;*.xml
+ *
+ * 每个模式只编译一次，编译结果按模式缓存
+ */
+public class AntPathMatcher {
+
+    /**
+     * 编译缓存的上限，超过后不再缓存新的模式
+     */
+    private static final int MAX_CACHE_SIZE = 1024;
+
+    private static final String DOUBLE_WILDCARD = "**";
+
+    private final Map<String, CompiledPattern> patternCache = new ConcurrentHashMap<>();
+
+    /**
+     * 判断路径中是否包含通配符
+     *
+     * @param path 路径
+     * @return 是否是模式
+     */
+    public boolean isPattern(String path) {
+        return path != null && (path.indexOf('*') != -1 || path.indexOf('?') != -1);
+    }
+
+    /**
+     * 判断路径是否匹配模式
+     *
+     * @param pattern 模式
+     * @param path 路径，使用/分隔
+     * @return 是否匹配
+     */
+    public boolean match(String pattern, String path) {
+        if (path.startsWith("/") != pattern.startsWith("/")) {
+            return false;
+        }
+        return getCompiledPattern(pattern).matches(tokenize(path));
+    }
+
+    /**
+     * 获取模式中第一个通配符之前的目录部分
+     * 如 classpath*:META-INF/spring/*.xml 返回 classpath*:META-INF/spring/
+     *
+     * @param location 带前缀的模式
+     * @return 根目录，包含结尾的/；第一段就是通配符时返回前缀部分
+     */
+    public String determineRootDir(String location) {
+        int prefixEnd = location.indexOf(':') + 1;
+        int rootDirEnd = location.length();
+        while (rootDirEnd > prefixEnd && isPattern(location.substring(prefixEnd, rootDirEnd))) {
+            rootDirEnd = location.lastIndexOf('/', rootDirEnd - 2) + 1;
+        }
+        if (rootDirEnd == 0) {
+            rootDirEnd = prefixEnd;
+        }
+        return location.substring(0, rootDirEnd);
+    }
+
+    private CompiledPattern getCompiledPattern(String pattern) {
+        CompiledPattern compiled = patternCache.get(pattern);
+        if (compiled == null) {
+            compiled = new CompiledPattern(pattern);
+            if (patternCache.size() < MAX_CACHE_SIZE) {
+                patternCache.putIfAbsent(pattern, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    private static String[] tokenize(String path) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : path.split("/")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /**
+     * 编译后的模式，每段是**或者一个正则表达式
+     */
+    private static final class CompiledPattern {
+
+        /**
+         * 段，null表示**
+         */
+        private final Pattern[] segments;
+
+        CompiledPattern(String pattern) {
+            String[] tokens = tokenize(pattern);
+            this.segments = new Pattern[tokens.length];
+            for (int i = 0; i < tokens.length; i++) {
+                segments[i] = DOUBLE_WILDCARD.equals(tokens[i]) ? null : toRegex(tokens[i]);
+            }
+        }
+
+        private static Pattern toRegex(String segment) {
+            StringBuilder regex = new StringBuilder();
+            StringBuilder literal = new StringBuilder();
+            for (char c : segment.toCharArray()) {
+                if (c == '*' || c == '?') {
+                    if (literal.length() > 0) {
+                        regex.append(Pattern.quote(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    regex.append(c == '*' ? ".*" : ".");
+                } else {
+                    literal.append(c);
+                }
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+            }
+            return Pattern.compile(regex.toString(), Pattern.DOTALL);
+        }
+
+        boolean matches(String[] path) {
+            return matches(0, path, 0);
+        }
+
+        private boolean matches(int segmentIndex, String[] path, int pathIndex) {
+            while (segmentIndex < segments.length) {
+                Pattern segment = segments[segmentIndex];
+                if (segment == null) {
+                    // 连续的**等价于一个
+                    while (segmentIndex + 1 < segments.length && segments[segmentIndex + 1] == null) {
+                        segmentIndex++;
+                    }
+                    if (segmentIndex == segments.length - 1) {
+                        return true;
+                    }
+                    for (int i = pathIndex; i < path.length; i++) {
+                        if (matches(segmentIndex + 1, path, i)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                if (pathIndex >= path.length || !segment.matcher(path[pathIndex]).matches()) {
+                    return false;
+                }
+                segmentIndex++;
+                pathIndex++;
+            }
+            return pathIndex == path.length;
+        }
+    }
+}
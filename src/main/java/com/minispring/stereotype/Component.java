@@ -0,0 +1,22 @@
+package com.minispring.stereotype;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 组件注解
+ * 标注的类会被组件扫描发现并注册为Bean，也可以作为元注解标注其他构造型注解
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Component {
+
+    /**
+     * Bean名称，为空时使用首字母小写的简单类名
+     */
+    String value() default "";
+}
@@ -0,0 +1,23 @@
+package com.minispring.stereotype;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 服务层组件注解
+ * 语义上的构造型，扫描时与Component相同
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Component
+public @interface Service {
+
+    /**
+     * Bean名称，为空时使用首字母小写的简单类名
+     */
+    String value() default "";
+}
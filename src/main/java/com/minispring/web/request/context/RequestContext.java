@@ -0,0 +1,149 @@
+package com.minispring.web.request.context;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.ObjectFactory;
+import com.minispring.beans.factory.config.ScopedObjectCache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一次请求的上下文
+ * 保存请求作用域的Bean和销毁回调，可以通过RequestContextHolder绑定到多个线程上，
+ * 请求拆分到线程池中执行时，各线程看到的是同一批Bean
+ *
+ * 1. Bean缓存和回调表在第一次使用时才创建，只经过过滤器、没有用到请求作用域Bean的请求不分配任何容器
+ * 2. 请求结束时调用destroy，按注册的相反顺序执行销毁回调，只执行一次；结束后不能再创建Bean
+ */
+public class RequestContext {
+
+    private static final AtomicLong ID_GENERATOR = new AtomicLong();
+
+    private final String id;
+
+    // 请求作用域的Bean，第一次获取Bean时创建
+    private volatile ScopedObjectCache beans;
+
+    // 销毁回调，按注册顺序保存，访问时同步在当前对象上
+    private Map<String, Runnable> destructionCallbacks;
+
+    private volatile boolean destroyed;
+
+    public RequestContext() {
+        this(String.valueOf(ID_GENERATOR.incrementAndGet()));
+    }
+
+    public RequestContext(String id) {
+        this.id = id;
+    }
+
+    /**
+     * 获取请求ID
+     * @return 请求ID
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    public boolean isDestroyed() {
+        return this.destroyed;
+    }
+
+    /**
+     * 获取请求作用域的Bean，不存在时创建
+     * @param name Bean名称
+     * @param objectFactory 创建Bean的工厂
+     * @return Bean实例
+     */
+    public Object getBean(String name, ObjectFactory<?> objectFactory) {
+        if (this.destroyed) {
+            throw new BeansException("请求[" + this.id + "]已经结束，无法获取请求作用域的Bean: " + name);
+        }
+        ScopedObjectCache cache = this.beans;
+        if (cache == null) {
+            synchronized (this) {
+                cache = this.beans;
+                if (cache == null) {
+                    cache = new ScopedObjectCache(8);
+                    this.beans = cache;
+                }
+            }
+        }
+        return cache.get(name, objectFactory);
+    }
+
+    /**
+     * 移除请求作用域的Bean和它的销毁回调
+     * @param name Bean名称
+     * @return 被移除的Bean，不存在时返回null
+     */
+    public Object removeBean(String name) {
+        synchronized (this) {
+            if (this.destructionCallbacks != null) {
+                this.destructionCallbacks.remove(name);
+            }
+        }
+        ScopedObjectCache cache = this.beans;
+        return cache != null ? cache.remove(name) : null;
+    }
+
+    /**
+     * 注册销毁回调，请求已经结束时立即执行
+     * @param name Bean名称
+     * @param callback 销毁回调
+     */
+    public void registerDestructionCallback(String name, Runnable callback) {
+        synchronized (this) {
+            if (!this.destroyed) {
+                if (this.destructionCallbacks == null) {
+                    this.destructionCallbacks = new LinkedHashMap<>(4);
+                }
+                this.destructionCallbacks.put(name, callback);
+                return;
+            }
+        }
+        runCallback(name, callback);
+    }
+
+    /**
+     * 结束请求，执行所有销毁回调并释放Bean
+     * 重复调用时什么也不做
+     */
+    public void destroy() {
+        List<Map.Entry<String, Runnable>> callbacks;
+        synchronized (this) {
+            if (this.destroyed) {
+                return;
+            }
+            this.destroyed = true;
+            callbacks = this.destructionCallbacks != null
+                    ? new ArrayList<>(this.destructionCallbacks.entrySet()) : List.of();
+            this.destructionCallbacks = null;
+        }
+        // 后创建的Bean可能依赖先创建的Bean，按注册的相反顺序销毁
+        for (int i = callbacks.size() - 1; i >= 0; i--) {
+            runCallback(callbacks.get(i).getKey(), callbacks.get(i).getValue());
+        }
+        ScopedObjectCache cache = this.beans;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private static void runCallback(String name, Runnable callback) {
+        try {
+            callback.run();
+        }
+        catch (Throwable ex) {
+            System.err.println("Exception thrown while executing destruction callback for request bean [" + name + "]: " + ex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RequestContext[" + this.id + "]";
+    }
+}
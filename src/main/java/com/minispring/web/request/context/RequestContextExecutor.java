@@ -0,0 +1,25 @@
+package com.minispring.web.request.context;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 传播请求上下文的执行器
+ * 提交任务时捕获当前线程的请求上下文，任务在线程池或虚拟线程中执行时使用同一个上下文，
+ * 因此请求拆分出去的任务拿到的是同一批请求作用域的Bean
+ */
+public class RequestContextExecutor implements Executor {
+
+    private final Executor delegate;
+
+    public RequestContextExecutor(Executor delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Executor不能为空");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        this.delegate.execute(RequestContextHolder.wrap(command));
+    }
+}
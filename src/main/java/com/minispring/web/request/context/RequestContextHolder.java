@@ -0,0 +1,102 @@
+package com.minispring.web.request.context;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 请求上下文持有者
+ * 把RequestContext绑定到当前线程，并提供在其他线程中传播上下文的方法
+ *
+ * 绑定总是成对出现：runWithContext和callWithContext执行完成后恢复线程原来的上下文，
+ * 线程池中的线程不会残留上一个任务的请求上下文
+ */
+public final class RequestContextHolder {
+
+    private static final ThreadLocal<RequestContext> CONTEXT = new ThreadLocal<>();
+
+    private RequestContextHolder() {
+    }
+
+    /**
+     * 获取当前线程绑定的请求上下文
+     * @return 请求上下文，没有绑定时返回null
+     */
+    public static RequestContext getRequestContext() {
+        return CONTEXT.get();
+    }
+
+    /**
+     * 把请求上下文绑定到当前线程
+     * @param context 请求上下文，为null时解除绑定
+     */
+    public static void setRequestContext(RequestContext context) {
+        if (context == null) {
+            CONTEXT.remove();
+        } else {
+            CONTEXT.set(context);
+        }
+    }
+
+    /**
+     * 解除当前线程绑定的请求上下文
+     */
+    public static void resetRequestContext() {
+        CONTEXT.remove();
+    }
+
+    /**
+     * 在指定的请求上下文中执行任务，执行完成后恢复原来的上下文
+     * @param context 请求上下文
+     * @param task 任务
+     */
+    public static void runWithContext(RequestContext context, Runnable task) {
+        RequestContext previous = CONTEXT.get();
+        setRequestContext(context);
+        try {
+            task.run();
+        } finally {
+            setRequestContext(previous);
+        }
+    }
+
+    /**
+     * 在指定的请求上下文中执行任务并返回结果，执行完成后恢复原来的上下文
+     * @param context 请求上下文
+     * @param task 任务
+     * @return 任务结果
+     */
+    public static <T> T callWithContext(RequestContext context, Callable<T> task) throws Exception {
+        RequestContext previous = CONTEXT.get();
+        setRequestContext(context);
+        try {
+            return task.call();
+        } finally {
+            setRequestContext(previous);
+        }
+    }
+
+    /**
+     * 包装任务，任务在任意线程执行时都使用提交时的请求上下文
+     * @param task 任务
+     * @return 包装后的任务，提交时没有请求上下文则返回原任务
+     */
+    public static Runnable wrap(Runnable task) {
+        RequestContext context = CONTEXT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> runWithContext(context, task);
+    }
+
+    /**
+     * 包装有返回值的任务，任务在任意线程执行时都使用提交时的请求上下文
+     * @param task 任务
+     * @return 包装后的任务，提交时没有请求上下文则返回原任务
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        RequestContext context = CONTEXT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> callWithContext(context, task);
+    }
+}
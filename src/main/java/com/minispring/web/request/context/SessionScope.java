@@ -1,27 +1,68 @@
 package com.minispring.web.request.context;
 
 import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.DisposableBean;
 import com.minispring.beans.factory.ObjectFactory;
 import com.minispring.beans.factory.config.Scope;
+import com.minispring.beans.factory.config.ScopedObjectCache;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * HTTP会话作用域实现
  * Bean的生命周期与HTTP会话相同，一个会话内共享一个Bean实例
+ *
+ * 1. 会话空闲超过maxInactiveInterval后过期，由后台清理线程定期清理，销毁回调在清理线程中执行，不占用请求线程
+ * 2. 会话数超过maxSessions时，由清理线程按最后访问时间淘汰最久未访问的会话，直到降到上限的90%；
+ *    淘汰是异步的，会话数可能短暂超过上限
+ * 3. 命中已有Bean时只读ConcurrentHashMap并更新最后访问时间，不加锁；同一会话中同名Bean并发创建时只创建一次
+ * 4. 提供活跃会话数、Bean数和过期会话数等指标
  */
-public class SessionScope implements Scope {
+public class SessionScope implements Scope, DisposableBean {
 
-    // 使用sessionId作为key，对应的Bean实例集合作为value
-    private  final Map<String,Map<String, Object>> sessionBeanMap = new ConcurrentHashMap();
-    //  销毁回调映射
-    private final Map<String, Map<String, Runnable>> destructionCallbacks = new ConcurrentHashMap();
+    /**
+     * 最后访问时间的更新粒度，粒度内的访问不重复写入，减少多线程写同一个变量；最大空闲时间很短时按其十分之一
+     */
+    private static final long ACCESS_TIME_GRANULARITY_MILLIS = 1000;
+
+    // 使用sessionId作为key，对应的会话作为value
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
 
     //用于获取当前会话id的接口，可以由外部设置
     private SessionIdResolver sessionIdResolver = () -> "default-session";
 
+    private volatile long maxInactiveIntervalMillis = Duration.ofMinutes(30).toMillis();
+
+    private volatile int maxSessions = Integer.MAX_VALUE;
+
+    private volatile long sweepIntervalMillis = Duration.ofSeconds(30).toMillis();
+
+    // 后台清理线程，第一次创建会话时启动
+    private volatile ScheduledExecutorService sweeper;
+
+    // 是否已经安排了一次超限淘汰
+    private final AtomicBoolean overflowEvictionScheduled = new AtomicBoolean();
+
+    private final AtomicLong beanCount = new AtomicLong();
+
+    // 当前线程正在为哪个会话创建Bean
+    private final ThreadLocal<Session> creatingSession = new ThreadLocal<>();
+
+    private final AtomicLong expiredSessionCount = new AtomicLong();
+
+    private final AtomicLong evictedSessionCount = new AtomicLong();
+
     /**
      * 设置会话ID解析器
      * @param sessionIdResolver 会话ID解析器
@@ -30,6 +71,39 @@ public class SessionScope implements Scope {
         this.sessionIdResolver = sessionIdResolver;
     }
 
+    /**
+     * 设置会话的最大空闲时间，默认30分钟
+     * @param maxInactiveInterval 最大空闲时间
+     */
+    public void setMaxInactiveInterval(Duration maxInactiveInterval) {
+        if (maxInactiveInterval.isNegative() || maxInactiveInterval.isZero()) {
+            throw new IllegalArgumentException("会话最大空闲时间必须大于0");
+        }
+        this.maxInactiveIntervalMillis = maxInactiveInterval.toMillis();
+    }
+
+    /**
+     * 设置会话数上限，默认不限制
+     * @param maxSessions 会话数上限
+     */
+    public void setMaxSessions(int maxSessions) {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("会话数上限必须大于0");
+        }
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * 设置清理过期会话的间隔，默认30秒，需要在第一次创建会话前设置
+     * @param sweepInterval 清理间隔
+     */
+    public void setSweepInterval(Duration sweepInterval) {
+        if (sweepInterval.isNegative() || sweepInterval.isZero()) {
+            throw new IllegalArgumentException("清理间隔必须大于0");
+        }
+        this.sweepIntervalMillis = sweepInterval.toMillis();
+    }
+
     /**
      * 获取指定名称的bean实例
      * @param name Bean名称
@@ -38,21 +112,141 @@ public class SessionScope implements Scope {
      */
     @Override
     public Object get(String name, ObjectFactory<?> objectFactory) {
-        //获取当前会话ID
+        Session session = currentSession(true);
+        // 同一会话中并发请求同一个Bean时只创建一次
+        Object bean = session.beans.get(name, () -> {
+            // 创建Bean时注册的销毁回调属于这个会话，即使会话在创建期间被清理
+            Session previous = creatingSession.get();
+            creatingSession.set(session);
+            try {
+                Object created = objectFactory.getObject();
+                beanCount.incrementAndGet();
+                return created;
+            } finally {
+                if (previous != null) {
+                    creatingSession.set(previous);
+                } else {
+                    creatingSession.remove();
+                }
+            }
+        });
+        // 会话在创建Bean期间被销毁，Bean不再属于任何会话
+        if (session.destroyed && session.beans.remove(name, bean)) {
+            beanCount.decrementAndGet();
+        }
+        return bean;
+    }
+
+    /**
+     * 获取当前会话，会话不存在或已经销毁时创建新的会话
+     * @param create 不存在时是否创建
+     * @return 当前会话，不创建且不存在时返回null
+     */
+    private Session currentSession(boolean create) {
         String sessionId = this.sessionIdResolver.resolveSessionId();
-        // 从会话映射中获取指定会话ID的Bean实例集合
-        Map<String, Object> sessionMap = this.sessionBeanMap.computeIfAbsent(sessionId, k -> new ConcurrentHashMap<>(8));
+        long now = System.currentTimeMillis();
+        while (true) {
+            Session session = this.sessions.get(sessionId);
+            if (session != null && !session.destroyed) {
+                session.touch(now, Math.min(ACCESS_TIME_GRANULARITY_MILLIS, this.maxInactiveIntervalMillis / 10));
+                return session;
+            }
+            if (!create) {
+                return null;
+            }
+            if (session != null) {
+                // 会话刚被清理线程销毁，换一个新的会话
+                this.sessions.remove(sessionId, session);
+                continue;
+            }
+            Session created = new Session(sessionId, now);
+            if (this.sessions.putIfAbsent(sessionId, created) == null) {
+                onSessionCreated();
+                return created;
+            }
+        }
+    }
 
-        Object bean = sessionMap.get(name);
-        if (bean == null) {
+    private void onSessionCreated() {
+        ensureSweeper();
+        if (this.sessions.size() > this.maxSessions && overflowEvictionScheduled.compareAndSet(false, true)) {
             try {
-                bean = objectFactory.getObject();
-                sessionMap.put(name, bean);
-            } catch (BeansException ex) {
-                throw ex;
+                this.sweeper.execute(() -> {
+                    overflowEvictionScheduled.set(false);
+                    evictOverflow();
+                });
+            } catch (RejectedExecutionException ex) {
+                // 作用域已经销毁
+                overflowEvictionScheduled.set(false);
             }
         }
-        return bean;
+    }
+
+    private void ensureSweeper() {
+        if (this.sweeper == null) {
+            synchronized (this) {
+                if (this.sweeper == null) {
+                    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "session-scope-sweeper");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor.scheduleWithFixedDelay(this::sweepExpiredSessions,
+                            sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+                    this.sweeper = executor;
+                }
+            }
+        }
+    }
+
+    /**
+     * 清理所有空闲超时的会话
+     * 由后台清理线程定期调用，也可以手动调用
+     * @return 清理的会话数
+     */
+    public int sweepExpiredSessions() {
+        long deadline = System.currentTimeMillis() - this.maxInactiveIntervalMillis;
+        int expired = 0;
+        for (Session session : this.sessions.values()) {
+            if (session.lastAccessTime < deadline && this.sessions.remove(session.id, session)) {
+                destroySession(session);
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            expiredSessionCount.addAndGet(expired);
+            System.out.println("清理过期会话: " + expired + "，剩余会话: " + this.sessions.size());
+        }
+        if (this.sessions.size() > this.maxSessions) {
+            evictOverflow();
+        }
+        return expired;
+    }
+
+    /**
+     * 会话数超过上限时，淘汰最久未访问的会话直到降到上限的90%
+     */
+    private void evictOverflow() {
+        int size = this.sessions.size();
+        int max = this.maxSessions;
+        if (size <= max) {
+            return;
+        }
+        int target = Math.max(1, (int) (max * 0.9));
+        List<Session> candidates = new ArrayList<>(this.sessions.values());
+        candidates.sort(Comparator.comparingLong(session -> session.lastAccessTime));
+        int evicted = 0;
+        for (Session session : candidates) {
+            if (this.sessions.size() <= target) {
+                break;
+            }
+            if (this.sessions.remove(session.id, session)) {
+                destroySession(session);
+                evicted++;
+            }
+        }
+        evictedSessionCount.addAndGet(evicted);
+        System.out.println("会话数超过上限" + max + "，淘汰会话: " + evicted);
     }
 
     /**
@@ -62,27 +256,46 @@ public class SessionScope implements Scope {
      */
     @Override
     public Object remove(String name) {
-        String sessionId = this.sessionIdResolver.resolveSessionId();
-        Map<String, Object> sessionMap = this.sessionBeanMap.get(sessionId);
-        if (sessionMap != null) {
-            return sessionMap.remove(name);
+        Session session = currentSession(false);
+        if (session == null) {
+            return null;
         }
-        return null;
+        session.callbacks.remove(name);
+        Object removed = session.beans.remove(name);
+        if (removed != null) {
+            beanCount.decrementAndGet();
+        }
+        return removed;
     }
 
     /**
      * 注册销毁回调
+     * 回调注册到正在创建该Bean的会话，没有正在创建时注册到当前会话；会话已经销毁时立即执行回调
      * @param name Bean名称
      * @param callback 销毁回调
      */
     @Override
     public void registerDestructionCallback(String name, Runnable callback) {
-       //获取当前会话ID
-        String sessionId = this.sessionIdResolver.resolveSessionId();
-        //从会话映射中获取指定会话ID的销毁回调集合·
-        Map<String, Runnable> callbacks = this.destructionCallbacks.computeIfAbsent(sessionId, k -> new HashMap<>(8));
-        callbacks.put(name, callback);
+        // 优先使用正在创建Bean的会话，不为注册回调创建新的会话
+        Session session = creatingSession.get();
+        if (session == null) {
+            session = this.sessions.get(this.sessionIdResolver.resolveSessionId());
+            if (session == null) {
+                throw new IllegalStateException("当前没有会话，无法注册会话作用域Bean[" + name + "]的销毁回调");
+            }
+        }
+        if (session.destroyed) {
+            // 会话已经销毁，Bean已经从会话中移除，直接执行回调
+            runCallback(name, callback);
+            return;
+        }
+        session.callbacks.put(name, callback);
+        // 会话在注册期间被销毁时，回调可能错过了执行，由注册方补上
+        if (session.destroyed && session.callbacks.remove(name, callback)) {
+            runCallback(name, callback);
+        }
     }
+
     /**
      * 获取会话ID
      * @return 会话ID
@@ -91,30 +304,115 @@ public class SessionScope implements Scope {
     public String getConversationId() {
         return "session-" + sessionIdResolver.resolveSessionId();
     }
+
     /**
      * 执行会话结束回调
      * 通常在HTTP会话结束时被调用
      * @param sessionId 会话ID
      */
     public void endSession(String sessionId) {
-        // 执行销毁回调
-        Map<String, Runnable> callbacks = this.destructionCallbacks.remove(sessionId);
-        if (callbacks != null) {
-            for (Map.Entry<String, Runnable> entry : callbacks.entrySet()) {
-                try {
-                    entry.getValue().run();
-                }
-                catch (Throwable ex) {
-                    System.err.println("Exception thrown while executing destruction callback for session bean [" + entry.getKey() + "]: " + ex);
-                }
+        Session session = this.sessions.remove(sessionId);
+        if (session != null) {
+            destroySession(session);
+        }
+    }
+
+    private void destroySession(Session session) {
+        session.destroyed = true;
+        for (String name : session.callbacks.keySet()) {
+            Runnable callback = session.callbacks.remove(name);
+            if (callback != null) {
+                runCallback(name, callback);
             }
         }
+        for (String name : session.beans.names()) {
+            if (session.beans.remove(name) != null) {
+                beanCount.decrementAndGet();
+            }
+        }
+    }
 
-        // 移除会话中的所有Bean
-        this.sessionBeanMap.remove(sessionId);
+    private static void runCallback(String name, Runnable callback) {
+        try {
+            callback.run();
+        }
+        catch (Throwable ex) {
+            System.err.println("Exception thrown while executing destruction callback for session bean [" + name + "]: " + ex);
+        }
     }
 
+    /**
+     * 停止清理线程并销毁所有会话
+     */
+    @Override
+    public void destroy() {
+        ScheduledExecutorService executor = this.sweeper;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        for (String sessionId : new ArrayList<>(this.sessions.keySet())) {
+            endSession(sessionId);
+        }
+    }
 
+    /**
+     * 获取活跃会话数
+     * @return 活跃会话数
+     */
+    public int getActiveSessionCount() {
+        return this.sessions.size();
+    }
+
+    /**
+     * 获取所有会话中的Bean数
+     * @return Bean数
+     */
+    public long getBeanCount() {
+        return this.beanCount.get();
+    }
+
+    /**
+     * 获取因空闲超时而过期的会话总数
+     * @return 过期会话数
+     */
+    public long getExpiredSessionCount() {
+        return this.expiredSessionCount.get();
+    }
+
+    /**
+     * 获取因超过会话数上限而被淘汰的会话总数
+     * @return 淘汰会话数
+     */
+    public long getEvictedSessionCount() {
+        return this.evictedSessionCount.get();
+    }
+
+    /**
+     * 一个会话中的Bean和销毁回调
+     */
+    private static final class Session {
+
+        private final String id;
+
+        private final ScopedObjectCache beans = new ScopedObjectCache(8);
+
+        private final Map<String, Runnable> callbacks = new ConcurrentHashMap<>(8);
+
+        private volatile long lastAccessTime;
+
+        private volatile boolean destroyed;
+
+        Session(String id, long now) {
+            this.id = id;
+            this.lastAccessTime = now;
+        }
+
+        void touch(long now, long granularity) {
+            if (now - this.lastAccessTime >= granularity) {
+                this.lastAccessTime = now;
+            }
+        }
+    }
 
     /**
      * 会话ID解析器接口
@@ -0,0 +1,114 @@
+package com.minispring.benchmark;
+
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.support.CglibSubclassingInstantiationStrategy;
+import com.minispring.beans.factory.support.InstantiationStrategy;
+import com.minispring.beans.factory.support.LambdaMetafactoryInstantiationStrategy;
+import com.minispring.beans.factory.support.SimpleInstantiationStrategy;
+
+import java.lang.reflect.Constructor;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 实例化策略的性能对比
+ * 比较反射、CGLIB和LambdaMetafactory三种策略创建原型Bean的耗时，以直接new作为基准
+ *
+ * 不属于单元测试，不会被surefire执行，编译测试代码后手动运行：
+ * mvn -B -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) com.minispring.benchmark.InstantiationStrategyBenchmark
+ *
+ * 每种场景先预热让JIT完成编译，再取多轮测量中的最小值，结果为每次实例化的纳秒数
+ */
+public class InstantiationStrategyBenchmark {
+
+    private static final int WARMUP_ROUNDS = 10;
+
+    private static final int MEASURE_ROUNDS = 10;
+
+    private static final int OPERATIONS_PER_ROUND = 2_000_000;
+
+    // 保存创建的对象，防止JIT通过逃逸分析消除对象分配
+    private static final Object[] SINK = new Object[1024];
+
+    public static void main(String[] args) throws Exception {
+        Map<String, InstantiationStrategy> strategies = new LinkedHashMap<>();
+        strategies.put("Simple", new SimpleInstantiationStrategy());
+        strategies.put("Cglib", new CglibSubclassingInstantiationStrategy());
+        strategies.put("LambdaMetafactory", new LambdaMetafactoryInstantiationStrategy());
+
+        BeanDefinition beanDefinition = new BeanDefinition(PrototypeBean.class);
+        Constructor<?> noArgConstructor = PrototypeBean.class.getDeclaredConstructor();
+        Constructor<?> twoArgConstructor = PrototypeBean.class.getDeclaredConstructor(String.class, int.class);
+        Constructor<?> threeArgConstructor = PrototypeBean.class.getDeclaredConstructor(String.class, int.class, long.class);
+        Object[] twoArgs = {"bean", 1};
+        Object[] threeArgs = {"bean", 1, 2L};
+
+        System.out.printf("%-20s %12s %12s %12s%n", "strategy", "no-arg", "2 args", "3 args");
+        System.out.printf("%-20s %12.1f %12.1f %12.1f%n", "new",
+                measure(() -> new PrototypeBean()),
+                measure(() -> new PrototypeBean((String) twoArgs[0], (Integer) twoArgs[1])),
+                measure(() -> new PrototypeBean((String) threeArgs[0], (Integer) threeArgs[1], (Long) threeArgs[2])));
+        for (Map.Entry<String, InstantiationStrategy> entry : strategies.entrySet()) {
+            InstantiationStrategy strategy = entry.getValue();
+            System.out.printf("%-20s %12.1f %12.1f %12.1f%n", entry.getKey(),
+                    measure(() -> strategy.instantiate(beanDefinition, "prototypeBean", noArgConstructor, null)),
+                    measure(() -> strategy.instantiate(beanDefinition, "prototypeBean", twoArgConstructor, twoArgs)),
+                    measure(() -> strategy.instantiate(beanDefinition, "prototypeBean", threeArgConstructor, threeArgs)));
+        }
+    }
+
+    /**
+     * 测量一个实例化操作的耗时
+     * @return 多轮测量中最快一轮的平均每次耗时（纳秒）
+     */
+    private static double measure(Instantiation instantiation) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            runRound(instantiation);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            best = Math.min(best, runRound(instantiation));
+        }
+        return (double) best / OPERATIONS_PER_ROUND;
+    }
+
+    private static long runRound(Instantiation instantiation) {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS_PER_ROUND; i++) {
+            SINK[i & (SINK.length - 1)] = instantiation.instantiate();
+        }
+        return System.nanoTime() - start;
+    }
+
+    @FunctionalInterface
+    private interface Instantiation {
+        Object instantiate();
+    }
+
+    /**
+     * 被实例化的原型Bean，构造函数是private的，与业务代码中常见的非public构造函数一致
+     */
+    static class PrototypeBean {
+
+        private final String name;
+
+        private final int age;
+
+        private final long version;
+
+        private PrototypeBean() {
+            this(null, 0, 0L);
+        }
+
+        private PrototypeBean(String name, int age) {
+            this(name, age, 0L);
+        }
+
+        private PrototypeBean(String name, int age, long version) {
+            this.name = name;
+            this.age = age;
+            this.version = version;
+        }
+    }
+}
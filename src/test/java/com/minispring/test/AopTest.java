@@ -8,6 +8,10 @@ import com.minispring.aop.support.DefaultPointcutAdvisor;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 
 /**
@@ -79,6 +83,86 @@ public class AopTest {
         Assertions.assertEquals(1, beforeAdvice.getCounter());
     }
 
+    /**
+     * 测试CGLIB代理类在多个代理实例间复用
+     */
+    @Test
+    public void testCglibProxyClassReused() throws Exception {
+        TestBeforeAdvice beforeAdvice = new TestBeforeAdvice();
+
+        ProxyFactory proxyFactory1 = new ProxyFactory(new NonInterfaceService());
+        proxyFactory1.addAdvisor(new DefaultPointcutAdvisor(beforeAdvice));
+        NonInterfaceService proxy1 = (NonInterfaceService) proxyFactory1.getProxy();
+
+        ProxyFactory proxyFactory2 = new ProxyFactory(new NonInterfaceService());
+        NonInterfaceService proxy2 = (NonInterfaceService) proxyFactory2.getProxy();
+
+        Assertions.assertNotSame(proxy1, proxy2);
+        Assertions.assertSame(proxy1.getClass(), proxy2.getClass(), "同一目标类应复用同一个代理类");
+
+        // 两个代理实例的回调互相独立
+        proxy1.doSomething();
+        proxy2.doSomething();
+        Assertions.assertEquals(1, beforeAdvice.getCounter());
+    }
+
+    /**
+     * 测试代理类缓存不阻止目标类的类加载器被回收
+     */
+    @Test
+    public void testCglibProxyCacheReleasesClassLoader() throws Exception {
+        WeakReference<ClassLoader> loaderRef = proxyInIsolatedClassLoader();
+        for (int i = 0; i < 50 && loaderRef.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assertions.assertNull(loaderRef.get(), "代理类缓存不应持有目标类的类加载器");
+    }
+
+    private WeakReference<ClassLoader> proxyInIsolatedClassLoader() throws Exception {
+        ClassLoader loader = new IsolatedClassLoader(NonInterfaceService.class.getName(), getClass().getClassLoader());
+        Class<?> serviceClass = loader.loadClass(NonInterfaceService.class.getName());
+        Assertions.assertNotSame(NonInterfaceService.class, serviceClass);
+        Constructor<?> constructor = serviceClass.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        Object proxy = new ProxyFactory(constructor.newInstance()).getProxy();
+        Method method = serviceClass.getDeclaredMethod("doSomething");
+        method.setAccessible(true);
+        Assertions.assertEquals("NonInterfaceService.doSomething()", method.invoke(proxy));
+        return new WeakReference<>(loader);
+    }
+
+    /**
+     * 自己加载指定的类，其余类委托给父类加载器
+     */
+    static class IsolatedClassLoader extends ClassLoader {
+        private final String isolatedClassName;
+
+        IsolatedClassLoader(String isolatedClassName, ClassLoader parent) {
+            super(parent);
+            this.isolatedClassName = isolatedClassName;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(this.isolatedClassName)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded != null) {
+                    return loaded;
+                }
+                try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                    byte[] bytes = in.readAllBytes();
+                    return defineClass(name, bytes, 0, bytes.length);
+                } catch (IOException ex) {
+                    throw new ClassNotFoundException(name, ex);
+                }
+            }
+        }
+    }
+
     /**
      * 用于测试的服务接口
      */
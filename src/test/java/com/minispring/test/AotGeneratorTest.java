@@ -0,0 +1,189 @@
+package com.minispring.test;
+
+import com.minispring.beans.PropertyValue;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.BeanReference;
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.beans.factory.xml.XmlBeanDefinitionReader;
+import com.minispring.context.aot.AotBeanDefinitionRegistrar;
+import com.minispring.context.aot.BeanDefinitionAotGenerator;
+import com.minispring.context.support.AotApplicationContext;
+import com.minispring.test.bean.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AOT Bean定义生成测试
+ * 从XML生成注册代码，编译后直接用生成的代码启动上下文
+ */
+public class AotGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 测试生成的代码直接调用构造函数和setter
+     */
+    @Test
+    public void testGeneratedSourceUsesDirectCalls() {
+        DefaultListableBeanFactory beanFactory = loadBeanFactory();
+        beanFactory.registerBeanDefinition("hiddenBean", new BeanDefinition(HiddenBean.class));
+        String source = new BeanDefinitionAotGenerator("com.minispring.generated.AppBeanDefinitions").generate(beanFactory);
+
+        assertTrue(source.contains("com.minispring.test.bean.Person::new"));
+        assertTrue(source.contains("target.setAge(18);"));
+        assertTrue(source.contains("target.setAddress((com.minispring.test.bean.Address) beanFactory.getBean(\"address\"));"));
+        // 非public类和含占位符的属性保留为反射路径
+        assertTrue(source.contains("loadClass(\"com.minispring.test.AotGeneratorTest$HiddenBean\")"));
+        assertTrue(source.contains("new com.minispring.beans.PropertyValue(\"name\", \"${user.name}\")"));
+    }
+
+    /**
+     * 测试编译生成的代码并用它启动上下文
+     */
+    @Test
+    public void testStartContextFromGeneratedCode() throws Exception {
+        DefaultListableBeanFactory beanFactory = loadBeanFactory();
+        Path sourceDir = tempDir.resolve("src");
+        Path classesDir = tempDir.resolve("classes");
+        Path sourceFile = new BeanDefinitionAotGenerator("com.minispring.generated.AppBeanDefinitions")
+                .generate(beanFactory, sourceDir);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(compiler, "需要在JDK上运行");
+        int result = compiler.run(null, null, null, "-d", classesDir.toString(),
+                "-cp", System.getProperty("java.class.path"), sourceFile.toString());
+        assertEquals(0, result, "生成的代码应能编译通过");
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDir.toUri().toURL()}, getClass().getClassLoader())) {
+            AotBeanDefinitionRegistrar registrar = (AotBeanDefinitionRegistrar) classLoader
+                    .loadClass("com.minispring.generated.AppBeanDefinitions").getDeclaredConstructor().newInstance();
+            AotApplicationContext context = new AotApplicationContext(registrar);
+
+            BeanDefinition personDefinition = context.getBeanFactory().getBeanDefinition("person");
+            assertNotNull(personDefinition.getInstanceSupplier());
+            assertNotNull(personDefinition.getPropertyInjector());
+
+            Person person = (Person) context.getBean("person");
+            assertEquals("张三", person.getName());
+            assertEquals(18, person.getAge());
+            assertSame(context.getBean("address"), person.getAddress());
+            assertEquals("北京", person.getAddress().getCity());
+
+            PlaceholderBean placeholderBean = (PlaceholderBean) context.getBean("placeholderBean");
+            assertNull(context.getBeanFactory().getBeanDefinition("placeholderBean").getPropertyInjector());
+            assertEquals("${user.name}", placeholderBean.getName());
+            context.close();
+        }
+    }
+
+    /**
+     * 测试生成的属性注入器记录依赖关系，关闭上下文时先销毁依赖方
+     */
+    @Test
+    public void testGeneratedInjectorRecordsDependencies() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition repository = new BeanDefinition(AuditRepository.class);
+        repository.setDestroyMethodName("close");
+        beanFactory.registerBeanDefinition("auditRepository", repository);
+        BeanDefinition service = new BeanDefinition(AuditService.class);
+        service.setDestroyMethodName("shutdown");
+        service.getPropertyValues().addPropertyValue(new PropertyValue("repository", new BeanReference("auditRepository")));
+        beanFactory.registerBeanDefinition("auditService", service);
+
+        String source = new BeanDefinitionAotGenerator("com.minispring.generated.AuditBeanDefinitions").generate(beanFactory);
+        assertTrue(source.contains("beanDefinition.setInjectedBeanNames(\"auditRepository\");"));
+        AotBeanDefinitionRegistrar registrar = compile("com.minispring.generated.AuditBeanDefinitions", beanFactory);
+
+        DESTROYED.clear();
+        AotApplicationContext context = new AotApplicationContext(registrar);
+        assertNotNull(context.getBeanFactory().getBeanDefinition("auditService").getPropertyInjector());
+        AuditService auditService = (AuditService) context.getBean("auditService");
+        assertSame(context.getBean("auditRepository"), auditService.getRepository());
+        assertArrayEquals(new String[]{"auditService"}, ((DefaultListableBeanFactory) context.getBeanFactory()).getDependentBeans("auditRepository"));
+
+        // 没有依赖关系时两者并发销毁，较快的repository会先结束
+        context.close();
+        assertEquals(Arrays.asList("auditService", "auditRepository"), DESTROYED);
+    }
+
+    private AotBeanDefinitionRegistrar compile(String className, DefaultListableBeanFactory beanFactory) throws Exception {
+        Path sourceDir = tempDir.resolve("src");
+        Path classesDir = tempDir.resolve("classes");
+        Path sourceFile = new BeanDefinitionAotGenerator(className).generate(beanFactory, sourceDir);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(compiler, "需要在JDK上运行");
+        assertEquals(0, compiler.run(null, null, null, "-d", classesDir.toString(),
+                "-cp", System.getProperty("java.class.path"), sourceFile.toString()), "生成的代码应能编译通过");
+        // 生成的注册器类只引用测试类和框架类，类加载器不需要关闭
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDir.toUri().toURL()}, getClass().getClassLoader());
+        return (AotBeanDefinitionRegistrar) classLoader.loadClass(className).getDeclaredConstructor().newInstance();
+    }
+
+    private DefaultListableBeanFactory loadBeanFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("classpath:bean-definitions.xml");
+        BeanDefinition placeholderDefinition = new BeanDefinition(PlaceholderBean.class);
+        placeholderDefinition.getPropertyValues().addPropertyValue(new PropertyValue("name", "${user.name}"));
+        beanFactory.registerBeanDefinition("placeholderBean", placeholderDefinition);
+        return beanFactory;
+    }
+
+    static final List<String> DESTROYED = new CopyOnWriteArrayList<>();
+
+    public static class AuditRepository {
+        public void close() {
+            DESTROYED.add("auditRepository");
+        }
+    }
+
+    public static class AuditService {
+        private AuditRepository repository;
+
+        public AuditRepository getRepository() {
+            return repository;
+        }
+
+        public void setRepository(AuditRepository repository) {
+            this.repository = repository;
+        }
+
+        public void shutdown() throws InterruptedException {
+            // 关闭较慢，依赖的repository必须等它结束
+            Thread.sleep(200);
+            DESTROYED.add("auditService");
+        }
+    }
+
+    /**
+     * 非public的Bean类，生成的代码无法直接引用
+     */
+    static class HiddenBean {
+    }
+
+    /**
+     * 属性值含占位符的Bean，属性保留为PropertyValues
+     */
+    public static class PlaceholderBean {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
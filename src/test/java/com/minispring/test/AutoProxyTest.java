@@ -0,0 +1,144 @@
+package com.minispring.test;
+
+import com.minispring.aop.aspectj.AspectJExpressionPointcut;
+import com.minispring.aop.framework.autoproxy.DefaultAdvisorAutoProxyCreator;
+import com.minispring.aop.interceptor.MethodMetricsAdvisor;
+import com.minispring.aop.interceptor.MethodMetricsRegistry;
+import com.minispring.beans.BeansException;
+import com.minispring.beans.PropertyValue;
+import com.minispring.beans.PropertyValues;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.BeanPostProcessor;
+import com.minispring.beans.factory.config.BeanReference;
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 自动代理创建器测试
+ */
+public class AutoProxyTest {
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @BeforeEach
+    public void setUp() {
+        beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("greetingAdvisor", new BeanDefinition(GreetingMetricsAdvisor.class));
+
+        // serviceA和serviceB互相引用，形成循环依赖
+        PropertyValues aValues = new PropertyValues();
+        aValues.addPropertyValue(new PropertyValue("serviceB", new BeanReference("serviceB")));
+        beanFactory.registerBeanDefinition("serviceA", new BeanDefinition(GreetingServiceA.class, aValues));
+        PropertyValues bValues = new PropertyValues();
+        bValues.addPropertyValue(new PropertyValue("serviceA", new BeanReference("serviceA")));
+        beanFactory.registerBeanDefinition("serviceB", new BeanDefinition(ServiceB.class, bValues));
+
+        DefaultAdvisorAutoProxyCreator autoProxyCreator = new DefaultAdvisorAutoProxyCreator();
+        autoProxyCreator.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(autoProxyCreator);
+    }
+
+    /**
+     * 测试匹配的Bean被自动代理，不匹配的Bean保持原样
+     */
+    @Test
+    public void testAutoProxyMatchingBeansOnly() {
+        Object serviceA = beanFactory.getBean("serviceA");
+        assertTrue(Proxy.isProxyClass(serviceA.getClass()), "serviceA应该被自动代理");
+        assertEquals("hello, mini-spring", ((GreetingService) serviceA).greet("mini-spring"));
+
+        Object serviceB = beanFactory.getBean("serviceB");
+        assertSame(ServiceB.class, serviceB.getClass(), "serviceB没有匹配的Advisor，不应该被代理");
+
+        GreetingMetricsAdvisor advisor = (GreetingMetricsAdvisor) beanFactory.getBean("greetingAdvisor");
+        assertEquals(1, advisor.getRegistry().getHottestMethods(1).get(0).getCallCount());
+    }
+
+    /**
+     * 测试循环依赖中提前暴露的引用与最终的单例是同一个代理对象
+     */
+    @Test
+    public void testEarlyReferenceIsSameProxy() {
+        ServiceB serviceB = (ServiceB) beanFactory.getBean("serviceB");
+        Object serviceA = beanFactory.getBean("serviceA");
+
+        assertTrue(Proxy.isProxyClass(serviceA.getClass()));
+        assertSame(serviceA, serviceB.getServiceA(), "早期引用应与最终的单例是同一个代理");
+
+        serviceB.getServiceA().greet("early");
+        GreetingMetricsAdvisor advisor = (GreetingMetricsAdvisor) beanFactory.getBean("greetingAdvisor");
+        assertEquals(1, advisor.getRegistry().getHottestMethods(1).get(0).getCallCount());
+    }
+
+    /**
+     * 测试早期引用已被注入后，初始化时又被替换为其他对象时报错
+     */
+    @Test
+    public void testReplacedAfterEarlyReferenceFails() {
+        beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("serviceA".equals(beanName)) {
+                    GreetingService target = (GreetingService) bean;
+                    return (GreetingService) name -> target.greet(name) + "!";
+                }
+                return bean;
+            }
+        });
+
+        BeansException ex = assertThrows(BeansException.class, () -> beanFactory.getBean("serviceA"));
+        Throwable cause = ex;
+        while (cause.getCause() != null && !cause.getMessage().contains("早期引用")) {
+            cause = cause.getCause();
+        }
+        assertTrue(cause.getMessage().contains("早期引用") && cause.getMessage().contains("serviceA"), ex.getMessage());
+    }
+
+    public interface GreetingService {
+        String greet(String name);
+    }
+
+    public static class GreetingServiceA implements GreetingService {
+        private ServiceB serviceB;
+
+        @Override
+        public String greet(String name) {
+            return "hello, " + name;
+        }
+
+        public ServiceB getServiceB() {
+            return serviceB;
+        }
+
+        public void setServiceB(ServiceB serviceB) {
+            this.serviceB = serviceB;
+        }
+    }
+
+    public static class ServiceB {
+        private GreetingService serviceA;
+
+        public GreetingService getServiceA() {
+            return serviceA;
+        }
+
+        public void setServiceA(GreetingService serviceA) {
+            this.serviceA = serviceA;
+        }
+    }
+
+    /**
+     * 只统计GreetingService方法的指标切面
+     */
+    public static class GreetingMetricsAdvisor extends MethodMetricsAdvisor {
+        public GreetingMetricsAdvisor() {
+            super(new AspectJExpressionPointcut("execution(* com.minispring.test.AutoProxyTest$GreetingService.*(..))"),
+                    new MethodMetricsRegistry());
+        }
+    }
+}
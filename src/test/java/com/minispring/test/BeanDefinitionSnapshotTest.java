@@ -0,0 +1,147 @@
+package com.minispring.test;
+
+import com.minispring.beans.PropertyValue;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.BeanReference;
+import com.minispring.beans.factory.support.BeanDefinitionSnapshotCache;
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.beans.factory.xml.XmlBeanDefinitionReader;
+import com.minispring.context.support.ClassPathXmlApplicationContext;
+import com.minispring.core.io.FileSystemResource;
+import com.minispring.core.io.Resource;
+import com.minispring.test.bean.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bean定义快照缓存测试
+ */
+public class BeanDefinitionSnapshotTest {
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<beans>\n"
+            + "    <bean id=\"person\" class=\"com.minispring.test.bean.Person\" scope=\"prototype\" init-method=\"toString\">\n"
+            + "        <property name=\"name\" value=\"张三\"/>\n"
+            + "        <property name=\"address\" ref=\"address\"/>\n"
+            + "    </bean>\n"
+            + "    <bean id=\"address\" class=\"com.minispring.test.bean.Address\">\n"
+            + "        <property name=\"city\" value=\"北京\"/>\n"
+            + "    </bean>\n"
+            + "</beans>";
+
+    @TempDir
+    Path tempDir;
+
+    private Path xmlFile;
+
+    private Path snapshotFile;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        xmlFile = tempDir.resolve("beans.xml");
+        Files.write(xmlFile, XML.getBytes(StandardCharsets.UTF_8));
+        snapshotFile = tempDir.resolve("beans.snapshot");
+    }
+
+    /**
+     * 测试写入快照后可以还原出相同的Bean定义
+     */
+    @Test
+    public void testWriteAndLoadSnapshot() {
+        Resource[] resources = {new FileSystemResource(xmlFile.toFile())};
+        DefaultListableBeanFactory parsed = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(parsed).loadBeanDefinitions(resources);
+        BeanDefinitionSnapshotCache cache = new BeanDefinitionSnapshotCache(snapshotFile);
+        assertTrue(cache.write(resources, parsed));
+
+        DefaultListableBeanFactory restored = new DefaultListableBeanFactory();
+        assertTrue(cache.load(resources, restored));
+
+        BeanDefinition person = restored.getBeanDefinition("person");
+        assertSame(Person.class, person.getBeanClass());
+        assertTrue(person.isPrototype());
+        assertEquals("toString", person.getInitMethodName());
+        PropertyValue name = person.getPropertyValues().getPropertyValue("name").get();
+        assertEquals("张三", name.getValue());
+        PropertyValue address = person.getPropertyValues().getPropertyValue("address").get();
+        assertEquals("address", ((BeanReference) address.getValue()).getBeanName());
+
+        Person bean = (Person) restored.getBean("person");
+        assertEquals("北京", bean.getAddress().getCity());
+    }
+
+    /**
+     * 测试配置变化或快照损坏时回退，且不会注册任何Bean定义
+     */
+    @Test
+    public void testFallbackOnMismatch() throws Exception {
+        Resource[] resources = {new FileSystemResource(xmlFile.toFile())};
+        DefaultListableBeanFactory parsed = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(parsed).loadBeanDefinitions(resources);
+        BeanDefinitionSnapshotCache cache = new BeanDefinitionSnapshotCache(snapshotFile);
+        assertTrue(cache.write(resources, parsed));
+
+        // 修改配置后快照失效
+        Files.write(xmlFile, XML.replace("北京", "上海").getBytes(StandardCharsets.UTF_8));
+        DefaultListableBeanFactory stale = new DefaultListableBeanFactory();
+        assertFalse(cache.load(resources, stale));
+        assertEquals(0, stale.getBeanDefinitionNames().length);
+
+        // 截断的快照文件
+        byte[] content = Files.readAllBytes(snapshotFile);
+        Files.write(xmlFile, XML.getBytes(StandardCharsets.UTF_8));
+        Files.write(snapshotFile, Arrays.copyOf(content, content.length / 2));
+        DefaultListableBeanFactory corrupted = new DefaultListableBeanFactory();
+        assertFalse(cache.load(resources, corrupted));
+        assertEquals(0, corrupted.getBeanDefinitionNames().length);
+    }
+
+    /**
+     * 测试应用上下文第一次启动写入快照，之后的刷新直接使用快照
+     */
+    @Test
+    public void testContextUsesSnapshot() throws Exception {
+        ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("classpath:bean-definitions.xml");
+        context.setBeanDefinitionSnapshotFile(snapshotFile);
+        context.refresh();
+        assertTrue(Files.isRegularFile(snapshotFile), "第一次刷新应写入快照");
+
+        FileTime written = FileTime.fromMillis(1000L);
+        Files.setLastModifiedTime(snapshotFile, written);
+        context.refresh();
+        assertEquals(written, Files.getLastModifiedTime(snapshotFile), "快照有效时不应重新写入");
+
+        Person person = (Person) context.getBean("person");
+        assertEquals("张三", person.getName());
+        assertEquals(18, person.getAge());
+        assertEquals("北京", person.getAddress().getCity());
+        context.close();
+    }
+
+    /**
+     * 测试组件扫描得到的Bean定义不写入快照，增删组件类后不会加载过期的快照
+     */
+    @Test
+    public void testNoSnapshotWithScannedComponents() throws Exception {
+        String xml = XML.replace("<beans>", "<beans xmlns:context=\"http://www.minispring.com/schema/context\">\n"
+                + "    <context:component-scan base-package=\"com.minispring.test.scan\"/>");
+        Files.write(xmlFile, xml.getBytes(StandardCharsets.UTF_8));
+        Resource[] resources = {new FileSystemResource(xmlFile.toFile())};
+        DefaultListableBeanFactory parsed = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(parsed).loadBeanDefinitions(resources);
+        assertTrue(parsed.containsBeanDefinition("scannedComponent"));
+
+        BeanDefinitionSnapshotCache cache = new BeanDefinitionSnapshotCache(snapshotFile);
+        assertFalse(cache.write(resources, parsed));
+        assertFalse(Files.exists(snapshotFile));
+    }
+}
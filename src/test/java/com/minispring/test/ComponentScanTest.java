@@ -0,0 +1,280 @@
+package com.minispring.test;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.beans.factory.support.SimpleBeanDefinitionRegistry;
+import com.minispring.beans.factory.xml.XmlBeanDefinitionReader;
+import com.minispring.context.annotation.CandidateComponentsIndex;
+import com.minispring.context.annotation.ClassPathBeanDefinitionScanner;
+import com.minispring.core.type.classreading.ClassMetadata;
+import com.minispring.core.type.classreading.ClassMetadataReader;
+import com.minispring.stereotype.Component;
+import com.minispring.test.bean.Person;
+import com.minispring.test.cyclic.AlphaComponent;
+import com.minispring.test.cyclic.BetaComponent;
+import com.minispring.test.scan.ScannedComponent;
+import com.minispring.test.scan.sub.NamedService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 组件扫描测试
+ */
+public class ComponentScanTest {
+
+    private static final String BASE_PACKAGE = "com.minispring.test.scan";
+
+    private static final Set<String> EXPECTED_BEAN_NAMES = new HashSet<>(Arrays.asList(
+            "scannedComponent", "customService", "metaAnnotatedComponent", "outerClass.NestedComponent"));
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 测试通过context:component-scan扫描并注册组件
+     */
+    @Test
+    public void testComponentScanElement() throws Exception {
+        Path xml = tempDir.resolve("scan.xml");
+        Files.write(xml, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<beans xmlns:context=\"http://www.minispring.com/schema/context\">\n"
+                + "    <context:component-scan base-package=\"" + BASE_PACKAGE + "\"/>\n"
+                + "</beans>").getBytes(StandardCharsets.UTF_8));
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("file:" + xml);
+
+        assertEquals(EXPECTED_BEAN_NAMES, new HashSet<>(Arrays.asList(beanFactory.getBeanDefinitionNames())));
+        assertTrue(beanFactory.getBean("customService") instanceof NamedService);
+        assertTrue(beanFactory.getBean("scannedComponent") instanceof ScannedComponent);
+    }
+
+    /**
+     * 测试扫描时只加载最终注册的组件类
+     */
+    @Test
+    public void testCandidateDetectionDoesNotLoadClasses() throws Exception {
+        try (RecordingClassLoader classLoader = new RecordingClassLoader(testClassesRoot(), mainClassesRoot())) {
+            SimpleBeanDefinitionRegistry registry = new SimpleBeanDefinitionRegistry();
+            assertEquals(4, new ClassPathBeanDefinitionScanner(registry, classLoader).scan(BASE_PACKAGE));
+            assertEquals(EXPECTED_BEAN_NAMES, new HashSet<>(Arrays.asList(registry.getBeanDefinitionNames())));
+
+            assertTrue(classLoader.loaded.contains(BASE_PACKAGE + ".ScannedComponent"));
+            assertFalse(classLoader.loaded.contains(BASE_PACKAGE + ".PlainClass"));
+            assertFalse(classLoader.loaded.contains(BASE_PACKAGE + ".AbstractComponent"));
+            assertFalse(classLoader.loaded.contains(BASE_PACKAGE + ".CustomStereotype"));
+            assertFalse(classLoader.loaded.contains(BASE_PACKAGE + ".OuterClass$InnerComponent"));
+        }
+    }
+
+    /**
+     * 测试扫描jar中的组件，以及目录和jar两个类路径根合并后不重复注册
+     */
+    @Test
+    public void testJarRoot() throws Exception {
+        Path jar = tempDir.resolve("components.jar");
+        Path testClasses = Paths.get(testClassesRoot().toURI());
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> paths = Files.walk(testClasses.resolve(BASE_PACKAGE.replace('.', '/')))) {
+            for (Path file : paths.collect(Collectors.toList())) {
+                String name = testClasses.relativize(file).toString().replace('\\', '/');
+                // 与常规打包工具一样写入目录条目，类加载器才能按包路径找到jar根
+                out.putNextEntry(new JarEntry(Files.isDirectory(file) ? name + "/" : name));
+                if (Files.isRegularFile(file)) {
+                    Files.copy(file, out);
+                }
+                out.closeEntry();
+            }
+        }
+
+        try (RecordingClassLoader classLoader = new RecordingClassLoader(jar.toUri().toURL(), mainClassesRoot())) {
+            SimpleBeanDefinitionRegistry registry = new SimpleBeanDefinitionRegistry();
+            new ClassPathBeanDefinitionScanner(registry, classLoader).scan(BASE_PACKAGE);
+            assertEquals(EXPECTED_BEAN_NAMES, new HashSet<>(Arrays.asList(registry.getBeanDefinitionNames())));
+        }
+
+        try (RecordingClassLoader classLoader = new RecordingClassLoader(testClassesRoot(), jar.toUri().toURL(), mainClassesRoot())) {
+            SimpleBeanDefinitionRegistry registry = new SimpleBeanDefinitionRegistry();
+            assertEquals(4, new ClassPathBeanDefinitionScanner(registry, classLoader).scan(BASE_PACKAGE));
+        }
+    }
+
+    /**
+     * 测试存在组件索引时只使用索引中的类
+     */
+    @Test
+    public void testComponentsIndex() throws Exception {
+        Path indexRoot = tempDir.resolve("index");
+        Path indexFile = indexRoot.resolve(CandidateComponentsIndex.COMPONENTS_RESOURCE_LOCATION);
+        Files.createDirectories(indexFile.getParent());
+        Files.write(indexFile, (BASE_PACKAGE + ".ScannedComponent=" + Component.class.getName() + "\n"
+                + BASE_PACKAGE + ".PlainClass=" + Component.class.getName() + "\n"
+                + "com.other.Missing=" + Component.class.getName() + "\n").getBytes(StandardCharsets.ISO_8859_1));
+
+        try (RecordingClassLoader classLoader = new RecordingClassLoader(indexRoot.toUri().toURL(), testClassesRoot(), mainClassesRoot())) {
+            SimpleBeanDefinitionRegistry registry = new SimpleBeanDefinitionRegistry();
+            new ClassPathBeanDefinitionScanner(registry, classLoader).scan(BASE_PACKAGE);
+            // 索引中的非组件类被过滤，不在索引中的组件不会被扫描到
+            assertArrayEquals(new String[]{"scannedComponent"}, registry.getBeanDefinitionNames());
+
+            SimpleBeanDefinitionRegistry scanned = new SimpleBeanDefinitionRegistry();
+            ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(scanned, classLoader);
+            scanner.setUseIndex(false);
+            scanner.scan(BASE_PACKAGE);
+            assertEquals(EXPECTED_BEAN_NAMES, new HashSet<>(Arrays.asList(scanned.getBeanDefinitionNames())));
+        }
+    }
+
+    /**
+     * 测试生成组件索引
+     */
+    @Test
+    public void testWriteIndex() throws Exception {
+        Path classesDir = Paths.get(testClassesRoot().toURI()).resolve(BASE_PACKAGE.replace('.', '/'));
+        Path indexFile = tempDir.resolve(CandidateComponentsIndex.COMPONENTS_RESOURCE_LOCATION);
+        int count = CandidateComponentsIndex.writeIndex(classesDir, indexFile, getClass().getClassLoader());
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(indexFile)) {
+            properties.load(inputStream);
+        }
+        assertEquals(4, count);
+        assertEquals(new HashSet<>(Arrays.asList(BASE_PACKAGE + ".ScannedComponent", BASE_PACKAGE + ".sub.NamedService",
+                        BASE_PACKAGE + ".MetaAnnotatedComponent", BASE_PACKAGE + ".OuterClass$NestedComponent")),
+                properties.stringPropertyNames());
+
+        CandidateComponentsIndex index;
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{tempDir.toUri().toURL()}, null)) {
+            index = CandidateComponentsIndex.load(classLoader);
+        }
+        List<String> subPackage = index.getCandidateTypes(BASE_PACKAGE + ".sub", Component.class.getName());
+        assertEquals(Arrays.asList(BASE_PACKAGE + ".sub.NamedService"), subPackage);
+    }
+
+    /**
+     * 测试扫描得到的Bean名称与已有定义冲突时报错
+     */
+    @Test
+    public void testBeanNameConflict() {
+        SimpleBeanDefinitionRegistry registry = new SimpleBeanDefinitionRegistry();
+        registry.registerBeanDefinition("scannedComponent", new BeanDefinition(Person.class));
+        ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(registry);
+        assertThrows(BeansException.class, () -> scanner.scan(BASE_PACKAGE));
+    }
+
+    /**
+     * 测试注解循环标注时，循环中途得到的结果不会被缓存
+     */
+    @Test
+    public void testCyclicStereotypes() throws Exception {
+        ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(new SimpleBeanDefinitionRegistry());
+        // 先从CyclicStereotype进入循环，RoutedStereotype在循环中途得到的false不能被缓存
+        assertTrue(scanner.isCandidateComponent(readMetadata(AlphaComponent.class)));
+        assertTrue(scanner.isCandidateComponent(readMetadata(BetaComponent.class)));
+
+        SimpleBeanDefinitionRegistry registry = new SimpleBeanDefinitionRegistry();
+        assertEquals(2, new ClassPathBeanDefinitionScanner(registry).scan("com.minispring.test.cyclic"));
+        assertEquals(new HashSet<>(Arrays.asList("alphaComponent", "betaComponent")),
+                new HashSet<>(Arrays.asList(registry.getBeanDefinitionNames())));
+    }
+
+    private static ClassMetadata readMetadata(Class<?> type) throws Exception {
+        try (InputStream inputStream = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+            return ClassMetadataReader.read(inputStream);
+        }
+    }
+
+    /**
+     * 测试无法解析的类文件被跳过，不影响其他类路径根和同一目录中的其他类
+     */
+    @Test
+    public void testUnreadableClassFileSkipped() throws Exception {
+        Path brokenRoot = tempDir.resolve("broken");
+        Path packageDir = brokenRoot.resolve(BASE_PACKAGE.replace('.', '/'));
+        Files.createDirectories(packageDir);
+        Files.write(packageDir.resolve("Broken.class"), "not a class file".getBytes(StandardCharsets.UTF_8));
+        Files.write(packageDir.resolve("Truncated.class"), new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0});
+
+        try (RecordingClassLoader classLoader = new RecordingClassLoader(brokenRoot.toUri().toURL(), testClassesRoot(), mainClassesRoot())) {
+            SimpleBeanDefinitionRegistry registry = new SimpleBeanDefinitionRegistry();
+            assertEquals(4, new ClassPathBeanDefinitionScanner(registry, classLoader).scan(BASE_PACKAGE));
+            assertEquals(EXPECTED_BEAN_NAMES, new HashSet<>(Arrays.asList(registry.getBeanDefinitionNames())));
+        }
+    }
+
+    /**
+     * 测试多个类路径根在扫描器自己的有界线程池中扫描，不占用公共线程池
+     */
+    @Test
+    public void testScansRootsOnDedicatedBoundedPool() throws Exception {
+        Path emptyRoot = tempDir.resolve("empty");
+        Files.createDirectories(emptyRoot.resolve(BASE_PACKAGE.replace('.', '/')));
+        try (RecordingClassLoader classLoader = new RecordingClassLoader(emptyRoot.toUri().toURL(), testClassesRoot(), mainClassesRoot())) {
+            SimpleBeanDefinitionRegistry registry = new SimpleBeanDefinitionRegistry();
+            ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(registry, classLoader);
+            scanner.setParallelism(2);
+            assertEquals(4, scanner.scan(BASE_PACKAGE));
+
+            // 读取注解的class文件发生在扫描线程中
+            assertTrue(classLoader.resourceThreads.stream().anyMatch(name -> name.startsWith("component-scanner-")),
+                    classLoader.resourceThreads.toString());
+            assertTrue(classLoader.resourceThreads.stream().noneMatch(name -> name.contains("ForkJoinPool")),
+                    classLoader.resourceThreads.toString());
+        }
+    }
+
+    private URL testClassesRoot() {
+        return ComponentScanTest.class.getProtectionDomain().getCodeSource().getLocation();
+    }
+
+    private URL mainClassesRoot() {
+        return Component.class.getProtectionDomain().getCodeSource().getLocation();
+    }
+
+    /**
+     * 记录由自己定义的类，父加载器是平台类加载器，因此测试类和框架类都由它重新定义
+     */
+    private static class RecordingClassLoader extends URLClassLoader {
+
+        private final Set<String> loaded = ConcurrentHashMap.newKeySet();
+
+        private final Set<String> resourceThreads = ConcurrentHashMap.newKeySet();
+
+        RecordingClassLoader(URL... urls) {
+            super(urls, ClassLoader.getPlatformClassLoader());
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            loaded.add(name);
+            return super.findClass(name);
+        }
+
+        @Override
+        public URL getResource(String name) {
+            resourceThreads.add(Thread.currentThread().getName());
+            return super.getResource(name);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.minispring.test;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.PropertyValue;
+import com.minispring.beans.PropertyValues;
+import com.minispring.beans.factory.DisposableBean;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.BeanReference;
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.beans.factory.support.DefaultSingletonBeanRegistry;
+import com.minispring.beans.factory.support.DisposableBeanAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 单例Bean并发销毁测试
+ */
+public class DestroySingletonsTest {
+
+    private final List<String> destroyed = new CopyOnWriteArrayList<>();
+
+    private DisposableBean recording(String name) {
+        return () -> destroyed.add(name);
+    }
+
+    private DisposableBean sleeping(String name, long millis) {
+        return () -> {
+            Thread.sleep(millis);
+            destroyed.add(name);
+        };
+    }
+
+    /**
+     * 测试依赖方先于被依赖方销毁
+     */
+    @Test
+    public void testDependentsFirst() {
+        DefaultSingletonBeanRegistry registry = new DefaultSingletonBeanRegistry();
+        // 被依赖的Bean先注册，依赖方虽然很慢也要先销毁完
+        registry.registerDisposableBean("dataSource", recording("dataSource"));
+        registry.registerDisposableBean("repository", sleeping("repository", 50));
+        registry.registerDisposableBean("service", sleeping("service", 50));
+        registry.registerDependentBean("dataSource", "repository");
+        registry.registerDependentBean("repository", "service");
+
+        registry.destroySingletons();
+        assertEquals(List.of("service", "repository", "dataSource"), destroyed);
+    }
+
+    /**
+     * 测试互不依赖的Bean并发销毁
+     */
+    @Test
+    public void testIndependentBeansInParallel() {
+        DefaultSingletonBeanRegistry registry = new DefaultSingletonBeanRegistry();
+        registry.setDestroyParallelism(4);
+        CountDownLatch allStarted = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            String name = "pool" + i;
+            registry.registerDisposableBean(name, () -> {
+                allStarted.countDown();
+                // 只有四个Bean同时在销毁时才能通过
+                assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+                destroyed.add(name);
+            });
+        }
+        registry.destroySingletons();
+        assertEquals(4, destroyed.size());
+    }
+
+    /**
+     * 测试某个Bean失败或超时不影响其他Bean，全部处理完后统一抛出异常
+     */
+    @Test
+    public void testFailuresAndTimeoutsAreAggregated() {
+        DefaultSingletonBeanRegistry registry = new DefaultSingletonBeanRegistry();
+        registry.setDestroyTimeout(Duration.ofMillis(200));
+        registry.registerDisposableBean("executor", recording("executor"));
+        registry.registerDisposableBean("hanging", () -> Thread.sleep(60_000));
+        registry.registerDisposableBean("broken", () -> {
+            throw new IllegalStateException("flush失败");
+        });
+        registry.registerDisposableBean("cache", recording("cache"));
+        registry.registerDependentBean("executor", "hanging");
+
+        long start = System.nanoTime();
+        BeansException ex = assertThrows(BeansException.class, registry::destroySingletons);
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+
+        // 超时的Bean视为结束，被它依赖的Bean照常销毁
+        assertTrue(destroyed.containsAll(List.of("executor", "cache")));
+        assertTrue(ex.getMessage().contains("hanging") && ex.getMessage().contains("broken"));
+        assertEquals(1, ex.getSuppressed().length);
+        Throwable[] causes = {ex.getCause(), ex.getSuppressed()[0]};
+        assertTrue(causes[0] instanceof TimeoutException || causes[1] instanceof TimeoutException);
+        assertTrue(causes[0] instanceof IllegalStateException || causes[1] instanceof IllegalStateException);
+    }
+
+    /**
+     * 测试超时从Bean开始销毁时计算，排队等待的Bean不会被误判为超时；
+     * 超时后仍占着线程的销毁方法也不影响后面的Bean
+     */
+    @Test
+    public void testTimeoutStartsWhenDestroyRuns() {
+        DefaultSingletonBeanRegistry registry = new DefaultSingletonBeanRegistry();
+        registry.setDestroyParallelism(1);
+        registry.setDestroyTimeout(Duration.ofMillis(300));
+        registry.registerDisposableBean("first", sleeping("first", 150));
+        registry.registerDisposableBean("second", sleeping("second", 150));
+        registry.registerDisposableBean("third", sleeping("third", 150));
+        registry.destroySingletons();
+        assertEquals(List.of("third", "second", "first"), destroyed);
+
+        destroyed.clear();
+        registry.registerDisposableBean("after", recording("after"));
+        registry.registerDisposableBean("stuck", () -> {
+            while (true) {
+                // 忽略中断，一直占着线程
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        BeansException ex = assertThrows(BeansException.class, registry::destroySingletons);
+        assertTrue(ex.getCause() instanceof TimeoutException);
+        assertEquals(List.of("after"), destroyed);
+    }
+
+    /**
+     * 测试循环依赖的Bean也会被销毁
+     */
+    @Test
+    public void testCircularDependencies() {
+        DefaultSingletonBeanRegistry registry = new DefaultSingletonBeanRegistry();
+        registry.registerDisposableBean("a", recording("a"));
+        registry.registerDisposableBean("b", recording("b"));
+        registry.registerDependentBean("a", "b");
+        registry.registerDependentBean("b", "a");
+
+        registry.destroySingletons();
+        assertEquals(List.of("b", "a"), destroyed);
+    }
+
+    public static class Connection {
+        private final List<String> log;
+
+        public Connection(List<String> log) {
+            this.log = log;
+        }
+
+        public void close() {
+            log.add("connection");
+        }
+    }
+
+    public static class Client {
+        private Connection connection;
+        private List<String> log;
+
+        public void setConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        public void setLog(List<String> log) {
+            this.log = log;
+        }
+
+        public void shutdown() {
+            assertNotNull(connection);
+            log.add("client");
+        }
+    }
+
+    /**
+     * 测试属性注入的Bean引用被记录为依赖关系
+     */
+    @Test
+    public void testPropertyReferencesRecordDependencies() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("log", destroyed);
+        BeanDefinition connection = new BeanDefinition(Connection.class);
+        connection.setInstanceSupplier(() -> new Connection(destroyed));
+        connection.setDestroyMethodName("close");
+        beanFactory.registerBeanDefinition("connection", connection);
+
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("connection", new BeanReference("connection")));
+        propertyValues.addPropertyValue(new PropertyValue("log", new BeanReference("log")));
+        BeanDefinition client = new BeanDefinition(Client.class, propertyValues);
+        client.setDestroyMethodName("shutdown");
+        beanFactory.registerBeanDefinition("client", client);
+
+        // 注入connection时记录client依赖于它
+        beanFactory.getBean("connection");
+        beanFactory.getBean("client");
+        assertArrayEquals(new String[]{"client"}, beanFactory.getDependentBeans("connection"));
+
+        beanFactory.destroySingletons();
+        assertEquals(List.of("client", "connection"), destroyed);
+    }
+
+    /**
+     * 测试销毁方法在注册时解析，找不到时销毁时报错
+     */
+    @Test
+    public void testDestroyMethodResolvedAtRegistration() throws Exception {
+        Client client = new Client();
+        client.setConnection(new Connection(destroyed));
+        client.setLog(destroyed);
+        new DisposableBeanAdapter(client, "client", "shutdown").destroy();
+        assertEquals(List.of("client"), destroyed);
+
+        DisposableBeanAdapter missing = new DisposableBeanAdapter(client, "client", "stop");
+        BeansException ex = assertThrows(BeansException.class, missing::destroy);
+        assertTrue(ex.getMessage().contains("stop"));
+    }
+}
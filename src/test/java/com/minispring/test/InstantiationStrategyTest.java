@@ -1,17 +1,24 @@
 package com.minispring.test;
 
 import com.minispring.beans.BeanWrapper;
+import com.minispring.beans.BeansException;
 import com.minispring.beans.PropertyValue;
 import com.minispring.beans.PropertyValues;
 import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.LookupOverride;
+import com.minispring.beans.factory.config.MethodReplacer;
+import com.minispring.beans.factory.config.ReplaceOverride;
 import com.minispring.beans.factory.support.CglibSubclassingInstantiationStrategy;
 import com.minispring.beans.factory.support.DefaultListableBeanFactory;
 import com.minispring.beans.factory.support.InstantiationStrategy;
+import com.minispring.beans.factory.support.LambdaMetafactoryInstantiationStrategy;
 import com.minispring.beans.factory.support.SimpleInstantiationStrategy;
 import com.minispring.test.bean.TestBean;
 import org.junit.jupiter.api.Test;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -75,6 +82,186 @@ public class InstantiationStrategyTest {
         assertEquals("test", ((TestBean) bean2).getName());
         assertEquals(42, ((TestBean) bean2).getAge());
     }
+    /**
+     * 测试CGLIB实例化策略复用生成的子类
+     */
+    @Test
+    public void testCglibSubclassReusedAcrossInstances() throws Exception {
+        BeanDefinition beanDefinition = new BeanDefinition(TestBean.class);
+        beanDefinition.getMethodOverrides().addOverride(new LookupOverride("getChild", "child"));
+        InstantiationStrategy strategy = new CglibSubclassingInstantiationStrategy();
+
+        Object bean1 = strategy.instantiate(beanDefinition, "testBean", null, null);
+        Object bean2 = strategy.instantiate(beanDefinition, "testBean", null, null);
+        Constructor<?> ctor = TestBean.class.getDeclaredConstructor(String.class, int.class);
+        Object bean3 = strategy.instantiate(beanDefinition, "testBean", ctor, new Object[]{"reuse", 7});
+
+        assertNotSame(bean1, bean2);
+        assertNotSame(TestBean.class, bean1.getClass(), "配置了方法覆盖的Bean应使用CGLIB子类");
+        assertSame(bean1.getClass(), bean2.getClass(), "同一Bean类型应复用同一个CGLIB子类");
+        assertSame(bean1.getClass(), bean3.getClass());
+        assertEquals("reuse", ((TestBean) bean3).getName());
+        assertEquals(7, ((TestBean) bean3).getAge());
+    }
+
+    /**
+     * 测试子类缓存不持有创建过的Bean实例
+     */
+    @Test
+    public void testCglibSubclassCacheDoesNotRetainBeans() throws Exception {
+        BeanDefinition beanDefinition = new BeanDefinition(TestBean.class);
+        beanDefinition.getMethodOverrides().addOverride(new LookupOverride("getChild", "child"));
+        InstantiationStrategy strategy = new CglibSubclassingInstantiationStrategy();
+
+        WeakReference<Object> first = new WeakReference<>(strategy.instantiate(beanDefinition, "testBean", null, null));
+        for (int i = 0; i < 50 && first.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(first.get(), "第一个Bean实例不应被缓存为子类原型");
+        assertTrue(strategy.instantiate(beanDefinition, "testBean", null, null) instanceof TestBean);
+    }
+
+    /**
+     * 测试没有方法覆盖的Bean不会生成CGLIB子类
+     */
+    @Test
+    public void testNoSubclassWithoutMethodOverrides() throws Exception {
+        BeanDefinition beanDefinition = new BeanDefinition(TestBean.class);
+        InstantiationStrategy strategy = new CglibSubclassingInstantiationStrategy();
+
+        Object bean1 = strategy.instantiate(beanDefinition, "testBean", null, null);
+        Constructor<?> ctor = TestBean.class.getDeclaredConstructor(String.class, int.class);
+        Object bean2 = strategy.instantiate(beanDefinition, "testBean", ctor, new Object[]{"direct", 3});
+
+        assertSame(TestBean.class, bean1.getClass());
+        assertSame(TestBean.class, bean2.getClass());
+        assertEquals("direct", ((TestBean) bean2).getName());
+    }
+
+    /**
+     * 测试lookup-method和replaced-method方法注入
+     */
+    @Test
+    public void testMethodInjection() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition childDefinition = new BeanDefinition(TestBean.class);
+        childDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("child", childDefinition);
+        beanFactory.registerBeanDefinition("nameReplacer", new BeanDefinition(NameReplacer.class));
+
+        BeanDefinition parentDefinition = new BeanDefinition(TestBean.class);
+        parentDefinition.getMethodOverrides().addOverride(new LookupOverride("getChild", "child"));
+        parentDefinition.getMethodOverrides().addOverride(new ReplaceOverride("getName", "nameReplacer"));
+        beanFactory.registerBeanDefinition("parent", parentDefinition);
+
+        TestBean parent = (TestBean) beanFactory.getBean("parent");
+        TestBean child1 = parent.getChild();
+        TestBean child2 = parent.getChild();
+        assertNotNull(child1);
+        assertNotSame(child1, child2, "lookup-method每次调用都应从容器获取原型Bean");
+        assertSame(TestBean.class, child1.getClass(), "没有方法覆盖的Bean不应生成子类");
+        assertEquals("replaced", parent.getName());
+    }
+
+    /**
+     * 测试LambdaMetafactory实例化策略
+     */
+    @Test
+    public void testLambdaMetafactoryInstantiationStrategy() throws Exception {
+        BeanDefinition beanDefinition = new BeanDefinition(TestBean.class);
+        InstantiationStrategy strategy = new LambdaMetafactoryInstantiationStrategy();
+
+        Object bean1 = strategy.instantiate(beanDefinition, "testBean", null, null);
+        Object bean2 = strategy.instantiate(beanDefinition, "testBean", null, null);
+        assertSame(TestBean.class, bean1.getClass());
+        assertNotSame(bean1, bean2);
+
+        Constructor<?> ctor = TestBean.class.getDeclaredConstructor(String.class, int.class);
+        TestBean bean3 = (TestBean) strategy.instantiate(beanDefinition, "testBean", ctor, new Object[]{"lambda", 5});
+        assertEquals("lambda", bean3.getName());
+        assertEquals(5, bean3.getAge());
+
+        assertThrows(BeansException.class,
+                () -> strategy.instantiate(beanDefinition, "testBean", ctor, new Object[]{"lambda"}));
+    }
+
+    /**
+     * 测试通过setInstantiationStrategy启用LambdaMetafactory实例化策略，方法注入仍然可用
+     */
+    @Test
+    public void testLambdaMetafactoryStrategyInBeanFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setInstantiationStrategy(new LambdaMetafactoryInstantiationStrategy());
+        BeanDefinition childDefinition = new BeanDefinition(TestBean.class);
+        childDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("child", childDefinition);
+        BeanDefinition parentDefinition = new BeanDefinition(TestBean.class);
+        parentDefinition.getMethodOverrides().addOverride(new LookupOverride("getChild", "child"));
+        beanFactory.registerBeanDefinition("parent", parentDefinition);
+
+        TestBean child1 = (TestBean) beanFactory.getBean("child");
+        TestBean child2 = (TestBean) beanFactory.getBean("child");
+        assertNotSame(child1, child2);
+        assertSame(TestBean.class, child1.getClass());
+
+        TestBean parent = (TestBean) beanFactory.getBean("parent");
+        assertNotSame(TestBean.class, parent.getClass(), "方法覆盖仍然使用CGLIB子类");
+        assertNotNull(parent.getChild());
+    }
+
+    /**
+     * 测试LambdaMetafactory实例化策略为有参构造函数生成实例化函数，
+     * 支持非public构造函数、基本类型参数，并保留构造函数抛出的异常
+     */
+    @Test
+    public void testLambdaMetafactoryArgumentConstructors() throws Exception {
+        BeanDefinition beanDefinition = new BeanDefinition(Point.class);
+        InstantiationStrategy strategy = new LambdaMetafactoryInstantiationStrategy();
+        Constructor<?> ctor = Point.class.getDeclaredConstructor(int.class, long.class, String.class);
+
+        Point point = (Point) strategy.instantiate(beanDefinition, "point", ctor, new Object[]{1, 2L, "p"});
+        assertEquals(1, point.x);
+        assertEquals(2L, point.y);
+        assertEquals("p", point.label);
+        assertNotSame(point, strategy.instantiate(beanDefinition, "point", ctor, new Object[]{1, 2L, "p"}));
+
+        // 参数类型不匹配和构造函数抛出的异常都包装为BeansException
+        assertThrows(BeansException.class,
+                () -> strategy.instantiate(beanDefinition, "point", ctor, new Object[]{"1", 2L, "p"}));
+        BeansException ex = assertThrows(BeansException.class,
+                () -> strategy.instantiate(beanDefinition, "point", ctor, new Object[]{-1, 2L, "p"}));
+        assertTrue(ex.getCause() instanceof IllegalArgumentException);
+    }
+
+    /**
+     * 测试用的三参数Bean，构造函数不是public的
+     */
+    static class Point {
+        final int x;
+        final long y;
+        final String label;
+
+        private Point(int x, long y, String label) {
+            if (x < 0) {
+                throw new IllegalArgumentException("x不能为负数");
+            }
+            this.x = x;
+            this.y = y;
+            this.label = label;
+        }
+    }
+
+    /**
+     * 测试用的方法替换器
+     */
+    public static class NameReplacer implements MethodReplacer {
+        @Override
+        public Object reimplement(Object obj, Method method, Object[] args) {
+            return "replaced";
+        }
+    }
+
     /**
      * 测试类型转换和属性填充
      */
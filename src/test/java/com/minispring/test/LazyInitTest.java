@@ -0,0 +1,233 @@
+package com.minispring.test;
+
+import com.minispring.beans.PropertyValue;
+import com.minispring.beans.PropertyValues;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.BeanReference;
+import com.minispring.beans.factory.support.BeanDefinitionSnapshotCache;
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.beans.factory.xml.XmlBeanDefinitionReader;
+import com.minispring.context.support.FileSystemXmlApplicationContext;
+import com.minispring.core.io.FileSystemResource;
+import com.minispring.core.io.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 延迟初始化和延迟解析代理测试
+ */
+public class LazyInitTest {
+
+    @TempDir
+    Path tempDir;
+
+    public interface ReportService {
+        String generate(String name);
+    }
+
+    /**
+     * 创建成本很高、很少使用的服务
+     */
+    public static class ExpensiveReportService implements ReportService {
+
+        static final AtomicInteger CREATED = new AtomicInteger();
+
+        public ExpensiveReportService() {
+            CREATED.incrementAndGet();
+        }
+
+        @Override
+        public String generate(String name) {
+            return "report:" + name;
+        }
+    }
+
+    public static class CommandRunner {
+
+        static final AtomicInteger CREATED = new AtomicInteger();
+
+        private ReportService reportService;
+
+        public CommandRunner() {
+            CREATED.incrementAndGet();
+        }
+
+        public ReportService getReportService() {
+            return reportService;
+        }
+
+        public void setReportService(ReportService reportService) {
+            this.reportService = reportService;
+        }
+    }
+
+    /**
+     * 没有实现接口、也没有无参构造函数的服务，只能使用CGLIB代理
+     */
+    public static class AuditTrail {
+
+        static final AtomicInteger CREATED = new AtomicInteger();
+
+        private final String prefix;
+
+        public AuditTrail(String prefix) {
+            CREATED.incrementAndGet();
+            this.prefix = prefix;
+        }
+
+        public String record(String event) {
+            return prefix + event;
+        }
+    }
+
+    public static class AuditedRunner {
+
+        private AuditTrail auditTrail;
+
+        public AuditTrail getAuditTrail() {
+            return auditTrail;
+        }
+
+        public void setAuditTrail(AuditTrail auditTrail) {
+            this.auditTrail = auditTrail;
+        }
+    }
+
+    @BeforeEach
+    public void reset() {
+        AuditTrail.CREATED.set(0);
+        ExpensiveReportService.CREATED.set(0);
+        CommandRunner.CREATED.set(0);
+    }
+
+    private String writeXml(String rootAttributes, String beans) throws IOException {
+        Path xml = tempDir.resolve("lazy-beans.xml");
+        String content = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<beans" + rootAttributes + ">\n" + beans + "</beans>";
+        Files.write(xml, content.getBytes(StandardCharsets.UTF_8));
+        return xml.toString();
+    }
+
+    private static String bean(String id, Class<?> type, String attributes, String body) {
+        return "    <bean id=\"" + id + "\" class=\"" + type.getName() + "\"" + attributes + ">" + body + "</bean>\n";
+    }
+
+    /**
+     * 测试文档级默认值和Bean上的lazy-init
+     */
+    @Test
+    public void testDefaultLazyInit() throws IOException {
+        String xml = writeXml(" default-lazy-init=\"true\"",
+                bean("report", ExpensiveReportService.class, "", "")
+                        + bean("runner", CommandRunner.class, " lazy-init=\"false\"", ""));
+        FileSystemXmlApplicationContext context = new FileSystemXmlApplicationContext(xml);
+        assertEquals(0, ExpensiveReportService.CREATED.get());
+        assertEquals(1, CommandRunner.CREATED.get());
+
+        context.getBean("report");
+        context.getBean("report");
+        assertEquals(1, ExpensiveReportService.CREATED.get());
+        context.close();
+    }
+
+    /**
+     * 测试context命名空间的default-lazy-init属性装饰器
+     */
+    @Test
+    public void testContextNamespaceDefaultLazyInit() throws IOException {
+        String xml = writeXml(" xmlns:context=\"http://www.minispring.com/schema/context\" context:default-lazy-init=\"true\"",
+                bean("report", ExpensiveReportService.class, "", "")
+                        + bean("runner", CommandRunner.class, " lazy-init=\"false\"", ""));
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(new FileSystemResource(xml));
+        assertTrue(beanFactory.getBeanDefinition("report").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("runner").isLazyInit());
+
+        beanFactory.preInstantiateSingletons();
+        assertEquals(0, ExpensiveReportService.CREATED.get());
+        assertEquals(1, CommandRunner.CREATED.get());
+    }
+
+    /**
+     * 测试延迟引用注入代理，第一次调用方法时才创建被引用的Bean
+     */
+    @Test
+    public void testLazyResolutionProxy() throws IOException {
+        String xml = writeXml("",
+                bean("report", ExpensiveReportService.class, " lazy-init=\"true\"", "")
+                        + bean("runner", CommandRunner.class, "",
+                        "<property name=\"reportService\" ref=\"report\" lazy=\"true\"/>"));
+        FileSystemXmlApplicationContext context = new FileSystemXmlApplicationContext(xml);
+        CommandRunner runner = (CommandRunner) context.getBean("runner");
+        ReportService proxy = runner.getReportService();
+        assertNotNull(proxy);
+        assertFalse(proxy instanceof ExpensiveReportService);
+        assertEquals(0, ExpensiveReportService.CREATED.get());
+
+        assertEquals("report:daily", proxy.generate("daily"));
+        assertEquals("report:weekly", proxy.generate("weekly"));
+        assertEquals(1, ExpensiveReportService.CREATED.get());
+        assertEquals("report:monthly", ((ReportService) context.getBean("report")).generate("monthly"));
+        assertEquals(1, ExpensiveReportService.CREATED.get());
+        context.close();
+    }
+
+    /**
+     * 测试注入点是类时，CGLIB延迟代理不执行Bean类的构造函数
+     */
+    @Test
+    public void testLazyResolutionProxyForClass() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition audit = new BeanDefinition(AuditTrail.class);
+        audit.setInstanceSupplier(() -> new AuditTrail("audit:"));
+        audit.setLazyInit(true);
+        beanFactory.registerBeanDefinition("audit", audit);
+        PropertyValues propertyValues = new PropertyValues();
+        propertyValues.addPropertyValue(new PropertyValue("auditTrail", new BeanReference("audit", true)));
+        beanFactory.registerBeanDefinition("runner", new BeanDefinition(AuditedRunner.class, propertyValues));
+        beanFactory.registerBeanDefinition("anotherRunner", new BeanDefinition(AuditedRunner.class, propertyValues));
+
+        AuditTrail proxy = ((AuditedRunner) beanFactory.getBean("runner")).getAuditTrail();
+        AuditTrail another = ((AuditedRunner) beanFactory.getBean("anotherRunner")).getAuditTrail();
+        assertNotSame(AuditTrail.class, proxy.getClass());
+        assertSame(proxy.getClass(), another.getClass());
+        assertEquals(0, AuditTrail.CREATED.get());
+
+        assertEquals("audit:start", proxy.record("start"));
+        assertEquals("audit:stop", proxy.record("stop"));
+        assertEquals(1, AuditTrail.CREATED.get());
+    }
+
+    /**
+     * 测试延迟初始化和延迟引用写入快照后保持不变
+     */
+    @Test
+    public void testSnapshotKeepsLazySettings() throws IOException {
+        String xml = writeXml(" default-lazy-init=\"true\"",
+                bean("report", ExpensiveReportService.class, "", "")
+                        + bean("runner", CommandRunner.class, " lazy-init=\"false\"",
+                        "<property name=\"reportService\" ref=\"report\" lazy=\"true\"/>"));
+        Resource[] resources = {new FileSystemResource(xml)};
+        DefaultListableBeanFactory parsed = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(parsed).loadBeanDefinitions(resources);
+        BeanDefinitionSnapshotCache cache = new BeanDefinitionSnapshotCache(tempDir.resolve("beans.snapshot"));
+        assertTrue(cache.write(resources, parsed));
+
+        DefaultListableBeanFactory restored = new DefaultListableBeanFactory();
+        assertTrue(cache.load(resources, restored));
+        assertTrue(restored.getBeanDefinition("report").isLazyInit());
+        BeanDefinition runner = restored.getBeanDefinition("runner");
+        assertEquals(Boolean.FALSE, runner.getLazyInit());
+        BeanReference reference = (BeanReference) runner.getPropertyValues().getPropertyValue("reportService").get().getValue();
+        assertTrue(reference.isLazy());
+    }
+}
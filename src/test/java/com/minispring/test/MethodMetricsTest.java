@@ -0,0 +1,118 @@
+package com.minispring.test;
+
+import com.minispring.aop.framework.ProxyFactory;
+import com.minispring.aop.interceptor.LatencyHistogram;
+import com.minispring.aop.interceptor.MethodMetrics;
+import com.minispring.aop.interceptor.MethodMetricsAdvisor;
+import com.minispring.aop.interceptor.MethodMetricsRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 方法指标切面测试
+ */
+public class MethodMetricsTest {
+
+    /**
+     * 测试JDK动态代理下的调用次数和异常次数统计
+     */
+    @Test
+    public void testJdkProxyMetrics() throws Exception {
+        MethodMetricsAdvisor advisor = new MethodMetricsAdvisor();
+        ProxyFactory proxyFactory = new ProxyFactory(new Calculator());
+        proxyFactory.addAdvisor(advisor);
+        ICalculator proxy = (ICalculator) proxyFactory.getProxy();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i + 1, proxy.add(i, 1));
+        }
+        assertThrows(Exception.class, () -> proxy.divide(1, 0));
+
+        MethodMetricsRegistry registry = advisor.getRegistry();
+        MethodMetrics addMetrics = registry.getMetrics(Calculator.class.getMethod("add", int.class, int.class));
+        assertNotNull(addMetrics);
+        assertEquals(5, addMetrics.getCallCount());
+        assertEquals(0, addMetrics.getErrorCount());
+        assertEquals(5, addMetrics.getLatency().getTotalCount());
+
+        MethodMetrics divideMetrics = registry.getMetrics(Calculator.class.getMethod("divide", int.class, int.class));
+        assertEquals(1, divideMetrics.getCallCount());
+        assertEquals(1, divideMetrics.getErrorCount());
+
+        List<MethodMetrics> hottest = registry.getHottestMethods(1);
+        assertEquals(1, hottest.size());
+        assertSame(addMetrics, hottest.get(0));
+    }
+
+    /**
+     * 测试CGLIB代理下的指标统计
+     */
+    @Test
+    public void testCglibProxyMetrics() throws Exception {
+        MethodMetricsAdvisor advisor = new MethodMetricsAdvisor();
+        ProxyFactory proxyFactory = new ProxyFactory(new SlowService());
+        proxyFactory.addAdvisor(advisor);
+        SlowService proxy = (SlowService) proxyFactory.getProxy();
+
+        assertEquals("done", proxy.work(5));
+        assertEquals("done", proxy.work(0));
+
+        MethodMetrics metrics = advisor.getRegistry().getMetrics(SlowService.class.getMethod("work", long.class));
+        assertNotNull(metrics);
+        assertEquals(2, metrics.getCallCount());
+        assertTrue(metrics.getLatency().getMaxValue() >= 5_000_000L, "最大耗时应不少于5ms");
+        assertSame(metrics, advisor.getRegistry().getSlowestMethods(1, 100.0).get(0));
+    }
+
+    /**
+     * 测试直方图百分位计算的精度
+     */
+    @Test
+    public void testLatencyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(10_000, histogram.getTotalCount());
+        assertEquals(10_000_000L, histogram.getMaxValue());
+        assertEquals(5_000_500.0, histogram.getMean(), 0.001);
+
+        long p50 = histogram.getValueAtPercentile(50.0);
+        long p99 = histogram.getValueAtPercentile(99.0);
+        assertTrue(Math.abs(p50 - 5_000_000L) <= 5_000_000L * 0.04, "p50误差应在4%以内: " + p50);
+        assertTrue(Math.abs(p99 - 9_900_000L) <= 9_900_000L * 0.04, "p99误差应在4%以内: " + p99);
+        assertEquals(10_000_000L, histogram.getValueAtPercentile(100.0));
+
+        histogram.reset();
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getValueAtPercentile(99.0));
+    }
+
+    public interface ICalculator {
+        int add(int a, int b);
+
+        int divide(int a, int b);
+    }
+
+    static class Calculator implements ICalculator {
+        @Override
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        @Override
+        public int divide(int a, int b) {
+            return a / b;
+        }
+    }
+
+    static class SlowService {
+        public String work(long millis) throws InterruptedException {
+            Thread.sleep(millis);
+            return "done";
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.minispring.test;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.beans.factory.xml.DefaultDocumentLoader;
+import com.minispring.beans.factory.xml.DocumentLoader;
+import com.minispring.beans.factory.xml.XmlBeanDefinitionReader;
+import com.minispring.beans.factory.xml.XmlBeanDefinitionStoreException;
+import com.minispring.test.bean.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多个配置资源并行加载测试
+ */
+public class ParallelBeanDefinitionLoadingTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 测试并行加载时后声明的资源覆盖前面的同名定义，结果与顺序加载相同
+     */
+    @Test
+    public void testOverrideInDeclaredOrder() throws Exception {
+        String[] locations = new String[8];
+        for (int i = 0; i < locations.length; i++) {
+            // 每个文件都定义shared和自己独有的Bean
+            locations[i] = "file:" + writeXml("beans" + i + ".xml",
+                    bean("shared", "file" + i) + bean("person" + i, "p" + i)).toString();
+        }
+
+        DefaultListableBeanFactory parallel = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(parallel).loadBeanDefinitions(locations);
+
+        DefaultListableBeanFactory sequential = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader sequentialReader = new XmlBeanDefinitionReader(sequential);
+        sequentialReader.setParallelLoading(false);
+        sequentialReader.loadBeanDefinitions(locations);
+
+        String[] parallelNames = parallel.getBeanDefinitionNames();
+        String[] sequentialNames = sequential.getBeanDefinitionNames();
+        Arrays.sort(parallelNames);
+        Arrays.sort(sequentialNames);
+        assertArrayEquals(sequentialNames, parallelNames);
+        assertEquals(locations.length + 1, parallelNames.length);
+
+        assertEquals("file7", ((Person) parallel.getBean("shared")).getName());
+        assertEquals("file7", ((Person) sequential.getBean("shared")).getName());
+        assertEquals("p3", ((Person) parallel.getBean("person3")).getName());
+    }
+
+    /**
+     * 测试某个资源解析失败时，之前的资源已合并，之后的资源不会合并，与顺序加载一致
+     */
+    @Test
+    public void testFailureKeepsSequentialSemantics() throws Exception {
+        Path first = writeXml("first.xml", bean("first", "1"));
+        Path broken = tempDir.resolve("broken.xml");
+        Files.write(broken, "<beans><bean id=\"x\"".getBytes(StandardCharsets.UTF_8));
+        Path last = writeXml("last.xml", bean("last", "3"));
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        assertThrows(XmlBeanDefinitionStoreException.class,
+                () -> reader.loadBeanDefinitions("file:" + first, "file:" + broken, "file:" + last));
+
+        assertTrue(beanFactory.containsBeanDefinition("first"));
+        assertFalse(beanFactory.containsBeanDefinition("last"));
+    }
+
+    /**
+     * 测试并行加载时组件扫描在真实的注册表上注册，能发现与之前资源中Bean定义的名称冲突
+     */
+    @Test
+    public void testScanSeesEarlierResources() throws Exception {
+        Path first = writeXml("first.xml", bean("scannedComponent", "xml"));
+        Path scan = tempDir.resolve("scan.xml");
+        Files.write(scan, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<beans xmlns:context=\"http://www.minispring.com/schema/context\">\n"
+                + "    <context:component-scan base-package=\"com.minispring.test.scan\"/>\n"
+                + "</beans>").getBytes(StandardCharsets.UTF_8));
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        BeansException ex = assertThrows(BeansException.class,
+                () -> reader.loadBeanDefinitions("file:" + first, "file:" + scan));
+        assertTrue(ex.getMessage().contains("scannedComponent"), ex.getMessage());
+    }
+
+    /**
+     * 测试文档在专用线程池中解析，不占用公共ForkJoinPool，线程数不超过设置的并行度
+     */
+    @Test
+    public void testParsesOnDedicatedBoundedPool() throws Exception {
+        String[] locations = new String[6];
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = "file:" + writeXml("pool" + i + ".xml", bean("person" + i, "p" + i)).toString();
+        }
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        XmlBeanDefinitionReader reader = new XmlBeanDefinitionReader(beanFactory);
+        reader.setParallelism(2);
+        DocumentLoader documentLoader = new DefaultDocumentLoader();
+        reader.setDocumentLoader(inputStream -> {
+            threadNames.add(Thread.currentThread().getName());
+            return documentLoader.loadDocument(inputStream);
+        });
+        reader.loadBeanDefinitions(locations);
+
+        assertEquals(locations.length, beanFactory.getBeanDefinitionNames().length);
+        assertTrue(threadNames.size() <= 2, threadNames.toString());
+        for (String threadName : threadNames) {
+            assertTrue(threadName.startsWith("bean-definition-loader-"), threadName);
+        }
+    }
+
+    private Path writeXml(String fileName, String beans) throws Exception {
+        Path file = tempDir.resolve(fileName);
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<beans>\n" + beans + "</beans>";
+        Files.write(file, xml.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String bean(String id, String name) {
+        return "    <bean id=\"" + id + "\" class=\"com.minispring.test.bean.Person\">"
+                + "<property name=\"name\" value=\"" + name + "\"/></bean>\n";
+    }
+}
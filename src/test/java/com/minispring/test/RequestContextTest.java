@@ -0,0 +1,133 @@
+package com.minispring.test;
+
+import com.minispring.beans.BeansException;
+import com.minispring.web.request.context.RequestContext;
+import com.minispring.web.request.context.RequestContextExecutor;
+import com.minispring.web.request.context.RequestContextHolder;
+import com.minispring.web.request.context.RequestScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求上下文传播测试
+ */
+public class RequestContextTest {
+
+    private final RequestScope requestScope = new RequestScope();
+
+    @BeforeEach
+    public void resetContext() {
+        // 其他测试可能在当前线程上留下了请求上下文
+        RequestContextHolder.resetRequestContext();
+    }
+
+    @AfterEach
+    public void endRequest() {
+        requestScope.destroyRequestScope();
+    }
+
+    /**
+     * 测试请求拆分到线程池后，各线程使用同一个请求作用域的Bean
+     */
+    @Test
+    public void testPropagationAcrossExecutor() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            RequestContextExecutor executor = new RequestContextExecutor(pool);
+            RequestContext context = requestScope.startRequest();
+            AtomicInteger created = new AtomicInteger();
+            Object bean = requestScope.get("cart", () -> {
+                created.incrementAndGet();
+                return new Object();
+            });
+
+            List<CompletableFuture<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    assertSame(context, RequestContextHolder.getRequestContext());
+                    return requestScope.get("cart", () -> {
+                        created.incrementAndGet();
+                        return new Object();
+                    });
+                }, executor));
+            }
+            for (CompletableFuture<Object> future : futures) {
+                assertSame(bean, future.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, created.get());
+
+            // 任务结束后线程池中的线程不保留请求上下文
+            assertNull(CompletableFuture.supplyAsync(RequestContextHolder::getRequestContext, pool).get());
+            assertEquals("request-" + context.getId(), requestScope.getConversationId());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 测试请求结束时按注册的相反顺序执行销毁回调，并且只执行一次
+     */
+    @Test
+    public void testDeterministicCleanup() {
+        RequestContext context = requestScope.startRequest();
+        StringBuilder log = new StringBuilder();
+        requestScope.get("first", Object::new);
+        requestScope.registerDestructionCallback("first", () -> log.append("first;"));
+        requestScope.get("second", Object::new);
+        requestScope.registerDestructionCallback("second", () -> log.append("second;"));
+
+        requestScope.destroyRequestScope();
+        assertEquals("second;first;", log.toString());
+        assertNull(RequestContextHolder.getRequestContext());
+        context.destroy();
+        assertEquals("second;first;", log.toString());
+
+        // 结束后传播出去的任务不能再创建Bean，注册的回调立即执行
+        assertThrows(BeansException.class, () -> context.getBean("late", Object::new));
+        context.registerDestructionCallback("late", () -> log.append("late;"));
+        assertEquals("second;first;late;", log.toString());
+    }
+
+    /**
+     * 测试没有请求上下文时不会隐式开始请求，获取Bean和注册回调直接报错
+     */
+    @Test
+    public void testNoContextWithoutRequest() {
+        assertNull(requestScope.getConversationId());
+        assertNull(requestScope.remove("cart"));
+        assertThrows(IllegalStateException.class, () -> requestScope.get("cart", Object::new));
+        assertThrows(IllegalStateException.class, () -> requestScope.registerDestructionCallback("cart", () -> {
+        }));
+        assertNull(RequestContextHolder.getRequestContext());
+
+        requestScope.startRequest();
+        Object bean = requestScope.get("cart", Object::new);
+        assertSame(bean, requestScope.remove("cart"));
+    }
+
+    /**
+     * 测试runWithContext执行完成后恢复原来的上下文
+     */
+    @Test
+    public void testRunWithContextRestoresPrevious() {
+        RequestContext outer = requestScope.startRequest();
+        RequestContext inner = new RequestContext();
+        RequestContextHolder.runWithContext(inner, () -> assertSame(inner, RequestContextHolder.getRequestContext()));
+        assertSame(outer, RequestContextHolder.getRequestContext());
+        assertThrows(IllegalStateException.class, () -> RequestContextHolder.runWithContext(inner, () -> {
+            throw new IllegalStateException("任务失败");
+        }));
+        assertSame(outer, RequestContextHolder.getRequestContext());
+    }
+}
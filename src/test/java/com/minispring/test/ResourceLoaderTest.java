@@ -6,14 +6,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.BufferedReader;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -165,4 +172,71 @@ public class ResourceLoaderTest {
         Resource nonExistentResource = baseResource.createRelative("non-existent.txt");
         assertFalse(nonExistentResource.exists(), "不存在的资源应该返回false");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testFileChannelAndMappedBuffer() throws IOException {
+        Path filePath = tempDir.resolve("mapped.txt");
+        byte[] content = "Memory Mapped Resource".getBytes(StandardCharsets.UTF_8);
+        Files.write(filePath, content);
+
+        Resource resource = resourceLoader.getResource(filePath.toString());
+        assertTrue(resource.isFile());
+        assertEquals(content.length, resource.contentLength());
+        assertEquals(Files.getLastModifiedTime(filePath).toMillis(), resource.lastModified());
+        try (ReadableByteChannel channel = resource.readableChannel()) {
+            assertTrue(channel instanceof FileChannel);
+        }
+
+        // 文件资源使用内存映射，不复制到堆内存
+        ByteBuffer buffer = resource.asByteBuffer();
+        assertTrue(buffer instanceof MappedByteBuffer);
+        assertTrue(buffer.isReadOnly());
+        assertEquals("Memory Mapped Resource", StandardCharsets.UTF_8.decode(buffer).toString());
+
+        Resource missing = resourceLoader.getResource(tempDir.resolve("missing.txt").toString());
+        assertThrows(FileNotFoundException.class, missing::contentLength);
+        assertThrows(FileNotFoundException.class, missing::asByteBuffer);
+    }
+
+    @Test
+    void testClassPathResourceResolvesToFile() throws IOException {
+        Resource resource = resourceLoader.getResource("classpath:test.txt");
+        assertTrue(resource.isFile());
+        assertEquals(resourcesDir.resolve("test.txt").toFile().getCanonicalFile(), resource.getFile().getCanonicalFile());
+        assertEquals("Hello, MiniSpring!".length(), resource.contentLength());
+        assertTrue(resource.asByteBuffer() instanceof MappedByteBuffer);
+    }
+
+    @Test
+    void testClassPathResourceInJar() throws IOException {
+        Path jar = tempDir.resolve("resources.jar");
+        byte[] content = "Jar Entry Resource".getBytes(StandardCharsets.UTF_8);
+        long entryTime = 1_600_000_000_000L;
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            JarEntry entry = new JarEntry("config/data.txt");
+            entry.setTime(entryTime);
+            out.putNextEntry(entry);
+            out.write(content);
+            out.closeEntry();
+        }
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+            Resource resource = new ClassPathResource("config/data.txt", classLoader);
+            assertFalse(resource.isFile());
+            assertThrows(FileNotFoundException.class, resource::getFile);
+            assertEquals(content.length, resource.contentLength());
+            assertEquals(entryTime, resource.lastModified());
+
+            ByteBuffer buffer = resource.asByteBuffer();
+            assertTrue(buffer.isReadOnly());
+            assertEquals("Jar Entry Resource", StandardCharsets.UTF_8.decode(buffer).toString());
+
+            try (ReadableByteChannel channel = resource.readableChannel()) {
+                ByteBuffer read = ByteBuffer.allocate(64);
+                assertEquals(content.length, channel.read(read));
+            }
+
+            assertThrows(FileNotFoundException.class, () -> new ClassPathResource("config/missing.txt", classLoader).contentLength());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.minispring.test;
+
+import com.minispring.beans.factory.support.SimpleBeanDefinitionRegistry;
+import com.minispring.beans.factory.xml.XmlBeanDefinitionReader;
+import com.minispring.core.io.PathMatchingResourcePatternResolver;
+import com.minispring.core.io.Resource;
+import com.minispring.core.util.AntPathMatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 资源模式解析测试
+ */
+public class ResourcePatternResolverTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String beansXml(String beanId) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<beans>\n"
+                + "    <bean id=\"" + beanId + "\" class=\"com.minispring.test.bean.Person\"/>\n"
+                + "</beans>";
+    }
+
+    private void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path createJar(String entryName, String content) throws IOException {
+        Path jar = tempDir.resolve("module.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            // 与常规打包工具一样写入目录条目
+            out.putNextEntry(new JarEntry("META-INF/"));
+            out.closeEntry();
+            out.putNextEntry(new JarEntry(entryName));
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+            out.putNextEntry(new JarEntry("META-INF/readme.txt"));
+            out.closeEntry();
+        }
+        return jar;
+    }
+
+    private static String read(Resource resource) throws IOException {
+        try (InputStream inputStream = resource.getInputStream()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 测试Ant风格的路径匹配
+     */
+    @Test
+    public void testAntPathMatcher() {
+        AntPathMatcher matcher = new AntPathMatcher();
+        assertTrue(matcher.match("META-INF/*-beans.xml", "META-INF/order-beans.xml"));
+        assertFalse(matcher.match("META-INF/*-beans.xml", "META-INF/sub/order-beans.xml"));
+        assertTrue(matcher.match("**/*.xml", "a.xml"));
+        assertTrue(matcher.match("com/**/*.xml", "com/a/b/c.xml"));
+        assertTrue(matcher.match("com/**/c.xml", "com/c.xml"));
+        assertTrue(matcher.match("com/?/c.xml", "com/a/c.xml"));
+        assertFalse(matcher.match("com/?/c.xml", "com/ab/c.xml"));
+        assertFalse(matcher.match("com/*.xml", "com/a.xml.bak"));
+        assertTrue(matcher.match("a.b/*", "a.b/c"));
+        assertFalse(matcher.match("a.b/*", "axb/c"));
+
+        assertEquals("classpath*:META-INF/", matcher.determineRootDir("classpath*:META-INF/*-beans.xml"));
+        assertEquals("classpath*:", matcher.determineRootDir("classpath*:*.xml"));
+        assertEquals("file:/etc/app/", matcher.determineRootDir("file:/etc/app/**/*.xml"));
+    }
+
+    /**
+     * 测试在文件系统目录中按模式查找
+     */
+    @Test
+    public void testDirectoryPattern() throws IOException {
+        Path root = tempDir.resolve("config");
+        write(root.resolve("a/order-beans.xml"), beansXml("order"));
+        write(root.resolve("a/b/user-beans.xml"), beansXml("user"));
+        write(root.resolve("a/readme.txt"), "readme");
+
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Resource[] all = resolver.getResources("file:" + root + "/**/*-beans.xml");
+        assertEquals(2, all.length);
+        Resource[] direct = resolver.getResources(root + "/a/*-beans.xml");
+        assertEquals(1, direct.length);
+        assertTrue(direct[0].getDescription().contains("order-beans.xml"));
+
+        assertEquals(0, resolver.getResources(root + "/missing/*.xml").length);
+    }
+
+    /**
+     * 测试classpath*:在目录根和jar根中同时查找
+     */
+    @Test
+    public void testClasspathAllAcrossDirectoryAndJar() throws IOException {
+        Path dir = tempDir.resolve("classes");
+        write(dir.resolve("META-INF/order-beans.xml"), beansXml("order"));
+        Path jar = createJar("META-INF/user-beans.xml", beansXml("user"));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{dir.toUri().toURL(), jar.toUri().toURL()}, null)) {
+            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+            Resource[] resources = resolver.getResources("classpath*:META-INF/*-beans.xml");
+            assertEquals(2, resources.length);
+            // 结果按类路径根的顺序排列
+            assertTrue(read(resources[0]).contains("order"));
+            assertTrue(read(resources[1]).contains("user"));
+
+            assertEquals(2, resolver.getResources("classpath*:META-INF/").length);
+            assertEquals(1, resolver.getResources("classpath:META-INF/*-beans.xml").length);
+
+            // 通过XML读取器按模式加载所有模块的Bean定义
+            SimpleBeanDefinitionRegistry registry = new SimpleBeanDefinitionRegistry();
+            new XmlBeanDefinitionReader(registry, resolver).loadBeanDefinitions("classpath*:META-INF/*-beans.xml");
+            assertEquals(new HashSet<>(Arrays.asList("order", "user")),
+                    new HashSet<>(Arrays.asList(registry.getBeanDefinitionNames())));
+        }
+    }
+
+    /**
+     * 测试结果按模式缓存，清空缓存后重新遍历
+     */
+    @Test
+    public void testResultCache() throws IOException {
+        Path root = tempDir.resolve("cached");
+        write(root.resolve("one.xml"), beansXml("one"));
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        String pattern = root + "/*.xml";
+
+        Resource[] first = resolver.getResources(pattern);
+        assertEquals(1, first.length);
+        write(root.resolve("two.xml"), beansXml("two"));
+        Resource[] cached = resolver.getResources(pattern);
+        assertEquals(1, cached.length);
+        assertNotSame(first, cached);
+
+        resolver.clearCache();
+        List<String> names = Arrays.stream(resolver.getResources(pattern))
+                .map(Resource::getDescription).collect(Collectors.toList());
+        assertEquals(2, names.size());
+        assertTrue(names.get(0).contains("one.xml"));
+
+        resolver.setCacheEnabled(false);
+        write(root.resolve("three.xml"), beansXml("three"));
+        assertEquals(3, resolver.getResources(pattern).length);
+    }
+
+    /**
+     * 测试jar索引在jar变化后重建
+     */
+    @Test
+    public void testJarIndexRebuiltWhenJarChanges() throws Exception {
+        Path jar = createJar("META-INF/user-beans.xml", beansXml("user"));
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        resolver.setCacheEnabled(false);
+        String pattern = "jar:" + jar.toUri() + "!/META-INF/*.xml";
+        assertEquals(1, resolver.getResources(pattern).length);
+
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (String name : new String[]{"META-INF/", "META-INF/a-beans.xml", "META-INF/b-beans.xml", "META-INF/c-beans.xml"}) {
+                out.putNextEntry(new JarEntry(name));
+                out.closeEntry();
+            }
+        }
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        Set<String> descriptions = Arrays.stream(resolver.getResources(pattern))
+                .map(Resource::getDescription).collect(Collectors.toSet());
+        assertEquals(3, descriptions.size());
+    }
+
+    /**
+     * 测试jar索引属于解析器实例，clearCache时一并清空
+     */
+    @Test
+    public void testJarIndexScopedToResolver() throws Exception {
+        Path jar = createJar("META-INF/user-beans.xml", beansXml("user"));
+        FileTime lastModified = Files.getLastModifiedTime(jar);
+        long length = Files.size(jar);
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        resolver.setCacheEnabled(false);
+        String pattern = "jar:" + jar.toUri() + "!/META-INF/*-beans.xml";
+        assertTrue(resolver.getResources(pattern)[0].getDescription().contains("user-beans.xml"));
+
+        // 修改时间和大小都不变，已有的索引无法发现变化
+        createJar("META-INF/role-beans.xml", beansXml("user"));
+        Files.setLastModifiedTime(jar, lastModified);
+        assertEquals(length, Files.size(jar));
+        assertTrue(resolver.getResources(pattern)[0].getDescription().contains("user-beans.xml"));
+
+        // 新的解析器不共享旧的索引，clearCache后重建
+        assertTrue(new PathMatchingResourcePatternResolver().getResources(pattern)[0].getDescription().contains("role-beans.xml"));
+        resolver.clearCache();
+        assertTrue(resolver.getResources(pattern)[0].getDescription().contains("role-beans.xml"));
+    }
+}
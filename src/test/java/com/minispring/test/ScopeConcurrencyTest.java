@@ -0,0 +1,188 @@
+package com.minispring.test;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.ObjectFactory;
+import com.minispring.beans.factory.config.Scope;
+import com.minispring.beans.factory.config.ScopedObjectCache;
+import com.minispring.beans.factory.config.SingletonScope;
+import com.minispring.web.request.context.RequestContext;
+import com.minispring.web.request.context.RequestContextHolder;
+import com.minispring.web.request.context.RequestScope;
+import com.minispring.web.request.context.SessionScope;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 作用域并发获取测试，同名Bean并发获取时只创建一次
+ */
+public class ScopeConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private static final int ROUNDS = 50;
+
+    /**
+     * 所有线程同时开始获取，返回每个线程得到的对象
+     */
+    private static List<Object> getConcurrently(Scope scope, String name, AtomicInteger created) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                tasks.add(() -> {
+                    start.await();
+                    return scope.get(name, () -> {
+                        created.incrementAndGet();
+                        // 模拟初始化成本很高的Bean
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return new Object();
+                    });
+                });
+            }
+            List<Future<Object>> futures = new ArrayList<>();
+            for (Callable<Object> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertSingleFlight(Scope scope) throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            AtomicInteger created = new AtomicInteger();
+            List<Object> results = getConcurrently(scope, "bean" + round, created);
+            assertEquals(1, created.get(), "第" + round + "轮Bean被创建了多次");
+            for (Object result : results) {
+                assertSame(results.get(0), result);
+            }
+        }
+    }
+
+    @Test
+    public void testSingletonScope() throws Exception {
+        assertSingleFlight(new SingletonScope());
+    }
+
+    @Test
+    public void testSessionScope() throws Exception {
+        SessionScope sessionScope = new SessionScope();
+        try {
+            assertSingleFlight(sessionScope);
+            assertEquals(ROUNDS, sessionScope.getBeanCount());
+        } finally {
+            sessionScope.destroy();
+        }
+    }
+
+    /**
+     * 请求作用域按请求隔离，每个线程在自己的请求中各创建一次
+     */
+    @Test
+    public void testRequestScopeIsolatedPerThread() throws Exception {
+        RequestScope requestScope = new RequestScope();
+        // 每次获取都在一个新的请求上下文中进行，结束后解除绑定
+        Scope perRequest = new Scope() {
+            @Override
+            public Object get(String name, ObjectFactory<?> objectFactory) {
+                try {
+                    return RequestContextHolder.callWithContext(new RequestContext(), () -> requestScope.get(name, objectFactory));
+                } catch (Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+
+            @Override
+            public Object remove(String name) {
+                return requestScope.remove(name);
+            }
+
+            @Override
+            public void registerDestructionCallback(String name, Runnable callback) {
+                requestScope.registerDestructionCallback(name, callback);
+            }
+
+            @Override
+            public String getConversationId() {
+                return requestScope.getConversationId();
+            }
+        };
+        AtomicInteger created = new AtomicInteger();
+        List<Object> results = getConcurrently(perRequest, "bean", created);
+        assertEquals(THREADS, created.get());
+        assertEquals(THREADS, results.stream().distinct().count());
+    }
+
+    /**
+     * 测试创建失败时等待的线程得到同样的异常，之后可以重新创建
+     */
+    @Test
+    public void testFailedCreation() throws Exception {
+        ScopedObjectCache cache = new ScopedObjectCache();
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> first = executor.submit(() -> cache.get("bean", () -> {
+                creating.countDown();
+                try {
+                    fail.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new BeansException("初始化失败");
+            }));
+            assertTrue(creating.await(5, TimeUnit.SECONDS));
+            Future<Object> second = executor.submit(() -> cache.get("bean", () -> {
+                throw new IllegalStateException("不应该调用第二个工厂");
+            }));
+            // 等待第二个线程进入等待状态
+            Thread.sleep(50);
+            fail.countDown();
+
+            ExecutionException firstError = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            ExecutionException secondError = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertEquals("初始化失败", firstError.getCause().getMessage());
+            assertSame(firstError.getCause(), secondError.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        Object bean = cache.get("bean", Object::new);
+        assertSame(bean, cache.get("bean", Object::new));
+    }
+
+    /**
+     * 测试创建过程中再次获取同一个对象时报错而不是死锁
+     */
+    @Test
+    public void testReentrantCreation() {
+        ScopedObjectCache cache = new ScopedObjectCache();
+        BeansException ex = assertThrows(BeansException.class,
+                () -> cache.get("bean", () -> cache.get("bean", Object::new)));
+        assertTrue(ex.getMessage().contains("循环依赖"));
+        assertEquals(0, cache.size());
+    }
+}
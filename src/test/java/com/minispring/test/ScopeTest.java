@@ -2,11 +2,20 @@ package com.minispring.test;
 
 import com.minispring.beans.BeansException;
 import com.minispring.beans.factory.ObjectFactory;
+import com.minispring.beans.factory.config.BeanDefinition;
 import com.minispring.beans.factory.config.PrototypeScope;
 import com.minispring.beans.factory.config.SingletonScope;
 
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.web.request.context.RequestContext;
+import com.minispring.web.request.context.RequestContextHolder;
+import com.minispring.web.request.context.RequestScope;
+import com.minispring.web.request.context.SessionScope;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -97,10 +106,96 @@ public class ScopeTest {
     }
 
 
+    private static BeanDefinition scopedDefinition(String scope) {
+        BeanDefinition beanDefinition = new BeanDefinition(TestBean.class);
+        beanDefinition.setScope(scope);
+        beanDefinition.setDestroyMethodName("destroy");
+        return beanDefinition;
+    }
+
+    /**
+     * 测试getBean把请求作用域的Bean交给RequestScope管理，作用域结束时执行销毁方法
+     */
+    @Test
+    public void testRequestScopedBeanFromFactory() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        RequestScope requestScope = new RequestScope();
+        beanFactory.registerScope("request", requestScope);
+        beanFactory.registerBeanDefinition("requestBean", scopedDefinition("request"));
+
+        requestScope.startRequest();
+        TestBean first = (TestBean) beanFactory.getBean("requestBean");
+        assertSame(first, beanFactory.getBean("requestBean"), "同一个请求内应返回同一个对象实例");
+
+        // 其他线程是另一个请求
+        RequestContext otherRequest = new RequestContext();
+        TestBean other = CompletableFuture.supplyAsync(() -> {
+            try {
+                return RequestContextHolder.callWithContext(otherRequest, () -> (TestBean) beanFactory.getBean("requestBean"));
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        }).get();
+        assertNotSame(first, other);
+        otherRequest.destroy();
+        assertTrue(other.isDestroyed());
+
+        requestScope.destroyRequestScope();
+        assertTrue(first.isDestroyed(), "请求结束后Bean应该被销毁");
+        // 请求结束后不会隐式开始新的请求
+        assertThrows(IllegalStateException.class, () -> beanFactory.getBean("requestBean"));
+        requestScope.startRequest();
+        try {
+            assertNotSame(first, beanFactory.getBean("requestBean"), "新的请求应创建新的对象实例");
+        } finally {
+            requestScope.destroyRequestScope();
+        }
+    }
+
+    /**
+     * 测试会话作用域的Bean在每个会话中只创建一次
+     */
+    @Test
+    public void testSessionScopedBeanFromFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        SessionScope sessionScope = new SessionScope();
+        AtomicReference<String> sessionId = new AtomicReference<>("alice");
+        sessionScope.setSessionIdResolver(sessionId::get);
+        beanFactory.registerScope("session", sessionScope);
+        beanFactory.registerBeanDefinition("cart", scopedDefinition("session"));
+
+        TestBean aliceCart = (TestBean) beanFactory.getBean("cart");
+        assertSame(aliceCart, beanFactory.getBean("cart"));
+        sessionId.set("bob");
+        TestBean bobCart = (TestBean) beanFactory.getBean("cart");
+        assertNotSame(aliceCart, bobCart);
+
+        sessionScope.endSession("alice");
+        assertTrue(aliceCart.isDestroyed());
+        assertFalse(bobCart.isDestroyed());
+    }
+
+    /**
+     * 测试作用域没有注册时报错，注册新的作用域后重新解析
+     */
+    @Test
+    public void testUnregisteredScope() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("conversationBean", scopedDefinition("conversation"));
+        assertThrows(BeansException.class, () -> beanFactory.getBean("conversationBean"));
+
+        beanFactory.registerScope("conversation", new SingletonScope());
+        Object bean = beanFactory.getBean("conversationBean");
+        assertSame(bean, beanFactory.getBean("conversationBean"));
+
+        beanFactory.registerScope("conversation", new PrototypeScope());
+        assertNotSame(beanFactory.getBean("conversationBean"), beanFactory.getBean("conversationBean"));
+    }
+
     /**
      * 测试用的Bean类
      */
-    static class TestBean {
+    public static class TestBean {
         private boolean destroyed = false;
 
         public void destroy() {
@@ -0,0 +1,170 @@
+package com.minispring.test;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.ScopedProxyFactory;
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.web.request.context.RequestContextHolder;
+import com.minispring.web.request.context.RequestScope;
+import com.minispring.web.request.context.SessionScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 作用域代理测试
+ */
+public class ScopedProxyTest {
+
+    public interface Counter {
+        int increment();
+    }
+
+    public static class RequestCounter implements Counter {
+
+        static final AtomicInteger CREATED = new AtomicInteger();
+
+        private int count;
+
+        public RequestCounter() {
+            CREATED.incrementAndGet();
+        }
+
+        @Override
+        public int increment() {
+            return ++count;
+        }
+    }
+
+    /**
+     * 没有实现接口，使用CGLIB代理
+     */
+    public static class ShoppingCart {
+
+        private int items;
+
+        public int addItem() {
+            return ++items;
+        }
+
+        public void fail() {
+            throw new IllegalStateException("购物车已锁定");
+        }
+    }
+
+    @AfterEach
+    public void resetRequest() {
+        RequestContextHolder.resetRequestContext();
+    }
+
+    private static BeanDefinition scopedDefinition(Class<?> beanClass, String scope) {
+        BeanDefinition beanDefinition = new BeanDefinition(beanClass);
+        beanDefinition.setScope(scope);
+        return beanDefinition;
+    }
+
+    /**
+     * 测试创建代理时不创建目标Bean，每个请求使用自己的目标对象
+     */
+    @Test
+    public void testJdkScopedProxy() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        RequestScope requestScope = new RequestScope();
+        beanFactory.registerScope("request", requestScope);
+        BeanDefinition definition = scopedDefinition(RequestCounter.class, "request");
+        beanFactory.registerBeanDefinition("counter", definition);
+
+        RequestCounter.CREATED.set(0);
+        Counter proxy = (Counter) ScopedProxyFactory.createScopedProxy("counter", definition, beanFactory);
+        Counter another = (Counter) ScopedProxyFactory.createScopedProxy("counter", definition, beanFactory);
+        assertEquals(0, RequestCounter.CREATED.get());
+        // 代理类只生成一次
+        assertSame(proxy.getClass(), another.getClass());
+
+        requestScope.startRequest();
+        assertEquals(1, proxy.increment());
+        assertEquals(2, another.increment());
+        assertEquals(1, RequestCounter.CREATED.get());
+        requestScope.destroyRequestScope();
+
+        requestScope.startRequest();
+        assertEquals(1, proxy.increment());
+        assertEquals(2, RequestCounter.CREATED.get());
+        requestScope.destroyRequestScope();
+    }
+
+    /**
+     * 测试CGLIB代理按会话切换目标对象，并直接抛出目标方法的异常
+     */
+    @Test
+    public void testCglibScopedProxy() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        SessionScope sessionScope = new SessionScope();
+        AtomicReference<String> sessionId = new AtomicReference<>("alice");
+        sessionScope.setSessionIdResolver(sessionId::get);
+        beanFactory.registerScope("session", sessionScope);
+        BeanDefinition definition = scopedDefinition(ShoppingCart.class, "session");
+        beanFactory.registerBeanDefinition("cart", definition);
+        try {
+            ShoppingCart proxy = (ShoppingCart) ScopedProxyFactory.createScopedProxy("cart", definition, beanFactory);
+            assertSame(proxy.getClass(), ScopedProxyFactory.createScopedProxy("cart", definition, beanFactory).getClass());
+
+            assertEquals(1, proxy.addItem());
+            assertEquals(2, proxy.addItem());
+            sessionId.set("bob");
+            assertEquals(1, proxy.addItem());
+            sessionId.set("alice");
+            assertEquals(3, proxy.addItem());
+            // 通过代理和getBean拿到的是同一个目标对象
+            assertEquals(4, ((ShoppingCart) beanFactory.getBean("cart")).addItem());
+
+            IllegalStateException ex = assertThrows(IllegalStateException.class, proxy::fail);
+            assertEquals("购物车已锁定", ex.getMessage());
+        } finally {
+            sessionScope.destroy();
+        }
+    }
+
+    /**
+     * 测试作用域Bean的对象工厂可以复用，单例Bean没有对象工厂
+     */
+    @Test
+    public void testScopedObjectFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerScope("request", new RequestScope());
+        beanFactory.registerBeanDefinition("counter", scopedDefinition(RequestCounter.class, "request"));
+        beanFactory.registerBeanDefinition("singletonCounter", new BeanDefinition(RequestCounter.class));
+
+        assertSame(beanFactory.getScopedObjectFactory("counter"), beanFactory.getScopedObjectFactory("counter"));
+        assertThrows(BeansException.class, () -> beanFactory.getScopedObjectFactory("singletonCounter"));
+    }
+
+    /**
+     * 测试代理类缓存不阻止Bean类型的类加载器被回收
+     */
+    @Test
+    public void testProxyCacheReleasesClassLoader() throws Exception {
+        for (Class<?> beanClass : new Class<?>[]{RequestCounter.class, ShoppingCart.class}) {
+            WeakReference<ClassLoader> loaderRef = proxyInIsolatedClassLoader(beanClass);
+            for (int i = 0; i < 50 && loaderRef.get() != null; i++) {
+                System.gc();
+                Thread.sleep(20);
+            }
+            assertNull(loaderRef.get(), beanClass.getSimpleName() + "的代理类缓存不应持有它的类加载器");
+        }
+    }
+
+    private WeakReference<ClassLoader> proxyInIsolatedClassLoader(Class<?> beanClass) throws Exception {
+        ClassLoader loader = new AopTest.IsolatedClassLoader(beanClass.getName(), getClass().getClassLoader());
+        Class<?> isolatedClass = loader.loadClass(beanClass.getName());
+        assertNotSame(beanClass, isolatedClass);
+        Object proxy = ScopedProxyFactory.createScopedProxy(isolatedClass, "bean", "request", new DefaultListableBeanFactory());
+        assertSame(loader, proxy.getClass().getClassLoader());
+        return new WeakReference<>(loader);
+    }
+}
@@ -0,0 +1,159 @@
+package com.minispring.test;
+
+import com.minispring.web.request.context.SessionScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 会话作用域空闲过期和会话数上限测试
+ */
+public class SessionScopeTest {
+
+    private final SessionScope scope = new SessionScope();
+
+    private volatile String sessionId = "s1";
+
+    @AfterEach
+    public void destroyScope() {
+        scope.destroy();
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * 测试空闲超时的会话由清理线程销毁，销毁回调不在请求线程中执行
+     */
+    @Test
+    public void testIdleSessionExpires() throws InterruptedException {
+        scope.setMaxInactiveInterval(Duration.ofMillis(100));
+        scope.setSweepInterval(Duration.ofMillis(20));
+        scope.setSessionIdResolver(() -> sessionId);
+
+        Object bean = scope.get("cart", Object::new);
+        assertSame(bean, scope.get("cart", Object::new));
+        CountDownLatch destroyed = new CountDownLatch(1);
+        AtomicReference<String> callbackThread = new AtomicReference<>();
+        scope.registerDestructionCallback("cart", () -> {
+            callbackThread.set(Thread.currentThread().getName());
+            destroyed.countDown();
+        });
+        assertEquals(1, scope.getActiveSessionCount());
+        assertEquals(1, scope.getBeanCount());
+
+        assertTrue(destroyed.await(5, TimeUnit.SECONDS));
+        assertEquals("session-scope-sweeper", callbackThread.get());
+        waitUntil(() -> scope.getExpiredSessionCount() == 1 && scope.getBeanCount() == 0);
+        assertEquals(0, scope.getActiveSessionCount());
+
+        // 过期后再次访问得到新的会话和新的Bean
+        assertNotSame(bean, scope.get("cart", Object::new));
+    }
+
+    /**
+     * 测试持续访问的会话不会过期
+     */
+    @Test
+    public void testActiveSessionIsKept() throws InterruptedException {
+        scope.setMaxInactiveInterval(Duration.ofMillis(200));
+        scope.setSweepInterval(Duration.ofMillis(20));
+        scope.setSessionIdResolver(() -> sessionId);
+
+        Object bean = scope.get("cart", Object::new);
+        for (int i = 0; i < 20; i++) {
+            Thread.sleep(25);
+            assertSame(bean, scope.get("cart", Object::new));
+        }
+        assertEquals(0, scope.getExpiredSessionCount());
+    }
+
+    /**
+     * 测试会话数超过上限时淘汰最久未访问的会话
+     */
+    @Test
+    public void testMaxSessions() throws InterruptedException {
+        scope.setMaxSessions(10);
+        scope.setSessionIdResolver(() -> sessionId);
+        for (int i = 0; i < 11; i++) {
+            sessionId = "s" + i;
+            scope.get("cart", Object::new);
+            // 保证每个会话的最后访问时间不同
+            Thread.sleep(2);
+        }
+        waitUntil(() -> scope.getActiveSessionCount() <= 9);
+        assertEquals(9, scope.getActiveSessionCount());
+        assertEquals(2, scope.getEvictedSessionCount());
+        assertEquals(9, scope.getBeanCount());
+        // 最后创建的会话仍然保留
+        Object latest = scope.get("cart", () -> {
+            throw new IllegalStateException("会话不应被淘汰");
+        });
+        assertNotNull(latest);
+    }
+
+    /**
+     * 测试会话结束和作用域销毁时执行回调
+     */
+    @Test
+    public void testEndSessionAndDestroy() {
+        scope.setSessionIdResolver(() -> sessionId);
+        StringBuilder log = new StringBuilder();
+        scope.get("cart", Object::new);
+        scope.registerDestructionCallback("cart", () -> log.append("s1;"));
+        sessionId = "s2";
+        scope.get("cart", Object::new);
+        scope.registerDestructionCallback("cart", () -> log.append("s2;"));
+
+        scope.endSession("s1");
+        assertEquals("s1;", log.toString());
+        assertEquals(1, scope.getActiveSessionCount());
+
+        scope.destroy();
+        assertEquals("s1;s2;", log.toString());
+        assertEquals(0, scope.getActiveSessionCount());
+        assertEquals(0, scope.getBeanCount());
+    }
+
+    /**
+     * 测试会话在创建Bean期间被销毁时，创建过程中注册的回调立即执行，不会挂到新的会话上
+     */
+    @Test
+    public void testSessionDestroyedWhileCreatingBean() {
+        scope.setSessionIdResolver(() -> sessionId);
+        StringBuilder log = new StringBuilder();
+        Object bean = scope.get("cart", () -> {
+            Object created = new Object();
+            // 模拟清理线程在创建期间销毁了会话
+            scope.endSession("s1");
+            scope.registerDestructionCallback("cart", () -> log.append("destroyed;"));
+            return created;
+        });
+        assertNotNull(bean);
+        assertEquals("destroyed;", log.toString());
+        assertEquals(0, scope.getActiveSessionCount());
+        assertEquals(0, scope.getBeanCount());
+    }
+
+    /**
+     * 测试没有会话时注册回调报错，而不是创建新的会话
+     */
+    @Test
+    public void testRegisterCallbackWithoutSession() {
+        scope.setSessionIdResolver(() -> sessionId);
+        assertThrows(IllegalStateException.class, () -> scope.registerDestructionCallback("cart", () -> { }));
+        assertEquals(0, scope.getActiveSessionCount());
+    }
+}
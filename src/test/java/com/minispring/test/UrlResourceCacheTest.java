@@ -0,0 +1,260 @@
+package com.minispring.test;
+
+import com.minispring.core.io.UrlResource;
+import com.minispring.core.io.UrlResourceCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UrlResource的HTTP缓存测试
+ */
+public class UrlResourceCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+
+    private volatile String body = "version=1";
+
+    private volatile int etagVersion = 1;
+
+    private volatile int status = 200;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    private final AtomicInteger heads = new AtomicInteger();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/config.properties", this::handle);
+        server.createContext("/other.properties", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        boolean head = "HEAD".equals(exchange.getRequestMethod());
+        if (head) {
+            heads.incrementAndGet();
+        }
+        String etag = "\"v" + etagVersion + "\"";
+        if (status != 200) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT");
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (head) {
+            // HEAD响应只有头部，Content-Length是GET时内容的长度
+            exchange.getResponseHeaders().set("Content-Length", String.valueOf(bytes.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private URL url() throws IOException {
+        return url("/config.properties");
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private static UrlResourceCache memoryCache() {
+        UrlResourceCache cache = new UrlResourceCache();
+        cache.setMaxMemorySize(1024);
+        return cache;
+    }
+
+    private static String read(UrlResource resource) throws IOException {
+        try (InputStream inputStream = resource.getInputStream()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 测试再次访问时使用条件请求，资源没有变化时不重新下载
+     */
+    @Test
+    public void testConditionalGet() throws IOException {
+        UrlResource resource = new UrlResource(url(), memoryCache());
+        assertEquals("version=1", read(resource));
+        assertEquals(1, requests.get());
+        assertEquals(0, notModified.get());
+
+        assertEquals("version=1", read(resource));
+        assertEquals(9, resource.contentLength());
+        assertTrue(resource.lastModified() > 0);
+        // 默认ttl为0，每次访问都是一次条件请求，长度和修改时间使用HEAD请求
+        assertEquals(4, requests.get());
+        assertEquals(3, notModified.get());
+        assertEquals(2, heads.get());
+
+        // 资源变化后重新下载
+        body = "version=2";
+        etagVersion = 2;
+        assertEquals("version=2", read(resource));
+        assertEquals(5, requests.get());
+        assertEquals(3, notModified.get());
+    }
+
+    /**
+     * 测试新鲜期内不发请求
+     */
+    @Test
+    public void testTtl() throws IOException {
+        UrlResourceCache cache = memoryCache();
+        cache.setTtl(Duration.ofMinutes(1));
+        UrlResource resource = new UrlResource(url(), cache);
+        assertEquals("version=1", read(resource));
+        assertTrue(resource.exists());
+        ByteBuffer buffer = resource.asByteBuffer();
+        assertTrue(buffer.isReadOnly());
+        assertEquals(9, buffer.remaining());
+        assertEquals(1, requests.get());
+    }
+
+    /**
+     * 测试磁盘副本在新的缓存实例中仍可用于条件请求
+     */
+    @Test
+    public void testDiskCopy() throws IOException {
+        UrlResourceCache cache = new UrlResourceCache();
+        cache.setDirectory(tempDir);
+        assertEquals("version=1", read(new UrlResource(url(), cache)));
+
+        UrlResourceCache restarted = new UrlResourceCache();
+        restarted.setDirectory(tempDir);
+        UrlResource resource = new UrlResource(url(), restarted);
+        assertEquals("version=1", read(resource));
+        assertEquals(1, notModified.get());
+        assertEquals(9, resource.asByteBuffer().remaining());
+    }
+
+    /**
+     * 测试服务端出错时使用缓存副本，资源不存在时删除缓存
+     */
+    @Test
+    public void testServerErrors() throws IOException {
+        UrlResource resource = new UrlResource(url(), memoryCache());
+        assertEquals("version=1", read(resource));
+
+        status = 500;
+        assertEquals("version=1", read(resource));
+
+        status = 404;
+        assertFalse(resource.exists());
+        status = 500;
+        assertThrows(IOException.class, () -> read(resource));
+    }
+
+    /**
+     * 测试exists只发HEAD请求，不下载内容
+     */
+    @Test
+    public void testExistsUsesHead() throws IOException {
+        UrlResource resource = new UrlResource(url(), memoryCache());
+        assertTrue(resource.exists());
+        // 第二次HEAD带上了第一次得到的ETag
+        assertEquals(9, resource.contentLength());
+        assertEquals(2, requests.get());
+        assertEquals(2, heads.get());
+        assertEquals(1, notModified.get());
+
+        // HEAD只得到元数据，读取时下载内容，之后的HEAD仍是条件请求
+        assertEquals("version=1", read(resource));
+        assertTrue(resource.exists());
+        assertEquals(2, notModified.get());
+        assertEquals(3, heads.get());
+
+        status = 404;
+        assertFalse(new UrlResource(url("/other.properties"), memoryCache()).exists());
+    }
+
+    /**
+     * 测试默认不缓存，没有缓存目录且没有设置内存上限时内存中只保存元数据
+     */
+    @Test
+    public void testMetadataOnlyByDefault() throws IOException {
+        UrlResource uncached = new UrlResource(url());
+        assertEquals("version=1", read(uncached));
+        assertEquals("version=1", read(uncached));
+        assertEquals(2, requests.get());
+        assertEquals(0, notModified.get());
+
+        UrlResourceCache cache = new UrlResourceCache();
+        UrlResource resource = new UrlResource(url(), cache);
+        assertEquals("version=1", read(resource));
+        assertEquals(0, cache.getMemorySize());
+        // 没有内容可以还原，不发条件请求，直接重新下载
+        assertEquals("version=1", read(resource));
+        assertEquals(0, notModified.get());
+        // 元数据仍可用于条件HEAD请求
+        assertEquals(9, resource.contentLength());
+        assertEquals(1, notModified.get());
+    }
+
+    /**
+     * 测试内存中的内容按总字节数淘汰最久未访问的条目
+     */
+    @Test
+    public void testMemoryBoundedLru() throws IOException {
+        UrlResourceCache cache = new UrlResourceCache();
+        cache.setMaxMemorySize(12);
+        UrlResource config = new UrlResource(url(), cache);
+        UrlResource other = new UrlResource(url("/other.properties"), cache);
+        assertEquals("version=1", read(config));
+        assertEquals(9, cache.getMemorySize());
+        assertEquals("version=1", read(other));
+        assertEquals(9, cache.getMemorySize());
+
+        // config已被淘汰，重新下载；other还在内存中，只是一次条件请求
+        assertEquals("version=1", read(other));
+        assertEquals(1, notModified.get());
+        assertEquals("version=1", read(config));
+        assertEquals(1, notModified.get());
+        assertEquals(4, requests.get());
+
+        cache.setMaxMemorySize(0);
+        assertEquals(0, cache.getMemorySize());
+    }
+}
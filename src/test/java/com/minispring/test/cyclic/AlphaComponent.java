@@ -0,0 +1,8 @@
+package com.minispring.test.cyclic;
+
+/**
+ * 按类名排在前面，从CyclicStereotype开始检查循环
+ */
+@CyclicStereotype
+public class AlphaComponent {
+}
@@ -0,0 +1,8 @@
+package com.minispring.test.cyclic;
+
+/**
+ * 只标注了RoutedStereotype
+ */
+@RoutedStereotype
+public class BetaComponent {
+}
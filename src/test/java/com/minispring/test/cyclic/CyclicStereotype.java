@@ -0,0 +1,18 @@
+package com.minispring.test.cyclic;
+
+import com.minispring.stereotype.Component;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 与RoutedStereotype互相标注的构造型，先检查RoutedStereotype再检查Component
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@RoutedStereotype
+@Component
+public @interface CyclicStereotype {
+}
@@ -0,0 +1,15 @@
+package com.minispring.test.cyclic;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 只通过循环中的CyclicStereotype间接以Component为元注解
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@CyclicStereotype
+public @interface RoutedStereotype {
+}
@@ -0,0 +1,152 @@
+package com.minispring.test.environment;
+
+import com.minispring.beans.BeansException;
+import com.minispring.context.properties.BoundConfiguration;
+import com.minispring.context.properties.ConfigurationPropertiesBinder;
+import com.minispring.core.env.MapPropertySource;
+import com.minispring.core.env.StandardEnvironment;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 配置属性绑定测试
+ */
+public class ConfigurationPropertiesBinderTest {
+
+    public record PoolConfig(int maxSize, Duration idleTimeout) {
+    }
+
+    public record ServerConfig(String host, int port, Integer maxConnections, boolean secure,
+                               TimeUnit timeUnit, PoolConfig pool) {
+    }
+
+    public static class LegacyConfig {
+
+        public LegacyConfig() {
+        }
+
+        public LegacyConfig(String name) {
+        }
+    }
+
+    private StandardEnvironment environment(Map<String, Object> properties) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addLast(new MapPropertySource("test", properties, true));
+        return environment;
+    }
+
+    private Map<String, Object> serverProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.host", "localhost");
+        properties.put("server.port", "8080");
+        properties.put("server.max-connections", "200");
+        properties.put("server.secure", "yes");
+        properties.put("server.timeUnit", "seconds");
+        properties.put("server.pool.maxSize", "16");
+        properties.put("server.pool.idle-timeout", "30s");
+        return properties;
+    }
+
+    /**
+     * 测试绑定简单属性、短横线形式的属性名和嵌套前缀
+     */
+    @Test
+    public void testBindRecord() {
+        ConfigurationPropertiesBinder binder = new ConfigurationPropertiesBinder(environment(serverProperties()));
+        ServerConfig config = binder.bind("server", ServerConfig.class);
+
+        assertEquals("localhost", config.host());
+        assertEquals(8080, config.port());
+        assertEquals(200, config.maxConnections());
+        assertTrue(config.secure());
+        assertEquals(TimeUnit.SECONDS, config.timeUnit());
+        assertEquals(16, config.pool().maxSize());
+        assertEquals(Duration.ofSeconds(30), config.pool().idleTimeout());
+    }
+
+    /**
+     * 测试缺失的属性绑定为null或基本类型的默认值
+     */
+    @Test
+    public void testMissingProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.host", "example.com");
+        ServerConfig config = new ConfigurationPropertiesBinder(environment(properties)).bind("server", ServerConfig.class);
+
+        assertEquals("example.com", config.host());
+        assertEquals(0, config.port());
+        assertNull(config.maxConnections());
+        assertFalse(config.secure());
+        assertNotNull(config.pool());
+        assertNull(config.pool().idleTimeout());
+    }
+
+    /**
+     * 测试类型转换失败和无法绑定的配置类
+     */
+    @Test
+    public void testBindFailure() {
+        Map<String, Object> properties = serverProperties();
+        properties.put("server.port", "not-a-number");
+        ConfigurationPropertiesBinder binder = new ConfigurationPropertiesBinder(environment(properties));
+
+        BeansException e = assertThrows(BeansException.class, () -> binder.bind("server", ServerConfig.class));
+        assertTrue(e.getMessage().contains("server.port"));
+        assertThrows(BeansException.class, () -> binder.bind("legacy", LegacyConfig.class));
+    }
+
+    /**
+     * 测试属性源集合不变时返回同一个配置对象，变化后整体重新绑定
+     */
+    @Test
+    public void testRebindOnPropertySourcesChange() {
+        StandardEnvironment environment = environment(serverProperties());
+        BoundConfiguration<ServerConfig> bound = new ConfigurationPropertiesBinder(environment)
+                .bindTracked("server", ServerConfig.class);
+
+        ServerConfig first = bound.get();
+        assertSame(first, bound.get());
+        assertEquals(8080, first.port());
+
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("server.port", "9090");
+        overrides.put("server.pool.maxSize", "32");
+        environment.getPropertySources().addFirst(new MapPropertySource("overrides", overrides, true));
+
+        ServerConfig second = bound.get();
+        assertNotSame(first, second);
+        assertEquals(9090, second.port());
+        assertEquals(32, second.pool().maxSize());
+        assertEquals(environment.getPropertySources().getVersion(), bound.getVersion());
+        // 原来的配置对象不受影响
+        assertEquals(8080, first.port());
+    }
+
+    /**
+     * 测试重新绑定失败时继续使用原来的配置对象
+     */
+    @Test
+    public void testFailedRebindKeepsPreviousValue() {
+        StandardEnvironment environment = environment(serverProperties());
+        BoundConfiguration<ServerConfig> bound = new ConfigurationPropertiesBinder(environment)
+                .bindTracked("server", ServerConfig.class);
+        ServerConfig first = bound.get();
+
+        Map<String, Object> broken = new HashMap<>();
+        broken.put("server.port", "broken");
+        environment.getPropertySources().addFirst(new MapPropertySource("broken", broken, true));
+
+        assertSame(first, bound.get());
+        assertThrows(BeansException.class, bound::rebind);
+        assertSame(first, bound.get());
+
+        environment.getPropertySources().remove("broken");
+        assertEquals(8080, bound.get().port());
+    }
+}
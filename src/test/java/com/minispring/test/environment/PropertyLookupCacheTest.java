@@ -0,0 +1,183 @@
+package com.minispring.test.environment;
+
+import com.minispring.core.env.MapPropertySource;
+import com.minispring.core.env.MutablePropertySources;
+import com.minispring.core.env.PropertySource;
+import com.minispring.core.env.StandardEnvironment;
+import com.minispring.core.env.SystemEnvironmentPropertySource;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 属性查找缓存测试
+ */
+public class PropertyLookupCacheTest {
+
+    /**
+     * 测试修改属性源集合时版本号递增，名称索引同步更新
+     */
+    @Test
+    public void testVersionAndNameIndex() {
+        MutablePropertySources propertySources = new MutablePropertySources();
+        long version = propertySources.getVersion();
+
+        MapPropertySource first = new MapPropertySource("first", new HashMap<>());
+        propertySources.addLast(first);
+        assertTrue(propertySources.getVersion() > version);
+        assertSame(first, propertySources.get("first"));
+
+        version = propertySources.getVersion();
+        MapPropertySource replacement = new MapPropertySource("first", new HashMap<>());
+        propertySources.replace("first", replacement);
+        assertTrue(propertySources.getVersion() > version);
+        assertSame(replacement, propertySources.get("first"));
+
+        version = propertySources.getVersion();
+        propertySources.remove("first");
+        assertTrue(propertySources.getVersion() > version);
+        assertFalse(propertySources.contains("first"));
+        assertNull(propertySources.get("first"));
+    }
+
+    /**
+     * 测试不可变属性源中的结果被缓存，重复查找不再访问属性源
+     */
+    @Test
+    public void testImmutableSourceLookupIsCached() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("app.name", "mini-spring");
+        CountingPropertySource counting = new CountingPropertySource("counting", map, true);
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addLast(counting);
+
+        assertEquals("mini-spring", environment.getProperty("app.name"));
+        int lookups = counting.lookups.get();
+        for (int i = 0; i < 100; i++) {
+            assertEquals("mini-spring", environment.getProperty("app.name"));
+            assertTrue(environment.containsProperty("app.name"));
+        }
+        assertEquals(lookups, counting.lookups.get());
+
+        // 不存在的键同样被缓存
+        assertNull(environment.getProperty("app.missing"));
+        lookups = counting.lookups.get();
+        assertNull(environment.getProperty("app.missing"));
+        assertEquals(lookups, counting.lookups.get());
+    }
+
+    /**
+     * 测试可变属性源每次都重新查找，系统属性修改后立刻可见
+     */
+    @Test
+    public void testMutableSourcesAreAlwaysProbed() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("cache.test.key", "from-immutable");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addLast(new MapPropertySource("immutable", map, true));
+
+        assertEquals("from-immutable", environment.getProperty("cache.test.key"));
+        System.setProperty("cache.test.key", "from-system");
+        try {
+            assertEquals("from-system", environment.getProperty("cache.test.key"));
+        } finally {
+            System.clearProperty("cache.test.key");
+        }
+        assertEquals("from-immutable", environment.getProperty("cache.test.key"));
+
+        Map<String, Object> mutableMap = new HashMap<>();
+        CountingPropertySource mutable = new CountingPropertySource("mutable", mutableMap, false);
+        environment.getPropertySources().addLast(mutable);
+        assertNull(environment.getProperty("cache.test.mutable"));
+        mutableMap.put("cache.test.mutable", "added");
+        assertEquals("added", environment.getProperty("cache.test.mutable"));
+    }
+
+    /**
+     * 测试属性源集合变化后缓存失效
+     */
+    @Test
+    public void testCacheInvalidatedOnChange() {
+        Map<String, Object> low = new HashMap<>();
+        low.put("priority.key", "low");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addLast(new MapPropertySource("low", low, true));
+        assertEquals("low", environment.getProperty("priority.key"));
+
+        Map<String, Object> high = new HashMap<>();
+        high.put("priority.key", "high");
+        environment.getPropertySources().addFirst(new MapPropertySource("high", high, true));
+        assertEquals("high", environment.getProperty("priority.key"));
+
+        Map<String, Object> replaced = new HashMap<>();
+        replaced.put("priority.key", "replaced");
+        environment.getPropertySources().replace("high", new MapPropertySource("high", replaced, true));
+        assertEquals("replaced", environment.getProperty("priority.key"));
+
+        environment.getPropertySources().remove("high");
+        assertEquals("low", environment.getProperty("priority.key"));
+    }
+
+    /**
+     * 测试环境变量的宽松名称只解析一次
+     */
+    @Test
+    public void testRelaxedNameIndex() {
+        Map<String, Object> env = new HashMap<>();
+        env.put("DB_CONNECTION_URL", "jdbc:test");
+        AtomicInteger probes = new AtomicInteger();
+        Map<String, Object> counting = new HashMap<String, Object>(env) {
+            @Override
+            public boolean containsKey(Object key) {
+                probes.incrementAndGet();
+                return super.containsKey(key);
+            }
+        };
+        SystemEnvironmentPropertySource propertySource = new SystemEnvironmentPropertySource("env", counting);
+        assertTrue(propertySource.isImmutable());
+
+        assertEquals("jdbc:test", propertySource.getProperty("db.connection-url"));
+        int resolved = probes.get();
+        assertEquals("jdbc:test", propertySource.getProperty("db.connection-url"));
+        assertTrue(propertySource.containsProperty("db.connection-url"));
+        assertNull(propertySource.getProperty("db.missing"));
+        int missing = probes.get();
+        assertNull(propertySource.getProperty("db.missing"));
+        assertFalse(propertySource.containsProperty("db.missing"));
+
+        // 第二次查找直接命中索引，不再尝试各种格式
+        assertEquals(missing, probes.get());
+        assertTrue(missing - resolved <= 5);
+    }
+
+    /**
+     * 记录查找次数的属性源
+     */
+    private static class CountingPropertySource extends PropertySource<Map<String, Object>> {
+
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        private final boolean immutable;
+
+        CountingPropertySource(String name, Map<String, Object> source, boolean immutable) {
+            super(name, source);
+            this.immutable = immutable;
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            lookups.incrementAndGet();
+            return getSource().get(name);
+        }
+
+        @Override
+        public boolean isImmutable() {
+            return immutable;
+        }
+    }
+}
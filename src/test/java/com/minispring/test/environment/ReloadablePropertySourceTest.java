@@ -0,0 +1,135 @@
+package com.minispring.test.environment;
+
+import com.minispring.context.ApplicationEvent;
+import com.minispring.context.event.ApplicationListener;
+import com.minispring.context.event.PropertySourceChangedEvent;
+import com.minispring.context.properties.BoundConfiguration;
+import com.minispring.context.properties.ConfigurationPropertiesBinder;
+import com.minispring.context.support.FileSystemXmlApplicationContext;
+import com.minispring.core.env.ConfigurableEnvironment;
+import com.minispring.core.env.ReloadablePropertySource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 可重新加载的属性源测试
+ */
+public class ReloadablePropertySourceTest {
+
+    @TempDir
+    Path tempDir;
+
+    public record AppConfig(String name, int timeout) {
+    }
+
+    /**
+     * 记录属性源变化事件的监听器
+     */
+    public static class ChangeListener implements ApplicationListener<ApplicationEvent> {
+
+        private final BlockingQueue<PropertySourceChangedEvent> events = new ArrayBlockingQueue<>(16);
+
+        @Override
+        public void onApplicationEvent(ApplicationEvent event) {
+            if (event instanceof PropertySourceChangedEvent) {
+                events.offer((PropertySourceChangedEvent) event);
+            }
+        }
+    }
+
+    private void write(Path file, String content) throws Exception {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 测试重新加载时整体替换属性并返回变化的键
+     */
+    @Test
+    public void testReloadReturnsChangedKeys() throws Exception {
+        Path file = tempDir.resolve("app.properties");
+        write(file, "app.name=demo\napp.timeout=10\napp.removed=x\n");
+        try (ReloadablePropertySource propertySource = new ReloadablePropertySource("app", file)) {
+            assertEquals("demo", propertySource.getProperty("app.name"));
+            assertFalse(propertySource.isImmutable());
+
+            write(file, "app.name=demo\napp.timeout=20\napp.added=y\n");
+            assertEquals(new HashSet<>(Arrays.asList("app.timeout", "app.removed", "app.added")), propertySource.reload());
+            assertEquals("20", propertySource.getProperty("app.timeout"));
+            assertNull(propertySource.getProperty("app.removed"));
+            assertThrows(UnsupportedOperationException.class, () -> propertySource.getProperties().put("k", "v"));
+
+            assertTrue(propertySource.reload().isEmpty());
+        }
+    }
+
+    /**
+     * 测试解析按缩进嵌套的键值文件
+     */
+    @Test
+    public void testYamlFile() throws Exception {
+        Path file = tempDir.resolve("app.yml");
+        write(file, "# 应用配置\napp:\n  name: \"演示\"\n  pool:\n    size: 8 # 连接数\n  timeout: 10\nserver:\n  port: 8080\n");
+        try (ReloadablePropertySource propertySource = new ReloadablePropertySource("app", file)) {
+            assertEquals("演示", propertySource.getProperty("app.name"));
+            assertEquals("8", propertySource.getProperty("app.pool.size"));
+            assertEquals("10", propertySource.getProperty("app.timeout"));
+            assertEquals("8080", propertySource.getProperty("server.port"));
+            assertEquals(4, propertySource.getProperties().size());
+        }
+    }
+
+    /**
+     * 测试文件变化后通过上下文发布事件，Environment和绑定的配置对象随之更新
+     */
+    @Test
+    public void testWatchPublishesChangeEvent() throws Exception {
+        Path file = tempDir.resolve("watched.properties");
+        write(file, "app.name=first\napp.timeout=10\n");
+        Path xml = tempDir.resolve("reloadable.xml");
+        write(xml, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<beans>\n"
+                + "    <bean id=\"reloadableProperties\" class=\"com.minispring.context.support.ReloadablePropertySourceConfigurer\">\n"
+                + "        <property name=\"location\" value=\"file:" + file + "\"/>\n"
+                + "        <property name=\"name\" value=\"watched\"/>\n"
+                + "    </bean>\n"
+                + "    <bean id=\"changeListener\" class=\"" + ChangeListener.class.getName() + "\"/>\n"
+                + "</beans>");
+
+        FileSystemXmlApplicationContext context = new FileSystemXmlApplicationContext(xml.toString());
+        try {
+            ConfigurableEnvironment environment = (ConfigurableEnvironment) context.getEnvironment();
+            assertEquals("first", environment.getProperty("app.name"));
+            BoundConfiguration<AppConfig> config = new ConfigurationPropertiesBinder(environment)
+                    .bindTracked("app", AppConfig.class);
+            assertEquals(10, config.get().timeout());
+
+            // 先写临时文件再原子替换，监听线程不会读到写了一半的文件
+            Path temp = tempDir.resolve("watched.properties.tmp");
+            write(temp, "app.name=second\napp.timeout=10\n");
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            ChangeListener listener = (ChangeListener) context.getBean("changeListener");
+            PropertySourceChangedEvent event = listener.events.poll(30, TimeUnit.SECONDS);
+            assertNotNull(event, "没有收到属性源变化事件");
+            assertEquals("watched", event.getPropertySourceName());
+            assertEquals(Set.of("app.name"), event.getChangedKeys());
+
+            assertEquals("second", environment.getProperty("app.name"));
+            assertEquals("second", config.get().name());
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.minispring.test.scan;
+
+import com.minispring.stereotype.Component;
+
+/**
+ * 抽象类不会被注册
+ */
+@Component
+public abstract class AbstractComponent {
+}
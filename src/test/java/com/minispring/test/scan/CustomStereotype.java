@@ -0,0 +1,17 @@
+package com.minispring.test.scan;
+
+import com.minispring.stereotype.Repository;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 自定义构造型，通过Repository间接以Component为元注解
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Repository
+public @interface CustomStereotype {
+}
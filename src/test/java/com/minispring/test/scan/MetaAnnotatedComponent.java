@@ -0,0 +1,8 @@
+package com.minispring.test.scan;
+
+/**
+ * 通过多层元注解成为组件
+ */
+@CustomStereotype
+public class MetaAnnotatedComponent {
+}
@@ -0,0 +1,17 @@
+package com.minispring.test.scan;
+
+import com.minispring.stereotype.Component;
+
+/**
+ * 静态嵌套类可以作为组件，内部类不可以
+ */
+public class OuterClass {
+
+    @Component
+    public static class NestedComponent {
+    }
+
+    @Component
+    public class InnerComponent {
+    }
+}
@@ -0,0 +1,7 @@
+package com.minispring.test.scan;
+
+/**
+ * 没有构造型注解的类，扫描时不应被加载
+ */
+public class PlainClass {
+}
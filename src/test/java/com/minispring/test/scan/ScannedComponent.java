@@ -0,0 +1,10 @@
+package com.minispring.test.scan;
+
+import com.minispring.stereotype.Component;
+
+/**
+ * 直接标注Component的组件
+ */
+@Component
+public class ScannedComponent {
+}
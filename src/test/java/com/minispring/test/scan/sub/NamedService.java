@@ -0,0 +1,10 @@
+package com.minispring.test.scan.sub;
+
+import com.minispring.stereotype.Service;
+
+/**
+ * 子包中指定了Bean名称的服务组件
+ */
+@Service("customService")
+public class NamedService {
+}
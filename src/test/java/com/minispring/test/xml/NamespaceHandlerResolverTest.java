@@ -0,0 +1,139 @@
+package com.minispring.test.xml;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.support.BeanDefinitionRegistry;
+import com.minispring.beans.factory.xml.ContextNamespaceHandler;
+import com.minispring.beans.factory.xml.DefaultNamespaceHandlerResolver;
+import com.minispring.beans.factory.xml.NamespaceHandler;
+import com.minispring.core.io.ClassPathResource;
+import com.minispring.core.io.Resource;
+import org.dom4j.Element;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 命名空间处理器映射索引和类路径资源位置缓存测试
+ */
+public class NamespaceHandlerResolverTest {
+
+    private static final String CONTEXT_NS = "http://www.minispring.com/schema/context";
+
+    private static final String CUSTOM_NS = "http://www.minispring.com/schema/custom";
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 记录初始化次数的处理器
+     */
+    public static class CountingNamespaceHandler implements NamespaceHandler {
+
+        static final AtomicInteger INIT_COUNT = new AtomicInteger();
+
+        @Override
+        public void init() {
+            INIT_COUNT.incrementAndGet();
+        }
+
+        @Override
+        public void parse(Element element, BeanDefinitionRegistry registry) throws BeansException {
+        }
+
+        @Override
+        public void decorate(Element element, String attributeName, BeanDefinitionRegistry registry) throws BeansException {
+        }
+    }
+
+    private static String escape(String namespaceUri) {
+        return namespaceUri.replace(":", "\\:");
+    }
+
+    private Path createRoot(String name, String handlers) throws IOException {
+        Path root = tempDir.resolve(name);
+        Path file = root.resolve("META-INF/spring.handlers");
+        Files.createDirectories(file.getParent());
+        Files.write(file, handlers.getBytes(StandardCharsets.UTF_8));
+        return root;
+    }
+
+    /**
+     * 测试合并所有映射文件，索引在解析器实例间共享，处理器只初始化一次
+     */
+    @Test
+    public void testMergedHandlerMappings() throws Exception {
+        Path first = createRoot("first", escape(CONTEXT_NS) + "=" + ContextNamespaceHandler.class.getName() + "\n");
+        Path second = createRoot("second", escape(CUSTOM_NS) + "=" + CountingNamespaceHandler.class.getName() + "\n"
+                + escape(CONTEXT_NS) + "=" + CountingNamespaceHandler.class.getName() + "\n");
+
+        try (URLClassLoader classLoader = new URLClassLoader(
+                new URL[]{first.toUri().toURL(), second.toUri().toURL()}, getClass().getClassLoader())) {
+            DefaultNamespaceHandlerResolver resolver = new DefaultNamespaceHandlerResolver(
+                    classLoader, DefaultNamespaceHandlerResolver.DEFAULT_HANDLER_MAPPINGS_LOCATION);
+            // 类路径顺序中第一个映射优先
+            assertEquals(ContextNamespaceHandler.class.getName(), resolver.getHandlerMappings().get(CONTEXT_NS));
+            assertEquals(CountingNamespaceHandler.class.getName(), resolver.getHandlerMappings().get(CUSTOM_NS));
+            assertSame(resolver.getHandlerMappings(), new DefaultNamespaceHandlerResolver(
+                    classLoader, DefaultNamespaceHandlerResolver.DEFAULT_HANDLER_MAPPINGS_LOCATION).getHandlerMappings());
+            assertThrows(UnsupportedOperationException.class, () -> resolver.getHandlerMappings().put("x", "y"));
+
+            CountingNamespaceHandler.INIT_COUNT.set(0);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Callable<NamespaceHandler>> tasks = new ArrayList<>();
+                for (int i = 0; i < 32; i++) {
+                    tasks.add(() -> resolver.resolve(CUSTOM_NS));
+                }
+                NamespaceHandler expected = resolver.resolve(CUSTOM_NS);
+                for (Future<NamespaceHandler> future : executor.invokeAll(tasks)) {
+                    assertSame(expected, future.get());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            assertEquals(1, CountingNamespaceHandler.INIT_COUNT.get());
+            assertTrue(resolver.resolve(CONTEXT_NS) instanceof ContextNamespaceHandler);
+            assertNull(resolver.resolve("http://www.minispring.com/schema/unknown"));
+        }
+    }
+
+    /**
+     * 测试类路径资源位置按类加载器缓存
+     */
+    @Test
+    public void testClassPathResourceLocationCache() throws IOException {
+        Path root = tempDir.resolve("classes");
+        Files.createDirectories(root);
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{root.toUri().toURL()}, null)) {
+            Resource resource = new ClassPathResource("app.properties", classLoader);
+            assertFalse(resource.exists());
+
+            // 不存在的结果也被缓存，类路径变化后需要清空缓存
+            Files.write(root.resolve("app.properties"), "name=app".getBytes(StandardCharsets.UTF_8));
+            assertFalse(new ClassPathResource("app.properties", classLoader).exists());
+            ClassPathResource.clearCache();
+
+            Resource reloaded = new ClassPathResource("/app.properties", classLoader);
+            assertTrue(reloaded.exists());
+            try (InputStream inputStream = reloaded.getInputStream()) {
+                assertEquals("name=app", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
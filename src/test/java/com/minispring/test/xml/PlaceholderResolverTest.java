@@ -4,9 +4,13 @@ import com.minispring.beans.PropertyValues;
 import com.minispring.beans.factory.config.PropertyPlaceholderResolver;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -43,4 +47,64 @@ public class PlaceholderResolverTest {
 
     }
 
+    /**
+     * 测试嵌套占位符和属性值中的递归占位符
+     */
+    @Test
+    void testNestedAndRecursivePlaceholders() {
+        Properties properties = new Properties();
+        properties.setProperty("env", "prod");
+        properties.setProperty("db.prod.url", "jdbc:mysql://${db.host}:${db.port:3306}/app");
+        properties.setProperty("db.host", "10.0.0.1");
+        PropertyPlaceholderResolver resolver = new PropertyPlaceholderResolver(properties);
+
+        assertEquals("url=jdbc:mysql://10.0.0.1:3306/app", resolver.resolvePlaceholders("url=${db.${env}.url}"));
+        // 默认值本身也可以是占位符，默认值中的冒号不影响分隔
+        assertEquals("10.0.0.1", resolver.resolvePlaceholders("${missing:${db.host}}"));
+        assertEquals("a:b", resolver.resolvePlaceholders("${missing:a:b}"));
+        // 没有结束标记的部分原样保留
+        assertEquals("10.0.0.1 ${db.host", resolver.resolvePlaceholders("${db.host} ${db.host"));
+    }
+
+    /**
+     * 测试循环引用和不允许保留无法解析的占位符
+     */
+    @Test
+    void testCircularAndUnresolvablePlaceholders() {
+        Properties properties = new Properties();
+        properties.setProperty("a", "${b}");
+        properties.setProperty("b", "x${a}");
+        PropertyPlaceholderResolver resolver = new PropertyPlaceholderResolver(properties);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> resolver.resolvePlaceholders("${a}"));
+        assertTrue(e.getMessage().contains("循环引用"));
+
+        PropertyPlaceholderResolver strict = new PropertyPlaceholderResolver(new Properties());
+        strict.setIgnoreUnresolvablePlaceholders(false);
+        assertThrows(IllegalArgumentException.class, () -> strict.resolvePlaceholders("${hobby}"));
+    }
+
+    /**
+     * 测试属性值按键缓存，清空缓存后重新查找
+     */
+    @Test
+    void testResolvedValueCache() {
+        Map<String, String> source = new HashMap<>();
+        source.put("name", "张三");
+        AtomicInteger lookups = new AtomicInteger();
+        PropertyPlaceholderResolver resolver = new PropertyPlaceholderResolver(key -> {
+            lookups.incrementAndGet();
+            return source.get(key);
+        });
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Hello, 张三!", resolver.resolvePlaceholders("Hello, ${name}!"));
+        }
+        assertEquals(1, lookups.get());
+
+        source.put("name", "李四");
+        resolver.clearCache();
+        assertEquals("Hello, 李四!", resolver.resolvePlaceholders("Hello, ${name}!"));
+        assertEquals(2, lookups.get());
+    }
+
 }
@@ -0,0 +1,75 @@
+package com.minispring.test.xml;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.PropertyValue;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.context.support.ClassPathXmlApplicationContext;
+import com.minispring.context.support.PropertySourcesPlaceholderConfigurer;
+import com.minispring.core.env.StandardEnvironment;
+import com.minispring.test.bean.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * context:property-placeholder测试
+ */
+public class PropertyPlaceholderConfigurerTest {
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("address.level");
+        System.clearProperty("person.age");
+    }
+
+    /**
+     * 测试通过命名空间元素加载属性文件并替换Bean定义中的占位符
+     */
+    @Test
+    void testPropertyPlaceholderElement() {
+        ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("classpath:property-placeholder.xml");
+        Person person = (Person) context.getBean("person");
+        assertEquals("张三", person.getName());
+        assertEquals(30, person.getAge());
+        assertEquals("北京市", person.getAddress().getCity());
+        assertEquals("朝阳区", person.getAddress().getDistrict());
+        // ${address.${address.level:street}}，嵌套键使用默认值（属性文件中的值带有行尾空格）
+        assertEquals("建国路", person.getAddress().getStreet().trim());
+        context.close();
+    }
+
+    /**
+     * 测试Environment中的属性优先于属性文件
+     */
+    @Test
+    void testEnvironmentTakesPrecedence() {
+        System.setProperty("person.age", "40");
+        System.setProperty("address.level", "district");
+        ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("classpath:property-placeholder.xml");
+        Person person = (Person) context.getBean("person");
+        assertEquals(40, person.getAge());
+        assertEquals("朝阳区", person.getAddress().getStreet());
+        context.close();
+    }
+
+    /**
+     * 测试无法解析的占位符默认报错
+     */
+    @Test
+    void testUnresolvablePlaceholder() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition beanDefinition = new BeanDefinition(Person.class);
+        beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue("name", "${no.such.key}"));
+        beanFactory.registerBeanDefinition("person", beanDefinition);
+
+        PropertySourcesPlaceholderConfigurer configurer = new PropertySourcesPlaceholderConfigurer();
+        configurer.setEnvironment(new StandardEnvironment());
+        assertThrows(BeansException.class, () -> configurer.postProcessBeanFactory(beanFactory));
+
+        configurer.setIgnoreUnresolvablePlaceholders(true);
+        configurer.postProcessBeanFactory(beanFactory);
+        assertEquals("${no.such.key}", ((Person) beanFactory.getBean("person")).getName());
+    }
+}
@@ -0,0 +1,147 @@
+package com.minispring.test.xml;
+
+import com.minispring.beans.BeansException;
+import com.minispring.beans.PropertyValue;
+import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.factory.config.BeanReference;
+import com.minispring.beans.factory.support.BeanDefinitionRegistry;
+import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.beans.factory.xml.DefaultBeanDefinitionDocumentReader;
+import com.minispring.beans.factory.xml.NamespaceHandler;
+import com.minispring.beans.factory.xml.StaxXmlBeanDefinitionReader;
+import com.minispring.beans.factory.xml.XmlBeanDefinitionReader;
+import com.minispring.core.io.ClassPathResource;
+import com.minispring.core.io.FileSystemResource;
+import com.minispring.test.bean.Person;
+import org.dom4j.Element;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * StAX流式XML读取器测试
+ */
+public class StaxXmlBeanDefinitionReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * 测试流式读取与DOM读取得到相同的Bean定义
+     */
+    @Test
+    void testSameDefinitionsAsDomReader() {
+        DefaultListableBeanFactory domFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(domFactory).loadBeanDefinitions(new ClassPathResource("spring.xml"));
+        DefaultListableBeanFactory staxFactory = new DefaultListableBeanFactory();
+        new StaxXmlBeanDefinitionReader(staxFactory).loadBeanDefinitions(new ClassPathResource("spring.xml"));
+
+        String[] domNames = domFactory.getBeanDefinitionNames();
+        String[] staxNames = staxFactory.getBeanDefinitionNames();
+        Arrays.sort(domNames);
+        Arrays.sort(staxNames);
+        assertArrayEquals(domNames, staxNames);
+
+        for (String beanName : domNames) {
+            BeanDefinition expected = domFactory.getBeanDefinition(beanName);
+            BeanDefinition actual = staxFactory.getBeanDefinition(beanName);
+            assertSame(expected.getBeanClass(), actual.getBeanClass());
+            assertEquals(expected.getScope(), actual.getScope());
+            assertEquals(expected.getInitMethodName(), actual.getInitMethodName());
+            assertEquals(expected.getDestroyMethodName(), actual.getDestroyMethodName());
+            PropertyValue[] expectedValues = expected.getPropertyValues().getPropertyValues();
+            PropertyValue[] actualValues = actual.getPropertyValues().getPropertyValues();
+            assertEquals(expectedValues.length, actualValues.length);
+            for (int i = 0; i < expectedValues.length; i++) {
+                assertEquals(expectedValues[i].getName(), actualValues[i].getName());
+                Object expectedValue = expectedValues[i].getValue();
+                Object actualValue = actualValues[i].getValue();
+                if (expectedValue instanceof BeanReference) {
+                    assertEquals(((BeanReference) expectedValue).getBeanName(), ((BeanReference) actualValue).getBeanName());
+                } else {
+                    assertEquals(expectedValue, actualValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * 测试自定义命名空间的元素和属性仍然分派给命名空间处理器
+     */
+    @Test
+    void testNamespaceHandlerDispatch() throws Exception {
+        Path xml = tempDir.resolve("namespace.xml");
+        Files.write(xml, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<beans xmlns:test=\"http://www.minispring.com/schema/test\">\n"
+                + "    <!-- 注释 -->\n"
+                + "    <test:marker name=\"first\"><test:nested value=\"x\"/></test:marker>\n"
+                + "    <bean id=\"person\" class=\"com.minispring.test.bean.Person\" test:flag=\"on\">\n"
+                + "        <property name=\"name\" value=\"张三\"/>\n"
+                + "    </bean>\n"
+                + "    <test:marker name=\"second\"/>\n"
+                + "</beans>").getBytes(StandardCharsets.UTF_8));
+
+        RecordingNamespaceHandler handler = new RecordingNamespaceHandler();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        StaxXmlBeanDefinitionReader reader = new StaxXmlBeanDefinitionReader(beanFactory);
+        reader.setBeanDefinitionDocumentReader(new DefaultBeanDefinitionDocumentReader(
+                namespaceUri -> "http://www.minispring.com/schema/test".equals(namespaceUri) ? handler : null));
+        reader.loadBeanDefinitions(new FileSystemResource(xml.toFile()));
+
+        assertEquals(Arrays.asList("parse:first:1", "decorate:flag", "parse:second:0"), handler.calls);
+        assertSame(Person.class, beanFactory.getBeanDefinition("person").getBeanClass());
+        assertEquals("张三", ((Person) beanFactory.getBean("person")).getName());
+    }
+
+    /**
+     * 测试流式读取大量Bean定义
+     */
+    @Test
+    void testLargeFile() throws Exception {
+        int beanCount = 20000;
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<beans>\n");
+        for (int i = 0; i < beanCount; i++) {
+            xml.append("    <bean id=\"person").append(i).append("\" class=\"com.minispring.test.bean.Person\">")
+                    .append("<property name=\"name\" value=\"p").append(i).append("\"/></bean>\n");
+        }
+        xml.append("</beans>");
+        Path file = tempDir.resolve("large.xml");
+        Files.write(file, xml.toString().getBytes(StandardCharsets.UTF_8));
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new StaxXmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(new FileSystemResource(file.toFile()));
+        assertEquals(beanCount, beanFactory.getBeanDefinitionNames().length);
+        assertEquals("p19999", ((Person) beanFactory.getBean("person19999")).getName());
+    }
+
+    /**
+     * 记录调用顺序的命名空间处理器
+     */
+    private static class RecordingNamespaceHandler implements NamespaceHandler {
+
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public void parse(Element element, BeanDefinitionRegistry registry) throws BeansException {
+            assertNotNull(element.getParent(), "顶层元素应挂在根元素下");
+            calls.add("parse:" + element.attributeValue("name") + ":" + element.elements().size());
+        }
+
+        @Override
+        public void decorate(Element element, String attributeName, BeanDefinitionRegistry registry) throws BeansException {
+            calls.add("decorate:" + attributeName);
+        }
+    }
+}